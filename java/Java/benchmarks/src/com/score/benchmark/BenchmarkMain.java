@@ -0,0 +1,36 @@
+package com.score.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 基准测试入口：运行全部（或名称匹配参数正则的）基准测试，结果以JSON格式写入benchmarks/results目录
+ * 用法：java com.score.benchmark.BenchmarkMain [基准名正则]，例如 UserDaoBenchmark.login
+ * 两次运行的JSON可用JMH Visualizer等工具对比；需要完整的JMH命令行参数时直接运行org.openjdk.jmh.Main
+ */
+public class BenchmarkMain {
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : BenchmarkMain.class.getPackage().getName() + ".*";
+        File dir = new File(System.getProperty("score.bench.resultDir", "benchmarks/results"));
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IllegalStateException("无法创建结果目录：" + dir.getAbsolutePath());
+        }
+        String time = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        File result = new File(dir, "jmh-" + time + ".json");
+
+        Options options = new OptionsBuilder()
+                .include(include)
+                .resultFormat(ResultFormatType.JSON)
+                .result(result.getPath())
+                .build();
+        new Runner(options).run();
+        System.out.println("基准测试结果已写入：" + result.getAbsolutePath());
+    }
+}
\ No newline at end of file
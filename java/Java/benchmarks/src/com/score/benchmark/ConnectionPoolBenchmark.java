@@ -0,0 +1,70 @@
+package com.score.benchmark;
+
+import com.score.util.DBUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DBUtil连接借用/归还的基准测试（内置连接池 + 语句缓存）
+ * 多线程版本的线程数大于连接池默认容量，用于观察连接池在争用时的排队开销
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {EmbeddedDatabase.DRIVER_ARG, EmbeddedDatabase.URL_ARG,
+        EmbeddedDatabase.LOG_ARG, EmbeddedDatabase.CONSOLE_ARG, EmbeddedDatabase.METRICS_ARG})
+public class ConnectionPoolBenchmark {
+    private static final String SQL = "SELECT COUNT(*) FROM user_data WHERE id = ?";
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        EmbeddedDatabase.resetSchema();
+    }
+
+    @Benchmark
+    public Connection acquireRelease() throws SQLException {
+        try (Connection conn = DBUtil.getConnection()) {
+            return conn;
+        }
+    }
+
+    @Benchmark
+    @Threads(16)
+    public Connection acquireReleaseContended() throws SQLException {
+        try (Connection conn = DBUtil.getConnection()) {
+            return conn;
+        }
+    }
+
+    /**
+     * 借用连接 + 预编译（命中语句缓存）+ 执行一条按主键查询，即DAO方法的固定开销
+     */
+    @Benchmark
+    public long acquirePrepareExecute() throws SQLException {
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SQL)) {
+            stmt.setInt(1, 1);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : -1;
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,159 @@
+package com.score.benchmark;
+
+import com.score.dao.User;
+import com.score.entity.BatchResult;
+import com.score.entity.UserDao;
+import com.score.util.DBUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 嵌入式数据库（H2内存库，MySQL兼容模式），供基准测试和压测使用，不依赖本机MySQL
+ * DBUtil在类加载时读取连接配置，因此下面的系统属性必须在JVM启动时通过-D传入（JMH通过@Fork的jvmArgsAppend传入）
+ */
+public final class EmbeddedDatabase {
+    public static final String DRIVER_ARG = "-Dscore.db.driver=org.h2.Driver";
+    // DATABASE_TO_LOWER：表名/列名小写，与MySQL一致；IGNORECASE：字符串比较忽略大小写，与MySQL默认排序规则一致
+    public static final String URL_ARG = "-Dscore.db.url=jdbc:h2:mem:score;MODE=MySQL;DATABASE_TO_LOWER=TRUE;IGNORECASE=TRUE;DB_CLOSE_DELAY=-1";
+    // 密码哈希使用允许的最小迭代次数，使结果反映DAO本身的开销（生产环境的哈希成本由校准决定，单独评估）
+    public static final String HASH_ARG = "-Dscore.password.iterations=10000";
+    // 日志只记录警告以上，不输出到控制台，避免干扰JMH的输出
+    public static final String LOG_ARG = "-Dscore.log.level=WARN";
+    public static final String CONSOLE_ARG = "-Dscore.log.console=false";
+    // 关闭延迟指标的定期快照文件
+    public static final String METRICS_ARG = "-Dscore.metrics.snapshotMillis=0";
+
+    // 与UserSchema中的MySQL建表语句等价（去掉ENGINE/CHARSET等MySQL专有选项，索引单独创建）
+    private static final String[] DDL = {
+            "DROP TABLE IF EXISTS user_data",
+            "CREATE TABLE user_data (" +
+                    "id INT NOT NULL AUTO_INCREMENT, " +
+                    "name VARCHAR(50), " +
+                    "sex VARCHAR(10), " +
+                    "title VARCHAR(50), " +
+                    "tel VARCHAR(20), " +
+                    "email VARCHAR(100), " +
+                    "username VARCHAR(50) NOT NULL, " +
+                    "password VARCHAR(255) NOT NULL, " +
+                    "PRIMARY KEY (id), " +
+                    "CONSTRAINT uk_username UNIQUE (username))",
+            "CREATE INDEX idx_username_email_tel ON user_data (username, email, tel)"
+    };
+
+    private EmbeddedDatabase() {}
+
+    /**
+     * 在同一JVM内使用嵌入式数据库（压测工具使用）：把未通过-D指定的连接/日志属性设为默认值
+     * 必须在DBUtil、Log等类加载之前调用
+     */
+    public static void applyDefaults() {
+        for (String arg : new String[]{DRIVER_ARG, URL_ARG, LOG_ARG, CONSOLE_ARG, METRICS_ARG}) {
+            int eq = arg.indexOf('=');
+            String key = arg.substring(2, eq);
+            if (System.getProperty(key) == null) {
+                System.setProperty(key, arg.substring(eq + 1));
+            }
+        }
+    }
+
+    /**
+     * 当前配置的连接是否为嵌入式H2（非嵌入式时不允许重建表，避免误删真实数据）
+     */
+    public static boolean isEmbedded() {
+        return System.getProperty("score.db.url", "").startsWith("jdbc:h2:");
+    }
+
+    /**
+     * 重建user_data表（清空已有数据）
+     */
+    public static void resetSchema() throws SQLException {
+        try (Connection conn = DBUtil.getConnection();
+             Statement stmt = conn.createStatement()) {
+            for (String sql : DDL) {
+                stmt.execute(sql);
+            }
+        }
+    }
+
+    /**
+     * 批量写入编号为[0, count)的测试用户，全部成功时返回写入的用户（密码为明文，便于登录）
+     */
+    public static List<User> seedUsers(UserDao dao, int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(newUser(i));
+        }
+        for (int from = 0; from < count; from += 500) {
+            List<User> chunk = users.subList(from, Math.min(count, from + 500));
+            BatchResult result = dao.addUsers(new ArrayList<>(chunk));
+            if (result.getSuccessCount() != chunk.size()) {
+                throw new IllegalStateException("写入测试用户失败：成功" + result.getSuccessCount() + "/" + chunk.size());
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            users.get(i).setPassword(passwordOf(i));
+        }
+        return users;
+    }
+
+    /**
+     * 直接用JDBC批量写入编号为[from, from + count)的测试用户，所有用户使用同一个已哈希的密码
+     * 不经过DAO，避免为每个用户计算一次PBKDF2（大量用户时可节省数分钟）
+     */
+    public static void insertUsers(int from, int count, String storedPassword) throws SQLException {
+        String sql = "INSERT INTO user_data (name, sex, title, tel, email, username, password) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            conn.setAutoCommit(false);
+            try {
+                for (int i = from; i < from + count; i++) {
+                    User user = newUser(i);
+                    stmt.setString(1, user.getName());
+                    stmt.setString(2, user.getSex());
+                    stmt.setString(3, user.getTitle());
+                    stmt.setString(4, user.getTel());
+                    stmt.setString(5, user.getEmail());
+                    stmt.setString(6, user.getUsername());
+                    stmt.setString(7, storedPassword);
+                    stmt.addBatch();
+                    if ((i - from + 1) % 1000 == 0) {
+                        stmt.executeBatch();
+                    }
+                }
+                stmt.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * 编号为i的测试用户（用户名、邮箱、手机号均由编号确定，可重复生成）
+     */
+    public static User newUser(int i) {
+        User user = new User(usernameOf(i), passwordOf(i));
+        user.setName("测试用户" + i);
+        user.setSex(i % 2 == 0 ? "男" : "女");
+        user.setTitle("讲师");
+        user.setTel(String.format("138%08d", i % 100_000_000));
+        user.setEmail(usernameOf(i) + "@example.com");
+        return user;
+    }
+
+    public static String usernameOf(int i) {
+        return "bench" + i;
+    }
+
+    public static String passwordOf(int i) {
+        return "pwd" + i;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,35 @@
+package com.score.benchmark;
+
+import com.score.view.TeacherFeedbackSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 反馈编号生成的基准测试（UUID.randomUUID()使用共享的SecureRandom，多线程版本用于观察争用）
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FeedbackIdBenchmark {
+
+    @Benchmark
+    public String generateFeedbackId() {
+        return TeacherFeedbackSystem.generateFeedbackId();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String generateFeedbackIdContended() {
+        return TeacherFeedbackSystem.generateFeedbackId();
+    }
+}
\ No newline at end of file
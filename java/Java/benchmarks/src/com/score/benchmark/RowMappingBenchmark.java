@@ -0,0 +1,91 @@
+package com.score.benchmark;
+
+import com.score.dao.User;
+import com.score.dao.UserRowMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * User行映射的基准测试：生成的UserRowMapper（按列序号）与按列名读取的写法对比
+ * 使用内存中的ResultSet（固定一行数据），只测量映射本身，不含驱动解码和网络开销
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowMappingBenchmark {
+    private static final List<String> COLUMNS = Arrays.asList(UserRowMapper.COLUMNS.split(",\\s*"));
+    private static final Object[] ROW = {42, "张三", "男", "讲师", "13800138000", "zhangsan@example.com", "zhangsan",
+            "pbkdf2$100000$c2FsdHNhbHRzYWx0c2FsdA$aGFzaGhhc2hoYXNoaGFzaGhhc2hoYXNoaGFzaGhhc2g"};
+
+    private final ResultSet rs = singleRow();
+
+    @Benchmark
+    public User generatedMapper() throws SQLException {
+        return UserRowMapper.map(rs);
+    }
+
+    @Benchmark
+    public User generatedSummaryMapper() throws SQLException {
+        return UserRowMapper.mapSummary(rs);
+    }
+
+    /**
+     * 引入行映射器之前DAO中的写法：按列名逐个读取
+     */
+    @Benchmark
+    public User byColumnName() throws SQLException {
+        User user = new User();
+        user.setId(rs.getInt("id"));
+        user.setName(rs.getString("name"));
+        user.setSex(rs.getString("sex"));
+        user.setTitle(rs.getString("title"));
+        user.setTel(rs.getString("tel"));
+        user.setEmail(rs.getString("email"));
+        user.setUsername(rs.getString("username"));
+        user.setPassword(rs.getString("password"));
+        return user;
+    }
+
+    /**
+     * 只实现getInt/getString（按序号或列名）的单行ResultSet，列名查找与驱动一样按名称线性匹配（忽略大小写）
+     */
+    private static ResultSet singleRow() {
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (!"getInt".equals(name) && !"getString".equals(name)) {
+                        throw new UnsupportedOperationException(name);
+                    }
+                    return ROW[columnIndex(args[0]) - 1];
+                });
+    }
+
+    private static int columnIndex(Object column) {
+        if (column instanceof Integer) {
+            return (Integer) column;
+        }
+        for (int i = 0; i < COLUMNS.size(); i++) {
+            if (COLUMNS.get(i).equalsIgnoreCase((String) column)) {
+                return i + 1;
+            }
+        }
+        throw new IllegalArgumentException("未知的列：" + column);
+    }
+}
\ No newline at end of file
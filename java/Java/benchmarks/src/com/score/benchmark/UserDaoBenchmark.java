@@ -0,0 +1,179 @@
+package com.score.benchmark;
+
+import com.score.dao.User;
+import com.score.entity.BatchResult;
+import com.score.entity.UserDaoImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * UserDaoImpl各方法的基准测试（嵌入式H2，不经过缓存/限流等装饰器）
+ * 查询类方法随机选取已写入的用户；写入类方法成对执行（新增后删除），保证表中数据量在测量期间不变
+ * 登录/新增/重置密码包含一次PBKDF2计算（迭代次数见EmbeddedDatabase.HASH_ARG）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {EmbeddedDatabase.DRIVER_ARG, EmbeddedDatabase.URL_ARG, EmbeddedDatabase.HASH_ARG,
+        EmbeddedDatabase.LOG_ARG, EmbeddedDatabase.CONSOLE_ARG, EmbeddedDatabase.METRICS_ARG})
+public class UserDaoBenchmark {
+    // 批量方法每次处理的行数
+    private static final int BATCH_SIZE = 100;
+
+    // 表中预先写入的用户数
+    @Param({"1000", "10000"})
+    public int population;
+
+    private UserDaoImpl dao;
+    private List<User> seeded;
+    // 从数据库读回的用户（密码为哈希值，updateUser时不会重新哈希）
+    private List<User> stored;
+    // 新增类基准使用的用户编号，从population开始递增，不与预先写入的用户冲突
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        EmbeddedDatabase.resetSchema();
+        dao = new UserDaoImpl();
+        seeded = EmbeddedDatabase.seedUsers(dao, population);
+        stored = new ArrayList<>(population);
+        for (User user : seeded) {
+            stored.add(dao.getUserByUsername(user.getUsername()));
+        }
+        nextId.set(population);
+    }
+
+    /**
+     * 每个测量线程独立的随机数，避免线程间共享随机数生成器
+     */
+    @State(Scope.Thread)
+    public static class Picker {
+        private final SplittableRandom random = new SplittableRandom();
+
+        int next(int bound) {
+            return random.nextInt(bound);
+        }
+    }
+
+    @Benchmark
+    public User login(Picker picker) {
+        User user = seeded.get(picker.next(population));
+        return dao.login(user.getUsername(), user.getPassword());
+    }
+
+    @Benchmark
+    public User loginWrongPassword(Picker picker) {
+        return dao.login(seeded.get(picker.next(population)).getUsername(), "wrong");
+    }
+
+    @Benchmark
+    public User getUserByUsername(Picker picker) {
+        return dao.getUserByUsername(seeded.get(picker.next(population)).getUsername());
+    }
+
+    @Benchmark
+    public User getUserByUsernameAndEmail(Picker picker) {
+        User user = seeded.get(picker.next(population));
+        return dao.getUserByUsernameAndEmail(user.getUsername(), user.getEmail());
+    }
+
+    @Benchmark
+    public User getUserByUsernameEmailTel(Picker picker) {
+        User user = seeded.get(picker.next(population));
+        return dao.getUserByUsernameEmailTel(user.getUsername(), user.getEmail(), user.getTel());
+    }
+
+    @Benchmark
+    public boolean existsUsername(Picker picker) {
+        return dao.existsUsername(seeded.get(picker.next(population)).getUsername());
+    }
+
+    @Benchmark
+    public boolean existsUsernameMissing(Picker picker) {
+        return dao.existsUsername("missing" + picker.next(population));
+    }
+
+    @Benchmark
+    public boolean updateUser(Picker picker) {
+        return dao.updateUser(stored.get(picker.next(population)));
+    }
+
+    @Benchmark
+    public boolean resetPassword(Picker picker) {
+        int i = picker.next(population);
+        return dao.resetPassword(EmbeddedDatabase.usernameOf(i), EmbeddedDatabase.passwordOf(i));
+    }
+
+    @Benchmark
+    public boolean addUserThenDelete() {
+        User user = EmbeddedDatabase.newUser(nextId.getAndIncrement());
+        boolean added = dao.addUser(user);
+        return dao.deleteUser(user.getUsername()) && added;
+    }
+
+    @Benchmark
+    public void addUsersThenDelete(Blackhole bh) {
+        List<User> users = new ArrayList<>(BATCH_SIZE);
+        List<String> usernames = new ArrayList<>(BATCH_SIZE);
+        int from = nextId.getAndAdd(BATCH_SIZE);
+        for (int i = from; i < from + BATCH_SIZE; i++) {
+            User user = EmbeddedDatabase.newUser(i);
+            users.add(user);
+            usernames.add(user.getUsername());
+        }
+        bh.consume(dao.addUsers(users));
+        bh.consume(dao.deleteUsers(usernames));
+    }
+
+    @Benchmark
+    public BatchResult updateUsers(Picker picker) {
+        int from = picker.next(Math.max(1, population - BATCH_SIZE));
+        return dao.updateUsers(stored.subList(from, Math.min(population, from + BATCH_SIZE)));
+    }
+
+    @Benchmark
+    public List<User> listUsersPage(Picker picker) {
+        return dao.listUsers(picker.next(population), 50);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<User> listAllUsers() {
+        return dao.listAllUsers();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long streamAllUsers() {
+        try (Stream<User> users = dao.streamAllUsers()) {
+            return users.count();
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long forEachUsername(Blackhole bh) {
+        return dao.forEachUsername(bh::consume);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,60 @@
+package com.score.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * 手机号/邮箱格式校验的基准测试
+ * stringMatches为RegisterFrame、ForgetPwdFrame及UserDaoImpl.addUser中的写法（每次调用都重新编译正则），
+ * precompiled为UserDaoImpl批量方法中的写法（静态Pattern复用）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+    private static final String TEL_REGEX = "^\\d{11}$";
+    private static final String EMAIL_REGEX = "^[a-zA-Z0-9_-]+@[a-zA-Z0-9_-]+(\\.[a-zA-Z0-9_-]+)+$";
+    private static final Pattern TEL_PATTERN = Pattern.compile(TEL_REGEX);
+    private static final Pattern EMAIL_PATTERN = Pattern.compile(EMAIL_REGEX);
+
+    // 合法值与在末尾才失败的非法值
+    @Param({"13800138000", "1380013800a"})
+    public String tel;
+
+    @Param({"zhang_san@mail.example.com", "zhang_san@mail.example."})
+    public String email;
+
+    @Benchmark
+    public boolean telStringMatches() {
+        return tel.matches(TEL_REGEX);
+    }
+
+    @Benchmark
+    public boolean telPrecompiled() {
+        return TEL_PATTERN.matcher(tel).matches();
+    }
+
+    @Benchmark
+    public boolean emailStringMatches() {
+        return email.matches(EMAIL_REGEX);
+    }
+
+    @Benchmark
+    public boolean emailPrecompiled() {
+        return EMAIL_PATTERN.matcher(email).matches();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,415 @@
+package com.score.loadtest;
+
+import com.score.benchmark.EmbeddedDatabase;
+import com.score.dao.User;
+import com.score.entity.DaoFactory;
+import com.score.entity.UserDao;
+import com.score.entity.UserDaoImpl;
+import com.score.util.LatencyHistogram;
+import com.score.util.PasswordHasher;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 登录/注册压测工具（无界面，嵌入式H2，可离线运行）
+ * 开环负载：按设定的到达速率发起请求，每个请求在独立的虚拟线程中执行，
+ * 延迟从"计划发起时间"开始计算，系统变慢时排队时间也计入延迟（避免协调遗漏，p99不会被低估）
+ * 每个报告周期输出各操作的吞吐量、错误率和延迟百分位，结束时输出预热后的汇总分布
+ *
+ * 配置（系统属性）：
+ * score.load.rate              每秒请求数（默认200）
+ * score.load.arrival           到达方式：constant（匀速，默认）或poisson（泊松过程）
+ * score.load.durationSeconds   压测时长（默认60，含预热）
+ * score.load.warmupSeconds     预热时长，不计入最终汇总（默认10）
+ * score.load.population        预先写入的用户数（默认10000）
+ * score.load.mix               操作比例（默认login=70,addUser=5,getUserByUsernameAndEmail=20,resetPassword=5）
+ * score.load.reportSeconds     报告周期（默认5）
+ * score.load.maxInFlight       同时执行中的请求上限，超过后新请求直接计为拒绝（默认10000）
+ * score.load.stack             full：DaoFactory的完整装饰链（默认）；impl：只测UserDaoImpl
+ * score.load.out               按周期输出的CSV文件（默认不输出）
+ * 完整装饰链中的登录限流默认放宽到不影响压测，需要测量限流效果时通过score.throttle.*显式指定
+ */
+public class LoadGenerator {
+    // 所有压测用户使用同一个密码，只需计算一次哈希
+    private static final String PASSWORD = "load-test";
+    private static final double[] PERCENTILES = {50, 75, 90, 95, 99, 99.9, 99.99};
+
+    /**
+     * 压测的操作
+     */
+    enum Operation {
+        LOGIN("login"),
+        ADD_USER("addUser"),
+        GET_BY_USERNAME_AND_EMAIL("getUserByUsernameAndEmail"),
+        RESET_PASSWORD("resetPassword");
+
+        final String label;
+
+        Operation(String label) {
+            this.label = label;
+        }
+
+        static Operation of(String label) {
+            for (Operation op : values()) {
+                if (op.label.equalsIgnoreCase(label.trim())) {
+                    return op;
+                }
+            }
+            throw new IllegalArgumentException("未知的操作：" + label);
+        }
+    }
+
+    /**
+     * 单个操作的统计：延迟直方图（成功与失败都记录）+ 错误/拒绝计数
+     */
+    static final class OperationStats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder errors = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+        // 报告线程上次读取时的值
+        LatencyHistogram.Snapshot lastSnapshot = latency.snapshot();
+        long lastErrors;
+        long lastRejected;
+    }
+
+    private final double rate;
+    private final boolean poisson;
+    private final long durationNanos;
+    private final long warmupNanos;
+    private final int population;
+    private final long reportNanos;
+    private final int maxInFlight;
+    private final Operation[] opTable;   // 按比例展开的操作表，随机下标即按比例选择操作
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+    private final Map<String, LongAdder> errorTypes = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger nextUserId;
+    private UserDao dao;
+    private PrintWriter csv;
+    private long lastReportNanos;       // 上次报告时距开始的时间，只由发起线程访问
+
+    LoadGenerator() {
+        this.rate = Double.parseDouble(System.getProperty("score.load.rate", "200"));
+        this.poisson = "poisson".equalsIgnoreCase(System.getProperty("score.load.arrival", "constant"));
+        this.durationNanos = TimeUnit.SECONDS.toNanos(Long.getLong("score.load.durationSeconds", 60));
+        this.warmupNanos = TimeUnit.SECONDS.toNanos(Long.getLong("score.load.warmupSeconds", 10));
+        this.population = Integer.getInteger("score.load.population", 10_000);
+        this.reportNanos = TimeUnit.SECONDS.toNanos(Long.getLong("score.load.reportSeconds", 5));
+        this.maxInFlight = Integer.getInteger("score.load.maxInFlight", 10_000);
+        this.opTable = parseMix(System.getProperty("score.load.mix",
+                "login=70,addUser=5,getUserByUsernameAndEmail=20,resetPassword=5"));
+        if (rate <= 0 || durationNanos <= 0 || warmupNanos < 0 || warmupNanos >= durationNanos
+                || population <= 0 || reportNanos <= 0 || maxInFlight <= 0) {
+            throw new IllegalArgumentException("压测参数错误");
+        }
+        for (Operation op : Operation.values()) {
+            stats.put(op, new OperationStats());
+        }
+        this.nextUserId = new AtomicInteger(population);
+    }
+
+    public static void main(String[] args) throws Exception {
+        EmbeddedDatabase.applyDefaults();
+        // 放宽登录限流（DaoFactory加载时读取）
+        setDefault("score.throttle.userPerMinute", "1000000");
+        setDefault("score.throttle.userBurst", "1000000");
+        setDefault("score.throttle.globalPerSecond", "1000000");
+        setDefault("score.throttle.globalBurst", "1000000");
+        if (!EmbeddedDatabase.isEmbedded()) {
+            System.err.println("压测工具只能使用嵌入式数据库（会重建user_data表），当前score.db.url=" +
+                    System.getProperty("score.db.url"));
+            System.exit(2);
+        }
+        LoadGenerator generator = new LoadGenerator();
+        generator.prepare();
+        generator.run();
+        System.exit(0);
+    }
+
+    /**
+     * 重建表、写入压测用户，然后创建被测的DAO（用户名过滤器需要在写入用户之后构建）
+     */
+    void prepare() throws Exception {
+        PasswordHasher hasher = PasswordHasher.getDefault();
+        System.out.printf("准备数据：%d个用户，密码哈希迭代次数%d%n", population, hasher.getIterations());
+        long start = System.nanoTime();
+        EmbeddedDatabase.resetSchema();
+        EmbeddedDatabase.insertUsers(0, population, hasher.hash(PASSWORD));
+        if ("impl".equalsIgnoreCase(System.getProperty("score.load.stack", "full"))) {
+            dao = new UserDaoImpl();
+        } else {
+            dao = DaoFactory.getUserDao();
+            DaoFactory.getUsernameFilter().rebuild();
+        }
+        System.out.printf("准备完成，耗时%dms，被测DAO：%s%n",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), dao.getClass().getSimpleName());
+        String out = System.getProperty("score.load.out");
+        if (out != null) {
+            csv = new PrintWriter(new File(out), StandardCharsets.UTF_8);
+            csv.println("elapsedSeconds,operation,count,throughput,errors,rejected,p50Ms,p90Ms,p99Ms,p999Ms,maxMs");
+        }
+    }
+
+    /**
+     * 发起请求直到压测时长结束，等待执行中的请求完成后输出汇总
+     */
+    void run() {
+        System.out.printf("开始压测：%.0f次/秒（%s），时长%ds，预热%ds%n", rate, poisson ? "poisson" : "constant",
+                TimeUnit.NANOSECONDS.toSeconds(durationNanos), TimeUnit.NANOSECONDS.toSeconds(warmupNanos));
+        SplittableRandom random = new SplittableRandom();
+        double meanIntervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long end = start + durationNanos;
+        long nextReport = start + reportNanos;
+        Map<Operation, LatencyHistogram.Snapshot> warmupEnd = null;
+        Map<Operation, long[]> warmupCounters = null;
+        double offset = 0;  // 计划发起时间相对start的偏移（纳秒），用double累加避免匀速间隔的取整误差
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            while (true) {
+                offset += poisson ? -Math.log(1 - random.nextDouble()) * meanIntervalNanos : meanIntervalNanos;
+                long scheduled = start + (long) offset;
+                if (scheduled - end >= 0) {
+                    break;
+                }
+                // 报告与预热切换在发起线程中完成，不需要额外的定时线程
+                long now = System.nanoTime();
+                while (now - nextReport >= 0) {
+                    report(nextReport - start);
+                    nextReport += reportNanos;
+                }
+                if (warmupEnd == null && now - (start + warmupNanos) >= 0) {
+                    warmupEnd = snapshots();
+                    warmupCounters = counters();
+                }
+                long wait = scheduled - now;
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                Operation op = opTable[random.nextInt(opTable.length)];
+                if (inFlight.incrementAndGet() > maxInFlight) {
+                    inFlight.decrementAndGet();
+                    stats.get(op).rejected.increment();
+                    continue;
+                }
+                executor.execute(() -> execute(op, scheduled));
+            }
+            System.out.printf("停止发起请求，等待%d个执行中的请求完成%n", inFlight.get());
+        }
+        report(System.nanoTime() - start);
+        if (warmupEnd == null) {
+            warmupEnd = emptySnapshots();
+            warmupCounters = new EnumMap<>(Operation.class);
+        }
+        summary(warmupEnd, warmupCounters, System.nanoTime() - start - warmupNanos);
+        if (csv != null) {
+            csv.close();
+        }
+    }
+
+    /**
+     * 在虚拟线程中执行一次操作，延迟从计划发起时间算起
+     */
+    private void execute(Operation op, long scheduled) {
+        OperationStats s = stats.get(op);
+        boolean ok = false;
+        try {
+            ok = invoke(op);
+        } catch (RuntimeException e) {
+            errorTypes.computeIfAbsent(op.label + " " + e.getClass().getSimpleName(), k -> new LongAdder()).increment();
+        } finally {
+            s.latency.record(System.nanoTime() - scheduled);
+            if (!ok) {
+                s.errors.increment();
+            }
+            inFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * @return 操作是否成功（返回null/false视为失败）
+     */
+    private boolean invoke(Operation op) {
+        switch (op) {
+            case LOGIN: {
+                String username = EmbeddedDatabase.usernameOf(ThreadLocalRandom.current().nextInt(population));
+                return dao.login(username, PASSWORD) != null;
+            }
+            case ADD_USER: {
+                User user = EmbeddedDatabase.newUser(nextUserId.getAndIncrement());
+                user.setPassword(PASSWORD);
+                return dao.addUser(user);
+            }
+            case GET_BY_USERNAME_AND_EMAIL: {
+                User user = EmbeddedDatabase.newUser(ThreadLocalRandom.current().nextInt(population));
+                return dao.getUserByUsernameAndEmail(user.getUsername(), user.getEmail()) != null;
+            }
+            case RESET_PASSWORD: {
+                String username = EmbeddedDatabase.usernameOf(ThreadLocalRandom.current().nextInt(population));
+                return dao.resetPassword(username, PASSWORD);
+            }
+            default:
+                throw new IllegalStateException(op.name());
+        }
+    }
+
+    /**
+     * 输出一个报告周期内各操作的吞吐量、错误率和延迟百分位（两次快照相减）
+     */
+    private void report(long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        double periodSeconds = Math.max(elapsedNanos - lastReportNanos, 1) / 1e9;
+        lastReportNanos = elapsedNanos;
+        StringBuilder sb = new StringBuilder();
+        for (Operation op : Operation.values()) {
+            OperationStats s = stats.get(op);
+            LatencyHistogram.Snapshot now = s.latency.snapshot();
+            LatencyHistogram.Snapshot delta = now.minus(s.lastSnapshot);
+            long errors = s.errors.sum();
+            long rejected = s.rejected.sum();
+            long periodErrors = errors - s.lastErrors;
+            long periodRejected = rejected - s.lastRejected;
+            s.lastSnapshot = now;
+            s.lastErrors = errors;
+            s.lastRejected = rejected;
+            if (delta.getCount() == 0 && periodRejected == 0) {
+                continue;
+            }
+            double throughput = delta.getCount() / periodSeconds;
+            sb.append(String.format(Locale.ROOT,
+                    "[%6.1fs] %-26s %8.1f/s  err %6.2f%%  rej %6d  p50 %8.2f  p90 %8.2f  p99 %8.2f  p99.9 %8.2f  max %8.2f ms%n",
+                    seconds, op.label, throughput, percent(periodErrors, delta.getCount()), periodRejected,
+                    delta.getPercentileMillis(50), delta.getPercentileMillis(90), delta.getPercentileMillis(99),
+                    delta.getPercentileMillis(99.9), toMillis(delta.getMaxNanos())));
+            if (csv != null) {
+                csv.printf(Locale.ROOT, "%.1f,%s,%d,%.1f,%d,%d,%.3f,%.3f,%.3f,%.3f,%.3f%n",
+                        seconds, op.label, delta.getCount(), throughput, periodErrors, periodRejected,
+                        delta.getPercentileMillis(50), delta.getPercentileMillis(90), delta.getPercentileMillis(99),
+                        delta.getPercentileMillis(99.9), toMillis(delta.getMaxNanos()));
+            }
+        }
+        sb.append(String.format(Locale.ROOT, "[%6.1fs] 执行中 %d%n", seconds, inFlight.get()));
+        System.out.print(sb);
+        if (csv != null) {
+            csv.flush();
+        }
+    }
+
+    /**
+     * 输出预热结束后的汇总：每个操作的吞吐量、错误率和完整的百分位分布
+     */
+    private void summary(Map<Operation, LatencyHistogram.Snapshot> warmupEnd, Map<Operation, long[]> warmupCounters,
+                         long measuredNanos) {
+        double seconds = Math.max(measuredNanos, 1) / 1e9;
+        System.out.printf("%n======== 汇总（预热后 %.1fs） ========%n", seconds);
+        long totalCount = 0;
+        long totalErrors = 0;
+        for (Operation op : Operation.values()) {
+            OperationStats s = stats.get(op);
+            LatencyHistogram.Snapshot delta = s.latency.snapshot().minus(warmupEnd.get(op));
+            long[] base = warmupCounters.getOrDefault(op, new long[2]);
+            long errors = s.errors.sum() - base[0];
+            long rejected = s.rejected.sum() - base[1];
+            if (delta.getCount() == 0 && rejected == 0) {
+                continue;
+            }
+            totalCount += delta.getCount();
+            totalErrors += errors;
+            System.out.printf(Locale.ROOT, "%s：%d次，%.1f/s，错误率 %.2f%%，拒绝 %d，平均 %.2fms%n",
+                    op.label, delta.getCount(), delta.getCount() / seconds, percent(errors, delta.getCount()),
+                    rejected, delta.getMeanNanos() / 1e6);
+            for (double p : PERCENTILES) {
+                System.out.printf(Locale.ROOT, "    p%-6s %10.2f ms%n", format(p), delta.getPercentileMillis(p));
+            }
+            System.out.printf(Locale.ROOT, "    max     %10.2f ms%n", toMillis(delta.getMaxNanos()));
+        }
+        System.out.printf(Locale.ROOT, "合计：%d次，%.1f/s，错误率 %.2f%%%n",
+                totalCount, totalCount / seconds, percent(totalErrors, totalCount));
+        if (!errorTypes.isEmpty()) {
+            System.out.println("异常统计（含预热）：");
+            errorTypes.forEach((type, count) -> System.out.printf("    %s：%d%n", type, count.sum()));
+        }
+    }
+
+    private Map<Operation, LatencyHistogram.Snapshot> snapshots() {
+        Map<Operation, LatencyHistogram.Snapshot> snapshots = new EnumMap<>(Operation.class);
+        stats.forEach((op, s) -> snapshots.put(op, s.latency.snapshot()));
+        return snapshots;
+    }
+
+    private static Map<Operation, LatencyHistogram.Snapshot> emptySnapshots() {
+        Map<Operation, LatencyHistogram.Snapshot> snapshots = new EnumMap<>(Operation.class);
+        for (Operation op : Operation.values()) {
+            snapshots.put(op, new LatencyHistogram().snapshot());
+        }
+        return snapshots;
+    }
+
+    private Map<Operation, long[]> counters() {
+        Map<Operation, long[]> counters = new EnumMap<>(Operation.class);
+        stats.forEach((op, s) -> counters.put(op, new long[]{s.errors.sum(), s.rejected.sum()}));
+        return counters;
+    }
+
+    /**
+     * 解析操作比例（如login=70,addUser=10），展开为长度等于权重总和的操作表
+     */
+    static Operation[] parseMix(String mix) {
+        List<Operation> table = new ArrayList<>();
+        for (String part : mix.split(",")) {
+            if (part.trim().isEmpty()) {
+                continue;
+            }
+            String[] kv = part.split("=");
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("操作比例格式错误：" + part);
+            }
+            Operation op = Operation.of(kv[0]);
+            int weight = Integer.parseInt(kv[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("操作比例不能为负数：" + part);
+            }
+            for (int i = 0; i < weight; i++) {
+                table.add(op);
+            }
+        }
+        if (table.isEmpty()) {
+            throw new IllegalArgumentException("操作比例为空：" + mix);
+        }
+        return table.toArray(new Operation[0]);
+    }
+
+    private static void setDefault(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+
+    private static double percent(long part, long total) {
+        return total == 0 ? 0 : part * 100.0 / total;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static String format(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+    }
+}
\ No newline at end of file
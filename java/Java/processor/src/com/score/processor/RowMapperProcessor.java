@@ -0,0 +1,304 @@
+package com.score.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 行映射器注解处理器（编译期生成代码，运行时无反射）
+ * 为每个@Table实体生成同包下的XxxRowMapper：
+ * 1. TABLE / COLUMNS常量：显式列清单，替代SELECT *
+ * 2. map(ResultSet)：按列序号读取，不做列名查找
+ * 3. 每个@Projection生成NAME_COLUMNS常量和mapName(ResultSet)
+ */
+// 声明并认领本处理器读取的全部注解（含生成代码上的@Generated），-Xlint:all下不再提示无处理器认领
+@SupportedAnnotationTypes({
+        "com.score.annotation.Table",
+        "com.score.annotation.Column",
+        "com.score.annotation.Transient",
+        "com.score.annotation.Projection",
+        "javax.annotation.processing.Generated"
+})
+public class RowMapperProcessor extends AbstractProcessor {
+    private static final String TABLE = "com.score.annotation.Table";
+    private static final String COLUMN = "com.score.annotation.Column";
+    private static final String TRANSIENT = "com.score.annotation.Transient";
+
+    // 字段类型 → ResultSet读取表达式（%d为列序号）
+    private static final Map<String, String> GETTERS = new HashMap<>();
+
+    static {
+        GETTERS.put("int", "rs.getInt(%d)");
+        GETTERS.put("long", "rs.getLong(%d)");
+        GETTERS.put("short", "rs.getShort(%d)");
+        GETTERS.put("byte", "rs.getByte(%d)");
+        GETTERS.put("double", "rs.getDouble(%d)");
+        GETTERS.put("float", "rs.getFloat(%d)");
+        GETTERS.put("boolean", "rs.getBoolean(%d)");
+        GETTERS.put("java.lang.String", "rs.getString(%d)");
+        GETTERS.put("java.math.BigDecimal", "rs.getBigDecimal(%d)");
+        GETTERS.put("java.sql.Timestamp", "rs.getTimestamp(%d)");
+        GETTERS.put("java.sql.Date", "rs.getDate(%d)");
+        GETTERS.put("java.lang.Integer", "rs.getObject(%d, Integer.class)");
+        GETTERS.put("java.lang.Long", "rs.getObject(%d, Long.class)");
+        GETTERS.put("java.lang.Double", "rs.getObject(%d, Double.class)");
+        GETTERS.put("java.lang.Boolean", "rs.getObject(%d, Boolean.class)");
+        GETTERS.put("java.time.LocalDate", "rs.getObject(%d, java.time.LocalDate.class)");
+        GETTERS.put("java.time.LocalDateTime", "rs.getObject(%d, java.time.LocalDateTime.class)");
+    }
+
+    private Filer filer;
+    private Messager messager;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        this.filer = processingEnv.getFiler();
+        this.messager = processingEnv.getMessager();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        // 只有@Table类需要生成代码，其他注解在生成时按字段读取
+        for (TypeElement annotation : annotations) {
+            if (!annotation.getQualifiedName().contentEquals(TABLE)) {
+                continue;
+            }
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() != ElementKind.CLASS) {
+                    messager.printMessage(Diagnostic.Kind.ERROR, "@Table只能标注在类上", element);
+                    continue;
+                }
+                try {
+                    generate((TypeElement) element);
+                } catch (IOException e) {
+                    messager.printMessage(Diagnostic.Kind.ERROR, "生成RowMapper失败：" + e.getMessage(), element);
+                }
+            }
+        }
+        return true;
+    }
+
+    // ====================== 代码生成 ======================
+
+    private void generate(TypeElement entity) throws IOException {
+        AnnotationMirror table = findAnnotation(entity, TABLE);
+        String tableName = (String) value(table, "name");
+        List<Field> fields = collectFields(entity);
+        if (fields.isEmpty()) {
+            return;
+        }
+
+        String pkg = ((PackageElement) entity.getEnclosingElement()).getQualifiedName().toString();
+        String entityName = entity.getSimpleName().toString();
+        String mapperName = entityName + "RowMapper";
+
+        StringBuilder src = new StringBuilder();
+        src.append("package ").append(pkg).append(";\n\n");
+        src.append("import java.sql.ResultSet;\n");
+        src.append("import java.sql.SQLException;\n\n");
+        src.append("/**\n * ").append(entityName).append("行映射器（由RowMapperProcessor编译期生成，请勿手工修改）\n */\n");
+        src.append("@javax.annotation.processing.Generated(\"com.score.processor.RowMapperProcessor\")\n");
+        src.append("public final class ").append(mapperName).append(" {\n");
+        src.append("    public static final String TABLE = \"").append(tableName).append("\";\n");
+        src.append("    public static final String COLUMNS = \"").append(columnList(fields)).append("\";\n");
+
+        List<Projection> projections = collectProjections(entity, table, fields);
+        for (Projection p : projections) {
+            src.append("    public static final String ").append(p.name.toUpperCase(Locale.ROOT))
+                    .append("_COLUMNS = \"").append(columnList(p.fields)).append("\";\n");
+        }
+        src.append("\n    private ").append(mapperName).append("() {}\n");
+
+        appendMapMethod(src, entityName, "map", "COLUMNS", fields);
+        for (Projection p : projections) {
+            appendMapMethod(src, entityName, "map" + p.name, p.name.toUpperCase(Locale.ROOT) + "_COLUMNS", p.fields);
+        }
+        src.append("}\n");
+
+        JavaFileObject file = filer.createSourceFile(pkg + "." + mapperName, entity);
+        try (Writer writer = file.openWriter()) {
+            writer.write(src.toString());
+        }
+    }
+
+    private void appendMapMethod(StringBuilder src, String entityName, String methodName, String columnsConstant,
+                                 List<Field> fields) {
+        src.append("\n    /**\n     * 按").append(columnsConstant).append("的列顺序映射当前行\n     */\n");
+        src.append("    public static ").append(entityName).append(' ').append(methodName)
+                .append("(ResultSet rs) throws SQLException {\n");
+        src.append("        ").append(entityName).append(" o = new ").append(entityName).append("();\n");
+        for (int i = 0; i < fields.size(); i++) {
+            Field f = fields.get(i);
+            src.append("        o.").append(f.setter).append('(')
+                    .append(String.format(GETTERS.get(f.type), i + 1)).append(");\n");
+        }
+        src.append("        return o;\n    }\n");
+    }
+
+    private static String columnList(List<Field> fields) {
+        StringBuilder sb = new StringBuilder();
+        for (Field f : fields) {
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(f.column);
+        }
+        return sb.toString();
+    }
+
+    // ====================== 元数据收集 ======================
+
+    private List<Field> collectFields(TypeElement entity) {
+        Set<String> setters = new LinkedHashSet<>();
+        boolean hasNoArgConstructor = false;
+        for (ExecutableElement method : ElementFilter.methodsIn(entity.getEnclosedElements())) {
+            if (method.getParameters().size() == 1 && method.getModifiers().contains(Modifier.PUBLIC)) {
+                setters.add(method.getSimpleName().toString());
+            }
+        }
+        for (ExecutableElement ctor : ElementFilter.constructorsIn(entity.getEnclosedElements())) {
+            if (ctor.getParameters().isEmpty() && ctor.getModifiers().contains(Modifier.PUBLIC)) {
+                hasNoArgConstructor = true;
+            }
+        }
+        if (!hasNoArgConstructor) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "@Table实体需要public无参构造器", entity);
+        }
+
+        List<Field> fields = new ArrayList<>();
+        for (VariableElement field : ElementFilter.fieldsIn(entity.getEnclosedElements())) {
+            if (field.getModifiers().contains(Modifier.STATIC) || findAnnotation(field, TRANSIENT) != null) {
+                continue;
+            }
+            String name = field.getSimpleName().toString();
+            String type = field.asType().toString();
+            String setter = "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+            if (!GETTERS.containsKey(type)) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "不支持的字段类型：" + type, field);
+                continue;
+            }
+            if (!setters.contains(setter)) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "缺少setter方法：" + setter, field);
+                continue;
+            }
+            AnnotationMirror column = findAnnotation(field, COLUMN);
+            String columnName = column == null ? name : (String) value(column, "name");
+            fields.add(new Field(name, columnName, type, setter));
+        }
+        return fields;
+    }
+
+    private List<Projection> collectProjections(TypeElement entity, AnnotationMirror table, List<Field> fields) {
+        List<Projection> projections = new ArrayList<>();
+        Object raw = value(table, "projections");
+        if (raw == null) {
+            return projections;
+        }
+        for (Object item : (List<?>) raw) {
+            AnnotationMirror mirror = (AnnotationMirror) ((AnnotationValue) item).getValue();
+            String name = (String) value(mirror, "name");
+            Set<String> exclude = new LinkedHashSet<>();
+            Object excludeRaw = value(mirror, "exclude");
+            if (excludeRaw != null) {
+                for (Object e : (List<?>) excludeRaw) {
+                    exclude.add((String) ((AnnotationValue) e).getValue());
+                }
+            }
+            List<Field> included = new ArrayList<>();
+            for (Field f : fields) {
+                if (!exclude.remove(f.name)) {
+                    included.add(f);
+                }
+            }
+            if (!exclude.isEmpty()) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "投影" + name + "排除了不存在的字段：" + exclude, entity);
+            }
+            if (name.isEmpty() || !Character.isUpperCase(name.charAt(0))) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "投影名称需以大写字母开头：" + name, entity);
+            }
+            projections.add(new Projection(name, included));
+        }
+        return projections;
+    }
+
+    private static AnnotationMirror findAnnotation(Element element, String annotationType) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeMirror type = mirror.getAnnotationType();
+            if (type.toString().equals(annotationType)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private static Object value(AnnotationMirror mirror, String key) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> e : mirror.getElementValues().entrySet()) {
+            if (e.getKey().getSimpleName().contentEquals(key)) {
+                return e.getValue().getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 映射字段：字段名、列名、类型、setter
+     */
+    private static final class Field {
+        final String name;
+        final String column;
+        final String type;
+        final String setter;
+
+        Field(String name, String column, String type, String setter) {
+            this.name = name;
+            this.column = column;
+            this.type = type;
+            this.setter = setter;
+        }
+    }
+
+    /**
+     * 列投影：名称 + 包含的字段
+     */
+    private static final class Projection {
+        final String name;
+        final List<Field> fields;
+
+        Projection(String name, List<Field> fields) {
+            this.name = name;
+            this.fields = fields;
+        }
+    }
+}
\ No newline at end of file
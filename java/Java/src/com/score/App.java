@@ -1,14 +1,50 @@
 package com.score;
 
+import com.score.entity.DaoFactory;
+import com.score.entity.ScoreSchema;
+import com.score.entity.UserSchema;
 import com.score.view.login_register.LoginRegisterHomeFrame;
 import javax.swing.*;
+import java.lang.reflect.InvocationTargetException;
 
 public class App {
     public static void main(String[] args) {
+        // 显示界面之前初始化user_data、score_data表结构（建表/补索引/检查执行计划），界面上的DAO只会看到初始化后的表
+        String error = null;
+        try {
+            UserSchema.bootstrap();
+            ScoreSchema.bootstrap();
+        } catch (RuntimeException e) {
+            error = "数据库初始化失败：" + e.getMessage();
+        }
+        // planCheck=fail时初始化失败直接退出，否则提示后继续启动
+        if (error != null && UserSchema.isFailFast()) {
+            showError(error);
+            System.exit(1);
+        }
+
+        // 登录/注册界面的字段初始化会获取DAO：在这里先创建DAO工厂（连接池、限流器、用户名过滤器），不在EDT中进行
+        DaoFactory.getAsyncUserDao();
+
         // 启动整合展示页面
+        String startupError = error;
         SwingUtilities.invokeLater(() -> {
             LoginRegisterHomeFrame homeFrame = new LoginRegisterHomeFrame();
             homeFrame.setVisible(true);
+            if (startupError != null) {
+                JOptionPane.showMessageDialog(homeFrame, startupError, "错误", JOptionPane.ERROR_MESSAGE);
+            }
         });
     }
+
+    // 在EDT上显示错误并等待关闭
+    private static void showError(String message) {
+        try {
+            SwingUtilities.invokeAndWait(() -> JOptionPane.showMessageDialog(null, message, "错误", JOptionPane.ERROR_MESSAGE));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (InvocationTargetException e) {
+            System.err.println(message);
+        }
+    }
 }
\ No newline at end of file
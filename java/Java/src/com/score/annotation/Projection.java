@@ -0,0 +1,25 @@
+package com.score.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 列投影定义：生成NAME_COLUMNS列清单和mapName()映射方法，未包含的字段保持默认值
+ * 例：@Projection(name = "Summary", exclude = {"password"}) 生成SUMMARY_COLUMNS和mapSummary()
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target({})
+public @interface Projection {
+    /**
+     * 投影名称（首字母大写，用于生成方法名和常量名）
+     */
+    String name();
+
+    /**
+     * 排除的字段名
+     */
+    String[] exclude() default {};
+}
\ No newline at end of file
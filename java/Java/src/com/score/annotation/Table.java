@@ -0,0 +1,27 @@
+package com.score.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 标记实体类对应的数据库表
+ * 编译期由RowMapperProcessor为实体生成XxxRowMapper：按列序号读取ResultSet的映射方法和显式列清单
+ * 实体需提供无参构造器和各字段的setter；static字段和@Transient字段不参与映射
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface Table {
+    /**
+     * 表名
+     */
+    String name();
+
+    /**
+     * 列投影（只查询部分列，如列表页不需要的密码列）
+     */
+    Projection[] projections() default {};
+}
\ No newline at end of file
@@ -0,0 +1,58 @@
+package com.score.dao;
+
+import com.score.annotation.Column;
+import com.score.annotation.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * 成绩实体类（对应主界面成绩表格的学号/姓名/科目/成绩/录入时间）
+ * 编译期生成ScoreRowMapper
+ */
+@Table(name = "score_data")
+public class Score {
+    private long id;
+    @Column(name = "student_id")
+    private String studentId;       // 学号
+    @Column(name = "student_name")
+    private String studentName;     // 姓名
+    private String subject;         // 科目
+    private double score;           // 成绩（保留一位小数）
+    @Column(name = "record_time")
+    private LocalDateTime recordTime; // 录入时间
+
+    public Score() {}
+
+    public Score(String studentId, String studentName, String subject, double score, LocalDateTime recordTime) {
+        this.studentId = studentId;
+        this.studentName = studentName;
+        this.subject = subject;
+        this.score = score;
+        this.recordTime = recordTime;
+    }
+
+    public long getId() { return id; }
+    public void setId(long id) { this.id = id; }
+    public String getStudentId() { return studentId; }
+    public void setStudentId(String studentId) { this.studentId = studentId; }
+    public String getStudentName() { return studentName; }
+    public void setStudentName(String studentName) { this.studentName = studentName; }
+    public String getSubject() { return subject; }
+    public void setSubject(String subject) { this.subject = subject; }
+    public double getScore() { return score; }
+    public void setScore(double score) { this.score = score; }
+    public LocalDateTime getRecordTime() { return recordTime; }
+    public void setRecordTime(LocalDateTime recordTime) { this.recordTime = recordTime; }
+
+    @Override
+    public String toString() {
+        return "Score{" +
+                "id=" + id +
+                ", studentId='" + studentId + '\'' +
+                ", studentName='" + studentName + '\'' +
+                ", subject='" + subject + '\'' +
+                ", score=" + score +
+                ", recordTime=" + recordTime +
+                '}';
+    }
+}
\ No newline at end of file
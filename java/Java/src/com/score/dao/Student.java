@@ -1,9 +1,14 @@
 package com.score.dao;
 
+import com.score.annotation.Projection;
+import com.score.annotation.Table;
+
 /**
  * 学生实体类：数据载体，仅封装属性和get/set
  * 对应可视化界面中输入的学号、姓名、性别、电话、家庭住址数据
+ * 编译期生成StudentRowMapper；Summary投影只含学号、姓名、性别
  */
+@Table(name = "student", projections = {@Projection(name = "Summary", exclude = {"phone", "address"})})
 public class Student {
     // 修正：删除成绩字段，新增性别、电话、家庭住址字段
     private String id;         // 学号（唯一标识）
@@ -1,8 +1,13 @@
 package com.score.dao;
 
+import com.score.annotation.Projection;
+import com.score.annotation.Table;
+
 /**
  * 用户实体类（对应数据库中的用户表）
+ * 编译期生成UserRowMapper；Summary投影不含密码，供列表查询使用
  */
+@Table(name = "user_data", projections = {@Projection(name = "Summary", exclude = {"password"})})
 public class User {
     private int id;
     private String name;
@@ -0,0 +1,78 @@
+package com.score.entity;
+
+import com.score.dao.User;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 用户数据访问层异步接口（UserDao的异步版本）
+ * 所有方法立即返回CompletableFuture，数据库操作在后台虚拟线程中执行，
+ * 适合在Swing事件调度线程（EDT）中调用，结果需通过SwingUtilities.invokeLater回到EDT处理
+ * 调用cancel(true)可取消尚未完成的操作；超时后future以TimeoutException异常完成
+ */
+public interface AsyncUserDao {
+    /**
+     * 异步登录验证
+     * @return 验证成功完成为User对象，失败完成为null
+     */
+    CompletableFuture<User> login(String username, String password);
+
+    /**
+     * 异步新增用户（注册）
+     * @return 成功完成为true，失败完成为false
+     */
+    CompletableFuture<Boolean> addUser(User user);
+
+    // 异步根据用户名查询用户
+    CompletableFuture<User> getUserByUsername(String username);
+
+    // 异步修改用户信息
+    CompletableFuture<Boolean> updateUser(User user);
+
+    // 异步删除用户
+    CompletableFuture<Boolean> deleteUser(String username);
+
+    // 异步根据用户名+邮箱查询用户（忘记密码验证）
+    CompletableFuture<User> getUserByUsernameAndEmail(String username, String email);
+
+    // 异步重置密码
+    CompletableFuture<Boolean> resetPassword(String username, String newPassword);
+
+    // 异步批量新增/修改/删除用户（批量操作耗时与数据量相关，不设超时，可通过cancel取消）
+    CompletableFuture<BatchResult> addUsers(List<User> users);
+
+    CompletableFuture<BatchResult> updateUsers(List<User> users);
+
+    CompletableFuture<BatchResult> deleteUsers(List<String> usernames);
+
+    // 异步判断用户名是否已被注册
+    CompletableFuture<Boolean> existsUsername(String username);
+
+    // 异步查询所有用户
+    CompletableFuture<List<User>> listAllUsers();
+
+    // 异步键集分页查询用户（afterId为上一页最后一个用户的id，第一页传0）
+    CompletableFuture<List<User>> listUsers(int afterId, int limit);
+
+    /**
+     * 将异步异常转换为界面提示文字（超时/取消/数据库异常）
+     */
+    static String describeFailure(Throwable ex) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        if (cause instanceof TimeoutException) {
+            return "数据库响应超时，请稍后重试！";
+        }
+        return cause.getMessage() == null ? cause.getClass().getSimpleName() : cause.getMessage();
+    }
+
+    /**
+     * 失败原因是否为登录限流（请求未到达数据库，稍后重试即可）
+     */
+    static boolean isThrottled(Throwable ex) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        return cause instanceof LoginThrottledException;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,150 @@
+package com.score.entity;
+
+import com.score.dao.User;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 用户数据访问异步实现：在虚拟线程上执行同步UserDao的调用
+ * 并发上限与连接池最大连接数一致（超出的任务在信号量上排队，不会堆积到连接池等待超时）
+ */
+public class AsyncUserDaoImpl implements AsyncUserDao {
+    private final UserDao delegate;
+    private final Semaphore permits;
+    private final long timeoutMillis;
+    private final ExecutorService executor;
+
+    /**
+     * @param delegate 同步DAO（实际执行数据库操作）
+     * @param maxConcurrency 同时执行的最大数据库操作数（建议等于连接池maxSize）
+     * @param timeoutMillis 单次操作超时时间（毫秒，含排队时间）
+     */
+    public AsyncUserDaoImpl(UserDao delegate, int maxConcurrency, long timeoutMillis) {
+        if (delegate == null || maxConcurrency <= 0 || timeoutMillis <= 0) {
+            throw new IllegalArgumentException("异步DAO参数错误：maxConcurrency=" + maxConcurrency
+                    + "，timeoutMillis=" + timeoutMillis);
+        }
+        this.delegate = delegate;
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.timeoutMillis = timeoutMillis;
+        ThreadFactory factory = Thread.ofVirtual().name("score-dao-", 0).factory();
+        this.executor = Executors.newThreadPerTaskExecutor(factory);
+    }
+
+    @Override
+    public CompletableFuture<User> login(String username, String password) {
+        return submit(() -> delegate.login(username, password));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> addUser(User user) {
+        return submit(() -> delegate.addUser(user));
+    }
+
+    @Override
+    public CompletableFuture<User> getUserByUsername(String username) {
+        return submit(() -> delegate.getUserByUsername(username));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> updateUser(User user) {
+        return submit(() -> delegate.updateUser(user));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> deleteUser(String username) {
+        return submit(() -> delegate.deleteUser(username));
+    }
+
+    @Override
+    public CompletableFuture<User> getUserByUsernameAndEmail(String username, String email) {
+        return submit(() -> delegate.getUserByUsernameAndEmail(username, email));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> resetPassword(String username, String newPassword) {
+        return submit(() -> delegate.resetPassword(username, newPassword));
+    }
+
+    @Override
+    public CompletableFuture<BatchResult> addUsers(List<User> users) {
+        return submit(() -> delegate.addUsers(users), 0);
+    }
+
+    @Override
+    public CompletableFuture<BatchResult> updateUsers(List<User> users) {
+        return submit(() -> delegate.updateUsers(users), 0);
+    }
+
+    @Override
+    public CompletableFuture<BatchResult> deleteUsers(List<String> usernames) {
+        return submit(() -> delegate.deleteUsers(usernames), 0);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> existsUsername(String username) {
+        return submit(() -> delegate.existsUsername(username));
+    }
+
+    @Override
+    public CompletableFuture<List<User>> listAllUsers() {
+        return submit(delegate::listAllUsers);
+    }
+
+    @Override
+    public CompletableFuture<List<User>> listUsers(int afterId, int limit) {
+        return submit(() -> delegate.listUsers(afterId, limit));
+    }
+
+    private <T> CompletableFuture<T> submit(Callable<T> task) {
+        return submit(task, timeoutMillis);
+    }
+
+    /**
+     * 提交任务到虚拟线程
+     * 取消或超时时中断执行线程；排队中被取消的任务不会占用连接
+     * @param timeout 超时时间（毫秒），0表示不设超时
+     */
+    private <T> CompletableFuture<T> submit(Callable<T> task, long timeout) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> running = executor.submit(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                result.cancel(false);
+                return;
+            }
+            try {
+                if (!result.isDone()) {
+                    result.complete(task.call());
+                }
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            } finally {
+                permits.release();
+            }
+        });
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled() || error instanceof TimeoutException) {
+                running.cancel(true);
+            }
+        });
+        return timeout > 0 ? result.orTimeout(timeout, TimeUnit.MILLISECONDS) : result;
+    }
+
+    /**
+     * 关闭执行器（程序退出时调用），正在执行的任务会被中断
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,110 @@
+package com.score.entity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量操作结果：按输入顺序记录每一行的处理状态和失败原因
+ * 坏数据只影响自身所在行，不会中断整批操作
+ */
+public class BatchResult {
+    /**
+     * 单行处理状态
+     */
+    public enum RowStatus {
+        SUCCESS("成功"),
+        INVALID("数据校验失败"),
+        DUPLICATE("用户名重复"),
+        NOT_FOUND("用户不存在"),
+        FAILED("数据库执行失败");
+
+        private final String description;
+
+        RowStatus(String description) {
+            this.description = description;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        @Override
+        public String toString() {
+            return description;
+        }
+    }
+
+    private final RowStatus[] statuses;
+    private final String[] messages;
+
+    public BatchResult(int size) {
+        this.statuses = new RowStatus[size];
+        this.messages = new String[size];
+    }
+
+    /**
+     * 记录某一行的处理结果（同一行只保留第一次记录的结果）
+     */
+    void set(int index, RowStatus status, String message) {
+        if (statuses[index] == null) {
+            statuses[index] = status;
+            messages[index] = message;
+        }
+    }
+
+    boolean isDecided(int index) {
+        return statuses[index] != null;
+    }
+
+    public int size() {
+        return statuses.length;
+    }
+
+    public RowStatus getStatus(int index) {
+        return statuses[index];
+    }
+
+    public String getMessage(int index) {
+        return messages[index];
+    }
+
+    public boolean isSuccess(int index) {
+        return statuses[index] == RowStatus.SUCCESS;
+    }
+
+    public int getSuccessCount() {
+        int count = 0;
+        for (RowStatus status : statuses) {
+            if (status == RowStatus.SUCCESS) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int getFailureCount() {
+        return statuses.length - getSuccessCount();
+    }
+
+    /**
+     * 获取所有失败行的下标（对应输入列表的顺序）
+     */
+    public List<Integer> getFailedIndexes() {
+        List<Integer> failed = new ArrayList<>();
+        for (int i = 0; i < statuses.length; i++) {
+            if (statuses[i] != RowStatus.SUCCESS) {
+                failed.add(i);
+            }
+        }
+        return failed;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResult{" +
+                "total=" + statuses.length +
+                ", success=" + getSuccessCount() +
+                ", failure=" + getFailureCount() +
+                '}';
+    }
+}
\ No newline at end of file
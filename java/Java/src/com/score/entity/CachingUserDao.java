@@ -0,0 +1,350 @@
+package com.score.entity;
+
+import com.score.dao.User;
+import com.score.util.CacheStats;
+import com.score.util.Log;
+import com.score.util.PasswordHasher;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * 带读穿透缓存的用户DAO装饰器（包装UserDaoImpl）
+ * 按用户名缓存User，容量上限+TTL过期，LRU淘汰；同一用户名并发未命中时只查询一次数据库
+ * updateUser/deleteUser/resetPassword成功与否都会精确失效对应用户名，保证密码不会被读到旧值
+ * 缓存键为小写用户名，与MySQL默认的大小写不敏感排序规则保持一致
+ * 缓存命中时用底层DAO的密码哈希服务校验：两者成本不一致时，命中的登录会被判定需要重新哈希而反复转交底层DAO
+ */
+public class CachingUserDao implements UserDao {
+    private static final Log LOG = Log.get(CachingUserDao.class);
+
+    private final UserDao delegate;
+    private final Supplier<PasswordHasher> hasher;
+    private final int maxEntries;
+    private final long ttlNanos;
+
+    // 受自身锁保护；accessOrder=true实现LRU
+    private final LinkedHashMap<String, CacheEntry> cache = new LinkedHashMap<>(64, 0.75f, true);
+    // 正在回源加载的请求（同一用户名只加载一次）
+    private final Map<String, CompletableFuture<User>> loading = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+
+    /**
+     * @param delegate 实际访问数据库的DAO
+     * @param hasher 底层DAO使用的密码哈希服务（每次登录时获取，底层DAO更换哈希服务后随之生效）
+     * @param maxEntries 最大缓存用户数
+     * @param ttlMillis 缓存有效期（毫秒）
+     */
+    public CachingUserDao(UserDao delegate, Supplier<PasswordHasher> hasher, int maxEntries, long ttlMillis) {
+        if (delegate == null || hasher == null || maxEntries <= 0 || ttlMillis <= 0) {
+            throw new IllegalArgumentException("用户缓存参数错误：maxEntries=" + maxEntries + "，ttlMillis=" + ttlMillis);
+        }
+        this.delegate = delegate;
+        this.hasher = hasher;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    }
+
+    // 1. 登录验证：按用户名读缓存后校验密码哈希；需要重新哈希的交给底层DAO处理并失效缓存
+    @Override
+    public User login(String username, String password) {
+        if (username == null || username.trim().isEmpty() || password == null || password.trim().isEmpty()) {
+            LOG.warn("登录失败：用户名或密码为空");
+            return null;
+        }
+        User user = getCached(username);
+        PasswordHasher hasher = this.hasher.get();
+        if (user != null && hasher.needsRehash(user.getPassword())) {
+            try {
+                return delegate.login(username, password);
+            } finally {
+                invalidate(username);
+            }
+        }
+        if (user != null && hasher.verify(password.trim(), user.getPassword())) {
+            return user;
+        }
+        LOG.warn("登录失败：用户名或密码错误，用户名={}", username);
+        return null;
+    }
+
+    // 2. 新增用户：直接写库，并清除可能残留的同名缓存
+    @Override
+    public boolean addUser(User user) {
+        try {
+            return delegate.addUser(user);
+        } finally {
+            if (user != null) {
+                invalidate(user.getUsername());
+            }
+        }
+    }
+
+    // 3. 根据用户名查询：读穿透缓存
+    @Override
+    public User getUserByUsername(String username) {
+        if (username == null || username.trim().isEmpty()) {
+            LOG.warn("查询用户失败：用户名为空");
+            return null;
+        }
+        return getCached(username);
+    }
+
+    // 4. 修改用户：写库后失效缓存
+    @Override
+    public boolean updateUser(User user) {
+        try {
+            return delegate.updateUser(user);
+        } finally {
+            if (user != null) {
+                invalidate(user.getUsername());
+            }
+        }
+    }
+
+    // 5. 删除用户：写库后失效缓存
+    @Override
+    public boolean deleteUser(String username) {
+        try {
+            return delegate.deleteUser(username);
+        } finally {
+            invalidate(username);
+        }
+    }
+
+    // 6. 查询所有用户：不走缓存
+    @Override
+    public List<User> listAllUsers() {
+        return delegate.listAllUsers();
+    }
+
+    @Override
+    public Stream<User> streamAllUsers() {
+        return delegate.streamAllUsers();
+    }
+
+    @Override
+    public List<User> listUsers(int afterId, int limit) {
+        return delegate.listUsers(afterId, limit);
+    }
+
+    // 7. 用户名+邮箱验证：按用户名读缓存后比对邮箱（与MySQL一样忽略大小写）
+    @Override
+    public User getUserByUsernameAndEmail(String username, String email) {
+        if (username == null || email == null || username.trim().isEmpty() || email.trim().isEmpty()) {
+            LOG.warn("验证用户失败：用户名或邮箱为空");
+            return null;
+        }
+        User user = getCached(username);
+        if (user != null && email.trim().equalsIgnoreCase(user.getEmail())) {
+            return user;
+        }
+        LOG.warn("验证用户失败：用户名或邮箱不匹配，username={}，email={}", username, email);
+        return null;
+    }
+
+    // 8. 重置密码：写库后失效缓存（无论成功与否）
+    @Override
+    public boolean resetPassword(String username, String newPassword) {
+        try {
+            return delegate.resetPassword(username, newPassword);
+        } finally {
+            invalidate(username);
+        }
+    }
+
+    // 10~12. 批量操作：写库后逐个失效缓存
+    @Override
+    public BatchResult addUsers(List<User> users) {
+        try {
+            return delegate.addUsers(users);
+        } finally {
+            invalidateUsers(users);
+        }
+    }
+
+    @Override
+    public BatchResult updateUsers(List<User> users) {
+        try {
+            return delegate.updateUsers(users);
+        } finally {
+            invalidateUsers(users);
+        }
+    }
+
+    @Override
+    public BatchResult deleteUsers(List<String> usernames) {
+        try {
+            return delegate.deleteUsers(usernames);
+        } finally {
+            if (usernames != null) {
+                usernames.forEach(this::invalidate);
+            }
+        }
+    }
+
+    private void invalidateUsers(List<User> users) {
+        if (users == null) {
+            return;
+        }
+        for (User user : users) {
+            if (user != null) {
+                invalidate(user.getUsername());
+            }
+        }
+    }
+
+    // 9. 判断用户名是否存在：缓存中有则直接返回，否则查库
+    @Override
+    public boolean existsUsername(String username) {
+        if (username == null || username.trim().isEmpty()) {
+            return false;
+        }
+        String key = keyOf(username);
+        long now = System.nanoTime();
+        synchronized (cache) {
+            CacheEntry entry = cache.get(key);
+            if (entry != null && now - entry.loadedAt < ttlNanos) {
+                hits.increment();
+                return true;
+            }
+        }
+        return delegate.existsUsername(username);
+    }
+
+    /**
+     * 使指定用户名的缓存失效（同时放弃正在进行的加载结果）
+     */
+    public void invalidate(String username) {
+        if (username == null || username.trim().isEmpty()) {
+            return;
+        }
+        String key = keyOf(username);
+        synchronized (cache) {
+            cache.remove(key);
+            loading.remove(key);
+        }
+    }
+
+    /**
+     * 清空全部缓存
+     */
+    public void invalidateAll() {
+        synchronized (cache) {
+            cache.clear();
+            loading.clear();
+        }
+    }
+
+    /**
+     * 获取缓存统计（命中率、淘汰次数、回源加载耗时）
+     */
+    public CacheStats getStats() {
+        int size;
+        synchronized (cache) {
+            size = cache.size();
+        }
+        long loadCount = loads.sum();
+        long avgMicros = loadCount == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(loadNanos.sum() / loadCount);
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), loadCount, avgMicros, size);
+    }
+
+    // ====================== 内部实现 ======================
+
+    private static String keyOf(String username) {
+        return username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 读缓存，未命中或过期时回源加载；返回副本，调用方修改不会影响缓存
+     */
+    private User getCached(String username) {
+        String key = keyOf(username);
+        long now = System.nanoTime();
+        synchronized (cache) {
+            CacheEntry entry = cache.get(key);
+            if (entry != null) {
+                if (now - entry.loadedAt < ttlNanos) {
+                    hits.increment();
+                    return copyOf(entry.user);
+                }
+                cache.remove(key);
+                evictions.increment();
+            }
+        }
+        misses.increment();
+        return copyOf(load(key, username.trim()));
+    }
+
+    private User load(String key, String username) {
+        CompletableFuture<User> mine = new CompletableFuture<>();
+        CompletableFuture<User> existing = loading.putIfAbsent(key, mine);
+        if (existing != null) {
+            return existing.join(); // 其他线程正在加载同一用户，等待其结果
+        }
+        long start = System.nanoTime();
+        try {
+            User user = delegate.getUserByUsername(username);
+            loads.increment();
+            loadNanos.add(System.nanoTime() - start);
+            synchronized (cache) {
+                // 加载期间若被invalidate，loading中已无本次请求，结果不放入缓存
+                if (loading.remove(key, mine) && user != null) {
+                    cache.put(key, new CacheEntry(user, System.nanoTime()));
+                    evictOverflow();
+                }
+            }
+            mine.complete(user);
+            return user;
+        } catch (RuntimeException e) {
+            loading.remove(key, mine);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    // 调用方需持有cache锁
+    private void evictOverflow() {
+        Iterator<CacheEntry> it = cache.values().iterator();
+        while (cache.size() > maxEntries && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    private static User copyOf(User u) {
+        if (u == null) {
+            return null;
+        }
+        return new User(u.getId(), u.getName(), u.getSex(), u.getTitle(), u.getTel(),
+                u.getEmail(), u.getUsername(), u.getPassword());
+    }
+
+    /**
+     * 缓存条目：用户数据 + 加载时间
+     */
+    private static final class CacheEntry {
+        final User user;
+        final long loadedAt;
+
+        CacheEntry(User user, long loadedAt) {
+            this.user = user;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
\ No newline at end of file
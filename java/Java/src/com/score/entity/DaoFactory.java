@@ -0,0 +1,268 @@
+package com.score.entity;
+
+import com.score.util.CacheStats;
+import com.score.util.DBUtil;
+import com.score.util.LoginThrottler;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * DAO工厂：统一创建并共享各界面使用的DAO实例
+ * 界面层通过工厂获取DAO，便于集中替换实现（缓存、限流等装饰器）
+ */
+public class DaoFactory {
+    // 异步操作超时时间（毫秒）
+    private static final long ASYNC_TIMEOUT_MILLIS = Long.getLong("score.dao.asyncTimeoutMillis", 10_000);
+    // 用户缓存容量与有效期
+    private static final int USER_CACHE_SIZE = Integer.getInteger("score.cache.user.maxEntries", 1000);
+    private static final long USER_CACHE_TTL_MILLIS = Long.getLong("score.cache.user.ttlMillis", 300_000);
+    // 用户名过滤器：预期用户数、目标误判率、重建周期
+    private static final long FILTER_EXPECTED_USERS = Long.getLong("score.filter.expectedUsers", 100_000);
+    private static final double FILTER_TARGET_FPP = Double.parseDouble(System.getProperty("score.filter.fpp", "0.01"));
+    private static final long FILTER_REBUILD_MILLIS = Long.getLong("score.filter.rebuildMillis", 1_800_000);
+    // 登录限流：每个用户名每分钟次数/突发次数、全局每秒次数/突发次数、退避起始/上限、空闲清理时间
+    private static final LoginThrottler LOGIN_THROTTLER = new LoginThrottler(
+            Integer.getInteger("score.throttle.userPerMinute", 10),
+            Integer.getInteger("score.throttle.userBurst", 5),
+            Integer.getInteger("score.throttle.globalPerSecond", 50),
+            Integer.getInteger("score.throttle.globalBurst", 100),
+            Long.getLong("score.throttle.baseBackoffMillis", 1000),
+            Long.getLong("score.throttle.maxBackoffMillis", 300_000),
+            Long.getLong("score.throttle.idleMillis", 600_000));
+
+    // 装饰链：计时(UserDao) → 登录限流 → 用户名过滤器 → 用户缓存 → 计时(UserDaoImpl) → 数据库
+    // 外层计时为界面看到的总耗时（含被限流的请求，计为错误），内层计时只含真正访问数据库的调用
+    private static final UserDaoImpl USER_DAO_IMPL = new UserDaoImpl();
+    private static final CachingUserDao CACHING_USER_DAO = new CachingUserDao(
+            new InstrumentedUserDao(USER_DAO_IMPL, "UserDaoImpl"), USER_DAO_IMPL::getPasswordHasher,
+            USER_CACHE_SIZE, USER_CACHE_TTL_MILLIS);
+    private static final UsernameFilterUserDao FILTER_USER_DAO =
+            new UsernameFilterUserDao(CACHING_USER_DAO, USER_DAO_IMPL, FILTER_EXPECTED_USERS, FILTER_TARGET_FPP);
+    private static final UserDao USER_DAO = new InstrumentedUserDao(
+            new ThrottlingUserDao(FILTER_USER_DAO, LOGIN_THROTTLER), "UserDao");
+    // 并发上限与连接池容量一致，避免后台任务在连接池上排队超时
+    private static final AsyncUserDao ASYNC_USER_DAO = new AsyncUserDaoImpl(USER_DAO,
+            DBUtil.getDataSource().getConfig().getMaxSize(), ASYNC_TIMEOUT_MILLIS);
+    private static final ScoreDao SCORE_DAO = new ScoreDaoImpl();
+    // 学生检索索引：学生记录和成绩存储各自在首次加载时并入，之后随两者增量更新
+    private static final StudentSearchIndex STUDENT_SEARCH_INDEX = new StudentSearchIndex();
+    // 加载完成后的成绩存储（撤销/重做只同步已加载的存储，不触发加载）
+    private static volatile ScoreStore loadedScoreStore;
+    // 与已加载的成绩存储关联的快照（未启用快照时为null）
+    private static volatile ScoreSnapshot scoreSnapshot;
+
+    static {
+        FILTER_USER_DAO.scheduleRebuild(FILTER_REBUILD_MILLIS);
+    }
+
+    private DaoFactory() {}
+
+    /**
+     * 获取同步用户DAO（不要在EDT中调用）
+     */
+    public static UserDao getUserDao() {
+        return USER_DAO;
+    }
+
+    /**
+     * 获取用户缓存统计（命中率/淘汰次数/加载耗时）
+     */
+    public static CacheStats getUserCacheStats() {
+        return CACHING_USER_DAO.getStats();
+    }
+
+    /**
+     * 获取用户名过滤器（误判率/内存占用/拦截次数）
+     */
+    public static UsernameFilterUserDao getUsernameFilter() {
+        return FILTER_USER_DAO;
+    }
+
+    /**
+     * 获取登录限流器（放行/限流次数、跟踪的用户名数量）
+     */
+    public static LoginThrottler getLoginThrottler() {
+        return LOGIN_THROTTLER;
+    }
+
+    /**
+     * 获取异步用户DAO（界面层使用）
+     */
+    public static AsyncUserDao getAsyncUserDao() {
+        return ASYNC_USER_DAO;
+    }
+
+    /**
+     * 获取成绩DAO
+     */
+    public static ScoreDao getScoreDao() {
+        return SCORE_DAO;
+    }
+
+    /**
+     * 获取成绩内存存储（首次调用时从快照或数据库加载全部成绩，不要在EDT中首次调用）
+     * 通过ScoreDao修改成绩后，调用方需同步调用存储的add/update/remove
+     */
+    public static ScoreStore getScoreStore() {
+        return ScoreStoreHolder.INSTANCE;
+    }
+
+    /**
+     * 获取已加载的成绩存储，尚未加载时返回null（不触发加载）
+     * 绕过撤销历史直接写库的操作（如批量导入）用它同步存储
+     */
+    public static ScoreStore getLoadedScoreStore() {
+        return loadedScoreStore;
+    }
+
+    /**
+     * 成绩存储有未写入快照的变化时立即重写快照（阻塞；退出前写完待保存的修改后调用，不必等定期刷新）
+     * 存储未加载或未启用快照时不做任何事
+     */
+    public static void saveScoreSnapshot() {
+        ScoreSnapshot snapshot = scoreSnapshot;
+        if (snapshot != null) {
+            snapshot.refreshIfDirty();
+        }
+    }
+
+    /**
+     * 获取成绩统计引擎（首次调用时加载成绩存储并全量计算，之后随存储增量更新，不要在EDT中首次调用）
+     */
+    public static ScoreStatistics getScoreStatistics() {
+        return ScoreStatisticsHolder.INSTANCE;
+    }
+
+    /**
+     * 获取成绩的撤销/重做历史
+     * 界面目前记录两类步骤：表格中直接修改的成绩（ScoreWriteBehind写入成功后调用recordUpdate）和批量导入（recordImport）；
+     * addScore/deleteScore供单个新增、删除成绩使用，界面中这两项功能尚未实现
+     */
+    public static ScoreEditHistory getScoreEditHistory() {
+        return ScoreEditHistoryHolder.INSTANCE;
+    }
+
+    /**
+     * 获取成绩修改的延迟批量写入队列（界面中修改成绩通过它合并后分批写入，写入成功后登记到撤销历史）
+     */
+    public static ScoreWriteBehind getScoreWriteBehind() {
+        return ScoreWriteBehindHolder.INSTANCE;
+    }
+
+    /**
+     * 获取学生DAO（首次调用时打开记录文件并重建索引，不要在EDT中首次调用）
+     * 通过该DAO修改学生会同步更新学生检索索引
+     */
+    public static StudentDao getStudentDao() {
+        return StudentDaoHolder.INDEXED;
+    }
+
+    /**
+     * 获取学生检索索引（首次调用时加载学生记录和成绩存储，不要在EDT中首次调用）
+     */
+    public static StudentSearchIndex getStudentSearchIndex() {
+        getStudentDao();
+        getScoreStore();
+        return STUDENT_SEARCH_INDEX;
+    }
+
+    /**
+     * 延迟加载成绩存储（只用到用户功能时不占用内存）
+     * 系统属性：score.store.initialRows（初始行容量，默认按数据库中的成绩数）、
+     * score.snapshot.enabled（是否使用快照，默认true）、score.snapshot.file（快照文件，默认data/scores.snap）、
+     * score.snapshot.compress（写入时是否压缩，默认false）、score.snapshot.refreshMillis（检查变化并重写快照的周期，默认60000）
+     */
+    private static final class ScoreStoreHolder {
+        static final ScoreStore INSTANCE = load();
+
+        private static ScoreStore load() {
+            ScoreSnapshot snapshot = Boolean.parseBoolean(System.getProperty("score.snapshot.enabled", "true"))
+                    ? new ScoreSnapshot(new File(System.getProperty("score.snapshot.file", "data/scores.snap")),
+                    Boolean.parseBoolean(System.getProperty("score.snapshot.compress", "false")))
+                    : null;
+            // 快照的数据指纹与数据库一致才使用，数据库不可用时不使用快照
+            ScoreStore.Fingerprint fingerprint = snapshot != null ? SCORE_DAO.getFingerprint() : null;
+            ScoreStore store = fingerprint != null ? snapshot.load(fingerprint) : null;
+            boolean fromDatabase = store == null;
+            if (fromDatabase) {
+                long count = fingerprint != null ? fingerprint.getRows() : SCORE_DAO.countScores();
+                store = new ScoreStore(Integer.getInteger("score.store.initialRows", (int) Math.max(count, 0)));
+                if (store.loadFrom(SCORE_DAO) < 0) {
+                    throw new IllegalStateException("加载成绩数据失败");
+                }
+            }
+            if (snapshot != null) {
+                // 从数据库加载时快照已过期，下次检查即重写
+                snapshot.attach(store, Long.getLong("score.snapshot.refreshMillis", 60_000), fromDatabase);
+                Runtime.getRuntime().addShutdownHook(new Thread(snapshot::close, "score-snapshot-shutdown"));
+                scoreSnapshot = snapshot;
+            }
+            STUDENT_SEARCH_INDEX.attach(store);
+            loadedScoreStore = store;
+            return store;
+        }
+    }
+
+    /**
+     * 系统属性：score.undo.maxBytes（历史记录内存上限，默认4MB）、score.undo.spillDir（撤销导入的临时目录，默认系统临时目录）
+     */
+    private static final class ScoreEditHistoryHolder {
+        static final ScoreEditHistory INSTANCE = create();
+
+        private static ScoreEditHistory create() {
+            File spillDir = new File(System.getProperty("score.undo.spillDir", System.getProperty("java.io.tmpdir")));
+            if (!spillDir.isDirectory() && !spillDir.mkdirs()) {
+                throw new IllegalStateException("撤销临时目录创建失败：" + spillDir.getAbsolutePath());
+            }
+            ScoreEditHistory history = new ScoreEditHistory(SCORE_DAO, () -> loadedScoreStore,
+                    Integer.getInteger("score.undo.maxBytes", 4 << 20), spillDir);
+            // 退出时删除未重做的导入留下的临时文件
+            Runtime.getRuntime().addShutdownHook(new Thread(history::clear, "score-undo-shutdown"));
+            return history;
+        }
+    }
+
+    /**
+     * 系统属性：score.writeBehind.batchSize（每批写入行数，默认200）、score.writeBehind.maxPending（待保存行数上限，默认5000）、
+     * score.writeBehind.flushMillis（修改最多等待多久写入，默认500）
+     */
+    private static final class ScoreWriteBehindHolder {
+        static final ScoreWriteBehind INSTANCE = new ScoreWriteBehind(SCORE_DAO, getScoreEditHistory(),
+                Integer.getInteger("score.writeBehind.batchSize", 200),
+                Integer.getInteger("score.writeBehind.maxPending", 5000),
+                Long.getLong("score.writeBehind.flushMillis", 500));
+    }
+
+    private static final class ScoreStatisticsHolder {
+        static final ScoreStatistics INSTANCE = new ScoreStatistics(getScoreStore());
+    }
+
+    /**
+     * 延迟打开学生记录文件（只用到用户功能时不占用文件）
+     * 系统属性：score.student.dir（默认data）、score.student.importFile（默认student.txt，存储为空时导入一次）、
+     * score.student.compactMillis（压缩检查周期，默认600000）
+     */
+    private static final class StudentDaoHolder {
+        static final FileStudentDao INSTANCE = open();
+        static final StudentDao INDEXED = new IndexedStudentDao(INSTANCE, STUDENT_SEARCH_INDEX);
+
+        private static FileStudentDao open() {
+            FileStudentDao dao;
+            try {
+                dao = new FileStudentDao(new File(System.getProperty("score.student.dir", "data")));
+            } catch (IOException e) {
+                throw new IllegalStateException("学生数据文件打开失败：" + e.getMessage(), e);
+            }
+            File legacy = new File(System.getProperty("score.student.importFile", "student.txt"));
+            if (dao.countStudents() == 0 && legacy.isFile()) {
+                dao.importText(legacy);
+            }
+            dao.scheduleCompaction(Long.getLong("score.student.compactMillis", 600_000));
+            STUDENT_SEARCH_INDEX.indexStudents(dao);
+            // 程序退出时把映射内存中的修改刷到磁盘
+            Runtime.getRuntime().addShutdownHook(new Thread(dao::close, "score-student-shutdown"));
+            return dao;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,311 @@
+package com.score.entity;
+
+import com.score.dao.Student;
+import com.score.util.Log;
+import com.score.util.RecordLog;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 学生DAO的文件实现：数据保存在追加写的记录文件（RecordLog）中，按学号读取直接访问映射内存
+ * 堆内存只保存学号的哈希索引，数十万学生也不需要全部加载到内存
+ * 修改/删除产生的旧记录由scheduleCompaction定期压缩清理
+ */
+public class FileStudentDao implements StudentDao, AutoCloseable {
+    private static final Log LOG = Log.get(FileStudentDao.class);
+
+    private final RecordLog log;
+    private ScheduledExecutorService compactor;
+
+    /**
+     * @param dir 数据目录（记录文件为 dir/student-代数.dat）
+     */
+    public FileStudentDao(File dir) throws IOException {
+        this.log = new RecordLog(dir, "student");
+    }
+
+    @Override
+    public boolean addStudent(Student student) {
+        if (student == null || isBlank(student.getId())) {
+            LOG.warn("新增学生失败：学生对象或学号为空");
+            return false;
+        }
+        String id = student.getId().trim();
+        try {
+            if (!log.putIfAbsent(id, encode(student))) {
+                LOG.warn("新增学生失败：学号已存在，id={}", id);
+                return false;
+            }
+            return true;
+        } catch (IOException | IllegalArgumentException e) {
+            LOG.error("新增学生存储异常：{}", e.getMessage(), e);
+            return false;
+        }
+    }
+
+    @Override
+    public Student getStudentById(String id) {
+        if (isBlank(id)) {
+            return null;
+        }
+        byte[] value = log.get(id.trim());
+        if (value == null) {
+            return null;
+        }
+        try {
+            return decode(id.trim(), value);
+        } catch (IOException e) {
+            LOG.error("读取学生记录失败，id={}：{}", id, e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public boolean updateStudent(Student student) {
+        if (student == null || isBlank(student.getId())) {
+            LOG.warn("修改学生失败：学生对象或学号为空");
+            return false;
+        }
+        String id = student.getId().trim();
+        try {
+            if (!log.replace(id, encode(student))) {
+                LOG.warn("修改学生失败：学生不存在，id={}", id);
+                return false;
+            }
+            return true;
+        } catch (IOException | IllegalArgumentException e) {
+            LOG.error("修改学生存储异常：{}", e.getMessage(), e);
+            return false;
+        }
+    }
+
+    @Override
+    public boolean deleteStudent(String id) {
+        if (isBlank(id)) {
+            return false;
+        }
+        try {
+            return log.remove(id.trim());
+        } catch (IOException e) {
+            LOG.error("删除学生存储异常：{}", e.getMessage(), e);
+            return false;
+        }
+    }
+
+    @Override
+    public boolean existsId(String id) {
+        return !isBlank(id) && log.contains(id.trim());
+    }
+
+    @Override
+    public int countStudents() {
+        return log.size();
+    }
+
+    @Override
+    public long forEachStudent(Consumer<Student> consumer) {
+        try {
+            return log.forEach((id, value) -> {
+                try {
+                    consumer.accept(decode(id, value));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            LOG.error("遍历学生记录失败：{}", e.getCause().getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * 导入student.txt格式的文本（每行：学号,姓名,性别,电话,家庭住址，与Student.toString()一致）或导出的学生CSV
+     * 字段按CSV拆分（与成绩导入共用ScoreImporter.splitCsv）：双引号包围的字段可包含逗号、双引号和换行；
+     * 旧格式中未加引号的地址可能含逗号，第5个字段之后的部分都并入地址
+     * 逐行读取写入，不一次性加载整个文件；缺少的字段和字面量"null"按空值处理，学号已存在的行跳过
+     * @return 导入成功的行数，文件读取失败返回-1
+     */
+    public int importText(File file) {
+        int imported = 0;
+        int skipped = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            int lineNo = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (lineNo == 1 && line.startsWith("\uFEFF")) {
+                    line = line.substring(1);
+                }
+                // 导出的学生文件（ScoreExporter）第一行为表头
+                if (lineNo == 1 && line.startsWith("学号,")) {
+                    continue;
+                }
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                // 引号内的换行：行末仍在引号字段中时接上下一行
+                int startLineNo = lineNo;
+                String next;
+                while (endsInsideQuotes(line) && (next = reader.readLine()) != null) {
+                    lineNo++;
+                    line = line + "\n" + next;
+                }
+                String[] fields = toStudentFields(ScoreImporter.splitCsv(line));
+                Student student = new Student(field(fields, 0), field(fields, 1), field(fields, 2),
+                        field(fields, 3), field(fields, 4));
+                if (isBlank(student.getId())) {
+                    LOG.warn("导入学生第{}行跳过：学号为空", startLineNo);
+                    skipped++;
+                } else if (addStudent(student)) {
+                    imported++;
+                } else {
+                    skipped++;
+                }
+            }
+        } catch (IOException e) {
+            LOG.error("导入学生文件失败：{}", e.getMessage(), e);
+            return -1;
+        }
+        LOG.info("导入学生完成：{}，成功{}行，跳过{}行", file.getName(), imported, skipped);
+        return imported;
+    }
+
+    /**
+     * 立即检查一次，之后按固定周期检查失效记录比例，超过阈值时压缩记录文件
+     * @param periodMillis 检查周期（毫秒）
+     */
+    public synchronized void scheduleCompaction(long periodMillis) {
+        if (compactor != null) {
+            return;
+        }
+        compactor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "score-student-compactor");
+            t.setDaemon(true);
+            return t;
+        });
+        compactor.scheduleWithFixedDelay(() -> {
+            try {
+                log.compactIfNeeded();
+            } catch (IOException e) {
+                LOG.error("压缩学生记录文件失败：{}", e.getMessage(), e);
+            }
+        }, 0, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 立即压缩记录文件
+     */
+    public void compact() throws IOException {
+        log.compact();
+    }
+
+    /**
+     * 记录文件已用字节数与其中失效字节数（判断压缩效果）
+     */
+    public long getUsedBytes() {
+        return log.getUsedBytes();
+    }
+
+    public long getDeadBytes() {
+        return log.getDeadBytes();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (compactor != null) {
+            compactor.shutdownNow();
+        }
+        log.close();
+    }
+
+    // 值的编码：姓名、性别、电话、家庭住址依次写入，每个字段前一个字节标记是否为null（学号即记录的键）
+    private static byte[] encode(Student student) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeField(out, student.getName());
+            writeField(out, student.getGender());
+            writeField(out, student.getPhone());
+            writeField(out, student.getAddress());
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Student decode(String id, byte[] value) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(value))) {
+            return new Student(id, readField(in), readField(in), readField(in), readField(in));
+        }
+    }
+
+    private static void writeField(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value.trim());
+        }
+    }
+
+    private static String readField(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static String field(String[] fields, int i) {
+        if (i >= fields.length) {
+            return null;
+        }
+        String value = fields[i].trim();
+        return value.isEmpty() || "null".equals(value) ? null : value;
+    }
+
+    // 多于5个字段时把第5个之后的部分并回地址（旧格式的地址不加引号）
+    private static String[] toStudentFields(List<String> fields) {
+        if (fields.size() <= 5) {
+            return fields.toArray(new String[0]);
+        }
+        String[] result = fields.subList(0, 5).toArray(new String[0]);
+        result[4] = String.join(",", fields.subList(4, fields.size()));
+        return result;
+    }
+
+    // 只有字段开头（可有空白）的双引号开始引号字段，旧格式字段中间的双引号按普通字符处理
+    private static boolean endsInsideQuotes(String line) {
+        boolean quoted = false;
+        boolean fieldStart = true;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                }
+            } else if (c == ',') {
+                fieldStart = true;
+            } else if (c == '"' && fieldStart) {
+                quoted = true;
+                fieldStart = false;
+            } else if (!Character.isWhitespace(c)) {
+                fieldStart = false;
+            }
+        }
+        return quoted;
+    }
+
+    private static boolean isBlank(String s) {
+        return s == null || s.trim().isEmpty();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,73 @@
+package com.score.entity;
+
+import com.score.dao.Student;
+
+import java.util.function.Consumer;
+
+/**
+ * 同步维护学生检索索引的学生DAO装饰器（包装FileStudentDao）
+ * 新增/修改/删除成功后更新StudentSearchIndex，失败时索引不变；查询直接委托
+ */
+public class IndexedStudentDao implements StudentDao {
+    private final StudentDao delegate;
+    private final StudentSearchIndex index;
+
+    /**
+     * @param delegate 实际读写学生记录的DAO
+     * @param index 学生检索索引
+     */
+    public IndexedStudentDao(StudentDao delegate, StudentSearchIndex index) {
+        if (delegate == null || index == null) {
+            throw new IllegalArgumentException("学生DAO和检索索引不能为空");
+        }
+        this.delegate = delegate;
+        this.index = index;
+    }
+
+    @Override
+    public boolean addStudent(Student student) {
+        boolean success = delegate.addStudent(student);
+        if (success) {
+            index.putStudent(student);
+        }
+        return success;
+    }
+
+    @Override
+    public Student getStudentById(String id) {
+        return delegate.getStudentById(id);
+    }
+
+    @Override
+    public boolean updateStudent(Student student) {
+        boolean success = delegate.updateStudent(student);
+        if (success) {
+            index.putStudent(student);
+        }
+        return success;
+    }
+
+    @Override
+    public boolean deleteStudent(String id) {
+        boolean success = delegate.deleteStudent(id);
+        if (success) {
+            index.removeStudent(id);
+        }
+        return success;
+    }
+
+    @Override
+    public boolean existsId(String id) {
+        return delegate.existsId(id);
+    }
+
+    @Override
+    public int countStudents() {
+        return delegate.countStudents();
+    }
+
+    @Override
+    public long forEachStudent(Consumer<Student> consumer) {
+        return delegate.forEachStudent(consumer);
+    }
+}
\ No newline at end of file
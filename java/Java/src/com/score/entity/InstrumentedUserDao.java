@@ -0,0 +1,260 @@
+package com.score.entity;
+
+import com.score.dao.User;
+import com.score.util.Metrics;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 计时DAO装饰器：记录每个UserDao方法的延迟直方图和异常次数
+ * 指标注册为JMX MXBean（com.score:type=DaoLatency,group=名称,name=方法名），并定期写入快照文件
+ * DaoFactory在装饰链最外层（界面看到的总耗时）和数据库DAO外层（不含缓存命中）各放一层，
+ * 结合连接池的acquire/execute指标可区分耗时来自借用连接、执行SQL还是结果映射与其他处理
+ * 抛出的异常和UserDaoImpl捕获后只返回false/null的数据库异常（调用前后比较UserDaoImpl.failureCount()）都计为错误
+ * 每次调用只有两次System.nanoTime()、两次ThreadLocal读取和一次无锁直方图记录，可在生产环境常开
+ */
+public class InstrumentedUserDao implements UserDao {
+    private final UserDao delegate;
+    private final Metrics.Timer login;
+    private final Metrics.Timer addUser;
+    private final Metrics.Timer getUserByUsername;
+    private final Metrics.Timer updateUser;
+    private final Metrics.Timer deleteUser;
+    private final Metrics.Timer listAllUsers;
+    private final Metrics.Timer streamAllUsers;
+    private final Metrics.Timer listUsers;
+    private final Metrics.Timer getUserByUsernameAndEmail;
+    private final Metrics.Timer resetPassword;
+    private final Metrics.Timer addUsers;
+    private final Metrics.Timer updateUsers;
+    private final Metrics.Timer deleteUsers;
+    private final Metrics.Timer existsUsername;
+
+    /**
+     * @param delegate 被计时的DAO
+     * @param name 指标分组名（区分装饰链中的不同位置）
+     */
+    public InstrumentedUserDao(UserDao delegate, String name) {
+        this.delegate = delegate;
+        this.login = Metrics.timer("DaoLatency", name, "login");
+        this.addUser = Metrics.timer("DaoLatency", name, "addUser");
+        this.getUserByUsername = Metrics.timer("DaoLatency", name, "getUserByUsername");
+        this.updateUser = Metrics.timer("DaoLatency", name, "updateUser");
+        this.deleteUser = Metrics.timer("DaoLatency", name, "deleteUser");
+        this.listAllUsers = Metrics.timer("DaoLatency", name, "listAllUsers");
+        this.streamAllUsers = Metrics.timer("DaoLatency", name, "streamAllUsers");
+        this.listUsers = Metrics.timer("DaoLatency", name, "listUsers");
+        this.getUserByUsernameAndEmail = Metrics.timer("DaoLatency", name, "getUserByUsernameAndEmail");
+        this.resetPassword = Metrics.timer("DaoLatency", name, "resetPassword");
+        this.addUsers = Metrics.timer("DaoLatency", name, "addUsers");
+        this.updateUsers = Metrics.timer("DaoLatency", name, "updateUsers");
+        this.deleteUsers = Metrics.timer("DaoLatency", name, "deleteUsers");
+        this.existsUsername = Metrics.timer("DaoLatency", name, "existsUsername");
+    }
+
+    @Override
+    public User login(String username, String password) {
+        long start = System.nanoTime();
+        long failures = UserDaoImpl.failureCount();
+        try {
+            return delegate.login(username, password);
+        } catch (RuntimeException e) {
+            login.recordError();
+            throw e;
+        } finally {
+            record(login, start, failures);
+        }
+    }
+
+    @Override
+    public boolean addUser(User user) {
+        long start = System.nanoTime();
+        long failures = UserDaoImpl.failureCount();
+        try {
+            return delegate.addUser(user);
+        } catch (RuntimeException e) {
+            addUser.recordError();
+            throw e;
+        } finally {
+            record(addUser, start, failures);
+        }
+    }
+
+    @Override
+    public User getUserByUsername(String username) {
+        long start = System.nanoTime();
+        long failures = UserDaoImpl.failureCount();
+        try {
+            return delegate.getUserByUsername(username);
+        } catch (RuntimeException e) {
+            getUserByUsername.recordError();
+            throw e;
+        } finally {
+            record(getUserByUsername, start, failures);
+        }
+    }
+
+    @Override
+    public boolean updateUser(User user) {
+        long start = System.nanoTime();
+        long failures = UserDaoImpl.failureCount();
+        try {
+            return delegate.updateUser(user);
+        } catch (RuntimeException e) {
+            updateUser.recordError();
+            throw e;
+        } finally {
+            record(updateUser, start, failures);
+        }
+    }
+
+    @Override
+    public boolean deleteUser(String username) {
+        long start = System.nanoTime();
+        long failures = UserDaoImpl.failureCount();
+        try {
+            return delegate.deleteUser(username);
+        } catch (RuntimeException e) {
+            deleteUser.recordError();
+            throw e;
+        } finally {
+            record(deleteUser, start, failures);
+        }
+    }
+
+    @Override
+    public List<User> listAllUsers() {
+        long start = System.nanoTime();
+        long failures = UserDaoImpl.failureCount();
+        try {
+            return delegate.listAllUsers();
+        } catch (RuntimeException e) {
+            listAllUsers.recordError();
+            throw e;
+        } finally {
+            record(listAllUsers, start, failures);
+        }
+    }
+
+    // 只统计打开游标的耗时，遍历流的耗时由调用方承担
+    @Override
+    public Stream<User> streamAllUsers() {
+        long start = System.nanoTime();
+        long failures = UserDaoImpl.failureCount();
+        try {
+            return delegate.streamAllUsers();
+        } catch (RuntimeException e) {
+            streamAllUsers.recordError();
+            throw e;
+        } finally {
+            record(streamAllUsers, start, failures);
+        }
+    }
+
+    @Override
+    public List<User> listUsers(int afterId, int limit) {
+        long start = System.nanoTime();
+        long failures = UserDaoImpl.failureCount();
+        try {
+            return delegate.listUsers(afterId, limit);
+        } catch (RuntimeException e) {
+            listUsers.recordError();
+            throw e;
+        } finally {
+            record(listUsers, start, failures);
+        }
+    }
+
+    @Override
+    public User getUserByUsernameAndEmail(String username, String email) {
+        long start = System.nanoTime();
+        long failures = UserDaoImpl.failureCount();
+        try {
+            return delegate.getUserByUsernameAndEmail(username, email);
+        } catch (RuntimeException e) {
+            getUserByUsernameAndEmail.recordError();
+            throw e;
+        } finally {
+            record(getUserByUsernameAndEmail, start, failures);
+        }
+    }
+
+    @Override
+    public boolean resetPassword(String username, String newPassword) {
+        long start = System.nanoTime();
+        long failures = UserDaoImpl.failureCount();
+        try {
+            return delegate.resetPassword(username, newPassword);
+        } catch (RuntimeException e) {
+            resetPassword.recordError();
+            throw e;
+        } finally {
+            record(resetPassword, start, failures);
+        }
+    }
+
+    @Override
+    public BatchResult addUsers(List<User> users) {
+        long start = System.nanoTime();
+        long failures = UserDaoImpl.failureCount();
+        try {
+            return delegate.addUsers(users);
+        } catch (RuntimeException e) {
+            addUsers.recordError();
+            throw e;
+        } finally {
+            record(addUsers, start, failures);
+        }
+    }
+
+    @Override
+    public BatchResult updateUsers(List<User> users) {
+        long start = System.nanoTime();
+        long failures = UserDaoImpl.failureCount();
+        try {
+            return delegate.updateUsers(users);
+        } catch (RuntimeException e) {
+            updateUsers.recordError();
+            throw e;
+        } finally {
+            record(updateUsers, start, failures);
+        }
+    }
+
+    @Override
+    public BatchResult deleteUsers(List<String> usernames) {
+        long start = System.nanoTime();
+        long failures = UserDaoImpl.failureCount();
+        try {
+            return delegate.deleteUsers(usernames);
+        } catch (RuntimeException e) {
+            deleteUsers.recordError();
+            throw e;
+        } finally {
+            record(deleteUsers, start, failures);
+        }
+    }
+
+    @Override
+    public boolean existsUsername(String username) {
+        long start = System.nanoTime();
+        long failures = UserDaoImpl.failureCount();
+        try {
+            return delegate.existsUsername(username);
+        } catch (RuntimeException e) {
+            existsUsername.recordError();
+            throw e;
+        } finally {
+            record(existsUsername, start, failures);
+        }
+    }
+
+    // 记录耗时；调用期间UserDaoImpl捕获过数据库异常时计一次错误
+    private static void record(Metrics.Timer timer, long start, long failures) {
+        if (UserDaoImpl.failureCount() != failures) {
+            timer.recordError();
+        }
+        timer.recordSince(start);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.score.entity;
+
+/**
+ * 登录/身份验证请求被限流时抛出（请求未到达数据库）
+ */
+public class LoginThrottledException extends RuntimeException {
+    private final long retryAfterMillis;
+
+    public LoginThrottledException(long retryAfterMillis) {
+        super("尝试过于频繁，请" + Math.max(1, (retryAfterMillis + 999) / 1000) + "秒后重试");
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    /**
+     * 建议的重试等待时间（毫秒）
+     */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,112 @@
+package com.score.entity;
+
+import com.score.dao.Score;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 成绩数据访问层接口
+ * 自增id为唯一标识，同一学生同一科目可以有多条成绩（按录入时间区分）
+ */
+public interface ScoreDao {
+    /**
+     * 分页查询的排序字段（每个字段都有对应的索引，见ScoreSchema）
+     */
+    enum SortField {
+        ID, STUDENT_ID, STUDENT_NAME, SUBJECT, SCORE, RECORD_TIME
+    }
+
+    /**
+     * 新增成绩，成功后把生成的id写回score对象
+     * @param score 成绩对象
+     * @return 成功返回true，失败返回false（学号/科目为空或数据库异常）
+     */
+    boolean addScore(Score score);
+
+    /**
+     * 根据id查询成绩
+     * @return 存在返回Score对象，不存在或数据库异常返回null
+     */
+    Score getScoreById(long id);
+
+    /**
+     * 查询某个学生的所有成绩（按id排序）
+     * @param studentId 学号
+     * @return 成绩列表，没有成绩或数据库异常返回空列表
+     */
+    List<Score> getScoresByStudentId(String studentId);
+
+    /**
+     * 按排序字段分页查询（排序相同时按id排序，结果稳定）
+     * @param sort 排序字段
+     * @param ascending 是否升序
+     * @param offset 跳过的行数
+     * @param limit 最多返回的行数
+     * @return 当前页的成绩，数据库异常返回null（与空页区分）
+     */
+    List<Score> getScorePage(SortField sort, boolean ascending, int offset, int limit);
+
+    /**
+     * 修改成绩（id作为唯一标识）
+     * @return 成功返回true，成绩不存在或数据库异常返回false
+     */
+    boolean updateScore(Score score);
+
+    /**
+     * 批量修改成绩（分块事务+JDBC批处理，id作为唯一标识）
+     * @param scores 成绩列表
+     * @return 每行的处理结果（与输入顺序一致），成绩不存在的行为NOT_FOUND
+     */
+    BatchResult updateScores(List<Score> scores);
+
+    /**
+     * 根据id删除成绩
+     * @return 成功返回true，成绩不存在或数据库异常返回false
+     */
+    boolean deleteScore(long id);
+
+    /**
+     * 成绩总数，数据库异常返回-1
+     */
+    int countScores();
+
+    /**
+     * 一次聚合查询得到的数据指纹（与ScoreStore.Columns.getFingerprint的定义一致，用于判断快照是否过期）
+     * @return 数据库异常返回null
+     */
+    ScoreStore.Fingerprint getFingerprint();
+
+    /**
+     * 按id顺序逐条遍历所有成绩（服务端游标，不一次性加载到内存）
+     * @param consumer 成绩处理回调
+     * @return 遍历的成绩数量，数据库异常返回-1
+     */
+    long forEachScore(Consumer<Score> consumer);
+
+    /**
+     * 按id顺序逐条遍历id在[fromId, toId]内的成绩（服务端游标）
+     * @return 遍历的成绩数量，数据库异常返回-1
+     */
+    long forEachScoreInRange(long fromId, long toId, Consumer<Score> consumer);
+
+    /**
+     * 批量新增成绩（分块事务+JDBC批处理），成功的行把生成的id写回score对象
+     * @param scores 成绩列表
+     * @return 每行的处理结果（与输入顺序一致），坏行不影响其他行
+     */
+    BatchResult addScores(List<Score> scores);
+
+    /**
+     * 按原id批量恢复成绩（撤销删除/重做新增时使用，分块事务+JDBC批处理）
+     * @param scores 带id的成绩列表
+     * @return 每行的处理结果（与输入顺序一致），id已存在的行失败
+     */
+    BatchResult restoreScores(List<Score> scores);
+
+    /**
+     * 在一个事务中删除id落在若干闭区间内的成绩（撤销批量导入时使用）
+     * @param ranges 区间端点（from0, to0, from1, to1, ...）
+     * @return 删除的行数，数据库异常返回-1（整体回滚）
+     */
+    long deleteScoresInRanges(long[] ranges);
+}
\ No newline at end of file
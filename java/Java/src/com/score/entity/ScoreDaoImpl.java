@@ -0,0 +1,550 @@
+package com.score.entity;
+
+import com.score.dao.Score;
+import com.score.dao.ScoreRowMapper;
+import com.score.util.DBUtil;
+import com.score.util.Log;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 成绩数据访问实现类
+ */
+public class ScoreDaoImpl implements ScoreDao {
+    private static final Log LOG = Log.get(ScoreDaoImpl.class);
+
+    static final String SQL_INSERT = "INSERT INTO score_data(student_id, student_name, subject, score, record_time) VALUES (?, ?, ?, ?, ?)";
+    static final String SQL_BY_ID = "SELECT " + ScoreRowMapper.COLUMNS + " FROM score_data WHERE id = ?";
+    static final String SQL_BY_STUDENT = "SELECT " + ScoreRowMapper.COLUMNS + " FROM score_data WHERE student_id = ? ORDER BY id";
+    static final String SQL_ALL = "SELECT " + ScoreRowMapper.COLUMNS + " FROM score_data ORDER BY id";
+    static final String SQL_RANGE = "SELECT " + ScoreRowMapper.COLUMNS + " FROM score_data WHERE id BETWEEN ? AND ? ORDER BY id";
+    // 按原id插入：列顺序与SQL_INSERT一致，id放在最后，复用bind
+    static final String SQL_RESTORE = "INSERT INTO score_data(student_id, student_name, subject, score, record_time, id) VALUES (?, ?, ?, ?, ?, ?)";
+    static final String SQL_DELETE_RANGE = "DELETE FROM score_data WHERE id BETWEEN ? AND ?";
+    static final String SQL_COUNT = "SELECT COUNT(*) FROM score_data";
+    // DECIMAL(5,1)乘10是整数；加权和可能超过64位，取低64位与Java的回绕加法一致
+    static final String SQL_FINGERPRINT = "SELECT COUNT(*), COALESCE(MAX(id), 0), COALESCE(SUM(ROUND(score * 10)), 0), " +
+            "COALESCE(SUM(id * ROUND(score * 10)), 0) FROM score_data";
+    // 延迟关联分页：子查询只在排序字段的二级索引上跳过offset行取出id（二级索引包含主键，不回表），
+    // 再按id取当前页的完整行，深分页时避免为跳过的行读取整行数据
+    private static final String SQL_PAGE = "SELECT " + ScoreRowMapper.COLUMNS + " FROM score_data " +
+            "JOIN (SELECT id FROM score_data ORDER BY %1$s LIMIT ? OFFSET ?) page USING (id) ORDER BY %1$s";
+    static final String SQL_UPDATE = "UPDATE score_data SET student_id=?, student_name=?, subject=?, score=?, record_time=? WHERE id=?";
+    static final String SQL_DELETE = "DELETE FROM score_data WHERE id = ?";
+
+    // 批量操作每个事务包含的行数
+    private int batchChunkSize = 1000;
+    // 流式查询每次从服务端游标读取的行数（需URL开启useCursorFetch）
+    private int streamFetchSize = 1000;
+
+    /**
+     * 设置批量操作的分块大小（每块一个事务）
+     */
+    public void setBatchChunkSize(int batchChunkSize) {
+        if (batchChunkSize <= 0) {
+            throw new IllegalArgumentException("批量分块大小必须大于0：" + batchChunkSize);
+        }
+        this.batchChunkSize = batchChunkSize;
+    }
+
+    public int getBatchChunkSize() {
+        return batchChunkSize;
+    }
+
+    /**
+     * 设置流式查询的fetchSize（每次网络往返读取的行数）
+     */
+    public void setStreamFetchSize(int streamFetchSize) {
+        if (streamFetchSize <= 0) {
+            throw new IllegalArgumentException("fetchSize必须大于0：" + streamFetchSize);
+        }
+        this.streamFetchSize = streamFetchSize;
+    }
+
+    @Override
+    public boolean addScore(Score score) {
+        if (!isValid(score)) {
+            LOG.warn("新增成绩失败：成绩对象、学号或科目为空");
+            return false;
+        }
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SQL_INSERT, Statement.RETURN_GENERATED_KEYS)) {
+            bind(stmt, score);
+            stmt.executeUpdate();
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                if (keys.next()) {
+                    score.setId(keys.getLong(1));
+                }
+            }
+            return true;
+        } catch (SQLException e) {
+            LOG.error("新增成绩数据库异常：{}", e.getMessage(), e);
+            return false;
+        }
+    }
+
+    @Override
+    public Score getScoreById(long id) {
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SQL_BY_ID)) {
+            stmt.setLong(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? ScoreRowMapper.map(rs) : null;
+            }
+        } catch (SQLException e) {
+            LOG.error("查询成绩数据库异常，id={}：{}", id, e.getMessage(), e);
+            return null;
+        }
+    }
+
+    @Override
+    public List<Score> getScoresByStudentId(String studentId) {
+        List<Score> scores = new ArrayList<>();
+        if (isBlank(studentId)) {
+            return scores;
+        }
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SQL_BY_STUDENT)) {
+            stmt.setString(1, studentId.trim());
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    scores.add(ScoreRowMapper.map(rs));
+                }
+            }
+        } catch (SQLException e) {
+            LOG.error("查询学生成绩数据库异常，学号={}：{}", studentId, e.getMessage(), e);
+        }
+        return scores;
+    }
+
+    @Override
+    public List<Score> getScorePage(SortField sort, boolean ascending, int offset, int limit) {
+        List<Score> page = new ArrayList<>();
+        if (limit <= 0) {
+            return page;
+        }
+        String sql = String.format(SQL_PAGE, orderBy(sort, ascending));
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, limit);
+            stmt.setInt(2, Math.max(0, offset));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    page.add(ScoreRowMapper.map(rs));
+                }
+            }
+            return page;
+        } catch (SQLException e) {
+            LOG.error("分页查询成绩数据库异常：{}", e.getMessage(), e);
+            return null;
+        }
+    }
+
+    // 排序子句与ScoreSchema中的索引列顺序一致，保证按索引顺序读取而不是文件排序
+    static String orderBy(SortField sort, boolean ascending) {
+        String direction = ascending ? " ASC" : " DESC";
+        switch (sort) {
+            case STUDENT_ID:
+                return "student_id" + direction + ", subject" + direction + ", id" + direction;
+            case STUDENT_NAME:
+                return "student_name" + direction + ", id" + direction;
+            case SUBJECT:
+                return "subject" + direction + ", id" + direction;
+            case SCORE:
+                return "score" + direction + ", id" + direction;
+            case RECORD_TIME:
+                return "record_time" + direction + ", id" + direction;
+            default:
+                return "id" + direction;
+        }
+    }
+
+    @Override
+    public boolean updateScore(Score score) {
+        if (!isValid(score)) {
+            LOG.warn("修改成绩失败：成绩对象、学号或科目为空");
+            return false;
+        }
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SQL_UPDATE)) {
+            bind(stmt, score);
+            stmt.setLong(6, score.getId());
+            if (stmt.executeUpdate() == 0) {
+                LOG.warn("修改成绩失败：成绩不存在，id={}", score.getId());
+                return false;
+            }
+            return true;
+        } catch (SQLException e) {
+            LOG.error("修改成绩数据库异常：{}", e.getMessage(), e);
+            return false;
+        }
+    }
+
+    @Override
+    public BatchResult updateScores(List<Score> scores) {
+        BatchResult result = new BatchResult(scores == null ? 0 : scores.size());
+        if (scores == null || scores.isEmpty()) {
+            return result;
+        }
+        List<Integer> valid = new ArrayList<>();
+        for (int i = 0; i < scores.size(); i++) {
+            if (!isValid(scores.get(i))) {
+                result.set(i, BatchResult.RowStatus.INVALID, "学号或科目为空");
+            } else {
+                valid.add(i);
+            }
+        }
+        for (int from = 0; from < valid.size(); from += batchChunkSize) {
+            updateChunk(scores, valid.subList(from, Math.min(from + batchChunkSize, valid.size())), result);
+        }
+        LOG.debug("批量修改成绩完成：{}", result);
+        return result;
+    }
+
+    /**
+     * 一块一个事务：批处理失败时回滚并逐行重试；影响行数为0的行标记为成绩不存在
+     */
+    private void updateChunk(List<Score> scores, List<Integer> chunk, BatchResult result) {
+        Connection conn = null;
+        try {
+            conn = DBUtil.getConnection();
+            conn.setAutoCommit(false);
+            int[] counts;
+            try (PreparedStatement stmt = conn.prepareStatement(SQL_UPDATE)) {
+                for (int index : chunk) {
+                    bind(stmt, scores.get(index));
+                    stmt.setLong(6, scores.get(index).getId());
+                    stmt.addBatch();
+                }
+                counts = stmt.executeBatch();
+                conn.commit();
+            } catch (BatchUpdateException e) {
+                conn.rollback();
+                counts = new int[chunk.size()];
+                String[] errors = new String[chunk.size()];
+                try (PreparedStatement stmt = conn.prepareStatement(SQL_UPDATE)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        try {
+                            bind(stmt, scores.get(chunk.get(i)));
+                            stmt.setLong(6, scores.get(chunk.get(i)).getId());
+                            counts[i] = stmt.executeUpdate();
+                        } catch (SQLException rowError) {
+                            counts[i] = Statement.EXECUTE_FAILED;
+                            errors[i] = rowError.getMessage();
+                        }
+                    }
+                    conn.commit();
+                }
+                for (int i = 0; i < chunk.size(); i++) {
+                    if (errors[i] != null) {
+                        result.set(chunk.get(i), BatchResult.RowStatus.FAILED, errors[i]);
+                    }
+                }
+            }
+            for (int i = 0; i < chunk.size(); i++) {
+                int count = i < counts.length ? counts[i] : Statement.SUCCESS_NO_INFO;
+                if (count == Statement.EXECUTE_FAILED) {
+                    result.set(chunk.get(i), BatchResult.RowStatus.FAILED, "批处理执行失败");
+                } else if (count == 0) {
+                    result.set(chunk.get(i), BatchResult.RowStatus.NOT_FOUND, "成绩不存在");
+                } else {
+                    result.set(chunk.get(i), BatchResult.RowStatus.SUCCESS, null);
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            LOG.error("批量修改成绩数据库异常：{}", e.getMessage());
+            rollbackQuietly(conn);
+            for (int index : chunk) {
+                result.set(index, BatchResult.RowStatus.FAILED, e.getMessage());
+            }
+        } finally {
+            restoreAutoCommit(conn);
+            DBUtil.close(conn, null, null);
+        }
+    }
+
+    @Override
+    public boolean deleteScore(long id) {
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SQL_DELETE)) {
+            stmt.setLong(1, id);
+            return stmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            LOG.error("删除成绩数据库异常，id={}：{}", id, e.getMessage(), e);
+            return false;
+        }
+    }
+
+    @Override
+    public int countScores() {
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SQL_COUNT);
+             ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        } catch (SQLException e) {
+            LOG.error("统计成绩数量数据库异常：{}", e.getMessage(), e);
+            return -1;
+        }
+    }
+
+    @Override
+    public ScoreStore.Fingerprint getFingerprint() {
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SQL_FINGERPRINT);
+             ResultSet rs = stmt.executeQuery()) {
+            if (!rs.next()) {
+                return new ScoreStore.Fingerprint(0, 0, 0, 0);
+            }
+            return new ScoreStore.Fingerprint(rs.getLong(1), rs.getLong(2), rs.getLong(3),
+                    rs.getBigDecimal(4).toBigInteger().longValue());
+        } catch (SQLException e) {
+            LOG.error("计算成绩数据指纹数据库异常：{}", e.getMessage(), e);
+            return null;
+        }
+    }
+
+    // 服务端游标 + fetchSize，内存占用与表大小无关
+    @Override
+    public long forEachScore(Consumer<Score> consumer) {
+        long count = 0;
+        // 带结果集类型参数的重载不进入语句缓存，fetchSize设置不会影响其他查询
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SQL_ALL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setFetchSize(streamFetchSize);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(ScoreRowMapper.map(rs));
+                    count++;
+                }
+            }
+            return count;
+        } catch (SQLException e) {
+            LOG.error("遍历成绩数据库异常：{}", e.getMessage(), e);
+            return -1;
+        }
+    }
+
+    @Override
+    public long forEachScoreInRange(long fromId, long toId, Consumer<Score> consumer) {
+        long count = 0;
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SQL_RANGE, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setFetchSize(streamFetchSize);
+            stmt.setLong(1, fromId);
+            stmt.setLong(2, toId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(ScoreRowMapper.map(rs));
+                    count++;
+                }
+            }
+            return count;
+        } catch (SQLException e) {
+            LOG.error("按id区间遍历成绩数据库异常，[{}, {}]", fromId, toId, e);
+            return -1;
+        }
+    }
+
+    @Override
+    public long deleteScoresInRanges(long[] ranges) {
+        if (ranges.length % 2 != 0) {
+            throw new IllegalArgumentException("区间端点个数必须为偶数：" + ranges.length);
+        }
+        Connection conn = null;
+        try {
+            conn = DBUtil.getConnection();
+            conn.setAutoCommit(false);
+            long deleted = 0;
+            try (PreparedStatement stmt = conn.prepareStatement(SQL_DELETE_RANGE)) {
+                for (int i = 0; i < ranges.length; i += 2) {
+                    stmt.setLong(1, ranges[i]);
+                    stmt.setLong(2, ranges[i + 1]);
+                    deleted += stmt.executeUpdate();
+                }
+            }
+            conn.commit();
+            return deleted;
+        } catch (SQLException | RuntimeException e) {
+            LOG.error("按id区间删除成绩数据库异常：{}", e.getMessage(), e);
+            rollbackQuietly(conn);
+            return -1;
+        } finally {
+            restoreAutoCommit(conn);
+            DBUtil.close(conn, null, null);
+        }
+    }
+
+    @Override
+    public BatchResult addScores(List<Score> scores) {
+        return insertAll(scores, false);
+    }
+
+    @Override
+    public BatchResult restoreScores(List<Score> scores) {
+        return insertAll(scores, true);
+    }
+
+    // withId为false时插入并写回生成的id，为true时按score对象中的id插入
+    private BatchResult insertAll(List<Score> scores, boolean withId) {
+        BatchResult result = new BatchResult(scores == null ? 0 : scores.size());
+        if (scores == null || scores.isEmpty()) {
+            return result;
+        }
+        List<Integer> valid = new ArrayList<>();
+        for (int i = 0; i < scores.size(); i++) {
+            Score score = scores.get(i);
+            if (!isValid(score)) {
+                result.set(i, BatchResult.RowStatus.INVALID, "学号或科目为空");
+            } else if (withId && score.getId() <= 0) {
+                result.set(i, BatchResult.RowStatus.INVALID, "恢复的成绩缺少id");
+            } else {
+                valid.add(i);
+            }
+        }
+        for (int from = 0; from < valid.size(); from += batchChunkSize) {
+            List<Integer> chunk = valid.subList(from, Math.min(from + batchChunkSize, valid.size()));
+            insertChunk(scores, chunk, result, withId);
+        }
+        LOG.debug(withId ? "批量恢复成绩完成：{}" : "批量新增成绩完成：{}", result);
+        return result;
+    }
+
+    /**
+     * 一块一个事务：批处理失败时回滚并逐行重试，精确定位坏行；连接级异常时整块标记为失败
+     */
+    private void insertChunk(List<Score> scores, List<Integer> chunk, BatchResult result, boolean withId) {
+        Connection conn = null;
+        try {
+            conn = DBUtil.getConnection();
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = prepareInsert(conn, withId)) {
+                for (int index : chunk) {
+                    bindInsert(stmt, scores.get(index), withId);
+                    stmt.addBatch();
+                }
+                int[] counts = stmt.executeBatch();
+                conn.commit();
+                // 生成的id按成功行的顺序返回
+                try (ResultSet keys = withId ? null : stmt.getGeneratedKeys()) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        int count = i < counts.length ? counts[i] : Statement.SUCCESS_NO_INFO;
+                        if (count == Statement.EXECUTE_FAILED) {
+                            result.set(chunk.get(i), BatchResult.RowStatus.FAILED, "批处理执行失败");
+                        } else {
+                            if (keys != null && keys.next()) {
+                                scores.get(chunk.get(i)).setId(keys.getLong(1));
+                            }
+                            result.set(chunk.get(i), BatchResult.RowStatus.SUCCESS, null);
+                        }
+                    }
+                }
+            } catch (BatchUpdateException e) {
+                conn.rollback();
+                insertRowByRow(conn, scores, chunk, result, withId);
+            }
+        } catch (SQLException | RuntimeException e) {
+            LOG.error("批量新增成绩数据库异常：{}", e.getMessage());
+            rollbackQuietly(conn);
+            for (int index : chunk) {
+                result.set(index, BatchResult.RowStatus.FAILED, e.getMessage());
+            }
+        } finally {
+            restoreAutoCommit(conn);
+            DBUtil.close(conn, null, null);
+        }
+    }
+
+    private void insertRowByRow(Connection conn, List<Score> scores, List<Integer> chunk, BatchResult result,
+                                boolean withId) throws SQLException {
+        String[] errors = new String[chunk.size()];
+        try (PreparedStatement stmt = prepareInsert(conn, withId)) {
+            for (int i = 0; i < chunk.size(); i++) {
+                Score score = scores.get(chunk.get(i));
+                try {
+                    bindInsert(stmt, score, withId);
+                    stmt.executeUpdate();
+                    if (!withId) {
+                        try (ResultSet keys = stmt.getGeneratedKeys()) {
+                            if (keys.next()) {
+                                score.setId(keys.getLong(1));
+                            }
+                        }
+                    }
+                } catch (SQLException e) {
+                    errors[i] = e.getMessage();
+                }
+            }
+            conn.commit();
+        }
+        for (int i = 0; i < chunk.size(); i++) {
+            if (errors[i] == null) {
+                result.set(chunk.get(i), BatchResult.RowStatus.SUCCESS, null);
+            } else {
+                result.set(chunk.get(i), BatchResult.RowStatus.FAILED, errors[i]);
+            }
+        }
+    }
+
+    private static PreparedStatement prepareInsert(Connection conn, boolean withId) throws SQLException {
+        return withId ? conn.prepareStatement(SQL_RESTORE)
+                : conn.prepareStatement(SQL_INSERT, Statement.RETURN_GENERATED_KEYS);
+    }
+
+    private static void bindInsert(PreparedStatement stmt, Score score, boolean withId) throws SQLException {
+        bind(stmt, score);
+        if (withId) {
+            stmt.setLong(6, score.getId());
+        }
+    }
+
+    private static void bind(PreparedStatement stmt, Score score) throws SQLException {
+        stmt.setString(1, score.getStudentId().trim());
+        stmt.setString(2, score.getStudentName() == null ? "" : score.getStudentName().trim());
+        stmt.setString(3, score.getSubject().trim());
+        stmt.setBigDecimal(4, BigDecimal.valueOf(score.getScore()).setScale(1, RoundingMode.HALF_UP));
+        LocalDateTime time = score.getRecordTime() == null ? LocalDateTime.now() : score.getRecordTime();
+        stmt.setTimestamp(5, Timestamp.valueOf(time));
+    }
+
+    private static void restoreAutoCommit(Connection conn) {
+        if (conn == null) {
+            return;
+        }
+        try {
+            conn.setAutoCommit(true);
+        } catch (SQLException e) {
+            LOG.warn("恢复自动提交失败：{}", e.getMessage());
+        }
+    }
+
+    private static void rollbackQuietly(Connection conn) {
+        if (conn == null) {
+            return;
+        }
+        try {
+            conn.rollback();
+        } catch (SQLException e) {
+            LOG.warn("回滚失败：{}", e.getMessage());
+        }
+    }
+
+    private static boolean isValid(Score score) {
+        return score != null && !isBlank(score.getStudentId()) && !isBlank(score.getSubject());
+    }
+
+    private static boolean isBlank(String s) {
+        return s == null || s.trim().isEmpty();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,532 @@
+package com.score.entity;
+
+import com.score.dao.Score;
+import com.score.util.IdRanges;
+import com.score.util.Log;
+import com.score.util.UndoRing;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * 成绩的撤销/重做历史（编辑菜单的撤销、重做）
+ * 1. 每次新增/修改/删除只记录增量：新增记新行，修改记旧行和新行，删除记旧行，不对表格或存储做快照
+ * 2. 记录编码为紧凑的字节序列，保存在有内存上限的环形缓冲区（UndoRing）中，超出上限时淘汰最早的步骤
+ * 3. 一次批量导入记为一个步骤，只保存导入写入的id区间（IdRanges），不复制导入的数据；
+ *    撤销时把这些行流式写入临时文件后在一个事务中删除，重做时从临时文件按原id恢复
+ * 4. 撤销删除/重做新增按原id恢复行，后续步骤引用的id保持有效
+ * 修改数据库后同步已加载的成绩存储（统计和检索索引随之更新）；批量导入由导入对话框按块加入存储，撤销/重做导入只在导入的行已在存储中时同步
+ * 线程安全：所有修改串行执行（会访问数据库，不要在EDT中调用）；描述文字可以在任何线程读取
+ */
+public class ScoreEditHistory {
+    private static final Log LOG = Log.get(ScoreEditHistory.class);
+
+    private static final byte ADD = 1;
+    private static final byte UPDATE = 2;
+    private static final byte DELETE = 3;
+    private static final byte IMPORT = 4;
+    // 录入时间为空时的编码
+    private static final long NO_TIME = Long.MIN_VALUE;
+    // 重做导入时每批恢复的行数
+    private static final int RESTORE_CHUNK = 1000;
+
+    private final ScoreDao scoreDao;
+    private final Supplier<ScoreStore> loadedStore;
+    private final File spillDir;
+    private final UndoRing ring;
+
+    // 供菜单显示，修改后更新
+    private volatile String undoDescription;
+    private volatile String redoDescription;
+
+    /**
+     * @param scoreDao 成绩DAO
+     * @param loadedStore 已加载的成绩存储（未加载时返回null，不要触发加载）
+     * @param maxBytes 历史记录占用的内存上限（字节）
+     * @param spillDir 撤销批量导入时保存被删除数据的目录
+     */
+    public ScoreEditHistory(ScoreDao scoreDao, Supplier<ScoreStore> loadedStore, int maxBytes, File spillDir) {
+        if (scoreDao == null || loadedStore == null || spillDir == null) {
+            throw new IllegalArgumentException("成绩DAO、存储和临时目录不能为空");
+        }
+        this.scoreDao = scoreDao;
+        this.loadedStore = loadedStore;
+        this.spillDir = spillDir;
+        this.ring = new UndoRing(maxBytes, this::discarded);
+    }
+
+    /**
+     * 新增成绩并记录（成功后score带有生成的id）
+     */
+    public synchronized boolean addScore(Score score) {
+        if (!scoreDao.addScore(score)) {
+            return false;
+        }
+        boolean inStore = syncStore(store -> {
+            store.add(score);
+            return true;
+        });
+        record(ADD, inStore, null, score);
+        return true;
+    }
+
+    /**
+     * 修改成绩并记录（修改前的值从数据库读取）
+     */
+    public synchronized boolean updateScore(Score score) {
+        Score before = scoreDao.getScoreById(score.getId());
+        if (before == null || !scoreDao.updateScore(score)) {
+            return false;
+        }
+        record(UPDATE, syncStore(store -> store.update(score)), before, score);
+        return true;
+    }
+
+    /**
+     * 登记一次已由其他组件写入数据库的修改（同步成绩存储并记为一个步骤，如ScoreWriteBehind合并写入的编辑）
+     * @param before 修改前的值
+     * @param after 修改后的值（已写入数据库）
+     */
+    public synchronized void recordUpdate(Score before, Score after) {
+        record(UPDATE, syncStore(store -> store.update(after)), before, after);
+    }
+
+    /**
+     * 删除成绩并记录（删除前的值从数据库读取）
+     */
+    public synchronized boolean deleteScore(long id) {
+        Score before = scoreDao.getScoreById(id);
+        if (before == null || !scoreDao.deleteScore(id)) {
+            return false;
+        }
+        record(DELETE, syncStore(store -> store.remove(id)), before, null);
+        return true;
+    }
+
+    /**
+     * 把一次批量导入记为一个步骤（导入已由ScoreImporter写入数据库）
+     * @param label 显示名称（如文件名）
+     * @param ids 导入成功的成绩id
+     */
+    public synchronized void recordImport(String label, IdRanges ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        long[] ranges = ids.toArray();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + ranges.length * 8);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(IMPORT);
+            out.writeUTF(label);
+            out.writeUTF("score-undo-" + UUID.randomUUID() + ".bin");
+            out.writeLong(ids.size());
+            out.writeInt(ranges.length / 2);
+            // 区间端点按与前一个端点的差值写入
+            long previous = 0;
+            for (long bound : ranges) {
+                out.writeLong(bound - previous);
+                previous = bound;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        append(bytes.toByteArray());
+    }
+
+    /**
+     * 撤销最近一步
+     * @return 撤销的步骤描述，没有可撤销的步骤返回null
+     * @throws IllegalStateException 撤销失败（数据未改变，步骤仍可再次撤销）
+     */
+    public synchronized String undo() {
+        byte[] record = ring.peekUndo();
+        if (record == null) {
+            return null;
+        }
+        String description = describe(record);
+        try {
+            apply(record, true);
+        } catch (IOException e) {
+            throw new IllegalStateException("撤销失败：" + e.getMessage(), e);
+        }
+        ring.stepBack();
+        updateDescriptions();
+        LOG.info("撤销：{}", description);
+        return description;
+    }
+
+    /**
+     * 重做最近撤销的一步
+     * @return 重做的步骤描述，没有可重做的步骤返回null
+     * @throws IllegalStateException 重做失败
+     */
+    public synchronized String redo() {
+        byte[] record = ring.peekRedo();
+        if (record == null) {
+            return null;
+        }
+        String description = describe(record);
+        try {
+            apply(record, false);
+        } catch (IOException e) {
+            throw new IllegalStateException("重做失败：" + e.getMessage(), e);
+        }
+        ring.stepForward();
+        updateDescriptions();
+        LOG.info("重做：{}", description);
+        return description;
+    }
+
+    /**
+     * 下一次撤销的步骤描述，没有返回null
+     */
+    public String getUndoDescription() {
+        return undoDescription;
+    }
+
+    /**
+     * 下一次重做的步骤描述，没有返回null
+     */
+    public String getRedoDescription() {
+        return redoDescription;
+    }
+
+    /**
+     * 历史记录占用的字节数
+     */
+    public synchronized long getUsedBytes() {
+        return ring.getUsedBytes();
+    }
+
+    /**
+     * 清空历史（删除全部临时文件）
+     */
+    public synchronized void clear() {
+        ring.clear();
+        updateDescriptions();
+    }
+
+    // inStore：该行是否在成绩存储中（撤销/重做时只同步原来就在存储中的行）
+    private void record(byte type, boolean inStore, Score before, Score after) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(type);
+            out.writeBoolean(inStore);
+            if (before != null) {
+                writeScore(out, before);
+            }
+            if (after != null) {
+                writeScore(out, after);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        append(bytes.toByteArray());
+    }
+
+    private void append(byte[] record) {
+        if (!ring.append(record)) {
+            LOG.warn("历史记录超过内存上限{}字节，已清空撤销历史", ring.getCapacityBytes());
+        }
+        updateDescriptions();
+    }
+
+    // 执行记录的逆操作（undo为true）或重新执行（undo为false）
+    private void apply(byte[] record, boolean undo) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+        byte type = in.readByte();
+        switch (type) {
+            case ADD:
+                boolean added = in.readBoolean();
+                if (undo) {
+                    delete(readScore(in).getId(), added);
+                } else {
+                    restore(readScore(in), added);
+                }
+                break;
+            case DELETE:
+                boolean deleted = in.readBoolean();
+                if (undo) {
+                    restore(readScore(in), deleted);
+                } else {
+                    delete(readScore(in).getId(), deleted);
+                }
+                break;
+            case UPDATE:
+                boolean updated = in.readBoolean();
+                Score before = readScore(in);
+                Score after = readScore(in);
+                update(undo ? before : after, updated);
+                break;
+            case IMPORT:
+                in.readUTF();
+                File spill = new File(spillDir, in.readUTF());
+                in.readLong();
+                long[] ranges = readRanges(in);
+                if (undo) {
+                    undoImport(ranges, spill);
+                } else {
+                    redoImport(spill);
+                }
+                break;
+            default:
+                throw new IOException("未知的历史记录类型：" + type);
+        }
+    }
+
+    private void delete(long id, boolean inStore) throws IOException {
+        if (!scoreDao.deleteScore(id)) {
+            throw new IOException("删除成绩失败，id=" + id);
+        }
+        if (inStore) {
+            syncStore(store -> store.remove(id));
+        }
+    }
+
+    private void restore(Score score, boolean inStore) throws IOException {
+        List<Score> rows = new ArrayList<>(1);
+        rows.add(score);
+        BatchResult result = scoreDao.restoreScores(rows);
+        if (!result.isSuccess(0)) {
+            throw new IOException("恢复成绩失败，id=" + score.getId() + "：" + result.getMessage(0));
+        }
+        if (inStore) {
+            syncStore(store -> {
+                store.restore(score);
+                return true;
+            });
+        }
+    }
+
+    private void update(Score score, boolean inStore) throws IOException {
+        if (!scoreDao.updateScore(score)) {
+            throw new IOException("修改成绩失败，id=" + score.getId());
+        }
+        if (inStore) {
+            syncStore(store -> store.update(score));
+        }
+    }
+
+    // 撤销导入：先把要删除的行写入临时文件（供重做），再在一个事务中删除
+    // 文件头记录这些行当时是否在成绩存储中（存储从数据库整体加载，同一次导入的行要么都在、要么都不在），重做时据此决定是否恢复到存储
+    private void undoImport(long[] ranges, File spill) throws IOException {
+        ScoreStore current = loadedStore.get();
+        boolean inStore = current != null && current.get(ranges[0]) != null;
+        long saved = 0;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(spill)))) {
+            out.writeBoolean(inStore);
+            for (int i = 0; i < ranges.length; i += 2) {
+                long count = scoreDao.forEachScoreInRange(ranges[i], ranges[i + 1], score -> {
+                    try {
+                        writeScore(out, score);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                if (count < 0) {
+                    throw new IOException("读取导入的成绩失败");
+                }
+                saved += count;
+            }
+        } catch (IOException | UncheckedIOException e) {
+            deleteSpill(spill);
+            throw e instanceof UncheckedIOException ? ((UncheckedIOException) e).getCause() : (IOException) e;
+        }
+        long deleted = scoreDao.deleteScoresInRanges(ranges);
+        if (deleted < 0) {
+            deleteSpill(spill);
+            throw new IOException("删除导入的成绩失败");
+        }
+        if (inStore) {
+            syncStore(store -> {
+                for (int i = 0; i < ranges.length; i += 2) {
+                    for (long id = ranges[i]; id <= ranges[i + 1]; id++) {
+                        store.remove(id);
+                    }
+                }
+                return true;
+            });
+        }
+        LOG.debug("撤销导入：删除{}行，{}行写入{}", deleted, saved, spill.getName());
+    }
+
+    // 重做导入：从临时文件按原id分批恢复
+    private void redoImport(File spill) throws IOException {
+        if (!spill.isFile()) {
+            throw new IOException("导入数据的临时文件不存在：" + spill.getName());
+        }
+        long failed = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(spill)))) {
+            boolean inStore = in.readBoolean();
+            List<Score> chunk = new ArrayList<>(RESTORE_CHUNK);
+            while (true) {
+                Score score = readScoreOrNull(in);
+                if (score != null) {
+                    chunk.add(score);
+                }
+                if (chunk.size() == RESTORE_CHUNK || (score == null && !chunk.isEmpty())) {
+                    failed += restoreChunk(chunk, inStore);
+                    chunk.clear();
+                }
+                if (score == null) {
+                    break;
+                }
+            }
+        }
+        deleteSpill(spill);
+        if (failed > 0) {
+            LOG.warn("重做导入：{}行恢复失败（id已被占用）", failed);
+        }
+    }
+
+    private long restoreChunk(List<Score> chunk, boolean inStore) {
+        BatchResult result = scoreDao.restoreScores(chunk);
+        long failed = 0;
+        List<Score> restored = new ArrayList<>(chunk.size());
+        for (int i = 0; i < result.size(); i++) {
+            if (result.isSuccess(i)) {
+                restored.add(chunk.get(i));
+            } else {
+                failed++;
+            }
+        }
+        if (inStore) {
+            syncStore(store -> {
+                store.addAll(restored);
+                return true;
+            });
+        }
+        return failed;
+    }
+
+    // 记录被淘汰或被新操作覆盖：删除已撤销的导入留下的临时文件
+    private void discarded(byte[] record) {
+        if (record[0] != IMPORT) {
+            return;
+        }
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(record, 1, record.length - 1));
+            in.readUTF();
+            deleteSpill(new File(spillDir, in.readUTF()));
+        } catch (IOException e) {
+            LOG.warn("解析被丢弃的历史记录失败：{}", e.getMessage());
+        }
+    }
+
+    private void deleteSpill(File spill) {
+        if (spill.exists() && !spill.delete()) {
+            LOG.warn("删除撤销临时文件失败：{}", spill.getAbsolutePath());
+        }
+    }
+
+    // 同步已加载的成绩存储，返回该行是否在存储中；存储未加载返回false，同步失败只记录日志
+    private boolean syncStore(Predicate<ScoreStore> action) {
+        ScoreStore store = loadedStore.get();
+        if (store == null) {
+            return false;
+        }
+        try {
+            return action.test(store);
+        } catch (IllegalArgumentException e) {
+            LOG.warn("同步成绩存储失败：{}", e.getMessage());
+            return false;
+        }
+    }
+
+    private void updateDescriptions() {
+        byte[] undo = ring.peekUndo();
+        byte[] redo = ring.peekRedo();
+        undoDescription = undo == null ? null : describe(undo);
+        redoDescription = redo == null ? null : describe(redo);
+    }
+
+    private static String describe(byte[] record) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+            byte type = in.readByte();
+            switch (type) {
+                case ADD:
+                    in.readBoolean();
+                    return "新增成绩 " + brief(readScore(in));
+                case UPDATE:
+                    in.readBoolean();
+                    return "修改成绩 " + brief(readScore(in));
+                case DELETE:
+                    in.readBoolean();
+                    return "删除成绩 " + brief(readScore(in));
+                case IMPORT:
+                    String label = in.readUTF();
+                    in.readUTF();
+                    return "批量导入 " + label + "（" + in.readLong() + "行）";
+                default:
+                    return "未知操作";
+            }
+        } catch (IOException e) {
+            return "无法解析的操作";
+        }
+    }
+
+    private static String brief(Score score) {
+        return score.getStudentId() + " " + score.getStudentName() + " " + score.getSubject();
+    }
+
+    private static long[] readRanges(DataInput in) throws IOException {
+        long[] ranges = new long[in.readInt() * 2];
+        long previous = 0;
+        for (int i = 0; i < ranges.length; i++) {
+            ranges[i] = previous + in.readLong();
+            previous = ranges[i];
+        }
+        return ranges;
+    }
+
+    private static void writeScore(DataOutput out, Score score) throws IOException {
+        out.writeLong(score.getId());
+        out.writeUTF(score.getStudentId() == null ? "" : score.getStudentId());
+        out.writeUTF(score.getStudentName() == null ? "" : score.getStudentName());
+        out.writeUTF(score.getSubject() == null ? "" : score.getSubject());
+        out.writeDouble(score.getScore());
+        LocalDateTime time = score.getRecordTime();
+        out.writeLong(time == null ? NO_TIME : time.toEpochSecond(ZoneOffset.UTC));
+    }
+
+    private static Score readScore(DataInput in) throws IOException {
+        long id = in.readLong();
+        String studentId = in.readUTF();
+        String studentName = in.readUTF();
+        String subject = in.readUTF();
+        double value = in.readDouble();
+        long time = in.readLong();
+        Score score = new Score(studentId, studentName, subject, value,
+                time == NO_TIME ? null : LocalDateTime.ofEpochSecond(time, 0, ZoneOffset.UTC));
+        score.setId(id);
+        return score;
+    }
+
+    // 读到文件末尾返回null
+    private static Score readScoreOrNull(DataInputStream in) throws IOException {
+        try {
+            return readScore(in);
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+}
\ No newline at end of file
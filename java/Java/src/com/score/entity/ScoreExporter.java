@@ -0,0 +1,278 @@
+package com.score.entity;
+
+import com.score.dao.Score;
+import com.score.dao.Student;
+import com.score.util.CsvChannelWriter;
+import com.score.util.Log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * 成绩/学生导出为CSV：从DAO游标逐行读取（成绩为数据库流式查询，学生为记录文件顺序遍历），
+ * 由CsvChannelWriter直接编码进直接内存缓冲区，写满后通过FileChannel写出，不在内存中保留任何行
+ * 导出百万行时内存占用只有一个缓冲区；缓冲区在多次导出之间复用（直接内存的分配和回收代价高）
+ * 先写入同目录下的临时文件（每次导出的文件名不同，同时导出到同一目标互不影响），完成后再替换目标文件，
+ * 取消或失败时删除临时文件，不会留下半个文件
+ * 文件为UTF-8（带BOM），第一行为表头；成绩文件的格式与批量导入一致（学号,姓名,科目,成绩,录入时间），可以直接再导入
+ * 取消：中断执行导出的线程
+ */
+public class ScoreExporter {
+    private static final Log LOG = Log.get(ScoreExporter.class);
+
+    // 每导出多少行回调一次进度、检查一次中断
+    private static final int PROGRESS_ROWS = 4096;
+    // 复用的缓冲区个数上限（同时进行的导出通常只有一个）
+    private static final int MAX_POOLED_BUFFERS = 2;
+    private static final ConcurrentLinkedQueue<ByteBuffer> BUFFER_POOL = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 导出的数据
+     */
+    public enum Target {
+        SCORES("成绩"),
+        STUDENTS("学生");
+
+        private final String label;
+
+        Target(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    /**
+     * 导出进度回调（在导出线程中调用，不要直接操作界面组件）
+     */
+    public interface Listener {
+        void onProgress(Progress progress);
+    }
+
+    /**
+     * 导出进度快照
+     */
+    public static final class Progress {
+        private final long rows;
+        private final long totalRows;
+        private final long bytes;
+
+        Progress(long rows, long totalRows, long bytes) {
+            this.rows = rows;
+            this.totalRows = totalRows;
+            this.bytes = bytes;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        /**
+         * 开始导出时的总行数（导出期间数据可能变化，仅用于估算进度）
+         */
+        public long getTotalRows() {
+            return totalRows;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        /**
+         * 已导出的百分比（0-100）
+         */
+        public int getPercent() {
+            return totalRows <= 0 ? 100 : (int) Math.min(100, rows * 100 / totalRows);
+        }
+
+        @Override
+        public String toString() {
+            return "已导出" + rows + "/" + totalRows + "行，" + bytes + "字节";
+        }
+    }
+
+    // 遍历数据源（ScoreDao.forEachScore、StudentDao.forEachStudent），失败返回-1
+    private interface Cursor<T> {
+        long forEach(Consumer<T> consumer);
+    }
+
+    // 把一行写入CSV
+    private interface RowWriter<T> {
+        void write(CsvChannelWriter out, T row) throws IOException;
+    }
+
+    // 在DAO的回调中止遍历：DAO只处理自己的异常，运行时异常会穿过遍历抛出（结果集/读锁由DAO释放）
+    private static final class Abort extends RuntimeException {
+        Abort(Exception cause) {
+            super(cause);
+        }
+    }
+
+    private final ScoreDao scoreDao;
+    private final StudentDao studentDao;
+    private int bufferBytes = Integer.getInteger("score.export.bufferBytes", 256 << 10);
+
+    /**
+     * @param scoreDao 成绩DAO
+     * @param studentDao 学生DAO（只导出成绩时可以为null）
+     */
+    public ScoreExporter(ScoreDao scoreDao, StudentDao studentDao) {
+        this.scoreDao = scoreDao;
+        this.studentDao = studentDao;
+    }
+
+    /**
+     * 导出到文件（已存在时覆盖）
+     * @param listener 进度回调，可以为null
+     * @return 最终进度（导出的行数和字节数）
+     * @throws IOException 读取数据或写文件失败
+     * @throws InterruptedException 导出被取消
+     */
+    public Progress export(Target target, Path file, Listener listener) throws IOException, InterruptedException {
+        switch (target) {
+            case SCORES:
+                return export(file, new String[]{"学号", "姓名", "科目", "成绩", "录入时间"}, scoreDao.countScores(),
+                        scoreDao::forEachScore, ScoreExporter::writeScore, listener);
+            case STUDENTS:
+                if (studentDao == null) {
+                    throw new IllegalStateException("未提供学生DAO");
+                }
+                return export(file, new String[]{"学号", "姓名", "性别", "电话", "家庭住址"}, studentDao.countStudents(),
+                        studentDao::forEachStudent, ScoreExporter::writeStudent, listener);
+            default:
+                throw new IllegalArgumentException("未知的导出类型：" + target);
+        }
+    }
+
+    public void setBufferBytes(int bufferBytes) {
+        if (bufferBytes < 4096) {
+            throw new IllegalArgumentException("导出缓冲区不能小于4096字节：" + bufferBytes);
+        }
+        this.bufferBytes = bufferBytes;
+    }
+
+    private <T> Progress export(Path file, String[] header, long totalRows, Cursor<T> cursor, RowWriter<T> rowWriter,
+                                Listener listener) throws IOException, InterruptedException {
+        Path target = file.toAbsolutePath();
+        // 不用Files.createTempFile：它创建的文件只有所有者可读写，改名后导出文件也会是这个权限
+        Path temp = target.resolveSibling(target.getFileName() + "."
+                + Long.toHexString(ThreadLocalRandom.current().nextLong() >>> 1) + ".part");
+        ByteBuffer buffer = acquireBuffer();
+        long start = System.nanoTime();
+        long[] rows = new long[1];
+        boolean done = false;
+        try {
+            long bytes = write(temp, header, totalRows, cursor, rowWriter, listener, buffer, rows);
+            // 最后一次检查之后才取消的，同样不替换目标文件
+            if (Thread.interrupted()) {
+                throw new InterruptedException("导出已取消");
+            }
+            // 关闭通道后再改名（Windows不能移动打开的文件）
+            moveIntoPlace(temp, target);
+            done = true;
+            Progress result = new Progress(rows[0], Math.max(totalRows, rows[0]), bytes);
+            if (listener != null) {
+                listener.onProgress(result);
+            }
+            LOG.info("导出{}：{}，耗时{}毫秒", target.getFileName(), result, (System.nanoTime() - start) / 1_000_000);
+            return result;
+        } finally {
+            releaseBuffer(buffer);
+            if (!done) {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    // 写入临时文件，返回写入的字节数；rows[0]为导出的行数
+    private <T> long write(Path temp, String[] header, long totalRows, Cursor<T> cursor, RowWriter<T> rowWriter,
+                           Listener listener, ByteBuffer buffer, long[] rows) throws IOException, InterruptedException {
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            CsvChannelWriter out = new CsvChannelWriter(channel, buffer);
+            out.writeBom();
+            out.row(header);
+            long count;
+            try {
+                count = cursor.forEach(row -> {
+                    try {
+                        rowWriter.write(out, row);
+                        if (++rows[0] % PROGRESS_ROWS == 0) {
+                            if (Thread.currentThread().isInterrupted()) {
+                                throw new Abort(new InterruptedException("导出已取消"));
+                            }
+                            if (listener != null) {
+                                listener.onProgress(new Progress(rows[0], totalRows, out.getBytesEncoded()));
+                            }
+                        }
+                    } catch (IOException e) {
+                        throw new Abort(e);
+                    }
+                });
+            } catch (Abort e) {
+                if (e.getCause() instanceof InterruptedException) {
+                    throw (InterruptedException) e.getCause();
+                }
+                throw (IOException) e.getCause();
+            }
+            if (count < 0) {
+                throw new IOException("读取数据失败，详见日志");
+            }
+            out.flush();
+            return out.getBytesWritten();
+        } catch (ClosedByInterruptException e) {
+            // 写文件时被中断（通道已关闭），与遍历中检查到中断一样按取消处理
+            InterruptedException cancelled = new InterruptedException("导出已取消");
+            cancelled.initCause(e);
+            throw cancelled;
+        }
+    }
+
+    // 同一目录内改名，支持时原子替换
+    private static void moveIntoPlace(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private ByteBuffer acquireBuffer() {
+        ByteBuffer buffer = BUFFER_POOL.poll();
+        while (buffer != null && buffer.capacity() != bufferBytes) {
+            buffer = BUFFER_POOL.poll();
+        }
+        return buffer != null ? buffer : ByteBuffer.allocateDirect(bufferBytes);
+    }
+
+    private static void releaseBuffer(ByteBuffer buffer) {
+        if (BUFFER_POOL.size() < MAX_POOLED_BUFFERS) {
+            buffer.clear();
+            BUFFER_POOL.offer(buffer);
+        }
+    }
+
+    private static void writeScore(CsvChannelWriter out, Score score) throws IOException {
+        out.field(score.getStudentId());
+        out.field(score.getStudentName());
+        out.field(score.getSubject());
+        out.field(score.getScore());
+        out.field(score.getRecordTime());
+        out.endRow();
+    }
+
+    private static void writeStudent(CsvChannelWriter out, Student student) throws IOException {
+        out.row(student.getId(), student.getName(), student.getGender(), student.getPhone(), student.getAddress());
+    }
+}
\ No newline at end of file
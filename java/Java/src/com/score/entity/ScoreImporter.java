@@ -0,0 +1,465 @@
+package com.score.entity;
+
+import com.score.dao.Score;
+import com.score.util.ChunkedLineReader;
+import com.score.util.Log;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoField;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 成绩批量导入：读取 → 解析校验 → 写库 三段流水线
+ * 读取线程按块（ChunkedLineReader）读文件，解析线程池并行拆分CSV并校验，写库线程池按块调用ScoreDao.addScores（每块分事务提交）
+ * 同时处理中的块数有上限（信号量），读取快于写库时读取线程阻塞等待，内存占用与文件大小无关
+ * 文件格式（CSV，逗号分隔，字段可用双引号包围）：学号,姓名,科目,成绩[,录入时间]
+ * 第1行成绩列不是数字时视为表头跳过；录入时间支持 yyyy-MM-dd HH:mm:ss / yyyy-MM-dd HH:mm / yyyy-MM-dd，缺省为当前时间
+ */
+public class ScoreImporter {
+    private static final Log LOG = Log.get(ScoreImporter.class);
+
+    private static final int MAX_ID_LENGTH = 20;
+    private static final int MAX_NAME_LENGTH = 50;
+    private static final int MAX_SUBJECT_LENGTH = 50;
+    private static final DateTimeFormatter TIME_FORMAT = new DateTimeFormatterBuilder()
+            .appendPattern("yyyy-MM-dd[ HH:mm[:ss]]")
+            .parseDefaulting(ChronoField.HOUR_OF_DAY, 0)
+            .parseDefaulting(ChronoField.MINUTE_OF_HOUR, 0)
+            .parseDefaulting(ChronoField.SECOND_OF_MINUTE, 0)
+            .toFormatter();
+
+    private final ScoreDao scoreDao;
+    private int parseThreads = Integer.getInteger("score.import.parseThreads",
+            Runtime.getRuntime().availableProcessors());
+    private int writeThreads = Integer.getInteger("score.import.writeThreads", 2);
+    private int chunkBytes = Integer.getInteger("score.import.chunkBytes", 1 << 20);
+    // 单行最大字节数（不小于块大小）：更长的行跳过并报告为坏行，避免没有换行符的文件把缓冲区无限扩大
+    private int maxLineBytes = Integer.getInteger("score.import.maxLineBytes", 1 << 20);
+    private Charset charset = Charset.forName(System.getProperty("score.import.charset", "UTF-8"));
+    private double maxScore = Math.min(ScoreStore.MAX_SCORE,
+            Double.parseDouble(System.getProperty("score.import.maxScore", "100")));
+
+    public ScoreImporter(ScoreDao scoreDao) {
+        this.scoreDao = scoreDao;
+    }
+
+    /**
+     * 导入进度与结果回调（在解析/写库线程中调用，实现需线程安全，不要直接操作界面组件）
+     */
+    public interface Listener {
+        /**
+         * 每写完一块调用一次
+         */
+        void onProgress(Progress progress);
+
+        /**
+         * 发现坏行时调用（解析校验失败或写库失败），同一块的坏行一次回调
+         */
+        void onBadRows(List<BadRow> rows);
+
+        /**
+         * 每写完一块调用一次，传入该块成功写入的成绩（带生成的id，用于同步成绩存储、把整次导入记为一个可撤销的步骤）
+         */
+        void onImported(List<Score> scores);
+    }
+
+    /**
+     * 导入进度快照
+     */
+    public static final class Progress {
+        private final long bytesRead;
+        private final long totalBytes;
+        private final long imported;
+        private final long bad;
+
+        Progress(long bytesRead, long totalBytes, long imported, long bad) {
+            this.bytesRead = bytesRead;
+            this.totalBytes = totalBytes;
+            this.imported = imported;
+            this.bad = bad;
+        }
+
+        public long getBytesRead() {
+            return bytesRead;
+        }
+
+        public long getTotalBytes() {
+            return totalBytes;
+        }
+
+        public long getImported() {
+            return imported;
+        }
+
+        public long getBad() {
+            return bad;
+        }
+
+        /**
+         * 已读取的百分比（0-100）
+         */
+        public int getPercent() {
+            return totalBytes <= 0 ? 100 : (int) Math.min(100, bytesRead * 100 / totalBytes);
+        }
+
+        @Override
+        public String toString() {
+            return "已读取" + bytesRead + "/" + totalBytes + "字节，成功" + imported + "行，失败" + bad + "行";
+        }
+    }
+
+    /**
+     * 坏行：行号、原始内容和原因
+     */
+    public static final class BadRow {
+        private final long lineNo;
+        private final String line;
+        private final String reason;
+
+        BadRow(long lineNo, String line, String reason) {
+            this.lineNo = lineNo;
+            this.line = line;
+            this.reason = reason;
+        }
+
+        public long getLineNo() {
+            return lineNo;
+        }
+
+        public String getLine() {
+            return line;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        @Override
+        public String toString() {
+            return "第" + lineNo + "行：" + reason + "（" + line + "）";
+        }
+    }
+
+    public void setParseThreads(int parseThreads) {
+        this.parseThreads = requirePositive(parseThreads, "解析线程数");
+    }
+
+    public void setWriteThreads(int writeThreads) {
+        this.writeThreads = requirePositive(writeThreads, "写库线程数");
+    }
+
+    public void setChunkBytes(int chunkBytes) {
+        this.chunkBytes = requirePositive(chunkBytes, "块大小");
+    }
+
+    public void setMaxLineBytes(int maxLineBytes) {
+        this.maxLineBytes = requirePositive(maxLineBytes, "单行最大长度");
+    }
+
+    public void setCharset(Charset charset) {
+        this.charset = charset;
+    }
+
+    /**
+     * @param maxScore 允许的最高分（不能超过成绩存储能表示的ScoreStore.MAX_SCORE）
+     */
+    public void setMaxScore(double maxScore) {
+        if (!(maxScore > 0 && maxScore <= ScoreStore.MAX_SCORE)) {
+            throw new IllegalArgumentException("最高分应在(0, " + ScoreStore.MAX_SCORE + "]之间：" + maxScore);
+        }
+        this.maxScore = maxScore;
+    }
+
+    /**
+     * 导入文件（阻塞直到全部写库完成；调用线程被中断时停止读取、丢弃尚未开始写库的块，
+     * 等正在写库的块结束、写库线程全部退出后才抛出，已提交的块不回滚）
+     * @return 最终进度（成功/失败行数）
+     * @throws IOException 文件读取失败
+     * @throws InterruptedException 导入被取消
+     */
+    public Progress importFile(Path file, Listener listener) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        int permits = parseThreads + writeThreads * 2;
+        Semaphore inFlight = new Semaphore(permits);
+        AtomicLong bytesDone = new AtomicLong();
+        AtomicLong imported = new AtomicLong();
+        AtomicLong bad = new AtomicLong();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        ExecutorService parsePool = newPool(parseThreads, "score-import-parse-");
+        ExecutorService writePool = newPool(writeThreads, "score-import-write-");
+        long totalBytes = 0;
+        try (ChunkedLineReader reader = new ChunkedLineReader(file, charset, chunkBytes, maxLineBytes)) {
+            totalBytes = reader.getFileSize();
+            long total = totalBytes;
+            ChunkedLineReader.Chunk chunk;
+            while (true) {
+                inFlight.acquire();
+                if (failure.get() != null || (chunk = reader.next()) == null) {
+                    inFlight.release();
+                    break;
+                }
+                ChunkedLineReader.Chunk current = chunk;
+                parsePool.execute(() -> {
+                    boolean handedOff = false;
+                    try {
+                        ParsedChunk parsed = parse(current);
+                        bad.addAndGet(parsed.badRows.size());
+                        report(listener, parsed.badRows);
+                        writePool.execute(() -> {
+                            try {
+                                write(parsed, imported, bad, listener);
+                                long done = bytesDone.addAndGet(current.getByteCount());
+                                listener.onProgress(new Progress(done, total, imported.get(), bad.get()));
+                            } catch (Throwable e) {
+                                failure.compareAndSet(null, e);
+                            } finally {
+                                inFlight.release();
+                            }
+                        });
+                        handedOff = true;
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        if (!handedOff) {
+                            inFlight.release();
+                        }
+                    }
+                });
+            }
+            // 等待所有在途的块处理完
+            inFlight.acquire(permits);
+            inFlight.release(permits);
+        } catch (InterruptedException e) {
+            // 返回前不能再有块写入：调用方据已写入的行记录撤销步骤，之后写入的行会成为无法撤销的孤行
+            parsePool.shutdownNow();
+            writePool.shutdownNow();
+            awaitTermination(parsePool);
+            awaitTermination(writePool);
+            LOG.warn("成绩导入已取消：{}，已成功{}行", file.getFileName(), imported.get());
+            throw e;
+        } finally {
+            parsePool.shutdown();
+            writePool.shutdown();
+            awaitTermination(parsePool);
+            awaitTermination(writePool);
+        }
+        Throwable error = failure.get();
+        if (error != null) {
+            LOG.error("成绩导入异常中止：{}", error.getMessage(), error);
+            throw new IllegalStateException("成绩导入异常中止：" + error.getMessage(), error);
+        }
+        Progress result = new Progress(totalBytes, totalBytes, imported.get(), bad.get());
+        LOG.info("成绩导入完成：{}，{}，耗时{}ms", file.getFileName(), result,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return result;
+    }
+
+    // 一块解析后的结果：有效成绩和对应的行号、原始行，以及坏行
+    private static final class ParsedChunk {
+        final List<Score> scores;
+        final long[] lineNos;
+        final String[] lines;
+        final List<BadRow> badRows = new ArrayList<>();
+
+        ParsedChunk(int capacity) {
+            this.scores = new ArrayList<>(capacity);
+            this.lineNos = new long[capacity];
+            this.lines = new String[capacity];
+        }
+    }
+
+    private ParsedChunk parse(ChunkedLineReader.Chunk chunk) {
+        String[] lines = chunk.lines();
+        ParsedChunk parsed = new ParsedChunk(lines.length);
+        if (chunk.isOversized()) {
+            parsed.badRows.add(new BadRow(chunk.getFirstLineNo(), lines[0] + "…",
+                    "行过长（" + chunk.getByteCount() + "字节，上限" + Math.max(chunkBytes, maxLineBytes) + "字节），已跳过"));
+            return parsed;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < lines.length; i++) {
+            long lineNo = chunk.getFirstLineNo() + i;
+            String line = lines[i];
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            List<String> fields = splitCsv(line);
+            if (lineNo == 1 && isHeader(fields)) {
+                continue;
+            }
+            String error = validate(fields);
+            if (error != null) {
+                parsed.badRows.add(new BadRow(lineNo, line, error));
+                continue;
+            }
+            LocalDateTime time = fields.size() > 4 && !fields.get(4).isEmpty()
+                    ? LocalDateTime.parse(fields.get(4).replace('/', '-'), TIME_FORMAT) : now;
+            parsed.lineNos[parsed.scores.size()] = lineNo;
+            parsed.lines[parsed.scores.size()] = line;
+            parsed.scores.add(new Score(fields.get(0), fields.get(1), fields.get(2),
+                    Double.parseDouble(fields.get(3)), time));
+        }
+        return parsed;
+    }
+
+    private void write(ParsedChunk parsed, AtomicLong imported, AtomicLong bad, Listener listener) {
+        if (parsed.scores.isEmpty()) {
+            return;
+        }
+        BatchResult result = scoreDao.addScores(parsed.scores);
+        List<BadRow> failed = new ArrayList<>();
+        List<Score> saved = new ArrayList<>(result.size());
+        for (int i = 0; i < result.size(); i++) {
+            if (result.isSuccess(i)) {
+                imported.incrementAndGet();
+                if (parsed.scores.get(i).getId() > 0) {
+                    saved.add(parsed.scores.get(i));
+                }
+            } else {
+                String message = result.getMessage(i);
+                failed.add(new BadRow(parsed.lineNos[i], parsed.lines[i],
+                        result.getStatus(i) + (message == null ? "" : "：" + message)));
+            }
+        }
+        bad.addAndGet(failed.size());
+        report(listener, failed);
+        if (!saved.isEmpty()) {
+            listener.onImported(saved);
+        }
+    }
+
+    private static void report(Listener listener, List<BadRow> rows) {
+        if (!rows.isEmpty()) {
+            listener.onBadRows(rows);
+        }
+    }
+
+    /**
+     * 校验一行的字段，通过返回null，否则返回失败原因
+     */
+    private String validate(List<String> fields) {
+        if (fields.size() < 4 || fields.size() > 5) {
+            return "字段数应为4或5，实际为" + fields.size();
+        }
+        String id = fields.get(0);
+        if (id.isEmpty() || id.length() > MAX_ID_LENGTH) {
+            return "学号为空或超过" + MAX_ID_LENGTH + "个字符";
+        }
+        if (fields.get(1).length() > MAX_NAME_LENGTH) {
+            return "姓名超过" + MAX_NAME_LENGTH + "个字符";
+        }
+        String subject = fields.get(2);
+        if (subject.isEmpty() || subject.length() > MAX_SUBJECT_LENGTH) {
+            return "科目为空或超过" + MAX_SUBJECT_LENGTH + "个字符";
+        }
+        double score;
+        try {
+            score = Double.parseDouble(fields.get(3));
+        } catch (NumberFormatException e) {
+            return "成绩不是数字：" + fields.get(3);
+        }
+        if (!(score >= 0 && score <= maxScore)) {
+            return "成绩超出范围[0, " + maxScore + "]：" + fields.get(3);
+        }
+        if (fields.size() > 4 && !fields.get(4).isEmpty()) {
+            try {
+                LocalDateTime.parse(fields.get(4).replace('/', '-'), TIME_FORMAT);
+            } catch (DateTimeParseException e) {
+                return "录入时间格式错误：" + fields.get(4);
+            }
+        }
+        return null;
+    }
+
+    private static boolean isHeader(List<String> fields) {
+        if (fields.size() < 4) {
+            return false;
+        }
+        try {
+            Double.parseDouble(fields.get(3));
+            return false;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    /**
+     * 拆分一行CSV：逗号分隔，双引号包围的字段可包含逗号，字段内两个双引号表示一个双引号；字段去掉首尾空白
+     */
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>(5);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+
+    private static ExecutorService newPool(int threads, String namePrefix) {
+        AtomicInteger seq = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, namePrefix + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // 等待线程池中的任务全部结束（期间的中断只记下，结束后恢复中断标记）
+    private static void awaitTermination(ExecutorService pool) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (pool.awaitTermination(1, TimeUnit.SECONDS)) {
+                    break;
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static int requirePositive(int value, String name) {
+        if (value <= 0) {
+            throw new IllegalArgumentException(name + "必须大于0：" + value);
+        }
+        return value;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,92 @@
+package com.score.entity;
+
+import com.score.util.DBUtil;
+import com.score.util.Log;
+import com.score.util.SchemaInspector;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * score_data表结构初始化（程序启动时、显示界面之前调用bootstrap()，与UserSchema共用score.schema.autoMigrate开关）
+ */
+public class ScoreSchema {
+    private static final Log LOG = Log.get(ScoreSchema.class);
+
+    private static final String TABLE = "score_data";
+    private static final boolean AUTO_MIGRATE =
+            Boolean.parseBoolean(System.getProperty("score.schema.autoMigrate", "true"));
+
+    // 成绩按学号、按学号+科目查询，联合索引的前缀同时覆盖两种查询；
+    // 其余索引供主界面表格按列排序分页（ScoreDaoImpl.getScorePage）按索引顺序读取
+    // 成绩范围与内存存储的成绩列一致（ScoreStore.MAX_SCORE），MySQL 8.0.16之前的版本忽略CHECK约束
+    private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS score_data (" +
+            "id BIGINT NOT NULL AUTO_INCREMENT, " +
+            "student_id VARCHAR(20) NOT NULL, " +
+            "student_name VARCHAR(50), " +
+            "subject VARCHAR(50) NOT NULL, " +
+            "score DECIMAL(5,1) NOT NULL CHECK (score BETWEEN 0 AND " + ScoreStore.MAX_SCORE + "), " +
+            "record_time DATETIME NOT NULL, " +
+            "PRIMARY KEY (id), " +
+            "KEY idx_student_subject (student_id, subject), " +
+            "KEY idx_student_name (student_name), " +
+            "KEY idx_subject (subject), " +
+            "KEY idx_score (score), " +
+            "KEY idx_record_time (record_time)" +
+            ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4";
+
+    // 已有的表缺少时补建的索引：索引名、列（按索引顺序）
+    private static final String[][] INDEXES = {
+            {"idx_student_subject", "student_id", "subject"},
+            {"idx_student_name", "student_name"},
+            {"idx_subject", "subject"},
+            {"idx_score", "score"},
+            {"idx_record_time", "record_time"},
+    };
+
+    private ScoreSchema() {}
+
+    /**
+     * 表不存在时创建，已存在时补齐缺少的索引
+     * @throws IllegalStateException 数据库不可用
+     */
+    public static void bootstrap() {
+        if (!AUTO_MIGRATE) {
+            return;
+        }
+        try (Connection conn = DBUtil.getConnection()) {
+            if (!SchemaInspector.tableExists(conn, TABLE)) {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute(CREATE_TABLE);
+                }
+                LOG.info("已创建score_data表");
+            } else {
+                createMissingIndexes(conn);
+            }
+        } catch (SQLException e) {
+            LOG.error("初始化score_data表结构失败：{}", e.getMessage());
+            throw new IllegalStateException("初始化score_data表结构失败：" + e.getMessage(), e);
+        }
+    }
+
+    // 已有索引的最左前缀能覆盖即视为满足
+    private static void createMissingIndexes(Connection conn) throws SQLException {
+        List<SchemaInspector.Index> indexes = SchemaInspector.indexes(conn, TABLE);
+        for (String[] spec : INDEXES) {
+            List<String> columns = Arrays.asList(spec).subList(1, spec.length);
+            boolean covered = false;
+            for (SchemaInspector.Index index : indexes) {
+                covered |= index.hasPrefix(columns);
+            }
+            if (!covered) {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("CREATE INDEX " + spec[0] + " ON score_data (" + String.join(", ", columns) + ")");
+                }
+                LOG.info("score_data表已创建索引：{}", spec[0]);
+            }
+        }
+    }
+}
\ No newline at end of file
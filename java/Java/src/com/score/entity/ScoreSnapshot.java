@@ -0,0 +1,594 @@
+package com.score.entity;
+
+import com.score.util.Log;
+import com.score.util.Lz4Block;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+import java.util.zip.CRC32;
+
+/**
+ * 成绩存储的二进制快照：启动时内存映射快照文件，把各列整段装入ScoreStore的列数组，不查询全部成绩、不逐行解析
+ * 文件格式（小端）：
+ *   文件头64字节：魔数(int) 版本(int) 标志(int) 段数(int) 创建时间(long) 行数(int，含已删除行) 有效行数(int)
+ *   最大id(long) 成绩和(long) 加权成绩和(long) 保留(int) CRC32(int)，有效行数到加权成绩和为写入时的数据指纹（ScoreStore.Fingerprint）
+ *   段表：每段32字节：类型(int) 标志(int) 偏移(long) 存储字节数(int) 原始字节数(int) CRC32(int) 保留(int)
+ *   列段：id/学生编码/科目编码/成绩/录入时间，与ScoreStore的列数组逐字节相同；
+ *   字符串段：学号/姓名/科目，个数(int) + 各字符串的结束偏移(int[]) + UTF-8字节
+ * 文件头的CRC覆盖文件头前60字节和段表，段的CRC覆盖段中存储的字节
+ * 未压缩的段映射后直接批量复制到列数组，耗时取决于读入文件页的速度；
+ * 开启压缩时每段按256KB分块，块头为原始长度和压缩长度（LZ4块格式，见Lz4Block，无收益的块原样存储），id和时间列先做差分
+ * 魔数/版本不符、CRC错误或指纹与数据库的聚合结果不一致（程序在刷新前退出、其他程序修改了数据等）时放弃快照，改为从数据库加载
+ * 刷新：注册为存储的Listener，数据变化后标记为脏，后台线程定期（及退出时）在存储的读锁内重写快照，先写临时文件再改名
+ */
+public class ScoreSnapshot {
+    private static final Log LOG = Log.get(ScoreSnapshot.class);
+
+    private static final int MAGIC = 0x53534E50; // "SSNP"
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 64;
+    private static final int ENTRY_BYTES = 32;
+    private static final int BLOCK_BYTES = 256 << 10;
+    private static final int FLAG_COMPRESSED = 1;
+    private static final int FLAG_DELTA = 2;
+
+    private static final int SECTION_IDS = 1;
+    private static final int SECTION_STUDENT_CODES = 2;
+    private static final int SECTION_SUBJECT_CODES = 3;
+    private static final int SECTION_SCORES = 4;
+    private static final int SECTION_TIMES = 5;
+    private static final int SECTION_STUDENT_IDS = 6;
+    private static final int SECTION_STUDENT_NAMES = 7;
+    private static final int SECTION_SUBJECTS = 8;
+    private static final int SECTION_COUNT = 8;
+
+    private final File file;
+    private final boolean compress;
+    private final ScoreStore.Listener changeListener = new ScoreStore.Listener() {
+        @Override
+        public void rowAdded(int studentCode, int subjectCode, int scoreTenths) {
+            dirty = true;
+        }
+
+        @Override
+        public void rowRemoved(int studentCode, int subjectCode, int scoreTenths) {
+            dirty = true;
+        }
+    };
+
+    private volatile boolean dirty;
+    private ScoreStore store;
+    private ScheduledExecutorService refresher;
+
+    /**
+     * @param file 快照文件
+     * @param compress 写入时是否压缩（读取时按文件中的标志处理，与该参数无关）
+     */
+    public ScoreSnapshot(File file, boolean compress) {
+        this.file = file;
+        this.compress = compress;
+    }
+
+    /**
+     * 从快照装入成绩存储
+     * @param expected 数据库当前的数据指纹（与快照中的指纹不一致时视为过期）
+     * @return 新的成绩存储；快照不存在、已损坏或已过期返回null
+     */
+    public ScoreStore load(ScoreStore.Fingerprint expected) {
+        if (!file.isFile()) {
+            return null;
+        }
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = readFully(channel, 0, HEADER_BYTES);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new IOException("魔数或版本不符");
+            }
+            int sectionCount = header.getInt(12);
+            if (sectionCount != SECTION_COUNT) {
+                throw new IOException("段数不符：" + sectionCount);
+            }
+            ByteBuffer table = readFully(channel, HEADER_BYTES, sectionCount * ENTRY_BYTES);
+            CRC32 crc = new CRC32();
+            crc.update(header.duplicate().limit(HEADER_BYTES - 4));
+            crc.update(table.duplicate());
+            if (header.getInt(HEADER_BYTES - 4) != (int) crc.getValue()) {
+                throw new IOException("文件头校验失败");
+            }
+            int rows = header.getInt(24);
+            int liveRows = header.getInt(28);
+            ScoreStore.Fingerprint saved = new ScoreStore.Fingerprint(liveRows, header.getLong(32),
+                    header.getLong(40), header.getLong(48));
+            if (!saved.equals(expected)) {
+                LOG.info("成绩快照已过期（快照：{}；数据库：{}），从数据库加载", saved, expected);
+                return null;
+            }
+            Section[] sections = new Section[SECTION_COUNT + 1];
+            for (int i = 0; i < sectionCount; i++) {
+                Section section = Section.read(table, i * ENTRY_BYTES);
+                if (section.type < 1 || section.type > SECTION_COUNT || sections[section.type] != null) {
+                    throw new IOException("段类型错误：" + section.type);
+                }
+                sections[section.type] = section;
+            }
+            // 预留增长空间，启动后新增成绩不必立即扩容
+            int capacity = Math.max(16, rows + (rows >> 3));
+            int[] ids = readInts(channel, sections[SECTION_IDS], new int[capacity], rows);
+            int[] studentCodes = readInts(channel, sections[SECTION_STUDENT_CODES], new int[capacity], rows);
+            short[] subjectCodes = readShorts(channel, sections[SECTION_SUBJECT_CODES], new short[capacity], rows);
+            short[] scores = readShorts(channel, sections[SECTION_SCORES], new short[capacity], rows);
+            int[] times = readInts(channel, sections[SECTION_TIMES], new int[capacity], rows);
+            List<String> studentIds = readStrings(channel, sections[SECTION_STUDENT_IDS]);
+            List<String> names = readStrings(channel, sections[SECTION_STUDENT_NAMES]);
+            List<String> subjects = readStrings(channel, sections[SECTION_SUBJECTS]);
+            checkRows(ids, studentCodes, studentIds.size(), subjectCodes, subjects.size(), rows);
+
+            ScoreStore loaded = new ScoreStore(0);
+            loaded.loadColumns(rows, ids, studentCodes, subjectCodes, scores, times, studentIds, names, subjects);
+            if (!saved.equals(loaded.read(ScoreStore.Columns::getFingerprint))) {
+                throw new IOException("数据与文件头中的指纹不符");
+            }
+            LOG.info("从快照加载成绩完成：{}行，{}KB，耗时{}ms", liveRows, channel.size() >> 10,
+                    (System.nanoTime() - start) / 1_000_000);
+            return loaded;
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("成绩快照无效，从数据库加载：{}（{}）", e.getMessage(), file.getName());
+            return null;
+        }
+    }
+
+    /**
+     * 把成绩存储写入快照（在存储的读锁内写入，期间存储的写操作等待）
+     * @return 成功返回true，失败记录日志后返回false（原有快照不受影响）
+     */
+    public boolean write(ScoreStore source) {
+        long start = System.nanoTime();
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            LOG.error("快照目录创建失败：{}", parent.getAbsolutePath());
+            return false;
+        }
+        File temp = new File(file.getPath() + ".tmp");
+        try {
+            int[] rows = new int[1];
+            ScoreStore.Fingerprint[] fingerprint = new ScoreStore.Fingerprint[1];
+            try (FileChannel channel = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                List<Section> sections = source.read(columns -> {
+                    try {
+                        rows[0] = columns.getRowCount();
+                        fingerprint[0] = columns.getFingerprint();
+                        return writeSections(channel, columns);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                writeHeader(channel, sections, rows[0], fingerprint[0]);
+                channel.force(true);
+            }
+            try {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            LOG.info("写入成绩快照：{}行，{}KB，耗时{}ms", fingerprint[0].getRows(), file.length() >> 10,
+                    (System.nanoTime() - start) / 1_000_000);
+            return true;
+        } catch (IOException | UncheckedIOException e) {
+            LOG.error("写入成绩快照失败：{}", e.getMessage(), e);
+            if (temp.exists() && !temp.delete()) {
+                LOG.warn("删除快照临时文件失败：{}", temp.getAbsolutePath());
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 跟踪存储的变化并定期刷新快照
+     * @param source 成绩存储
+     * @param refreshMillis 检查周期（毫秒），有变化时重写快照
+     * @param stale 快照是否已过期（从数据库加载时为true，下次检查即重写）
+     */
+    public synchronized void attach(ScoreStore source, long refreshMillis, boolean stale) {
+        if (store != null) {
+            throw new IllegalStateException("快照已关联成绩存储");
+        }
+        store = source;
+        dirty = stale;
+        source.addListener(changeListener);
+        refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "score-snapshot");
+            t.setDaemon(true);
+            return t;
+        });
+        refresher.scheduleWithFixedDelay(this::refreshIfDirty, refreshMillis, refreshMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 有变化时重写快照（写入失败时保留脏标记，下次重试）
+     */
+    public synchronized void refreshIfDirty() {
+        if (store == null || !dirty) {
+            return;
+        }
+        // 先清除标记：写入期间的变化会再次标记，下次刷新时写入
+        dirty = false;
+        if (!write(store)) {
+            dirty = true;
+        }
+    }
+
+    /**
+     * 停止定期刷新，有未写入的变化时最后写一次（程序退出时调用）
+     */
+    public void close() {
+        ScheduledExecutorService executor;
+        synchronized (this) {
+            executor = refresher;
+            refresher = null;
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        refreshIfDirty();
+    }
+
+    private List<Section> writeSections(FileChannel channel, ScoreStore.Columns columns) throws IOException {
+        int rows = columns.getRowCount();
+        short[] subjectCodes = columns.getSubjectCodes();
+        channel.position(HEADER_BYTES + SECTION_COUNT * ENTRY_BYTES);
+        SectionWriter writer = new SectionWriter(channel);
+        List<Section> sections = new ArrayList<>(SECTION_COUNT);
+        sections.add(writer.writeInts(SECTION_IDS, columns.getIds(), rows, compress));
+        sections.add(writer.writeInts(SECTION_STUDENT_CODES, columns.getStudentCodes(), rows, false));
+        sections.add(writer.writeShorts(SECTION_SUBJECT_CODES, subjectCodes, rows));
+        sections.add(writer.writeShorts(SECTION_SCORES, columns.getScores(), rows));
+        sections.add(writer.writeInts(SECTION_TIMES, columns.getTimes(), rows, compress));
+        sections.add(writer.writeStrings(SECTION_STUDENT_IDS, columns.getStudentCount(), columns::getStudentId));
+        sections.add(writer.writeStrings(SECTION_STUDENT_NAMES, columns.getStudentCount(), columns::getStudentName));
+        sections.add(writer.writeStrings(SECTION_SUBJECTS, columns.getSubjectCount(), columns::getSubject));
+        return sections;
+    }
+
+    private void writeHeader(FileChannel channel, List<Section> sections, int rows, ScoreStore.Fingerprint fingerprint)
+            throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, compress ? FLAG_COMPRESSED : 0)
+                .putInt(12, sections.size()).putLong(16, System.currentTimeMillis())
+                .putInt(24, rows).putInt(28, (int) fingerprint.getRows()).putLong(32, fingerprint.getMaxId())
+                .putLong(40, fingerprint.getScoreSum()).putLong(48, fingerprint.getWeightedSum());
+        ByteBuffer table = ByteBuffer.allocate(sections.size() * ENTRY_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (Section section : sections) {
+            section.writeTo(table);
+        }
+        table.flip();
+        CRC32 crc = new CRC32();
+        crc.update(header.duplicate().limit(HEADER_BYTES - 4));
+        crc.update(table.duplicate());
+        header.putInt(HEADER_BYTES - 4, (int) crc.getValue());
+        writeFully(channel, header, 0);
+        writeFully(channel, table, HEADER_BYTES);
+    }
+
+    private static int[] readInts(FileChannel channel, Section section, int[] target, int rows) throws IOException {
+        int[] filled = new int[1];
+        readSection(channel, section, (long) rows * 4, block -> {
+            IntBuffer ints = block.asIntBuffer();
+            ints.get(target, filled[0], ints.remaining());
+            filled[0] += ints.limit();
+        });
+        if ((section.flags & FLAG_DELTA) != 0) {
+            for (int i = 1; i < rows; i++) {
+                target[i] += target[i - 1];
+            }
+        }
+        return target;
+    }
+
+    private static short[] readShorts(FileChannel channel, Section section, short[] target, int rows)
+            throws IOException {
+        int[] filled = new int[1];
+        readSection(channel, section, (long) rows * 2, block -> {
+            ShortBuffer shorts = block.asShortBuffer();
+            shorts.get(target, filled[0], shorts.remaining());
+            filled[0] += shorts.limit();
+        });
+        return target;
+    }
+
+    private static List<String> readStrings(FileChannel channel, Section section) throws IOException {
+        byte[] raw = new byte[section.rawBytes];
+        int[] filled = new int[1];
+        readSection(channel, section, section.rawBytes, block -> {
+            int length = block.remaining();
+            block.get(raw, filled[0], length);
+            filled[0] += length;
+        });
+        ByteBuffer in = ByteBuffer.wrap(raw).order(ByteOrder.LITTLE_ENDIAN);
+        int count = in.getInt();
+        if (count < 0 || count > (raw.length - 4) / 4) {
+            throw new IOException("字符串段损坏");
+        }
+        int base = 4 + count * 4;
+        List<String> values = new ArrayList<>(count);
+        int begin = base;
+        for (int i = 0; i < count; i++) {
+            int end = base + in.getInt(4 + i * 4);
+            if (end < begin || end > raw.length) {
+                throw new IOException("字符串段损坏");
+            }
+            values.add(new String(raw, begin, end - begin, StandardCharsets.UTF_8));
+            begin = end;
+        }
+        return values;
+    }
+
+    // 映射一个段并校验CRC，按块（未压缩时为整段）交给sink；块都是小端
+    private static void readSection(FileChannel channel, Section section, long expectedRaw, BlockSink sink)
+            throws IOException {
+        if (section.rawBytes != expectedRaw) {
+            throw new IOException("段" + section.type + "长度不符");
+        }
+        if (section.offset + section.storedBytes > channel.size()) {
+            throw new IOException("文件不完整");
+        }
+        ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, section.offset, section.storedBytes)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        CRC32 crc = new CRC32();
+        crc.update(data.duplicate());
+        if ((int) crc.getValue() != section.crc) {
+            throw new IOException("段" + section.type + "校验失败");
+        }
+        if ((section.flags & FLAG_COMPRESSED) == 0) {
+            if (section.storedBytes != section.rawBytes) {
+                throw new IOException("段" + section.type + "长度不符");
+            }
+            sink.accept(data);
+            return;
+        }
+        byte[] packed = new byte[Lz4Block.maxCompressedLength(BLOCK_BYTES)];
+        byte[] raw = new byte[BLOCK_BYTES];
+        long total = 0;
+        while (data.hasRemaining()) {
+            int rawLength = data.getInt();
+            int storedLength = data.getInt();
+            if (rawLength <= 0 || rawLength > BLOCK_BYTES || storedLength <= 0 || storedLength > rawLength
+                    || storedLength > data.remaining()) {
+                throw new IOException("段" + section.type + "的压缩块损坏");
+            }
+            if (storedLength == rawLength) {
+                sink.accept(data.slice(data.position(), rawLength).order(ByteOrder.LITTLE_ENDIAN));
+            } else {
+                data.get(data.position(), packed, 0, storedLength);
+                Lz4Block.decompress(packed, 0, storedLength, raw, 0, rawLength);
+                sink.accept(ByteBuffer.wrap(raw, 0, rawLength).slice().order(ByteOrder.LITTLE_ENDIAN));
+            }
+            data.position(data.position() + storedLength);
+            total += rawLength;
+        }
+        if (total != section.rawBytes) {
+            throw new IOException("段" + section.type + "解压后长度不符");
+        }
+    }
+
+    // id必须严格递增（按id二分查找），编码必须落在字典范围内（已删除行的科目编码为DELETED）
+    private static void checkRows(int[] ids, int[] studentCodes, int studentCount, short[] subjectCodes,
+                                  int subjectCount, int rows) throws IOException {
+        for (int row = 0; row < rows; row++) {
+            int subject = subjectCodes[row];
+            if (ids[row] <= (row == 0 ? 0 : ids[row - 1])) {
+                throw new IOException("第" + row + "行的id不递增");
+            }
+            if (studentCodes[row] < 0 || studentCodes[row] >= studentCount
+                    || (subject != ScoreStore.DELETED && (subject < 0 || subject >= subjectCount))) {
+                throw new IOException("第" + row + "行的编码超出字典范围");
+            }
+        }
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("文件不完整");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private interface BlockSink {
+        void accept(ByteBuffer block) throws IOException;
+    }
+
+    /**
+     * 段表中的一项
+     */
+    private static final class Section {
+        final int type;
+        final int flags;
+        final long offset;
+        final int storedBytes;
+        final int rawBytes;
+        final int crc;
+
+        Section(int type, int flags, long offset, int storedBytes, int rawBytes, int crc) {
+            this.type = type;
+            this.flags = flags;
+            this.offset = offset;
+            this.storedBytes = storedBytes;
+            this.rawBytes = rawBytes;
+            this.crc = crc;
+        }
+
+        static Section read(ByteBuffer table, int pos) throws IOException {
+            Section section = new Section(table.getInt(pos), table.getInt(pos + 4), table.getLong(pos + 8),
+                    table.getInt(pos + 16), table.getInt(pos + 20), table.getInt(pos + 24));
+            if (section.offset < HEADER_BYTES || section.storedBytes < 0 || section.rawBytes < 0) {
+                throw new IOException("段表损坏");
+            }
+            return section;
+        }
+
+        void writeTo(ByteBuffer table) {
+            table.putInt(type).putInt(flags).putLong(offset).putInt(storedBytes).putInt(rawBytes).putInt(crc).putInt(0);
+        }
+    }
+
+    /**
+     * 顺序写出各段：原始数据按块组装，开启压缩时逐块压缩
+     */
+    private final class SectionWriter {
+        private final FileChannel channel;
+        private final byte[] block = new byte[BLOCK_BYTES];
+        private final ByteBuffer blockView = ByteBuffer.wrap(block).order(ByteOrder.LITTLE_ENDIAN);
+        private final byte[] packed;
+        private final Lz4Block lz4;
+        private final byte[] blockHeader = new byte[8];
+        private final CRC32 crc = new CRC32();
+        private long stored;
+        private long raw;
+
+        SectionWriter(FileChannel channel) {
+            this.channel = channel;
+            this.packed = compress ? new byte[Lz4Block.maxCompressedLength(BLOCK_BYTES)] : null;
+            this.lz4 = compress ? new Lz4Block() : null;
+        }
+
+        Section writeInts(int type, int[] values, int rows, boolean delta) throws IOException {
+            long offset = begin();
+            int perBlock = BLOCK_BYTES / 4;
+            int previous = 0;
+            for (int from = 0; from < rows; from += perBlock) {
+                int n = Math.min(perBlock, rows - from);
+                IntBuffer ints = blockView.clear().asIntBuffer();
+                if (delta) {
+                    for (int i = from; i < from + n; i++) {
+                        ints.put(values[i] - previous);
+                        previous = values[i];
+                    }
+                } else {
+                    ints.put(values, from, n);
+                }
+                writeBlock(n * 4);
+            }
+            return end(type, offset, delta ? FLAG_DELTA : 0);
+        }
+
+        Section writeShorts(int type, short[] values, int rows) throws IOException {
+            long offset = begin();
+            int perBlock = BLOCK_BYTES / 2;
+            for (int from = 0; from < rows; from += perBlock) {
+                int n = Math.min(perBlock, rows - from);
+                blockView.clear().asShortBuffer().put(values, from, n);
+                writeBlock(n * 2);
+            }
+            return end(type, offset, 0);
+        }
+
+        Section writeStrings(int type, int count, IntFunction<String> values) throws IOException {
+            long offset = begin();
+            byte[][] encoded = new byte[count][];
+            int[] ends = new int[count];
+            int length = 0;
+            for (int i = 0; i < count; i++) {
+                String value = values.apply(i);
+                encoded[i] = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+                length += encoded[i].length;
+                ends[i] = length;
+            }
+            blockView.clear();
+            put(ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(count).array());
+            ByteBuffer endBytes = ByteBuffer.allocate(count * 4).order(ByteOrder.LITTLE_ENDIAN);
+            endBytes.asIntBuffer().put(ends);
+            put(endBytes.array());
+            for (byte[] value : encoded) {
+                put(value);
+            }
+            if (blockView.position() > 0) {
+                writeBlock(blockView.position());
+            }
+            return end(type, offset, 0);
+        }
+
+        // 向当前块追加字节，块满时写出
+        private void put(byte[] bytes) throws IOException {
+            int from = 0;
+            while (from < bytes.length) {
+                int n = Math.min(bytes.length - from, blockView.remaining());
+                blockView.put(bytes, from, n);
+                from += n;
+                if (!blockView.hasRemaining()) {
+                    writeBlock(BLOCK_BYTES);
+                    blockView.clear();
+                }
+            }
+        }
+
+        private long begin() throws IOException {
+            crc.reset();
+            stored = 0;
+            raw = 0;
+            return channel.position();
+        }
+
+        private Section end(int type, long offset, int flags) {
+            if (stored > Integer.MAX_VALUE || raw > Integer.MAX_VALUE) {
+                throw new IllegalStateException("快照的段超过2GB");
+            }
+            return new Section(type, flags | (compress ? FLAG_COMPRESSED : 0), offset, (int) stored, (int) raw,
+                    (int) crc.getValue());
+        }
+
+        private void writeBlock(int length) throws IOException {
+            raw += length;
+            if (!compress) {
+                emit(block, length);
+                return;
+            }
+            int packedLength = lz4.compress(block, 0, length, packed, 0);
+            boolean packedSmaller = packedLength < length;
+            ByteBuffer.wrap(blockHeader).order(ByteOrder.LITTLE_ENDIAN)
+                    .putInt(length).putInt(packedSmaller ? packedLength : length);
+            emit(blockHeader, blockHeader.length);
+            if (packedSmaller) {
+                emit(packed, packedLength);
+            } else {
+                emit(block, length);
+            }
+        }
+
+        private void emit(byte[] bytes, int length) throws IOException {
+            crc.update(bytes, 0, length);
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, length);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            stored += length;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,419 @@
+package com.score.entity;
+
+import com.score.util.Log;
+import com.score.util.StringDictionary;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 成绩统计引擎：按科目、按班级计算人数、平均分、标准差、最低/最高分、百分位数和分数段分布
+ * 全量计算用fork/join按行区间并行扫描ScoreStore的列数组，各段的部分结果逐级合并；
+ * 之后注册为ScoreStore的Listener，单条成绩新增/修改/删除时只更新对应的科目和班级（O(1)），不重新扫描
+ * 每组保存成绩的精确频数表（按0.1分一格，默认0~100分共1001格）和成绩的和、平方和（整数，单位0.1分），
+ * 因此增删都能精确更新，最低/最高分和百分位数直接由频数表得出；超出[0, 满分]的成绩计入两端的格子
+ * 班级取学号去掉末尾若干位（班内序号）后的前缀，系统属性：
+ * score.stats.maxScore（满分，默认100）、score.stats.classSeqDigits（班内序号位数，默认2）
+ */
+public class ScoreStatistics implements ScoreStore.Listener {
+    private static final Log LOG = Log.get(ScoreStatistics.class);
+
+    // 分数段：下限（含），最后一段包含满分
+    private static final double[] BAND_LOWER = {0, 60, 70, 80, 90};
+    private static final String[] BAND_NAMES = {"不及格", "及格", "中等", "良好", "优秀"};
+    private static final int MIN_SPLIT_ROWS = 1 << 15;
+
+    private final ScoreStore store;
+    private final int maxTenths;
+    private final int classSeqDigits;
+    private final int[] bandStarts;
+
+    // 以下字段由this锁保护
+    private final StringDictionary classes = new StringDictionary();
+    private int[] studentClasses = new int[0];
+    private String[] subjectNames = new String[0];
+    private Aggregates bySubject;
+    private Aggregates byClass;
+
+    /**
+     * 创建引擎并立即全量计算一次，之后随存储的变化增量更新
+     */
+    public ScoreStatistics(ScoreStore store) {
+        this(store, Double.parseDouble(System.getProperty("score.stats.maxScore", "100")),
+                Integer.getInteger("score.stats.classSeqDigits", 2));
+    }
+
+    public ScoreStatistics(ScoreStore store, double maxScore, int classSeqDigits) {
+        if (!(maxScore > 0) || maxScore * 10 > Short.MAX_VALUE || classSeqDigits < 0) {
+            throw new IllegalArgumentException("统计参数错误：maxScore=" + maxScore + "，classSeqDigits=" + classSeqDigits);
+        }
+        this.store = store;
+        this.maxTenths = (int) Math.round(maxScore * 10);
+        this.classSeqDigits = classSeqDigits;
+        // 分数段按满分等比例换算（满分不是100时，60分线对应满分的60%）
+        this.bandStarts = new int[BAND_LOWER.length];
+        for (int i = 0; i < bandStarts.length; i++) {
+            bandStarts[i] = (int) Math.round(BAND_LOWER[i] * maxTenths / 100);
+        }
+        store.read(columns -> {
+            rebuild(columns);
+            // 在读锁内注册：全量结果与之后的增量之间不会漏掉写操作
+            store.addListener(this);
+            return null;
+        });
+    }
+
+    /**
+     * 全量重新计算（正常情况下不需要调用，增量结果与全量结果一致）
+     */
+    public void recompute() {
+        store.read(columns -> {
+            rebuild(columns);
+            return null;
+        });
+    }
+
+    /**
+     * 停止增量更新
+     */
+    public void close() {
+        store.removeListener(this);
+    }
+
+    /**
+     * 全部成绩的统计
+     */
+    public synchronized Stats getOverallStats() {
+        Aggregates total = new Aggregates(1, maxTenths + 1);
+        for (int g = 0; g < bySubject.groups; g++) {
+            total.mergeGroup(0, bySubject, g);
+        }
+        return total.toStats("全部", 0, bandStarts);
+    }
+
+    /**
+     * 各科目的统计（按科目首次出现的顺序，不含没有成绩的科目）
+     */
+    public synchronized Map<String, Stats> getSubjectStats() {
+        Map<String, Stats> result = new LinkedHashMap<>();
+        for (int g = 0; g < bySubject.groups; g++) {
+            if (bySubject.count[g] > 0) {
+                result.put(subjectNames[g], bySubject.toStats(subjectNames[g], g, bandStarts));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 各班级的统计（按班级首次出现的顺序，不含没有成绩的班级）
+     */
+    public synchronized Map<String, Stats> getClassStats() {
+        Map<String, Stats> result = new LinkedHashMap<>();
+        for (int g = 0; g < byClass.groups; g++) {
+            if (byClass.count[g] > 0) {
+                String name = classes.decode(g);
+                result.put(name, byClass.toStats(name, g, bandStarts));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 学号所属的班级（学号去掉末尾classSeqDigits位，长度不足时为学号本身）
+     */
+    public String classOf(String studentId) {
+        return studentId.length() > classSeqDigits
+                ? studentId.substring(0, studentId.length() - classSeqDigits) : studentId;
+    }
+
+    public static String[] getBandNames() {
+        return BAND_NAMES.clone();
+    }
+
+    @Override
+    public synchronized void rowAdded(int studentCode, int subjectCode, int scoreTenths) {
+        apply(studentCode, subjectCode, scoreTenths, 1);
+    }
+
+    @Override
+    public synchronized void rowRemoved(int studentCode, int subjectCode, int scoreTenths) {
+        apply(studentCode, subjectCode, scoreTenths, -1);
+    }
+
+    // 增量更新（在存储的写锁内调用，新出现的学生/科目需要补充映射）
+    private void apply(int studentCode, int subjectCode, int scoreTenths, int delta) {
+        if (subjectCode == ScoreStore.DELETED) {
+            return;
+        }
+        if (studentCode >= studentClasses.length || subjectCode >= subjectNames.length) {
+            store.read(this::syncDictionaries);
+        }
+        int bin = bin(scoreTenths);
+        bySubject.ensureGroups(subjectNames.length);
+        byClass.ensureGroups(classes.size());
+        bySubject.add(subjectCode, scoreTenths, bin, delta);
+        byClass.add(studentClasses[studentCode], scoreTenths, bin, delta);
+    }
+
+    private synchronized void rebuild(ScoreStore.Columns columns) {
+        long start = System.nanoTime();
+        syncDictionaries(columns);
+        int rows = columns.getRowCount();
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int split = Math.max(MIN_SPLIT_ROWS, (rows + pool.getParallelism() - 1) / pool.getParallelism());
+        Partial partial = pool.invoke(new ScanTask(columns, 0, rows, split));
+        bySubject = partial.bySubject;
+        byClass = partial.byClass;
+        LOG.info("成绩统计全量计算完成：{}行，{}个班级，耗时{}ms", rows, classes.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // 补充学生→班级映射和科目名称（字典只增不减，已有编码不变）
+    private Void syncDictionaries(ScoreStore.Columns columns) {
+        int students = columns.getStudentCount();
+        int from = studentClasses.length;
+        if (students > from) {
+            studentClasses = Arrays.copyOf(studentClasses, students);
+            for (int code = from; code < students; code++) {
+                studentClasses[code] = classes.encode(classOf(columns.getStudentId(code)));
+            }
+        }
+        int subjects = columns.getSubjectCount();
+        if (subjects > subjectNames.length) {
+            int old = subjectNames.length;
+            subjectNames = Arrays.copyOf(subjectNames, subjects);
+            for (int code = old; code < subjects; code++) {
+                subjectNames[code] = columns.getSubject(code);
+            }
+        }
+        return null;
+    }
+
+    private int bin(int scoreTenths) {
+        return Math.max(0, Math.min(maxTenths, scoreTenths));
+    }
+
+    // 一段行区间的部分结果
+    private static final class Partial {
+        final Aggregates bySubject;
+        final Aggregates byClass;
+
+        Partial(Aggregates bySubject, Aggregates byClass) {
+            this.bySubject = bySubject;
+            this.byClass = byClass;
+        }
+    }
+
+    /**
+     * 按行区间二分的扫描任务：区间不超过split行时直接扫描，否则拆成两半并行计算后合并
+     */
+    private final class ScanTask extends RecursiveTask<Partial> {
+        private final ScoreStore.Columns columns;
+        private final int from;
+        private final int to;
+        private final int split;
+
+        ScanTask(ScoreStore.Columns columns, int from, int to, int split) {
+            this.columns = columns;
+            this.from = from;
+            this.to = to;
+            this.split = split;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (to - from <= split) {
+                return scan();
+            }
+            int mid = (from + to) >>> 1;
+            ScanTask left = new ScanTask(columns, from, mid, split);
+            left.fork();
+            Partial right = new ScanTask(columns, mid, to, split).compute();
+            Partial result = left.join();
+            result.bySubject.merge(right.bySubject);
+            result.byClass.merge(right.byClass);
+            return result;
+        }
+
+        private Partial scan() {
+            int bins = maxTenths + 1;
+            Aggregates subjects = new Aggregates(subjectNames.length, bins);
+            Aggregates classGroups = new Aggregates(classes.size(), bins);
+            int[] studentCodes = columns.getStudentCodes();
+            short[] subjectCodes = columns.getSubjectCodes();
+            short[] scores = columns.getScores();
+            int[] classOfStudent = studentClasses;
+            for (int row = from; row < to; row++) {
+                int subject = subjectCodes[row];
+                if (subject == ScoreStore.DELETED) {
+                    continue;
+                }
+                int score = scores[row];
+                int bin = score < 0 ? 0 : Math.min(score, maxTenths);
+                subjects.add(subject, score, bin, 1);
+                classGroups.add(classOfStudent[studentCodes[row]], score, bin, 1);
+            }
+            return new Partial(subjects, classGroups);
+        }
+    }
+
+    /**
+     * 按组的累加器：人数、成绩和、平方和（单位0.1分，long精确累加）和频数表（扁平数组，组号*格数+格）
+     */
+    private static final class Aggregates {
+        final int bins;
+        int groups;
+        long[] count;
+        long[] sum;
+        long[] sumSq;
+        int[] freq;
+
+        Aggregates(int groups, int bins) {
+            this.bins = bins;
+            this.groups = groups;
+            this.count = new long[groups];
+            this.sum = new long[groups];
+            this.sumSq = new long[groups];
+            this.freq = new int[groups * bins];
+        }
+
+        void ensureGroups(int n) {
+            if (n > groups) {
+                count = Arrays.copyOf(count, n);
+                sum = Arrays.copyOf(sum, n);
+                sumSq = Arrays.copyOf(sumSq, n);
+                freq = Arrays.copyOf(freq, n * bins);
+                groups = n;
+            }
+        }
+
+        void add(int group, int score, int bin, int delta) {
+            count[group] += delta;
+            sum[group] += (long) delta * score;
+            sumSq[group] += (long) delta * score * score;
+            freq[group * bins + bin] += delta;
+        }
+
+        void merge(Aggregates other) {
+            ensureGroups(other.groups);
+            for (int g = 0; g < other.groups; g++) {
+                mergeGroup(g, other, g);
+            }
+        }
+
+        void mergeGroup(int group, Aggregates other, int otherGroup) {
+            if (other.count[otherGroup] == 0) {
+                return;
+            }
+            count[group] += other.count[otherGroup];
+            sum[group] += other.sum[otherGroup];
+            sumSq[group] += other.sumSq[otherGroup];
+            int base = group * bins;
+            int otherBase = otherGroup * bins;
+            for (int b = 0; b < bins; b++) {
+                freq[base + b] += other.freq[otherBase + b];
+            }
+        }
+
+        Stats toStats(String name, int group, int[] bandStarts) {
+            int base = group * bins;
+            return new Stats(name, count[group], sum[group], sumSq[group],
+                    Arrays.copyOfRange(freq, base, base + bins), bandStarts);
+        }
+    }
+
+    /**
+     * 一组成绩的统计结果（不可变快照）
+     */
+    public static final class Stats {
+        private final String name;
+        private final long count;
+        private final double mean;
+        private final double stddev;
+        private final int[] freq;
+        private final long[] bandCounts;
+
+        Stats(String name, long count, long sumTenths, long sumSqTenths, int[] freq, int[] bandStarts) {
+            this.name = name;
+            this.count = count;
+            this.freq = freq;
+            if (count > 0) {
+                double mean = (double) sumTenths / count;
+                // 总体标准差：E[x²]-E[x]²，和与平方和都是精确整数，不会有增量累计误差
+                double variance = Math.max(0, (double) sumSqTenths / count - mean * mean);
+                this.mean = mean / 10;
+                this.stddev = Math.sqrt(variance) / 10;
+            } else {
+                this.mean = Double.NaN;
+                this.stddev = Double.NaN;
+            }
+            this.bandCounts = new long[bandStarts.length];
+            int band = 0;
+            for (int b = 0; b < freq.length; b++) {
+                while (band + 1 < bandStarts.length && b >= bandStarts[band + 1]) {
+                    band++;
+                }
+                bandCounts[band] += freq[b];
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getMean() {
+            return mean;
+        }
+
+        public double getStddev() {
+            return stddev;
+        }
+
+        public double getMin() {
+            return percentile(0);
+        }
+
+        public double getMax() {
+            return percentile(100);
+        }
+
+        /**
+         * 百分位数（最近秩法：排序后第ceil(p% × 人数)个成绩），没有成绩返回NaN
+         * @param p 0~100
+         */
+        public double percentile(double p) {
+            if (count == 0) {
+                return Double.NaN;
+            }
+            long rank = Math.max(1, (long) Math.ceil(p / 100 * count));
+            long seen = 0;
+            for (int b = 0; b < freq.length; b++) {
+                seen += freq[b];
+                if (seen >= rank) {
+                    return b / 10.0;
+                }
+            }
+            return (freq.length - 1) / 10.0;
+        }
+
+        /**
+         * 各分数段人数，与getBandNames()一一对应
+         */
+        public long[] getBandCounts() {
+            return bandCounts.clone();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s：人数%d，平均%.2f，标准差%.2f，最低%.1f，中位数%.1f，最高%.1f，分数段%s",
+                    name, count, mean, stddev, getMin(), percentile(50), getMax(), Arrays.toString(bandCounts));
+        }
+    }
+}
\ No newline at end of file
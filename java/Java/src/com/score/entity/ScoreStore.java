@@ -0,0 +1,738 @@
+package com.score.entity;
+
+import com.score.dao.Score;
+import com.score.util.Log;
+import com.score.util.StringDictionary;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * 成绩的内存列式存储（工作集）：每一列是一个原始类型数组，不创建Score对象
+ * 每行16字节：id(int) 学生编码(int) 科目编码(short) 成绩(short，单位0.1分) 录入时间(int，2000-01-01起的秒数)
+ * 学号和科目按字典编码（StringDictionary），学生姓名按学生编码保存一份；数千万行只需数百MB堆内存，
+ * 按列顺序扫描（见read）不产生对象分配，速度接近内存带宽
+ * 行按id递增排列（从数据库按id顺序加载，新增的自增id总是更大），按id查找使用二分查找；
+ * 删除只把科目编码置为DELETED，失效行超过四分之一时自动压缩
+ * 线程安全：读操作共享读锁，写操作和压缩独占写锁
+ * 行的增删改通过Listener通知（如统计引擎增量更新），回调在写锁内执行
+ */
+public class ScoreStore {
+    private static final Log LOG = Log.get(ScoreStore.class);
+
+    /** 已删除行的科目编码 */
+    public static final short DELETED = -1;
+    /** 成绩列（short，单位0.1分）能表示的最高分；数据库表的CHECK约束和导入校验使用同一上限 */
+    public static final double MAX_SCORE = Short.MAX_VALUE / 10.0;
+    /** 录入时间为空时的时间列取值 */
+    public static final int NO_TIME = Integer.MIN_VALUE;
+    // 时间列的起点：2000-01-01T00:00:00，int秒数可表示到2068年
+    private static final long TIME_BASE = LocalDateTime.of(2000, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+    private static final int MIN_COMPACT_ROWS = 1024;
+    // 加载时逐行记录日志的跳过行数上限（其余只计数）
+    private static final int MAX_LOGGED_SKIPS = 20;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final StringDictionary students = new StringDictionary();
+    private final StringDictionary subjects = new StringDictionary();
+    private final List<String> studentNames = new ArrayList<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private int[] ids;
+    private int[] studentCodes;
+    private short[] subjectCodes;
+    private short[] scores;
+    private int[] times;
+    private int rows;        // 已使用的行数（含已删除行）
+    private int deletedRows;
+
+    /**
+     * 行变化回调（在写锁内调用，实现应尽快返回，不能再调用本存储的写方法）
+     * 修改一行时先以旧值调用rowRemoved，再以新值调用rowAdded
+     */
+    public interface Listener {
+        void rowAdded(int studentCode, int subjectCode, int scoreTenths);
+
+        void rowRemoved(int studentCode, int subjectCode, int scoreTenths);
+    }
+
+    public ScoreStore() {
+        this(1024);
+    }
+
+    /**
+     * @param initialCapacity 初始行容量（已知行数时传入可避免扩容复制）
+     */
+    public ScoreStore(int initialCapacity) {
+        int capacity = Math.max(16, initialCapacity);
+        ids = new int[capacity];
+        studentCodes = new int[capacity];
+        subjectCodes = new short[capacity];
+        scores = new short[capacity];
+        times = new int[capacity];
+    }
+
+    /**
+     * 从数据库按id顺序加载全部成绩（流式读取，追加到当前存储末尾）
+     * 无法存入的行（成绩超出[0, MAX_SCORE]、学号/科目为空等，如其他程序写入的数据）跳过并记录日志，不影响其余行
+     * @return 加载的行数（不含跳过的行），数据库异常返回-1
+     */
+    public long loadFrom(ScoreDao scoreDao) {
+        long start = System.nanoTime();
+        long[] skipped = new long[1];
+        long count = scoreDao.forEachScore(score -> {
+            try {
+                add(score);
+            } catch (IllegalArgumentException e) {
+                if (skipped[0]++ < MAX_LOGGED_SKIPS) {
+                    LOG.warn("成绩无法加载到内存，已跳过：id={}，{}", score.getId(), e.getMessage());
+                }
+            }
+        });
+        if (count < 0) {
+            return count;
+        }
+        if (skipped[0] > 0) {
+            LOG.warn("加载成绩到内存时共跳过{}行无法存入的数据", skipped[0]);
+        }
+        LOG.info("加载成绩到内存完成：{}行，约{}MB，耗时{}ms", count - skipped[0], getMemoryBytes() >> 20,
+                (System.nanoTime() - start) / 1_000_000);
+        return count - skipped[0];
+    }
+
+    /**
+     * 装入快照（ScoreSnapshot）中的列数据：数组直接作为列数组使用，不复制；只能在新建的空存储上、注册Listener之前调用
+     * @param rowCount 行数（含已删除行），各数组长度至少为rowCount
+     * @param studentIds 按编码顺序排列的学号
+     * @param names 按学生编码排列的姓名
+     * @param subjectNames 按编码顺序排列的科目
+     * @throws IllegalArgumentException 存储不为空、数组长度不足或字典中有重复的值
+     */
+    void loadColumns(int rowCount, int[] ids, int[] studentCodes, short[] subjectCodes, short[] scores, int[] times,
+                     List<String> studentIds, List<String> names, List<String> subjectNames) {
+        lock.writeLock().lock();
+        try {
+            if (rows != 0 || students.size() != 0 || !listeners.isEmpty()) {
+                throw new IllegalArgumentException("只能向空的成绩存储装入快照");
+            }
+            int capacity = Math.min(Math.min(ids.length, studentCodes.length),
+                    Math.min(Math.min(subjectCodes.length, scores.length), times.length));
+            if (rowCount < 0 || capacity < rowCount || studentIds.size() != names.size()) {
+                throw new IllegalArgumentException("快照列数据不完整");
+            }
+            for (String studentId : studentIds) {
+                if (students.encode(studentId) != studentNames.size()) {
+                    throw new IllegalArgumentException("快照中的学号重复：" + studentId);
+                }
+                studentNames.add(names.get(studentNames.size()));
+            }
+            for (String subject : subjectNames) {
+                int expected = subjects.size();
+                if (subjects.encode(subject) != expected) {
+                    throw new IllegalArgumentException("快照中的科目重复：" + subject);
+                }
+            }
+            int deleted = 0;
+            for (int row = 0; row < rowCount; row++) {
+                if (subjectCodes[row] == DELETED) {
+                    deleted++;
+                }
+            }
+            this.ids = ids;
+            this.studentCodes = studentCodes;
+            this.subjectCodes = subjectCodes;
+            this.scores = scores;
+            this.times = times;
+            this.rows = rowCount;
+            this.deletedRows = deleted;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 追加一行成绩
+     * @throws IllegalArgumentException id不大于已有的最大id、超出int范围，学号/科目为空，或成绩超出列的表示范围
+     */
+    public void add(Score score) {
+        lock.writeLock().lock();
+        try {
+            if (score.getId() <= 0 || score.getId() > Integer.MAX_VALUE
+                    || (rows > 0 && score.getId() <= ids[rows - 1])) {
+                throw new IllegalArgumentException("成绩id必须递增且在int范围内：" + score.getId());
+            }
+            short scoreTenths = toTenths(score.getScore());
+            int time = toTime(score.getRecordTime());
+            int studentCode = encodeStudent(score);
+            short subjectCode = encodeSubject(score.getSubject());
+            if (rows == ids.length) {
+                grow();
+            }
+            ids[rows] = (int) score.getId();
+            studentCodes[rows] = studentCode;
+            subjectCodes[rows] = subjectCode;
+            scores[rows] = scoreTenths;
+            times[rows] = time;
+            rows++;
+            for (Listener listener : listeners) {
+                listener.rowAdded(studentCode, subjectCode, scoreTenths);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 按原id恢复一行（撤销删除/重做新增时使用）：行仍以已删除状态保留时直接恢复，否则按id顺序插入
+     * 插入到中间需要移动其后的行，只用于零星的单行恢复
+     * @throws IllegalArgumentException id已存在、超出int范围，学号/科目为空，或成绩超出列的表示范围
+     */
+    public void restore(Score score) {
+        lock.writeLock().lock();
+        try {
+            if (score.getId() <= 0 || score.getId() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("成绩id超出int范围：" + score.getId());
+            }
+            int id = (int) score.getId();
+            int row = Arrays.binarySearch(ids, 0, rows, id);
+            if (row >= 0 && subjectCodes[row] != DELETED) {
+                throw new IllegalArgumentException("成绩id已存在：" + id);
+            }
+            short scoreTenths = toTenths(score.getScore());
+            int time = toTime(score.getRecordTime());
+            int studentCode = encodeStudent(score);
+            short subjectCode = encodeSubject(score.getSubject());
+            if (row >= 0) {
+                deletedRows--;
+            } else {
+                row = -row - 1;
+                if (rows == ids.length) {
+                    grow();
+                }
+                int moved = rows - row;
+                System.arraycopy(ids, row, ids, row + 1, moved);
+                System.arraycopy(studentCodes, row, studentCodes, row + 1, moved);
+                System.arraycopy(subjectCodes, row, subjectCodes, row + 1, moved);
+                System.arraycopy(scores, row, scores, row + 1, moved);
+                System.arraycopy(times, row, times, row + 1, moved);
+                rows++;
+            }
+            ids[row] = id;
+            studentCodes[row] = studentCode;
+            subjectCodes[row] = subjectCode;
+            scores[row] = scoreTenths;
+            times[row] = time;
+            for (Listener listener : listeners) {
+                listener.rowAdded(studentCode, subjectCode, scoreTenths);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 按id批量加入成绩（批量导入、重做导入使用）：按id排序后从最小id的插入位置起一次归并，其后的行只移动一次；
+     * id都大于已有的最大id时直接追加。id已存在的行跳过，仍以已删除状态保留的行直接恢复；每加入一行通知一次Listener
+     * @param batch 带id的成绩（顺序任意）
+     * @return 加入的行数
+     * @throws IllegalArgumentException id超出int范围或重复，学号/科目为空，成绩超出列的表示范围，或科目数量超过上限（整批不加入）
+     */
+    public int addAll(List<Score> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        Score[] sorted = batch.toArray(new Score[0]);
+        Arrays.sort(sorted, Comparator.comparingLong(Score::getId));
+        int count = sorted.length;
+        short[] newScores = new short[count];
+        int[] newTimes = new int[count];
+        // 先转换和校验全部行，不合法时存储保持不变
+        for (int i = 0; i < count; i++) {
+            Score score = sorted[i];
+            if (score.getId() <= 0 || score.getId() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("成绩id超出int范围：" + score.getId());
+            }
+            if (i > 0 && score.getId() == sorted[i - 1].getId()) {
+                throw new IllegalArgumentException("成绩id重复：" + score.getId());
+            }
+            if (score.getStudentId() == null || score.getStudentId().trim().isEmpty()
+                    || score.getSubject() == null || score.getSubject().trim().isEmpty()) {
+                throw new IllegalArgumentException("学号或科目为空：id=" + score.getId());
+            }
+            newScores[i] = toTenths(score.getScore());
+            newTimes[i] = toTime(score.getRecordTime());
+        }
+        lock.writeLock().lock();
+        try {
+            // 科目编码在归并途中才进行，超过上限时已有行已经移动：先数出要加入的行带来的新科目，超限时整批不加入
+            int[] found = new int[count];
+            Set<String> newSubjects = new HashSet<>();
+            for (int i = 0; i < count; i++) {
+                int row = Arrays.binarySearch(ids, 0, rows, (int) sorted[i].getId());
+                found[i] = row;
+                String subject = sorted[i].getSubject().trim();
+                if ((row < 0 || subjectCodes[row] == DELETED) && subjects.codeOf(subject) < 0) {
+                    newSubjects.add(subject);
+                }
+            }
+            if (subjects.size() + newSubjects.size() > Short.MAX_VALUE + 1) {
+                throw new IllegalArgumentException("科目数量超过上限" + (Short.MAX_VALUE + 1));
+            }
+            // 已删除的行原地恢复，不存在的行记下来等待归并
+            int[] inserts = new int[count];
+            int insertCount = 0;
+            int added = 0;
+            for (int i = 0; i < count; i++) {
+                int row = found[i];
+                if (row < 0) {
+                    inserts[insertCount++] = i;
+                } else if (subjectCodes[row] == DELETED) {
+                    setRow(row, sorted[i], newScores[i], newTimes[i]);
+                    deletedRows--;
+                    added++;
+                }
+            }
+            while (rows + insertCount > ids.length) {
+                grow();
+            }
+            // 从末尾向前归并：已有行中id大于待插入行的后移，直到所有待插入行就位
+            int from = rows - 1;
+            int to = rows + insertCount - 1;
+            for (int j = insertCount - 1; j >= 0; j--) {
+                int i = inserts[j];
+                int id = (int) sorted[i].getId();
+                while (from >= 0 && ids[from] > id) {
+                    ids[to] = ids[from];
+                    studentCodes[to] = studentCodes[from];
+                    subjectCodes[to] = subjectCodes[from];
+                    scores[to] = scores[from];
+                    times[to] = times[from];
+                    from--;
+                    to--;
+                }
+                ids[to] = id;
+                setRow(to, sorted[i], newScores[i], newTimes[i]);
+                to--;
+            }
+            rows += insertCount;
+            return added + insertCount;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 按id修改一行
+     * @return 成功返回true，id不存在返回false
+     */
+    public boolean update(Score score) {
+        lock.writeLock().lock();
+        try {
+            int row = findRow(score.getId());
+            if (row < 0) {
+                return false;
+            }
+            short scoreTenths = toTenths(score.getScore());
+            int time = toTime(score.getRecordTime());
+            int studentCode = encodeStudent(score);
+            short subjectCode = encodeSubject(score.getSubject());
+            for (Listener listener : listeners) {
+                listener.rowRemoved(studentCodes[row], subjectCodes[row], scores[row]);
+            }
+            studentCodes[row] = studentCode;
+            subjectCodes[row] = subjectCode;
+            scores[row] = scoreTenths;
+            times[row] = time;
+            for (Listener listener : listeners) {
+                listener.rowAdded(studentCode, subjectCode, scoreTenths);
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 按id删除一行
+     * @return 成功返回true，id不存在返回false
+     */
+    public boolean remove(long id) {
+        lock.writeLock().lock();
+        try {
+            int row = findRow(id);
+            if (row < 0) {
+                return false;
+            }
+            for (Listener listener : listeners) {
+                listener.rowRemoved(studentCodes[row], subjectCodes[row], scores[row]);
+            }
+            subjectCodes[row] = DELETED;
+            deletedRows++;
+            if (deletedRows >= MIN_COMPACT_ROWS && deletedRows > rows / 4) {
+                compactLocked();
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 按id查询一行（还原为Score对象）
+     * @return 不存在返回null
+     */
+    public Score get(long id) {
+        lock.readLock().lock();
+        try {
+            int row = findRow(id);
+            return row < 0 ? null : toScore(row);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 有效行数（不含已删除行）
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return rows - deletedRows;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 列数组占用的堆内存字节数（按容量计算，不含字典）
+     */
+    public long getMemoryBytes() {
+        lock.readLock().lock();
+        try {
+            return (long) ids.length * 16;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 立即清除已删除行
+     */
+    public void compact() {
+        lock.writeLock().lock();
+        try {
+            compactLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 注册行变化回调（需要与某次全量扫描衔接时，在read的回调中注册，期间不会有写操作）
+     */
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * 在读锁内访问列数组（扫描、统计等），reader返回前列数组不会被修改
+     */
+    public <T> T read(Function<Columns, T> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.apply(new Columns());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 列数组的只读视图：行号范围为[0, getRowCount())，科目编码为DELETED的行已删除
+     * 只能在read的回调中使用，不要修改或保留数组引用
+     */
+    public final class Columns {
+        private Columns() {}
+
+        public int getRowCount() {
+            return rows;
+        }
+
+        public int[] getIds() {
+            return ids;
+        }
+
+        public int[] getStudentCodes() {
+            return studentCodes;
+        }
+
+        public short[] getSubjectCodes() {
+            return subjectCodes;
+        }
+
+        /**
+         * 成绩列（单位0.1分）
+         */
+        public short[] getScores() {
+            return scores;
+        }
+
+        /**
+         * 录入时间列（2000-01-01起的秒数，NO_TIME表示为空），用toDateTime转换
+         */
+        public int[] getTimes() {
+            return times;
+        }
+
+        public int getSubjectCount() {
+            return subjects.size();
+        }
+
+        public String getSubject(int code) {
+            return subjects.decode(code);
+        }
+
+        /**
+         * 科目的编码，不存在返回-1
+         */
+        public int getSubjectCode(String subject) {
+            return subjects.codeOf(subject);
+        }
+
+        public int getStudentCount() {
+            return students.size();
+        }
+
+        public String getStudentId(int code) {
+            return students.decode(code);
+        }
+
+        public String getStudentName(int code) {
+            return studentNames.get(code);
+        }
+
+        /**
+         * 学号的编码，不存在返回-1
+         */
+        public int getStudentCode(String studentId) {
+            return students.codeOf(studentId);
+        }
+
+        /**
+         * 把一行还原为Score对象
+         */
+        public Score getScore(int row) {
+            return toScore(row);
+        }
+
+        /**
+         * 按有效行计算的数据指纹
+         */
+        public Fingerprint getFingerprint() {
+            long liveRows = 0;
+            int maxId = 0;
+            long scoreSum = 0;
+            long weightedSum = 0;
+            for (int row = 0; row < rows; row++) {
+                if (subjectCodes[row] == DELETED) {
+                    continue;
+                }
+                liveRows++;
+                maxId = Math.max(maxId, ids[row]);
+                scoreSum += scores[row];
+                weightedSum += (long) ids[row] * scores[row];
+            }
+            return new Fingerprint(liveRows, maxId, scoreSum, weightedSum);
+        }
+    }
+
+    /**
+     * 成绩数据的指纹：有效行数、最大id、成绩之和（单位0.1分）、按id加权的成绩之和（溢出时按64位回绕）
+     * 由存储的列计算（Columns.getFingerprint）或由数据库聚合得到（ScoreDao.getFingerprint），两者相等时认为数据一致；
+     * 只覆盖id和成绩列（界面中修改的是成绩列），只改学号/姓名/科目/时间的外部修改不会反映在指纹中
+     */
+    public static final class Fingerprint {
+        private final long rows;
+        private final long maxId;
+        private final long scoreSum;
+        private final long weightedSum;
+
+        public Fingerprint(long rows, long maxId, long scoreSum, long weightedSum) {
+            this.rows = rows;
+            this.maxId = maxId;
+            this.scoreSum = scoreSum;
+            this.weightedSum = weightedSum;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getMaxId() {
+            return maxId;
+        }
+
+        public long getScoreSum() {
+            return scoreSum;
+        }
+
+        public long getWeightedSum() {
+            return weightedSum;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Fingerprint)) {
+                return false;
+            }
+            Fingerprint other = (Fingerprint) o;
+            return rows == other.rows && maxId == other.maxId && scoreSum == other.scoreSum
+                    && weightedSum == other.weightedSum;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(rows) * 31 + Long.hashCode(weightedSum);
+        }
+
+        @Override
+        public String toString() {
+            return rows + "行，最大id " + maxId + "，成绩和" + scoreSum + "，加权和" + weightedSum;
+        }
+    }
+
+    /**
+     * 时间列的值转换为LocalDateTime
+     */
+    public static LocalDateTime toDateTime(int time) {
+        return time == NO_TIME ? null : LocalDateTime.ofEpochSecond(TIME_BASE + time, 0, ZoneOffset.UTC);
+    }
+
+    // 二分查找id所在的行，不存在或已删除返回-1
+    private int findRow(long id) {
+        if (id <= 0 || id > Integer.MAX_VALUE) {
+            return -1;
+        }
+        int row = Arrays.binarySearch(ids, 0, rows, (int) id);
+        return row < 0 || subjectCodes[row] == DELETED ? -1 : row;
+    }
+
+    // 写入一行的学生、科目、成绩和时间列（id已就位）并通知Listener
+    private void setRow(int row, Score score, short scoreTenths, int time) {
+        int studentCode = encodeStudent(score);
+        short subjectCode = encodeSubject(score.getSubject());
+        studentCodes[row] = studentCode;
+        subjectCodes[row] = subjectCode;
+        scores[row] = scoreTenths;
+        times[row] = time;
+        for (Listener listener : listeners) {
+            listener.rowAdded(studentCode, subjectCode, scoreTenths);
+        }
+    }
+
+    private Score toScore(int row) {
+        int studentCode = studentCodes[row];
+        Score score = new Score(students.decode(studentCode), studentNames.get(studentCode),
+                subjects.decode(subjectCodes[row]), scores[row] / 10.0, toDateTime(times[row]));
+        score.setId(ids[row]);
+        return score;
+    }
+
+    private int encodeStudent(Score score) {
+        if (score.getStudentId() == null || score.getStudentId().trim().isEmpty()) {
+            throw new IllegalArgumentException("学号为空");
+        }
+        int code = students.encode(score.getStudentId().trim());
+        String name = score.getStudentName() == null ? "" : score.getStudentName().trim();
+        if (code == studentNames.size()) {
+            studentNames.add(name);
+        } else if (!name.isEmpty()) {
+            // 同一学号以最后一次出现的非空姓名为准
+            studentNames.set(code, name);
+        }
+        return code;
+    }
+
+    private short encodeSubject(String subject) {
+        if (subject == null || subject.trim().isEmpty()) {
+            throw new IllegalArgumentException("科目为空");
+        }
+        String value = subject.trim();
+        int code = subjects.codeOf(value);
+        if (code < 0) {
+            if (subjects.size() > Short.MAX_VALUE) {
+                throw new IllegalArgumentException("科目数量超过上限" + (Short.MAX_VALUE + 1));
+            }
+            code = subjects.encode(value);
+        }
+        return (short) code;
+    }
+
+    private static short toTenths(double score) {
+        long tenths = Math.round(score * 10);
+        if (Double.isNaN(score) || tenths < 0 || tenths > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("成绩超出范围[0, " + MAX_SCORE + "]：" + score);
+        }
+        return (short) tenths;
+    }
+
+    private static int toTime(LocalDateTime time) {
+        if (time == null) {
+            return NO_TIME;
+        }
+        long seconds = time.toEpochSecond(ZoneOffset.UTC) - TIME_BASE;
+        if (seconds <= NO_TIME || seconds > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("录入时间超出内存存储的表示范围：" + time);
+        }
+        return (int) seconds;
+    }
+
+    // 容量按1.5倍增长
+    private void grow() {
+        int capacity = ids.length + (ids.length >> 1);
+        if (capacity < 0 || capacity > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("成绩行数超过内存存储上限");
+        }
+        ids = Arrays.copyOf(ids, capacity);
+        studentCodes = Arrays.copyOf(studentCodes, capacity);
+        subjectCodes = Arrays.copyOf(subjectCodes, capacity);
+        scores = Arrays.copyOf(scores, capacity);
+        times = Arrays.copyOf(times, capacity);
+    }
+
+    // 把有效行依次前移，保持id顺序（字典不收缩）
+    private void compactLocked() {
+        int to = 0;
+        for (int from = 0; from < rows; from++) {
+            if (subjectCodes[from] == DELETED) {
+                continue;
+            }
+            if (to != from) {
+                ids[to] = ids[from];
+                studentCodes[to] = studentCodes[from];
+                subjectCodes[to] = subjectCodes[from];
+                scores[to] = scores[from];
+                times[to] = times[from];
+            }
+            to++;
+        }
+        LOG.debug("压缩成绩存储：清除{}行已删除数据，剩余{}行", rows - to, to);
+        rows = to;
+        deletedRows = 0;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,470 @@
+package com.score.entity;
+
+import com.score.dao.Score;
+import com.score.util.Log;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 成绩修改的延迟批量写入（write-behind）：界面修改成绩后立即返回，后台线程合并修改后分批写入数据库
+ * 1. 同一条成绩（某学生某科目的一行，以id标识）在写入前的多次修改合并为一次，只写最后的值
+ * 2. 待写入的行数达到batchSize、或最早的修改已等待flushMillis时，按批写入（ScoreDao.updateScores，分块事务+批处理）
+ * 3. 待写入的行数达到maxPending时新的修改阻塞等待（反压），超时返回false，由界面提示稍后重试
+ * 4. 写入成功后登记到撤销历史（合并的多次修改为一个步骤）；失败的行保留修改的值和失败原因，可以重试或再次修改
+ * 界面用getPending叠加显示尚未写入的值，用getState显示每行的保存状态
+ * 关闭窗口时调用close同步写完（数据库连接池在关闭钩子中关闭，不能依赖关闭钩子写入）
+ * 线程安全
+ */
+public class ScoreWriteBehind {
+    private static final Log LOG = Log.get(ScoreWriteBehind.class);
+    private static final AtomicInteger SEQ = new AtomicInteger();
+
+    /**
+     * 一行成绩的保存状态
+     */
+    public enum State {
+        PENDING("待保存"),
+        FAILED("保存失败");
+
+        private final String label;
+
+        State(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    /**
+     * 写入结果通知（在写入线程中调用，不要在回调中阻塞）
+     */
+    public interface Listener {
+        /**
+         * @param saved 本批写入成功的成绩
+         * @param failed 本批写入失败的成绩
+         */
+        void onFlushed(List<Score> saved, List<Score> failed);
+    }
+
+    private final ScoreDao scoreDao;
+    private final ScoreEditHistory history;
+    private final int batchSize;
+    private final int maxPending;
+    private final long flushNanos;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // 有新的修改/请求立即写入/关闭（唤醒写入线程）
+    private final Condition changed = lock.newCondition();
+    // 待写入的行数减少（唤醒反压等待）
+    private final Condition notFull = lock.newCondition();
+    // 排队和写入中的修改都已处理完（唤醒flush）
+    private final Condition drained = lock.newCondition();
+    // 排队等待写入的修改，按首次修改的先后排列（合并修改不改变位置，第一个即等待最久的）
+    private final LinkedHashMap<Long, Edit> queued = new LinkedHashMap<>();
+    // 正在写入的修改
+    private final Map<Long, Edit> writing = new HashMap<>();
+    // 写入失败的修改
+    private final Map<Long, Edit> failed = new HashMap<>();
+    private final Thread writer;
+    // 等待写完的flush调用数，大于0时不再等待凑批
+    private int flushRequests;
+    private boolean closed;
+    private long coalescedCount;
+    private long savedCount;
+    private long batchCount;
+
+    /**
+     * @param scoreDao 成绩DAO
+     * @param history 撤销历史（写入成功后登记）
+     * @param batchSize 每批写入的行数
+     * @param maxPending 排队和写入中的行数上限（超过时修改阻塞）
+     * @param flushMillis 修改最多等待多久写入（毫秒）
+     */
+    public ScoreWriteBehind(ScoreDao scoreDao, ScoreEditHistory history, int batchSize, int maxPending,
+                            long flushMillis) {
+        if (scoreDao == null || history == null) {
+            throw new IllegalArgumentException("成绩DAO和撤销历史不能为空");
+        }
+        if (batchSize <= 0 || maxPending < batchSize || flushMillis < 0) {
+            throw new IllegalArgumentException("延迟写入参数错误：batchSize=" + batchSize +
+                    "，maxPending=" + maxPending + "，flushMillis=" + flushMillis);
+        }
+        this.scoreDao = scoreDao;
+        this.history = history;
+        this.batchSize = batchSize;
+        this.maxPending = maxPending;
+        this.flushNanos = TimeUnit.MILLISECONDS.toNanos(flushMillis);
+        this.writer = new Thread(this::run, "score-write-behind-" + SEQ.incrementAndGet());
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * 提交一次修改（立即返回，由后台线程写入）
+     * 该行已在排队时直接替换为新的值；排队和写入中的行数已达上限时最多等待timeoutMillis
+     * @param before 修改前的值（界面显示的数据库中的值）
+     * @param after 修改后的值（id与before相同，提交后不要再修改该对象）
+     * @return 已排队返回true，等待超时返回false（修改未保存）
+     * @throws InterruptedException 等待时被中断
+     */
+    public boolean submit(Score before, Score after, long timeoutMillis) throws InterruptedException {
+        if (before == null || after == null || after.getId() <= 0 || before.getId() != after.getId()) {
+            throw new IllegalArgumentException("修改的成绩缺少id");
+        }
+        long id = after.getId();
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("成绩延迟写入已关闭");
+            }
+            long nanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            while (!queued.containsKey(id) && queued.size() + writing.size() >= maxPending) {
+                if (nanos <= 0) {
+                    LOG.warn("待保存的成绩修改已达上限{}，修改被拒绝，id={}", maxPending, id);
+                    return false;
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+            Edit edit = queued.get(id);
+            if (edit != null) {
+                edit.after = after;
+                coalescedCount++;
+                return true;
+            }
+            Edit inFlight = writing.get(id);
+            Edit previous = failed.remove(id);
+            // 正在写入的行以写入中的值为修改前的值（写入失败时再改回），之前失败的行以数据库中的值为修改前的值
+            Score base = inFlight != null ? inFlight.after : previous != null ? previous.before : before;
+            queued.put(id, new Edit(base, after, System.nanoTime()));
+            if (queued.size() == 1 || queued.size() >= batchSize) {
+                changed.signal();
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 尚未写入数据库的值（排队、写入中或写入失败），没有返回null
+     */
+    public Score getPending(long id) {
+        lock.lock();
+        try {
+            Edit edit = find(id);
+            return edit == null ? null : edit.after;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 一行的保存状态，已保存（或从未修改）返回null
+     */
+    public State getState(long id) {
+        lock.lock();
+        try {
+            if (queued.containsKey(id) || writing.containsKey(id)) {
+                return State.PENDING;
+            }
+            return failed.containsKey(id) ? State.FAILED : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 写入失败的原因，没有失败返回null
+     */
+    public String getFailure(long id) {
+        lock.lock();
+        try {
+            Edit edit = failed.get(id);
+            return edit == null ? null : edit.message;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 把写入失败的修改重新排队（不受maxPending限制）
+     * @return 重新排队的行数
+     */
+    public int retryFailed() {
+        lock.lock();
+        try {
+            int count = failed.size();
+            for (Map.Entry<Long, Edit> entry : failed.entrySet()) {
+                Edit edit = entry.getValue();
+                edit.message = null;
+                edit.nanos = System.nanoTime();
+                queued.put(entry.getKey(), edit);
+            }
+            failed.clear();
+            if (count > 0) {
+                changed.signal();
+            }
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 立即写入全部排队的修改并等待完成
+     * @return 全部处理完返回true（其中可能有写入失败的行），超时返回false
+     * @throws InterruptedException 等待时被中断
+     */
+    public boolean flush(long timeoutMillis) throws InterruptedException {
+        lock.lock();
+        try {
+            flushRequests++;
+            try {
+                changed.signal();
+                long nanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+                while (!queued.isEmpty() || !writing.isEmpty()) {
+                    if (nanos <= 0) {
+                        return false;
+                    }
+                    nanos = drained.awaitNanos(nanos);
+                }
+                return true;
+            } finally {
+                flushRequests--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 停止接受修改，写完排队的修改后结束写入线程
+     * @return 未能保存的修改数（超时未写入的和写入失败的）
+     */
+    public int close(long timeoutMillis) {
+        lock.lock();
+        try {
+            closed = true;
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flush(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lock.lock();
+        try {
+            int unsaved = queued.size() + writing.size() + failed.size();
+            if (unsaved > 0) {
+                LOG.warn("关闭时有{}条成绩修改未能保存", unsaved);
+            }
+            return unsaved;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * 排队和写入中的行数
+     */
+    public int getPendingCount() {
+        lock.lock();
+        try {
+            return queued.size() + writing.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getFailedCount() {
+        lock.lock();
+        try {
+            return failed.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 被合并（没有单独写入数据库）的修改次数
+     */
+    public long getCoalescedCount() {
+        lock.lock();
+        try {
+            return coalescedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        lock.lock();
+        try {
+            return String.format("待保存%d，失败%d，已保存%d（%d批），合并%d次",
+                    queued.size() + writing.size(), failed.size(), savedCount, batchCount, coalescedCount);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 写入线程：凑满一批或最早的修改到期（或有flush/关闭）时取出一批写入
+    private void run() {
+        while (true) {
+            List<Edit> batch = new ArrayList<>(batchSize);
+            lock.lock();
+            try {
+                while (true) {
+                    if (queued.isEmpty()) {
+                        if (closed) {
+                            return;
+                        }
+                        changed.await();
+                        continue;
+                    }
+                    if (closed || flushRequests > 0 || queued.size() >= batchSize) {
+                        break;
+                    }
+                    long wait = queued.values().iterator().next().nanos + flushNanos - System.nanoTime();
+                    if (wait <= 0) {
+                        break;
+                    }
+                    changed.awaitNanos(wait);
+                }
+                Iterator<Map.Entry<Long, Edit>> it = queued.entrySet().iterator();
+                while (it.hasNext() && batch.size() < batchSize) {
+                    Map.Entry<Long, Edit> entry = it.next();
+                    it.remove();
+                    writing.put(entry.getKey(), entry.getValue());
+                    batch.add(entry.getValue());
+                }
+            } catch (InterruptedException e) {
+                LOG.warn("成绩延迟写入线程被中断，{}条修改未保存", queued.size());
+                return;
+            } finally {
+                lock.unlock();
+            }
+            write(batch);
+        }
+    }
+
+    private void write(List<Edit> batch) {
+        List<Score> rows = new ArrayList<>(batch.size());
+        for (Edit edit : batch) {
+            rows.add(edit.after);
+        }
+        BatchResult result = null;
+        String error = null;
+        try {
+            result = scoreDao.updateScores(rows);
+        } catch (RuntimeException e) {
+            error = e.getMessage();
+            LOG.error("批量保存成绩修改失败：{}", e.getMessage(), e);
+        }
+        List<Score> saved = new ArrayList<>(batch.size());
+        List<Score> unsaved = new ArrayList<>();
+        boolean[] success = new boolean[batch.size()];
+        // 先登记撤销历史再标记完成，flush返回后（如撤销前）历史已包含这些修改
+        for (int i = 0; i < batch.size(); i++) {
+            Edit edit = batch.get(i);
+            success[i] = result != null && result.isSuccess(i);
+            if (success[i]) {
+                history.recordUpdate(edit.before, edit.after);
+                saved.add(edit.after);
+            } else {
+                String message = result == null ? error : result.getMessage(i);
+                edit.message = message != null ? message
+                        : result == null ? BatchResult.RowStatus.FAILED.getDescription() : result.getStatus(i).getDescription();
+                unsaved.add(edit.after);
+            }
+        }
+        lock.lock();
+        try {
+            for (int i = 0; i < batch.size(); i++) {
+                Edit edit = batch.get(i);
+                long id = edit.after.getId();
+                writing.remove(id);
+                if (success[i]) {
+                    continue;
+                }
+                Edit next = queued.get(id);
+                if (next != null) {
+                    // 写入期间又修改了该行：新的值会覆盖失败的值，修改前的值改回数据库中的值
+                    next.before = edit.before;
+                } else {
+                    failed.put(id, edit);
+                }
+            }
+            savedCount += saved.size();
+            batchCount++;
+            notFull.signalAll();
+            if (queued.isEmpty() && writing.isEmpty()) {
+                drained.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (!unsaved.isEmpty()) {
+            LOG.warn("{}条成绩修改保存失败，如：id={}，{}", unsaved.size(), unsaved.get(0).getId(),
+                    batch.get(indexOfFailure(success)).message);
+        }
+        LOG.debug("成绩修改写入一批：成功{}，失败{}", saved.size(), unsaved.size());
+        for (Listener listener : listeners) {
+            listener.onFlushed(saved, unsaved);
+        }
+    }
+
+    private static int indexOfFailure(boolean[] success) {
+        for (int i = 0; i < success.length; i++) {
+            if (!success[i]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private Edit find(long id) {
+        Edit edit = queued.get(id);
+        if (edit == null) {
+            edit = writing.get(id);
+        }
+        return edit == null ? failed.get(id) : edit;
+    }
+
+    // 一行待写入的修改：修改前的值（用于撤销）和最新的值
+    private static final class Edit {
+        Score before;
+        Score after;
+        long nanos;
+        String message;
+
+        Edit(Score before, Score after, long nanos) {
+            this.before = before;
+            this.after = after;
+            this.nanos = nanos;
+        }
+    }
+}
\ No newline at end of file
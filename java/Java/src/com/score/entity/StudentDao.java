@@ -0,0 +1,55 @@
+package com.score.entity;
+
+import com.score.dao.Student;
+import java.util.function.Consumer;
+
+/**
+ * 学生数据访问层接口
+ * 学号（id）为唯一标识
+ */
+public interface StudentDao {
+    /**
+     * 新增学生
+     * @param student 学生对象
+     * @return 成功返回true，失败返回false（学号为空/学号重复/存储异常）
+     */
+    boolean addStudent(Student student);
+
+    /**
+     * 根据学号查询学生
+     * @param id 学号
+     * @return 存在返回Student对象，不存在返回null
+     */
+    Student getStudentById(String id);
+
+    /**
+     * 修改学生信息（id作为唯一标识）
+     * @param student 包含新信息的学生对象
+     * @return 成功返回true，学生不存在或存储异常返回false
+     */
+    boolean updateStudent(Student student);
+
+    /**
+     * 根据学号删除学生
+     * @param id 学号
+     * @return 成功返回true，学生不存在或存储异常返回false
+     */
+    boolean deleteStudent(String id);
+
+    /**
+     * 判断学号是否已存在
+     */
+    boolean existsId(String id);
+
+    /**
+     * 学生总数
+     */
+    int countStudents();
+
+    /**
+     * 逐条遍历所有学生（按写入顺序，不一次性加载到内存）
+     * @param consumer 学生处理回调
+     * @return 遍历的学生数量，存储异常返回-1
+     */
+    long forEachStudent(Consumer<Student> consumer);
+}
\ No newline at end of file
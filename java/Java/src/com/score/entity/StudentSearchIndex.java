@@ -0,0 +1,409 @@
+package com.score.entity;
+
+import com.score.dao.Student;
+import com.score.util.Log;
+import com.score.util.NgramIndex;
+import com.score.util.PrefixTrie;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 学生的内存检索索引（"查找成绩"的输入即查）：学号前缀树 + 姓名n-gram倒排索引，每次按键查询只需几微秒到几十微秒，不访问数据库
+ * 1. 索引的学生来自学生记录文件（StudentDao）和成绩存储（ScoreStore）中出现的学号，两者取并集；
+ *    学生记录中的姓名优先，只在成绩中出现的学生使用成绩中最后录入的姓名
+ * 2. 学生增删改由IndexedStudentDao同步调用putStudent/removeStudent，成绩增删改通过ScoreStore.Listener增量更新每个学生的成绩条数；
+ *    学生既不在学生记录中、也没有成绩时从索引中移除
+ * 3. 结果排序：学号完全匹配 > 姓名完全匹配 > 学号前缀 > 姓名前缀 > 姓名包含，姓名类中姓名较短的优先，再按学号排序；只保留前K个
+ *    候选先只记录槽位和排序键，按键计数找到第K个结果所在的键后，只为排在前面的候选创建Match（单字查询可能有数千个候选）
+ * 线程安全：查询共享读锁，修改独占写锁；持有本索引的锁时不会再去获取成绩存储的锁（成绩存储的回调是先持有存储的写锁再进入本索引）
+ */
+public class StudentSearchIndex implements ScoreStore.Listener {
+    private static final Log LOG = Log.get(StudentSearchIndex.class);
+
+    /**
+     * 匹配方式（声明顺序即排序优先级）
+     */
+    public enum MatchType {
+        ID_EXACT("学号"), NAME_EXACT("姓名"), ID_PREFIX("学号前缀"), NAME_PREFIX("姓名前缀"), NAME_CONTAINS("姓名包含");
+
+        private final String label;
+
+        MatchType(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    /**
+     * 一条查询结果（创建时的快照）
+     */
+    public static final class Match {
+        private final String studentId;
+        private final String studentName;
+        private final int scoreCount;
+        private final MatchType type;
+
+        Match(String studentId, String studentName, int scoreCount, MatchType type) {
+            this.studentId = studentId;
+            this.studentName = studentName;
+            this.scoreCount = scoreCount;
+            this.type = type;
+        }
+
+        public String getStudentId() {
+            return studentId;
+        }
+
+        public String getStudentName() {
+            return studentName;
+        }
+
+        /**
+         * 成绩存储中该学生的成绩条数（未关联成绩存储时为0）
+         */
+        public int getScoreCount() {
+            return scoreCount;
+        }
+
+        public MatchType getType() {
+            return type;
+        }
+
+        @Override
+        public String toString() {
+            return studentId + " " + studentName;
+        }
+    }
+
+    private static final MatchType[] TYPES = MatchType.values();
+    // 排序键中长度部分的上限（更长的姓名按同一长度处理）
+    private static final int MAX_KEY_LENGTH = 255;
+    // 排序：匹配方式 → 姓名长度（学号类为0，同为学号前缀时按字典序，与前缀树的枚举顺序一致） → 学号
+    private static final Comparator<Match> RANKING = Comparator.comparingInt(StudentSearchIndex::rankKeyOf)
+            .thenComparing(Match::getStudentId);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // 学号 → 槽位
+    private final PrefixTrie idTrie = new PrefixTrie(4096);
+    // 槽位 → 姓名
+    private final NgramIndex nameIndex = new NgramIndex();
+
+    // 按槽位保存的学生信息，删除的槽位放入空闲栈复用
+    private String[] ids = new String[256];
+    private String[] names = new String[256];
+    private int[] scoreCounts = new int[256];
+    private boolean[] registered = new boolean[256]; // 是否在学生记录中
+    private int slotCount;
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+
+    private volatile ScoreStore store;
+
+    /**
+     * 索引学生记录文件中的全部学生
+     * @return 索引的学生数，存储异常返回-1
+     */
+    public long indexStudents(StudentDao studentDao) {
+        long start = System.nanoTime();
+        long count = studentDao.forEachStudent(this::putStudent);
+        if (count >= 0) {
+            LOG.info("学生检索索引加载学生记录：{}个，耗时{}ms", count, (System.nanoTime() - start) / 1_000_000);
+        }
+        return count;
+    }
+
+    /**
+     * 索引成绩存储中出现的全部学生，并注册为存储的监听器（之后随成绩增删改增量更新）
+     * 扫描和注册在存储的读锁内完成，期间不会漏掉新增的成绩
+     */
+    public void attach(ScoreStore scoreStore) {
+        long start = System.nanoTime();
+        int students = scoreStore.read(columns -> {
+            int[] perStudent = new int[columns.getStudentCount()];
+            int[] studentCodes = columns.getStudentCodes();
+            short[] subjectCodes = columns.getSubjectCodes();
+            for (int row = 0; row < columns.getRowCount(); row++) {
+                if (subjectCodes[row] != ScoreStore.DELETED) {
+                    perStudent[studentCodes[row]]++;
+                }
+            }
+            int indexed = 0;
+            lock.writeLock().lock();
+            try {
+                for (int code = 0; code < perStudent.length; code++) {
+                    if (perStudent[code] > 0) {
+                        int slot = slotOf(columns.getStudentId(code), columns.getStudentName(code), false);
+                        scoreCounts[slot] += perStudent[code];
+                        indexed++;
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            store = scoreStore;
+            scoreStore.addListener(this);
+            return indexed;
+        });
+        LOG.info("学生检索索引加载成绩中的学生：{}个，耗时{}ms", students, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * 新增或修改学生（学生记录中的姓名优先于成绩中的姓名）
+     */
+    public void putStudent(Student student) {
+        String id = trim(student.getId());
+        if (id.isEmpty()) {
+            return;
+        }
+        String name = trim(student.getName());
+        lock.writeLock().lock();
+        try {
+            int slot = slotOf(id, name, true);
+            registered[slot] = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 删除学生记录：还有成绩时保留（姓名改用成绩中的姓名），否则从索引中移除
+     */
+    public void removeStudent(String studentId) {
+        String id = trim(studentId);
+        // 先在本索引的锁外读取成绩中的姓名，避免与成绩存储的回调形成锁顺序环
+        ScoreStore scoreStore = store;
+        String storeName = scoreStore == null ? null : scoreStore.read(columns -> {
+            int code = columns.getStudentCode(id);
+            return code < 0 ? null : columns.getStudentName(code);
+        });
+        lock.writeLock().lock();
+        try {
+            int slot = idTrie.get(id);
+            if (slot < 0) {
+                return;
+            }
+            registered[slot] = false;
+            if (scoreCounts[slot] > 0) {
+                setName(slot, storeName == null ? "" : storeName);
+            } else {
+                release(slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 查询学号前缀或姓名子串
+     * @param query 查询串（首尾空白忽略）
+     * @param limit 最多返回的结果数K
+     * @return 按优先级排序的前K个结果，查询串为空返回空列表
+     */
+    public List<Match> search(String query, int limit) {
+        String q = trim(query);
+        if (q.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        String normalized = NgramIndex.normalize(q);
+        Candidates candidates = new Candidates();
+        List<Match> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            // 前缀树按字典序枚举，学号本身（完全匹配）最先；同为学号前缀时字典序即排序，枚举K个即可
+            idTrie.forEachPrefix(q, slot -> {
+                candidates.add(slot, rankKey(q.equals(ids[slot]) ? MatchType.ID_EXACT : MatchType.ID_PREFIX, 0));
+                return candidates.size < limit;
+            });
+            int fromIds = candidates.size;
+            nameIndex.search(normalized, slot -> {
+                // 学号和姓名同时匹配的学生只保留学号匹配（学号类结果不超过K个，线性查找即可）
+                for (int i = 0; i < fromIds; i++) {
+                    if (candidates.slots[i] == slot) {
+                        return;
+                    }
+                }
+                String name = nameIndex.getText(slot);
+                MatchType type = !name.startsWith(normalized) ? MatchType.NAME_CONTAINS
+                        : name.length() == normalized.length() ? MatchType.NAME_EXACT : MatchType.NAME_PREFIX;
+                candidates.add(slot, rankKey(type, name.length()));
+            });
+            int cutoff = candidates.cutoffKey(limit);
+            // 键小于cutoff的候选全部入选；键等于cutoff的只按学号取最小的若干个（大顶堆，堆顶为当前最大的学号）
+            int remaining = limit;
+            for (int i = 0; i < candidates.size; i++) {
+                if (candidates.keys[i] < cutoff) {
+                    result.add(match(candidates.slots[i], candidates.keys[i]));
+                    remaining--;
+                }
+            }
+            PriorityQueue<Integer> ties = new PriorityQueue<>((a, b) -> ids[b].compareTo(ids[a]));
+            for (int i = 0; i < candidates.size && remaining > 0; i++) {
+                if (candidates.keys[i] == cutoff) {
+                    int slot = candidates.slots[i];
+                    if (ties.size() < remaining) {
+                        ties.add(slot);
+                    } else if (ids[slot].compareTo(ids[ties.peek()]) < 0) {
+                        ties.poll();
+                        ties.add(slot);
+                    }
+                }
+            }
+            for (int slot : ties) {
+                result.add(match(slot, cutoff));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        result.sort(RANKING);
+        return result;
+    }
+
+    /**
+     * 已索引的学生数
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return idTrie.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void rowAdded(int studentCode, int subjectCode, int scoreTenths) {
+        // 在成绩存储的写锁内回调，重入读锁读取学号和姓名
+        String[] student = store.read(columns ->
+                new String[]{columns.getStudentId(studentCode), columns.getStudentName(studentCode)});
+        lock.writeLock().lock();
+        try {
+            int slot = slotOf(student[0], student[1], false);
+            scoreCounts[slot]++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void rowRemoved(int studentCode, int subjectCode, int scoreTenths) {
+        String id = store.read(columns -> columns.getStudentId(studentCode));
+        lock.writeLock().lock();
+        try {
+            int slot = idTrie.get(id);
+            if (slot < 0) {
+                return;
+            }
+            if (--scoreCounts[slot] <= 0) {
+                scoreCounts[slot] = 0;
+                if (!registered[slot]) {
+                    release(slot);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // 学号对应的槽位，不存在时分配；fromStudent为false时（来自成绩）不覆盖学生记录中的姓名
+    private int slotOf(String id, String name, boolean fromStudent) {
+        int slot = idTrie.get(id);
+        if (slot < 0) {
+            slot = allocate();
+            ids[slot] = id;
+            idTrie.put(id, slot);
+            setName(slot, name);
+        } else if ((fromStudent || !registered[slot]) && !name.isEmpty() && !name.equals(names[slot])) {
+            setName(slot, name);
+        }
+        return slot;
+    }
+
+    private void setName(int slot, String name) {
+        names[slot] = name;
+        nameIndex.put(slot, name);
+    }
+
+    private int allocate() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (slotCount == ids.length) {
+            int capacity = slotCount * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            names = Arrays.copyOf(names, capacity);
+            scoreCounts = Arrays.copyOf(scoreCounts, capacity);
+            registered = Arrays.copyOf(registered, capacity);
+        }
+        return slotCount++;
+    }
+
+    private void release(int slot) {
+        idTrie.remove(ids[slot]);
+        nameIndex.remove(slot);
+        ids[slot] = null;
+        names[slot] = null;
+        scoreCounts[slot] = 0;
+        registered[slot] = false;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    private Match match(int slot, int key) {
+        return new Match(ids[slot], names[slot], scoreCounts[slot], TYPES[key / (MAX_KEY_LENGTH + 1)]);
+    }
+
+    private static int rankKey(MatchType type, int length) {
+        return type.ordinal() * (MAX_KEY_LENGTH + 1) + Math.min(length, MAX_KEY_LENGTH);
+    }
+
+    private static int rankKeyOf(Match match) {
+        boolean byId = match.type == MatchType.ID_EXACT || match.type == MatchType.ID_PREFIX;
+        return rankKey(match.type, byId ? 0 : match.studentName.length());
+    }
+
+    private static String trim(String s) {
+        return s == null ? "" : s.trim();
+    }
+
+    // 一次查询的候选：槽位、排序键和每个键的候选数
+    private static final class Candidates {
+        int[] slots = new int[64];
+        int[] keys = new int[64];
+        int size;
+        final int[] keyCounts = new int[TYPES.length * (MAX_KEY_LENGTH + 1)];
+
+        void add(int slot, int key) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+            slots[size] = slot;
+            keys[size] = key;
+            size++;
+            keyCounts[key]++;
+        }
+
+        // 第limit个候选所在的排序键（键不超过它的候选一定包含前limit个结果）
+        int cutoffKey(int limit) {
+            int total = 0;
+            for (int key = 0; key < keyCounts.length; key++) {
+                total += keyCounts[key];
+                if (total >= limit) {
+                    return key;
+                }
+            }
+            return keyCounts.length - 1;
+        }
+    }
+}
\ No newline at end of file
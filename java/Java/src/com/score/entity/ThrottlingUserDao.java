@@ -0,0 +1,130 @@
+package com.score.entity;
+
+import com.score.dao.User;
+import com.score.util.Log;
+import com.score.util.LoginThrottler;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 登录限流DAO装饰器（位于装饰链最外层）
+ * login和getUserByUsernameAndEmail（忘记密码的身份验证）先经过LoginThrottler：
+ * 被限流的请求直接抛出LoginThrottledException，不访问缓存和数据库；
+ * 返回null视为一次失败（计入指数退避），返回用户视为成功（清除退避）
+ * 其他方法直接透传
+ */
+public class ThrottlingUserDao implements UserDao {
+    private static final Log LOG = Log.get(ThrottlingUserDao.class);
+
+    private final UserDao delegate;
+    private final LoginThrottler throttler;
+
+    public ThrottlingUserDao(UserDao delegate, LoginThrottler throttler) {
+        this.delegate = delegate;
+        this.throttler = throttler;
+    }
+
+    @Override
+    public User login(String username, String password) {
+        checkThrottle(username);
+        return recordOutcome(username, delegate.login(username, password));
+    }
+
+    @Override
+    public boolean addUser(User user) {
+        return delegate.addUser(user);
+    }
+
+    @Override
+    public User getUserByUsername(String username) {
+        return delegate.getUserByUsername(username);
+    }
+
+    @Override
+    public boolean updateUser(User user) {
+        return delegate.updateUser(user);
+    }
+
+    @Override
+    public boolean deleteUser(String username) {
+        return delegate.deleteUser(username);
+    }
+
+    @Override
+    public List<User> listAllUsers() {
+        return delegate.listAllUsers();
+    }
+
+    @Override
+    public Stream<User> streamAllUsers() {
+        return delegate.streamAllUsers();
+    }
+
+    @Override
+    public List<User> listUsers(int afterId, int limit) {
+        return delegate.listUsers(afterId, limit);
+    }
+
+    @Override
+    public User getUserByUsernameAndEmail(String username, String email) {
+        checkThrottle(username);
+        return recordOutcome(username, delegate.getUserByUsernameAndEmail(username, email));
+    }
+
+    @Override
+    public boolean resetPassword(String username, String newPassword) {
+        return delegate.resetPassword(username, newPassword);
+    }
+
+    @Override
+    public BatchResult addUsers(List<User> users) {
+        return delegate.addUsers(users);
+    }
+
+    @Override
+    public BatchResult updateUsers(List<User> users) {
+        return delegate.updateUsers(users);
+    }
+
+    @Override
+    public BatchResult deleteUsers(List<String> usernames) {
+        return delegate.deleteUsers(usernames);
+    }
+
+    @Override
+    public boolean existsUsername(String username) {
+        return delegate.existsUsername(username);
+    }
+
+    /**
+     * 获取限流器（放行/限流次数、跟踪的用户名数量）
+     */
+    public LoginThrottler getThrottler() {
+        return throttler;
+    }
+
+    private void checkThrottle(String username) {
+        // 空用户名由下层校验直接返回，不消耗令牌
+        if (username == null || username.trim().isEmpty()) {
+            return;
+        }
+        long waitMillis = throttler.tryAcquire(username);
+        if (waitMillis > 0) {
+            LOG.warn("请求被限流：username={}，需等待{}ms", username, waitMillis);
+            throw new LoginThrottledException(waitMillis);
+        }
+    }
+
+    private User recordOutcome(String username, User user) {
+        if (username == null || username.trim().isEmpty()) {
+            return user;
+        }
+        if (user != null) {
+            throttler.recordSuccess(username);
+        } else {
+            throttler.recordFailure(username);
+        }
+        return user;
+    }
+}
\ No newline at end of file
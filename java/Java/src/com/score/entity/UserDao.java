@@ -2,6 +2,7 @@ package com.score.entity;
 
 import com.score.dao.User;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * 用户数据访问层接口
@@ -48,9 +49,53 @@ public interface UserDao {
 
     // 重置密码
     boolean resetPassword(String username, String newPassword);
+
+    /**
+     * 判断用户名是否已被注册（注册前预检查，避免依赖插入失败判断重复）
+     * @param username 用户名
+     * @return 已存在返回true，不存在返回false
+     */
+    boolean existsUsername(String username);
+    /**
+     * 批量新增用户（分块事务+JDBC批处理）
+     * @param users 用户列表
+     * @return 每行的处理结果（与输入顺序一致），校验失败/用户名重复的行不影响其他行
+     */
+    BatchResult addUsers(List<User> users);
+
+    /**
+     * 批量修改用户信息（username作为唯一标识）
+     * @param users 用户列表
+     * @return 每行的处理结果（与输入顺序一致）
+     */
+    BatchResult updateUsers(List<User> users);
+
+    /**
+     * 批量删除用户
+     * @param usernames 用户名列表
+     * @return 每行的处理结果（与输入顺序一致）
+     */
+    BatchResult deleteUsers(List<String> usernames);
+
     /**
      * 查询所有用户
      * @return 用户列表（无数据返回空列表）
+     * 注意：一次性加载全表到内存，大表请使用streamAllUsers或listUsers分页
      */
     List<User> listAllUsers();
+
+    /**
+     * 流式遍历所有用户（按id升序，服务端游标逐批读取，不返回密码）
+     * 返回的Stream占用一个数据库连接，必须在try-with-resources中使用并及时关闭
+     * @return 用户流
+     */
+    Stream<User> streamAllUsers();
+
+    /**
+     * 键集分页查询用户（按id升序，不返回密码），任意页深度的代价都只与limit相关
+     * @param afterId 上一页最后一个用户的id（第一页传0）
+     * @param limit 每页条数
+     * @return 本页用户列表（无数据返回空列表）
+     */
+    List<User> listUsers(int afterId, int limit);
 }
\ No newline at end of file
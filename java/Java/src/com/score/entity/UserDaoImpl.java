@@ -1,55 +1,182 @@
 package com.score.entity;
 
 import com.score.dao.User;
+import com.score.dao.UserRowMapper;
 import com.score.util.DBUtil;
+import com.score.util.Log;
+import com.score.util.PasswordHasher;
 
+import java.sql.BatchUpdateException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * 用户数据访问实现类（适配忘记密码的三重验证：用户名+邮箱+手机号）
  */
 public class UserDaoImpl implements UserDao {
+    private static final Log LOG = Log.get(UserDaoImpl.class);
 
-    // 1. 登录验证实现（优化错误提示）
+    // 手机号格式：11位纯数字
+    private static final Pattern TEL_PATTERN = Pattern.compile("^\\d{11}$");
+    // MySQL唯一键冲突错误码
+    private static final int ER_DUP_ENTRY = 1062;
+    // 每个线程遇到的数据库异常次数：异常被捕获后方法只返回false/null/失败行，
+    // InstrumentedUserDao比较调用前后的值把这类调用也计为错误
+    private static final ThreadLocal<long[]> FAILURES = ThreadLocal.withInitial(() -> new long[1]);
+
+    // 按索引查找的语句（UserSchema启动时对其执行EXPLAIN，检查是否退化为全表扫描）
+    static final String SQL_BY_USERNAME = "SELECT " + UserRowMapper.COLUMNS + " FROM user_data WHERE username = ?";
+    static final String SQL_BY_USERNAME_EMAIL = "SELECT " + UserRowMapper.COLUMNS + " FROM user_data WHERE username = ? AND email = ?";
+    static final String SQL_BY_USERNAME_EMAIL_TEL = "SELECT " + UserRowMapper.COLUMNS + " FROM user_data WHERE username = ? AND email = ? AND tel = ?";
+    static final String SQL_EXISTS_USERNAME = "SELECT 1 FROM user_data WHERE username = ? LIMIT 1";
+    static final String SQL_LIST_PAGE = "SELECT " + UserRowMapper.SUMMARY_COLUMNS + " FROM user_data WHERE id > ? ORDER BY id LIMIT ?";
+    static final String SQL_UPDATE = "UPDATE user_data SET name=?, sex=?, title=?, tel=?, email=?, password=? WHERE username=?";
+    static final String SQL_RESET_PASSWORD = "UPDATE user_data SET password = ? WHERE username = ?";
+    // 登录时按新成本重新哈希：带旧值条件，避免覆盖并发重置的新密码
+    static final String SQL_REHASH_PASSWORD = "UPDATE user_data SET password = ? WHERE username = ? AND password = ?";
+    static final String SQL_DELETE = "DELETE FROM user_data WHERE username = ?";
+
+    // 批量操作每个事务包含的行数
+    private int batchChunkSize = 500;
+    // 流式查询每次从服务端游标读取的行数（需URL开启useCursorFetch）
+    private int streamFetchSize = 500;
+    // 密码哈希服务（未设置时使用全局默认实例，首次使用时才创建）
+    private PasswordHasher passwordHasher;
+
+    /**
+     * 当前线程累计捕获的数据库异常次数（只用于比较调用前后是否有新的异常）
+     */
+    static long failureCount() {
+        return FAILURES.get()[0];
+    }
+
+    // 记录一次被捕获的数据库异常（抛出给调用方的异常由装饰器直接计数，不在这里记录）
+    private static void failed() {
+        FAILURES.get()[0]++;
+    }
+
+    /**
+     * 设置批量操作的分块大小（每块一个事务）
+     */
+    public void setBatchChunkSize(int batchChunkSize) {
+        if (batchChunkSize <= 0) {
+            throw new IllegalArgumentException("批量分块大小必须大于0：" + batchChunkSize);
+        }
+        this.batchChunkSize = batchChunkSize;
+    }
+
+    public int getBatchChunkSize() {
+        return batchChunkSize;
+    }
+
+    /**
+     * 设置流式查询的fetchSize（每次网络往返读取的行数）
+     */
+    public void setStreamFetchSize(int streamFetchSize) {
+        if (streamFetchSize <= 0) {
+            throw new IllegalArgumentException("fetchSize必须大于0：" + streamFetchSize);
+        }
+        this.streamFetchSize = streamFetchSize;
+    }
+
+    /**
+     * 设置密码哈希服务（默认使用PasswordHasher.getDefault()）
+     */
+    public void setPasswordHasher(PasswordHasher passwordHasher) {
+        this.passwordHasher = passwordHasher;
+    }
+
+    /**
+     * 当前使用的密码哈希服务（未设置时为PasswordHasher.getDefault()）
+     */
+    public PasswordHasher getPasswordHasher() {
+        return hasher();
+    }
+
+    private PasswordHasher hasher() {
+        return passwordHasher != null ? passwordHasher : PasswordHasher.getDefault();
+    }
+
+    // 1. 登录验证实现：按用户名查出哈希后在哈希线程池中校验（校验期间不占用数据库连接）
     @Override
     public User login(String username, String password) {
         // 空值校验：避免空指针
         if (username == null || username.trim().isEmpty() || password == null || password.trim().isEmpty()) {
-            System.err.println("登录失败：用户名或密码为空");
+            LOG.warn("登录失败：用户名或密码为空");
             return null;
         }
 
-        String sql = "SELECT * FROM user_data WHERE username = ? AND password = ?";
+        User user = null;
+        String sql = SQL_BY_USERNAME;
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, username.trim());
-            stmt.setString(2, password.trim());
-            ResultSet rs = stmt.executeQuery();
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    user = UserRowMapper.map(rs);
+                }
+            }
+        } catch (SQLException e) {
+            LOG.error("登录数据库异常：{}", e.getMessage(), e);
+            failed();
+            return null;
+        }
 
-            if (rs.next()) {
-                User user = new User();
-                user.setId(rs.getInt("id"));
-                user.setName(rs.getString("name"));
-                user.setSex(rs.getString("sex"));
-                user.setTitle(rs.getString("title"));
-                user.setTel(rs.getString("tel")); // 保持tel为字符串类型
-                user.setEmail(rs.getString("email"));
-                user.setUsername(rs.getString("username"));
-                user.setPassword(rs.getString("password"));
-                return user;
-            } else {
-                System.err.println("登录失败：用户名或密码错误，用户名=" + username);
+        PasswordHasher hasher = hasher();
+        if (user == null || !hasher.verify(password.trim(), user.getPassword())) {
+            LOG.warn("登录失败：用户名或密码错误，用户名={}", username);
+            return null;
+        }
+        // 明文旧数据或迭代次数低于当前成本：用本次输入的密码重新哈希
+        if (hasher.needsRehash(user.getPassword())) {
+            rehashPassword(user, password.trim());
+        }
+        return user;
+    }
+
+    /**
+     * 登录成功后按当前成本重新哈希密码（失败只记录日志，不影响本次登录）
+     */
+    private void rehashPassword(User user, String password) {
+        String oldValue = user.getPassword();
+        String newHash = hasher().hash(password);
+        String sql = SQL_REHASH_PASSWORD;
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, newHash);
+            stmt.setString(2, user.getUsername());
+            stmt.setString(3, oldValue);
+            if (stmt.executeUpdate() > 0) {
+                user.setPassword(newHash);
+                LOG.info("{}：用户名={}", PasswordHasher.isHashed(oldValue) ? "密码已按新成本重新哈希" : "明文密码已迁移为哈希",
+                        user.getUsername());
             }
         } catch (SQLException e) {
-            System.err.println("登录数据库异常：" + e.getMessage());
-            e.printStackTrace();
+            LOG.error("重新哈希密码数据库异常：{}", e.getMessage());
+            failed();
         }
-        return null;
+    }
+
+    /**
+     * 修改用户时的密码取值：已是哈希（从数据库读出的User原样写回）则保留，否则视为新密码进行哈希
+     */
+    private String encodeForUpdate(String password) {
+        String value = password == null ? "" : password.trim();
+        return PasswordHasher.isHashed(value) ? value : hasher().hash(value);
     }
 
     // 2. 新增用户（注册）实现（强化tel校验+错误提示）
@@ -57,22 +184,24 @@ public class UserDaoImpl implements UserDao {
     public boolean addUser(User user) {
         // 空值校验：User对象或关键字段为空直接返回失败
         if (user == null) {
-            System.err.println("新增用户失败：User对象为空");
+            LOG.warn("新增用户失败：User对象为空");
             return false;
         }
         // 关键字段非空校验
         if (user.getUsername() == null || user.getUsername().trim().isEmpty() ||
                 user.getTel() == null || user.getTel().trim().isEmpty()) {
-            System.err.println("新增用户失败：用户名或手机号为空");
+            LOG.warn("新增用户失败：用户名或手机号为空");
             return false;
         }
         // 手机号格式校验（11位纯数字）
         String tel = user.getTel().trim();
         if (!tel.matches("^\\d{11}$")) {
-            System.err.println("新增用户失败：手机号格式错误（非11位纯数字），tel=" + tel);
+            LOG.warn("新增用户失败：手机号格式错误（非11位纯数字），tel={}", tel);
             return false;
         }
 
+        // 先计算哈希再借用连接，避免哈希期间占用连接
+        String passwordHash = hasher().hash(user.getPassword() == null ? "" : user.getPassword().trim());
         String sql = "INSERT INTO user_data(name, sex, title, tel, email, username, password) VALUES (?, ?, ?, ?, ?, ?, ?)";
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -83,24 +212,24 @@ public class UserDaoImpl implements UserDao {
             stmt.setString(4, tel); // 已校验的11位手机号字符串
             stmt.setString(5, user.getEmail() == null ? "" : user.getEmail().trim());
             stmt.setString(6, user.getUsername().trim());
-            stmt.setString(7, user.getPassword() == null ? "" : user.getPassword().trim());
+            stmt.setString(7, passwordHash);
 
             int affectedRows = stmt.executeUpdate();
             if (affectedRows > 0) {
-                System.out.println("新增用户成功：用户名=" + user.getUsername() + "，手机号=" + tel);
+                LOG.info("新增用户成功：用户名={}，手机号={}", user.getUsername(), tel);
                 return true;
             } else {
-                System.err.println("新增用户失败：无数据插入");
+                LOG.warn("新增用户失败：无数据插入");
                 return false;
             }
         } catch (SQLException e) {
             // 区分用户名重复和其他数据库错误
             if (e.getMessage().contains("Duplicate entry") && e.getMessage().contains("username")) {
-                System.err.println("新增用户失败：用户名已存在，username=" + user.getUsername());
+                LOG.warn("新增用户失败：用户名已存在，username={}", user.getUsername());
             } else {
-                System.err.println("新增用户数据库异常：" + e.getMessage());
+                LOG.error("新增用户数据库异常：{}", e.getMessage(), e);
+                failed();
             }
-            e.printStackTrace();
             return false;
         }
     }
@@ -109,14 +238,14 @@ public class UserDaoImpl implements UserDao {
     @Override
     public User getUserByUsername(String username) {
         if (username == null || username.trim().isEmpty()) {
-            System.err.println("查询用户失败：用户名为空");
+            LOG.warn("查询用户失败：用户名为空");
             return null;
         }
 
         Connection conn = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
-        String sql = "SELECT * FROM user_data WHERE username = ?";
+        String sql = SQL_BY_USERNAME;
         try {
             conn = DBUtil.getConnection();
             stmt = conn.prepareStatement(sql);
@@ -124,22 +253,14 @@ public class UserDaoImpl implements UserDao {
             rs = stmt.executeQuery();
 
             if (rs.next()) {
-                User user = new User();
-                user.setId(rs.getInt("id"));
-                user.setName(rs.getString("name"));
-                user.setSex(rs.getString("sex"));
-                user.setTitle(rs.getString("title"));
-                user.setTel(rs.getString("tel")); // 字符串tel
-                user.setEmail(rs.getString("email"));
-                user.setUsername(rs.getString("username"));
-                user.setPassword(rs.getString("password"));
+                User user = UserRowMapper.map(rs);
                 return user;
             } else {
-                System.err.println("查询用户失败：用户名不存在，username=" + username);
+                LOG.warn("查询用户失败：用户名不存在，username={}", username);
             }
         } catch (SQLException e) {
-            System.err.println("查询用户数据库异常：" + e.getMessage());
-            e.printStackTrace();
+            LOG.error("查询用户数据库异常：{}", e.getMessage(), e);
+            failed();
         } finally {
             DBUtil.close(conn, stmt, rs); // 确保资源关闭
         }
@@ -150,21 +271,22 @@ public class UserDaoImpl implements UserDao {
     @Override
     public boolean updateUser(User user) {
         if (user == null || user.getUsername() == null || user.getUsername().trim().isEmpty()) {
-            System.err.println("修改用户失败：User对象或用户名为空");
+            LOG.warn("修改用户失败：User对象或用户名为空");
             return false;
         }
         // 手机号非空时校验格式
         if (user.getTel() != null && !user.getTel().trim().isEmpty()) {
             String tel = user.getTel().trim();
             if (!tel.matches("^\\d{11}$")) {
-                System.err.println("修改用户失败：手机号格式错误，tel=" + tel);
+                LOG.warn("修改用户失败：手机号格式错误，tel={}", tel);
                 return false;
             }
         }
 
+        String password = encodeForUpdate(user.getPassword());
         Connection conn = null;
         PreparedStatement stmt = null;
-        String sql = "UPDATE user_data SET name=?, sex=?, title=?, tel=?, email=?, password=? WHERE username=?";
+        String sql = SQL_UPDATE;
         try {
             conn = DBUtil.getConnection();
             stmt = conn.prepareStatement(sql);
@@ -174,19 +296,19 @@ public class UserDaoImpl implements UserDao {
             stmt.setString(3, user.getTitle() == null ? "普通用户" : user.getTitle().trim());
             stmt.setString(4, user.getTel() == null ? "" : user.getTel().trim());
             stmt.setString(5, user.getEmail() == null ? "" : user.getEmail().trim());
-            stmt.setString(6, user.getPassword() == null ? "" : user.getPassword().trim());
+            stmt.setString(6, password);
             stmt.setString(7, user.getUsername().trim());
 
             int affectedRows = stmt.executeUpdate();
             if (affectedRows > 0) {
-                System.out.println("修改用户成功：用户名=" + user.getUsername());
+                LOG.info("修改用户成功：用户名={}", user.getUsername());
                 return true;
             } else {
-                System.err.println("修改用户失败：用户名不存在或无数据变更，username=" + user.getUsername());
+                LOG.warn("修改用户失败：用户名不存在或无数据变更，username={}", user.getUsername());
             }
         } catch (SQLException e) {
-            System.err.println("修改用户数据库异常：" + e.getMessage());
-            e.printStackTrace();
+            LOG.error("修改用户数据库异常：{}", e.getMessage(), e);
+            failed();
         } finally {
             DBUtil.close(conn, stmt, null);
         }
@@ -197,13 +319,13 @@ public class UserDaoImpl implements UserDao {
     @Override
     public boolean deleteUser(String username) {
         if (username == null || username.trim().isEmpty()) {
-            System.err.println("删除用户失败：用户名为空");
+            LOG.warn("删除用户失败：用户名为空");
             return false;
         }
 
         Connection conn = null;
         PreparedStatement stmt = null;
-        String sql = "DELETE FROM user_data WHERE username = ?";
+        String sql = SQL_DELETE;
         try {
             conn = DBUtil.getConnection();
             stmt = conn.prepareStatement(sql);
@@ -211,14 +333,14 @@ public class UserDaoImpl implements UserDao {
 
             int affectedRows = stmt.executeUpdate();
             if (affectedRows > 0) {
-                System.out.println("删除用户成功：用户名=" + username);
+                LOG.info("删除用户成功：用户名={}", username);
                 return true;
             } else {
-                System.err.println("删除用户失败：用户名不存在，username=" + username);
+                LOG.warn("删除用户失败：用户名不存在，username={}", username);
             }
         } catch (SQLException e) {
-            System.err.println("删除用户数据库异常：" + e.getMessage());
-            e.printStackTrace();
+            LOG.error("删除用户数据库异常：{}", e.getMessage(), e);
+            failed();
         } finally {
             DBUtil.close(conn, stmt, null);
         }
@@ -232,7 +354,7 @@ public class UserDaoImpl implements UserDao {
         Connection conn = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
-        String sql = "SELECT * FROM user_data ORDER BY id DESC";
+        String sql = "SELECT " + UserRowMapper.COLUMNS + " FROM user_data ORDER BY id DESC";
 
         try {
             conn = DBUtil.getConnection();
@@ -240,39 +362,99 @@ public class UserDaoImpl implements UserDao {
             rs = stmt.executeQuery();
 
             while (rs.next()) {
-                User user = new User();
-                user.setId(rs.getInt("id"));
-                user.setName(rs.getString("name"));
-                user.setSex(rs.getString("sex"));
-                user.setTitle(rs.getString("title"));
-                user.setTel(rs.getString("tel")); // 字符串tel
-                user.setEmail(rs.getString("email"));
-                user.setUsername(rs.getString("username"));
-                user.setPassword(rs.getString("password"));
+                User user = UserRowMapper.map(rs);
                 userList.add(user);
             }
-            System.out.println("查询所有用户成功：共查询到" + userList.size() + "条用户数据");
+            LOG.info("查询所有用户成功：共查询到{}条用户数据", userList.size());
         } catch (SQLException e) {
-            System.err.println("查询所有用户数据库异常：" + e.getMessage());
-            e.printStackTrace();
+            LOG.error("查询所有用户数据库异常：{}", e.getMessage(), e);
+            failed();
         } finally {
             DBUtil.close(conn, stmt, rs);
         }
         return userList;
     }
 
+    // 6.1 流式查询所有用户：服务端游标 + fetchSize，内存占用与表大小无关
+    @Override
+    public Stream<User> streamAllUsers() {
+        String sql = "SELECT " + UserRowMapper.SUMMARY_COLUMNS + " FROM user_data ORDER BY id";
+        Connection conn = DBUtil.getConnection();
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            // 带结果集类型参数的重载不进入语句缓存，fetchSize设置不会影响其他查询
+            stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(streamFetchSize);
+            rs = stmt.executeQuery();
+        } catch (SQLException e) {
+            DBUtil.close(conn, stmt, rs);
+            LOG.error("流式查询用户数据库异常：{}", e.getMessage());
+            throw new RuntimeException("流式查询用户失败：" + e.getMessage(), e);
+        }
+
+        ResultSet cursor = rs;
+        Spliterator<User> spliterator = new Spliterators.AbstractSpliterator<User>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super User> action) {
+                try {
+                    if (!cursor.next()) {
+                        return false;
+                    }
+                    action.accept(UserRowMapper.mapSummary(cursor));
+                    return true;
+                } catch (SQLException e) {
+                    throw new RuntimeException("流式读取用户失败：" + e.getMessage(), e);
+                }
+            }
+        };
+        PreparedStatement cursorStmt = stmt;
+        return StreamSupport.stream(spliterator, false)
+                .onClose(() -> DBUtil.close(conn, cursorStmt, cursor));
+    }
+
+    // 6.2 键集分页：WHERE id > 上一页最后id，走主键索引，不使用OFFSET
+    @Override
+    public List<User> listUsers(int afterId, int limit) {
+        List<User> page = new ArrayList<>();
+        if (limit <= 0) {
+            return page;
+        }
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        String sql = SQL_LIST_PAGE;
+        try {
+            conn = DBUtil.getConnection();
+            stmt = conn.prepareStatement(sql);
+            stmt.setInt(1, afterId);
+            stmt.setInt(2, limit);
+            rs = stmt.executeQuery();
+            while (rs.next()) {
+                page.add(UserRowMapper.mapSummary(rs));
+            }
+        } catch (SQLException e) {
+            LOG.error("分页查询用户数据库异常：{}", e.getMessage(), e);
+            failed();
+        } finally {
+            DBUtil.close(conn, stmt, rs);
+        }
+        return page;
+    }
+
     // 7. 根据用户名+邮箱查询用户（优化空值）
     @Override
     public User getUserByUsernameAndEmail(String username, String email) {
         if (username == null || email == null || username.trim().isEmpty() || email.trim().isEmpty()) {
-            System.err.println("验证用户失败：用户名或邮箱为空");
+            LOG.warn("验证用户失败：用户名或邮箱为空");
             return null;
         }
 
         Connection conn = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
-        String sql = "SELECT * FROM user_data WHERE username = ? AND email = ?";
+        String sql = SQL_BY_USERNAME_EMAIL;
         try {
             conn = DBUtil.getConnection();
             stmt = conn.prepareStatement(sql);
@@ -281,22 +463,14 @@ public class UserDaoImpl implements UserDao {
             rs = stmt.executeQuery();
 
             if (rs.next()) {
-                User user = new User();
-                user.setId(rs.getInt("id"));
-                user.setName(rs.getString("name"));
-                user.setSex(rs.getString("sex"));
-                user.setTitle(rs.getString("title"));
-                user.setTel(rs.getString("tel"));
-                user.setEmail(rs.getString("email"));
-                user.setUsername(rs.getString("username"));
-                user.setPassword(rs.getString("password"));
+                User user = UserRowMapper.map(rs);
                 return user;
             } else {
-                System.err.println("验证用户失败：用户名或邮箱不匹配，username=" + username + "，email=" + email);
+                LOG.warn("验证用户失败：用户名或邮箱不匹配，username={}，email={}", username, email);
             }
         } catch (SQLException e) {
-            System.err.println("验证用户数据库异常：" + e.getMessage());
-            e.printStackTrace();
+            LOG.error("验证用户数据库异常：{}", e.getMessage(), e);
+            failed();
         } finally {
             DBUtil.close(conn, stmt, rs);
         }
@@ -315,13 +489,13 @@ public class UserDaoImpl implements UserDao {
         // 1. 空值校验
         if (username == null || email == null || tel == null ||
                 username.trim().isEmpty() || email.trim().isEmpty() || tel.trim().isEmpty()) {
-            System.err.println("三重验证失败：用户名/邮箱/手机号为空");
+            LOG.warn("三重验证失败：用户名/邮箱/手机号为空");
             return null;
         }
         // 2. 手机号格式预校验（11位纯数字）
         String cleanTel = tel.trim();
         if (!cleanTel.matches("^\\d{11}$")) {
-            System.err.println("三重验证失败：手机号格式错误，tel=" + cleanTel);
+            LOG.warn("三重验证失败：手机号格式错误，tel={}", cleanTel);
             return null;
         }
 
@@ -330,7 +504,7 @@ public class UserDaoImpl implements UserDao {
         PreparedStatement stmt = null;
         ResultSet rs = null;
         // SQL：同时匹配用户名、邮箱、手机号
-        String sql = "SELECT * FROM user_data WHERE username = ? AND email = ? AND tel = ?";
+        String sql = SQL_BY_USERNAME_EMAIL_TEL;
         try {
             conn = DBUtil.getConnection();
             stmt = conn.prepareStatement(sql);
@@ -341,23 +515,15 @@ public class UserDaoImpl implements UserDao {
 
             if (rs.next()) {
                 // 封装用户对象返回
-                User user = new User();
-                user.setId(rs.getInt("id"));
-                user.setName(rs.getString("name"));
-                user.setSex(rs.getString("sex"));
-                user.setTitle(rs.getString("title"));
-                user.setTel(rs.getString("tel"));
-                user.setEmail(rs.getString("email"));
-                user.setUsername(rs.getString("username"));
-                user.setPassword(rs.getString("password"));
-                System.out.println("三重验证成功：username=" + username + "，tel=" + cleanTel);
+                User user = UserRowMapper.map(rs);
+                LOG.info("三重验证成功：username={}，tel={}", username, cleanTel);
                 return user;
             } else {
-                System.err.println("三重验证失败：用户名/邮箱/手机号不匹配，username=" + username);
+                LOG.warn("三重验证失败：用户名/邮箱/手机号不匹配，username={}", username);
             }
         } catch (SQLException e) {
-            System.err.println("三重验证数据库异常：" + e.getMessage());
-            e.printStackTrace();
+            LOG.error("三重验证数据库异常：{}", e.getMessage(), e);
+            failed();
         } finally {
             DBUtil.close(conn, stmt, rs);
         }
@@ -368,33 +534,396 @@ public class UserDaoImpl implements UserDao {
     @Override
     public boolean resetPassword(String username, String newPassword) {
         if (username == null || newPassword == null || username.trim().isEmpty() || newPassword.trim().isEmpty()) {
-            System.err.println("重置密码失败：用户名或新密码为空");
+            LOG.warn("重置密码失败：用户名或新密码为空");
             return false;
         }
 
+        String passwordHash = hasher().hash(newPassword.trim());
         Connection conn = null;
         PreparedStatement stmt = null;
-        String sql = "UPDATE user_data SET password = ? WHERE username = ?";
+        String sql = SQL_RESET_PASSWORD;
         try {
             conn = DBUtil.getConnection();
             stmt = conn.prepareStatement(sql);
-            stmt.setString(1, newPassword.trim());
+            stmt.setString(1, passwordHash);
             stmt.setString(2, username.trim());
 
             int affectedRows = stmt.executeUpdate();
             if (affectedRows > 0) {
-                System.out.println("重置密码成功：用户名=" + username);
+                LOG.info("重置密码成功：用户名={}", username);
                 return true;
             } else {
-                System.err.println("重置密码失败：用户名不存在，username=" + username);
+                LOG.warn("重置密码失败：用户名不存在，username={}", username);
             }
         } catch (SQLException e) {
-            System.err.println("重置密码数据库异常：" + e.getMessage());
-            e.printStackTrace();
+            LOG.error("重置密码数据库异常：{}", e.getMessage(), e);
+            failed();
         } finally {
             DBUtil.close(conn, stmt, null);
         }
         return false;
     }
 
+    // 9. 判断用户名是否存在（只查主键，不取整行）
+    @Override
+    public boolean existsUsername(String username) {
+        if (username == null || username.trim().isEmpty()) {
+            return false;
+        }
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        String sql = SQL_EXISTS_USERNAME;
+        try {
+            conn = DBUtil.getConnection();
+            stmt = conn.prepareStatement(sql);
+            stmt.setString(1, username.trim());
+            rs = stmt.executeQuery();
+            return rs.next();
+        } catch (SQLException e) {
+            LOG.error("查询用户名是否存在数据库异常：{}", e.getMessage(), e);
+            failed();
+            return true; // 查询失败时按“已存在”处理，交由插入时的唯一约束兜底
+        } finally {
+            DBUtil.close(conn, stmt, rs);
+        }
+    }
+
+    /**
+     * 遍历所有用户名（启动时构建用户名过滤器使用，只查询username列）
+     * @param consumer 用户名处理回调
+     * @return 遍历的用户名数量，数据库异常返回-1
+     */
+    public long forEachUsername(Consumer<String> consumer) {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        String sql = "SELECT username FROM user_data";
+        long count = 0;
+        try {
+            conn = DBUtil.getConnection();
+            stmt = conn.prepareStatement(sql);
+            rs = stmt.executeQuery();
+            while (rs.next()) {
+                consumer.accept(rs.getString(1));
+                count++;
+            }
+            return count;
+        } catch (SQLException e) {
+            LOG.error("遍历用户名数据库异常：{}", e.getMessage(), e);
+            failed();
+            return -1;
+        } finally {
+            DBUtil.close(conn, stmt, rs);
+        }
+    }
+
+    // ========== 批量操作：分块事务 + JDBC批处理，坏数据逐行报告不中断整批 ==========
+
+    // 10. 批量新增用户
+    @Override
+    public BatchResult addUsers(List<User> users) {
+        BatchResult result = new BatchResult(users == null ? 0 : users.size());
+        if (users == null || users.isEmpty()) {
+            return result;
+        }
+        // 1. 逐行校验（与addUser一致）+ 输入内部用户名查重
+        Set<String> seen = new HashSet<>();
+        List<Integer> valid = new ArrayList<>();
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            if (user == null || user.getUsername() == null || user.getUsername().trim().isEmpty()
+                    || user.getTel() == null || user.getTel().trim().isEmpty()) {
+                result.set(i, BatchResult.RowStatus.INVALID, "用户名或手机号为空");
+            } else if (!TEL_PATTERN.matcher(user.getTel().trim()).matches()) {
+                result.set(i, BatchResult.RowStatus.INVALID, "手机号格式错误（非11位纯数字），tel=" + user.getTel().trim());
+            } else if (!seen.add(user.getUsername().trim().toLowerCase(Locale.ROOT))) {
+                result.set(i, BatchResult.RowStatus.DUPLICATE, "批量数据中用户名重复，username=" + user.getUsername().trim());
+            } else {
+                valid.add(i);
+            }
+        }
+
+        // 2. 在哈希线程池中并行计算所有密码哈希（在借用连接之前完成）
+        String[] hashes = new String[users.size()];
+        if (!hashPasswords(users, valid, hashes, result, false)) {
+            return result;
+        }
+
+        String sql = "INSERT INTO user_data(name, sex, title, tel, email, username, password) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        runChunks(valid, result, (conn, chunk) -> {
+            // 3. 每块先查出数据库中已存在的用户名，标记为重复，不进入批处理
+            markExistingUsernames(conn, users, chunk, result);
+            List<Integer> pending = new ArrayList<>();
+            for (int index : chunk) {
+                if (!result.isDecided(index)) {
+                    pending.add(index);
+                }
+            }
+            executeChunk(conn, sql, pending, result, (stmt, index) -> {
+                User user = users.get(index);
+                stmt.setString(1, user.getName() == null ? "" : user.getName().trim());
+                stmt.setString(2, user.getSex() == null ? "" : user.getSex().trim());
+                stmt.setString(3, user.getTitle() == null ? "普通用户" : user.getTitle().trim());
+                stmt.setString(4, user.getTel().trim());
+                stmt.setString(5, user.getEmail() == null ? "" : user.getEmail().trim());
+                stmt.setString(6, user.getUsername().trim());
+                stmt.setString(7, hashes[index]);
+            });
+        });
+        LOG.info("批量新增用户完成：{}", result);
+        return result;
+    }
+
+    // 11. 批量修改用户
+    @Override
+    public BatchResult updateUsers(List<User> users) {
+        BatchResult result = new BatchResult(users == null ? 0 : users.size());
+        if (users == null || users.isEmpty()) {
+            return result;
+        }
+        List<Integer> valid = new ArrayList<>();
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            if (user == null || user.getUsername() == null || user.getUsername().trim().isEmpty()) {
+                result.set(i, BatchResult.RowStatus.INVALID, "User对象或用户名为空");
+            } else if (user.getTel() != null && !user.getTel().trim().isEmpty()
+                    && !TEL_PATTERN.matcher(user.getTel().trim()).matches()) {
+                result.set(i, BatchResult.RowStatus.INVALID, "手机号格式错误，tel=" + user.getTel().trim());
+            } else {
+                valid.add(i);
+            }
+        }
+
+        String[] hashes = new String[users.size()];
+        if (!hashPasswords(users, valid, hashes, result, true)) {
+            return result;
+        }
+
+        String sql = SQL_UPDATE;
+        runChunks(valid, result, (conn, chunk) -> executeChunk(conn, sql, chunk, result, (stmt, index) -> {
+            User user = users.get(index);
+            stmt.setString(1, user.getName() == null ? "" : user.getName().trim());
+            stmt.setString(2, user.getSex() == null ? "" : user.getSex().trim());
+            stmt.setString(3, user.getTitle() == null ? "普通用户" : user.getTitle().trim());
+            stmt.setString(4, user.getTel() == null ? "" : user.getTel().trim());
+            stmt.setString(5, user.getEmail() == null ? "" : user.getEmail().trim());
+            stmt.setString(6, hashes[index]);
+            stmt.setString(7, user.getUsername().trim());
+        }));
+        LOG.info("批量修改用户完成：{}", result);
+        return result;
+    }
+
+    // 12. 批量删除用户
+    @Override
+    public BatchResult deleteUsers(List<String> usernames) {
+        BatchResult result = new BatchResult(usernames == null ? 0 : usernames.size());
+        if (usernames == null || usernames.isEmpty()) {
+            return result;
+        }
+        List<Integer> valid = new ArrayList<>();
+        for (int i = 0; i < usernames.size(); i++) {
+            String username = usernames.get(i);
+            if (username == null || username.trim().isEmpty()) {
+                result.set(i, BatchResult.RowStatus.INVALID, "用户名为空");
+            } else {
+                valid.add(i);
+            }
+        }
+
+        String sql = SQL_DELETE;
+        runChunks(valid, result, (conn, chunk) -> executeChunk(conn, sql, chunk, result,
+                (stmt, index) -> stmt.setString(1, usernames.get(index).trim())));
+        LOG.info("批量删除用户完成：{}", result);
+        return result;
+    }
+
+    /**
+     * 批量计算密码哈希，结果按行号写入hashes
+     * @param keepHashed 已是哈希的值是否原样保留（批量修改时User可能来自数据库查询）
+     * @return 是否成功；失败时所有待处理行标记为FAILED
+     */
+    private boolean hashPasswords(List<User> users, List<Integer> indexes, String[] hashes, BatchResult result,
+                                  boolean keepHashed) {
+        List<Integer> pending = new ArrayList<>();
+        List<String> passwords = new ArrayList<>();
+        for (int index : indexes) {
+            String password = users.get(index).getPassword() == null ? "" : users.get(index).getPassword().trim();
+            if (keepHashed && PasswordHasher.isHashed(password)) {
+                hashes[index] = password;
+            } else {
+                pending.add(index);
+                passwords.add(password);
+            }
+        }
+        try {
+            List<String> computed = hasher().hashAll(passwords);
+            for (int i = 0; i < pending.size(); i++) {
+                hashes[pending.get(i)] = computed.get(i);
+            }
+            return true;
+        } catch (RuntimeException e) {
+            LOG.warn("批量计算密码哈希失败：{}", e.getMessage());
+            for (int index : indexes) {
+                result.set(index, BatchResult.RowStatus.FAILED, "密码哈希失败：" + e.getMessage());
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 批处理参数绑定回调
+     */
+    private interface RowBinder {
+        void bind(PreparedStatement stmt, int index) throws SQLException;
+    }
+
+    /**
+     * 分块处理回调（在同一连接、同一事务中执行）
+     */
+    private interface ChunkWork {
+        void run(Connection conn, List<Integer> chunk) throws SQLException;
+    }
+
+    /**
+     * 按batchChunkSize分块，每块借用一次连接并在一个事务中执行
+     * 某块出现连接级异常时，只将该块未决的行标记为失败，继续处理后续块
+     */
+    private void runChunks(List<Integer> indexes, BatchResult result, ChunkWork work) {
+        for (int from = 0; from < indexes.size(); from += batchChunkSize) {
+            List<Integer> chunk = indexes.subList(from, Math.min(from + batchChunkSize, indexes.size()));
+            Connection conn = null;
+            try {
+                conn = DBUtil.getConnection();
+                conn.setAutoCommit(false);
+                work.run(conn, chunk);
+            } catch (SQLException | RuntimeException e) {
+                LOG.error("批量操作数据库异常：{}", e.getMessage());
+                failed();
+                rollbackQuietly(conn);
+                for (int index : chunk) {
+                    result.set(index, BatchResult.RowStatus.FAILED, e.getMessage());
+                }
+            } finally {
+                if (conn != null) {
+                    try {
+                        conn.setAutoCommit(true);
+                    } catch (SQLException e) {
+                        LOG.warn("恢复自动提交失败：{}", e.getMessage());
+                    }
+                }
+                DBUtil.close(conn, null, null);
+            }
+        }
+    }
+
+    /**
+     * 执行一块批处理并提交；批处理失败时回滚并逐行重试，精确定位坏行
+     */
+    private void executeChunk(Connection conn, String sql, List<Integer> chunk, BatchResult result, RowBinder binder)
+            throws SQLException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int index : chunk) {
+                binder.bind(stmt, index);
+                stmt.addBatch();
+            }
+            int[] counts = stmt.executeBatch();
+            conn.commit();
+            for (int i = 0; i < chunk.size(); i++) {
+                recordCount(result, chunk.get(i), i < counts.length ? counts[i] : Statement.SUCCESS_NO_INFO);
+            }
+        } catch (BatchUpdateException e) {
+            // 批处理中有坏行（如并发插入导致的用户名冲突）：回滚整块后逐行执行
+            conn.rollback();
+            executeRowByRow(conn, sql, chunk, result, binder);
+        }
+    }
+
+    private void executeRowByRow(Connection conn, String sql, List<Integer> chunk, BatchResult result, RowBinder binder)
+            throws SQLException {
+        // 先记录每行的影响行数/异常，提交成功后再写入结果（提交失败时整块由调用方标记为失败）
+        int[] counts = new int[chunk.size()];
+        SQLException[] errors = new SQLException[chunk.size()];
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < chunk.size(); i++) {
+                try {
+                    binder.bind(stmt, chunk.get(i));
+                    counts[i] = stmt.executeUpdate();
+                } catch (SQLException e) {
+                    errors[i] = e;
+                }
+            }
+            conn.commit();
+        }
+        for (int i = 0; i < chunk.size(); i++) {
+            SQLException e = errors[i];
+            if (e == null) {
+                recordCount(result, chunk.get(i), counts[i]);
+            } else if (e.getErrorCode() == ER_DUP_ENTRY) {
+                result.set(chunk.get(i), BatchResult.RowStatus.DUPLICATE, e.getMessage());
+            } else {
+                result.set(chunk.get(i), BatchResult.RowStatus.FAILED, e.getMessage());
+            }
+        }
+    }
+
+    private static void recordCount(BatchResult result, int index, int count) {
+        if (count == Statement.EXECUTE_FAILED) {
+            result.set(index, BatchResult.RowStatus.FAILED, "批处理执行失败");
+        } else if (count == 0) {
+            result.set(index, BatchResult.RowStatus.NOT_FOUND, "未影响任何行");
+        } else {
+            result.set(index, BatchResult.RowStatus.SUCCESS, null); // count>0或SUCCESS_NO_INFO
+        }
+    }
+
+    /**
+     * 一次IN查询找出本块中数据库已存在的用户名
+     */
+    private static void markExistingUsernames(Connection conn, List<User> users, List<Integer> chunk, BatchResult result)
+            throws SQLException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        StringBuilder sql = new StringBuilder("SELECT username FROM user_data WHERE username IN (");
+        for (int i = 0; i < chunk.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(')');
+        Set<String> existing = new HashSet<>();
+        // 占位符数量随块大小变化，使用带结果集类型参数的重载，不进入语句缓存
+        try (PreparedStatement stmt = conn.prepareStatement(sql.toString(),
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            for (int i = 0; i < chunk.size(); i++) {
+                stmt.setString(i + 1, users.get(chunk.get(i)).getUsername().trim());
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    existing.add(rs.getString(1).toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        for (int index : chunk) {
+            String username = users.get(index).getUsername().trim();
+            if (existing.contains(username.toLowerCase(Locale.ROOT))) {
+                result.set(index, BatchResult.RowStatus.DUPLICATE, "用户名已存在，username=" + username);
+            }
+        }
+    }
+
+    private static void rollbackQuietly(Connection conn) {
+        if (conn == null) {
+            return;
+        }
+        try {
+            conn.rollback();
+        } catch (SQLException e) {
+            LOG.warn("回滚事务失败：{}", e.getMessage());
+        }
+    }
 }
\ No newline at end of file
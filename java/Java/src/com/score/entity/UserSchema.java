@@ -0,0 +1,239 @@
+package com.score.entity;
+
+import com.score.util.DBUtil;
+import com.score.util.Log;
+import com.score.util.SchemaInspector;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * user_data表结构初始化与索引检查（程序启动时、显示界面之前调用bootstrap()）
+ * 1. 表不存在则创建；缺少的列补齐，长度不足的列加长
+ * 2. 补齐UserDaoImpl各查询依赖的索引（用户名唯一索引、用户名+邮箱+手机号联合索引）
+ * 3. 对按索引查找的语句执行EXPLAIN，出现全表扫描时告警或启动失败（-Dscore.schema.planCheck=off|warn|fail）
+ */
+public class UserSchema {
+    private static final Log LOG = Log.get(UserSchema.class);
+
+    private static final String TABLE = "user_data";
+    // 是否自动建表/补索引（关闭后只做检查，适合无DDL权限的生产库）
+    private static final boolean AUTO_MIGRATE =
+            Boolean.parseBoolean(System.getProperty("score.schema.autoMigrate", "true"));
+    // 执行计划检查模式：off-不检查，warn-只告警，fail-出现全表扫描时抛出异常
+    private static final String PLAN_CHECK = System.getProperty("score.schema.planCheck", "warn").toLowerCase(Locale.ROOT);
+    // MySQL唯一键冲突错误码（已有重复用户名时无法创建唯一索引）
+    private static final int ER_DUP_ENTRY = 1062;
+
+    private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS user_data (" +
+            "id INT NOT NULL AUTO_INCREMENT, " +
+            "name VARCHAR(50), " +
+            "sex VARCHAR(10), " +
+            "title VARCHAR(50), " +
+            "tel VARCHAR(20), " +
+            "email VARCHAR(100), " +
+            "username VARCHAR(50) NOT NULL, " +
+            "password VARCHAR(255) NOT NULL, " +
+            "PRIMARY KEY (id), " +
+            "UNIQUE KEY uk_username (username), " +
+            "KEY idx_username_email_tel (username, email, tel)" +
+            ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4";
+
+    // 必需的列：列名、最小长度、补齐/加长时使用的列定义
+    private static final ColumnSpec[] COLUMNS = {
+            new ColumnSpec("name", 50, "VARCHAR(50)"),
+            new ColumnSpec("sex", 10, "VARCHAR(10)"),
+            new ColumnSpec("title", 50, "VARCHAR(50)"),
+            new ColumnSpec("tel", 20, "VARCHAR(20)"),
+            new ColumnSpec("email", 100, "VARCHAR(100)"),
+            new ColumnSpec("username", 50, "VARCHAR(50) NOT NULL"),
+            // 密码列需容纳加盐哈希串
+            new ColumnSpec("password", 255, "VARCHAR(255) NOT NULL"),
+    };
+
+    // 必需的索引：按顺序检查，已有索引的最左前缀能覆盖即视为满足
+    // (username, email)由联合索引idx_username_email_tel的前缀覆盖，不单独建索引
+    private static final IndexSpec[] INDEXES = {
+            new IndexSpec("uk_username", true, "username"),
+            new IndexSpec("idx_username_email_tel", false, "username", "email", "tel"),
+            new IndexSpec("idx_username_email", false, "username", "email"),
+    };
+
+    private UserSchema() {}
+
+    /**
+     * 表结构初始化失败时是否应终止启动（planCheck=fail）
+     */
+    public static boolean isFailFast() {
+        return "fail".equals(PLAN_CHECK);
+    }
+
+    /**
+     * 初始化表结构并检查执行计划
+     * @throws IllegalStateException 数据库不可用，或planCheck=fail且存在全表扫描的查询
+     */
+    public static void bootstrap() {
+        try (Connection conn = DBUtil.getConnection()) {
+            if (AUTO_MIGRATE) {
+                migrate(conn);
+            }
+            if (!"off".equals(PLAN_CHECK)) {
+                List<String> problems = checkPlans(conn);
+                if (!problems.isEmpty() && "fail".equals(PLAN_CHECK)) {
+                    throw new IllegalStateException("以下查询退化为全表扫描：" + String.join("；", problems));
+                }
+            }
+        } catch (SQLException e) {
+            LOG.error("初始化user_data表结构失败：{}", e.getMessage());
+            throw new IllegalStateException("初始化user_data表结构失败：" + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 建表、补列、补索引（均为幂等操作）
+     */
+    static void migrate(Connection conn) throws SQLException {
+        if (!SchemaInspector.tableExists(conn, TABLE)) {
+            execute(conn, CREATE_TABLE);
+            LOG.info("已创建user_data表");
+            return;
+        }
+        Map<String, Long> existing = SchemaInspector.columns(conn, TABLE);
+        for (ColumnSpec column : COLUMNS) {
+            Long length = existing.get(column.name);
+            if (length == null) {
+                execute(conn, "ALTER TABLE user_data ADD COLUMN " + column.name + " " + column.definition);
+                LOG.info("user_data表已补齐列：{}", column.name);
+            } else if (length > 0 && length < column.minLength) {
+                execute(conn, "ALTER TABLE user_data MODIFY COLUMN " + column.name + " " + column.definition);
+                LOG.info("user_data表已加长列：{}（{} → {}）", column.name, length, column.minLength);
+            }
+        }
+        List<SchemaInspector.Index> indexes = SchemaInspector.indexes(conn, TABLE);
+        for (IndexSpec spec : INDEXES) {
+            if (isCovered(indexes, spec)) {
+                continue;
+            }
+            createIndex(conn, spec, indexes);
+            indexes = SchemaInspector.indexes(conn, TABLE);
+        }
+    }
+
+    /**
+     * 对UserDaoImpl中按索引查找的语句执行EXPLAIN
+     * @return 出现全表扫描的语句描述（为空表示全部走索引）
+     */
+    static List<String> checkPlans(Connection conn) throws SQLException {
+        List<String> problems = new ArrayList<>();
+        // 参数只用于让优化器生成执行计划，取值无关紧要
+        problems.addAll(checkPlan(conn, "login/getUserByUsername", UserDaoImpl.SQL_BY_USERNAME, ""));
+        problems.addAll(checkPlan(conn, "getUserByUsernameAndEmail", UserDaoImpl.SQL_BY_USERNAME_EMAIL, "", ""));
+        problems.addAll(checkPlan(conn, "getUserByUsernameEmailTel", UserDaoImpl.SQL_BY_USERNAME_EMAIL_TEL, "", "", ""));
+        problems.addAll(checkPlan(conn, "existsUsername", UserDaoImpl.SQL_EXISTS_USERNAME, ""));
+        problems.addAll(checkPlan(conn, "listUsers", UserDaoImpl.SQL_LIST_PAGE, 0, 20));
+        problems.addAll(checkPlan(conn, "updateUser", UserDaoImpl.SQL_UPDATE, "", "", "", "", "", "", ""));
+        problems.addAll(checkPlan(conn, "resetPassword", UserDaoImpl.SQL_RESET_PASSWORD, "", ""));
+        problems.addAll(checkPlan(conn, "rehashPassword", UserDaoImpl.SQL_REHASH_PASSWORD, "", "", ""));
+        problems.addAll(checkPlan(conn, "deleteUser", UserDaoImpl.SQL_DELETE, ""));
+        if (problems.isEmpty()) {
+            LOG.info("user_data查询执行计划检查通过");
+        }
+        return problems;
+    }
+
+    private static List<String> checkPlan(Connection conn, String name, String sql, Object... params) throws SQLException {
+        List<String> problems = new ArrayList<>();
+        for (SchemaInspector.PlanRow row : SchemaInspector.explain(conn, sql, params)) {
+            if (!row.isFullScan()) {
+                continue;
+            }
+            if (row.hasNoUsableIndex()) {
+                // 没有可用索引：数据量增长后必然变慢
+                LOG.warn("执行计划告警：{}为全表扫描且无可用索引（{}）", name, row);
+                problems.add(name);
+            } else {
+                // 有可用索引但优化器选择了扫描：通常是表中数据很少，数据增长后会自动改用索引
+                LOG.info("执行计划提示：{}当前为全表扫描，可用索引：{}", name, row.getPossibleKeys());
+            }
+        }
+        return problems;
+    }
+
+    private static boolean isCovered(List<SchemaInspector.Index> indexes, IndexSpec spec) {
+        for (SchemaInspector.Index index : indexes) {
+            if (spec.unique) {
+                // 唯一约束必须由列完全相同的唯一索引保证
+                if (index.isUnique() && index.getColumns().equals(spec.columns)) {
+                    return true;
+                }
+            } else if (index.hasPrefix(spec.columns)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void createIndex(Connection conn, IndexSpec spec, List<SchemaInspector.Index> indexes)
+            throws SQLException {
+        String columns = String.join(", ", spec.columns);
+        try {
+            execute(conn, "CREATE " + (spec.unique ? "UNIQUE " : "") + "INDEX " + spec.name +
+                    " ON user_data (" + columns + ")");
+            LOG.info("user_data表已创建索引：{}({})", spec.name, columns);
+        } catch (SQLException e) {
+            if (!spec.unique || e.getErrorCode() != ER_DUP_ENTRY) {
+                throw e;
+            }
+            // 已存在重复用户名：退而使用普通索引保证查询性能，重复数据需人工清理后再加唯一约束
+            LOG.warn("user_data表存在重复用户名，无法创建唯一索引{}", spec.name);
+            for (SchemaInspector.Index index : indexes) {
+                if (index.hasPrefix(spec.columns)) {
+                    return;
+                }
+            }
+            execute(conn, "CREATE INDEX idx_" + String.join("_", spec.columns) + " ON user_data (" + columns + ")");
+        }
+    }
+
+    private static void execute(Connection conn, String ddl) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(ddl);
+        }
+    }
+
+    /**
+     * 列要求：列名、最小字符长度、列定义
+     */
+    private static final class ColumnSpec {
+        final String name;
+        final long minLength;
+        final String definition;
+
+        ColumnSpec(String name, long minLength, String definition) {
+            this.name = name;
+            this.minLength = minLength;
+            this.definition = definition;
+        }
+    }
+
+    /**
+     * 索引要求：索引名、是否唯一、列（按索引顺序）
+     */
+    private static final class IndexSpec {
+        final String name;
+        final boolean unique;
+        final List<String> columns;
+
+        IndexSpec(String name, boolean unique, String... columns) {
+            this.name = name;
+            this.unique = unique;
+            this.columns = Arrays.asList(columns);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,334 @@
+package com.score.entity;
+
+import com.score.dao.User;
+import com.score.util.CountingBloomFilter;
+import com.score.util.Log;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * 用户名存在性过滤DAO装饰器（计数布隆过滤器）
+ * 启动时后台从user_data加载全部用户名，之后随addUser/deleteUser增量更新
+ * 过滤器判定“一定不存在”的用户名直接返回，不访问数据库（注册预检查、失败登录快速返回）
+ * 过滤器未构建完成前所有请求直接透传给下层DAO
+ * 其他程序直接写入user_data的用户名只能在下次重建后可见，可通过scheduleRebuild定期重建
+ * 重建逐个进行；扫描期间的新增/删除只登记，扫描结束后在同一个锁内补到新过滤器并发布：
+ * 新增除非扫描本身已读到该用户名，否则一律补加（不用mightContain判断，误判不能代替真正加入）；
+ * 计数器只能减去确实加入过的元素（否则会让其他用户名漏判），因此删除只减去扫描读到的、
+ * 或当前过滤器发布后由addUser加入的用户名，其余删除保留为误判，下次重建时清除
+ */
+public class UsernameFilterUserDao implements UserDao {
+    private static final Log LOG = Log.get(UsernameFilterUserDao.class);
+
+    private final UserDao delegate;
+    private final UserDaoImpl source;
+    private final long expectedUsers;
+    private final double targetFpp;
+
+    private final Object rebuildLock = new Object();
+    private final Object mutationLock = new Object();
+    private volatile CountingBloomFilter filter;   // 已就绪的过滤器（null表示尚未构建完成）
+    // 扫描期间新增/删除的用户名及其最终状态（true为存在），null表示没有正在进行的重建；在mutationLock内修改
+    private volatile Map<String, Boolean> pending;
+    // 当前过滤器发布后由addUser加入（或重建时补加）的用户名，删除时可以安全地减去；在mutationLock内访问
+    private Set<String> addedSinceBuild = new HashSet<>();
+
+    private final LongAdder definitelyAbsent = new LongAdder(); // 过滤器直接拦截的次数
+    private final LongAdder passedThrough = new LongAdder();    // 过滤器判定可能存在、交给数据库的次数
+    private final LongAdder falsePositives = new LongAdder();   // 过滤器判定可能存在但数据库中不存在的次数
+
+    /**
+     * @param delegate 下层DAO（缓存/数据库）
+     * @param source 用于全量加载用户名的数据库DAO
+     * @param expectedUsers 预期用户数量（决定过滤器大小）
+     * @param targetFpp 目标误判率
+     */
+    public UsernameFilterUserDao(UserDao delegate, UserDaoImpl source, long expectedUsers, double targetFpp) {
+        this.delegate = delegate;
+        this.source = source;
+        this.expectedUsers = expectedUsers;
+        this.targetFpp = targetFpp;
+    }
+
+    /**
+     * 立即在后台构建过滤器，之后按固定周期重建
+     * @param periodMillis 重建周期（毫秒）
+     */
+    public void scheduleRebuild(long periodMillis) {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "score-username-filter");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::rebuild, 0, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 从数据库全量加载用户名构建过滤器（阻塞，勿在EDT调用；同时调用时依次执行）
+     */
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            CountingBloomFilter next = new CountingBloomFilter(expectedUsers, targetFpp);
+            Map<String, Boolean> changes = new ConcurrentHashMap<>();
+            // 扫描加入时已登记过变化的用户名：只有这些才能在扫描后安全地减去
+            Set<String> scannedChanged = new HashSet<>();
+            synchronized (mutationLock) {
+                pending = changes;
+            }
+            long start = System.currentTimeMillis();
+            long count = -1;
+            try {
+                count = source.forEachUsername(name -> {
+                    String key = keyOf(name);
+                    next.add(key);
+                    if (changes.containsKey(key)) {
+                        scannedChanged.add(key);
+                    }
+                });
+                if (count >= 0) {
+                    // 补上扫描期间的变化、发布新过滤器、结束登记在同一个锁内完成，其间的变化不会两头都漏掉
+                    synchronized (mutationLock) {
+                        Set<String> added = new HashSet<>();
+                        for (Map.Entry<String, Boolean> change : changes.entrySet()) {
+                            String key = change.getKey();
+                            boolean scanned = scannedChanged.contains(key);
+                            if (change.getValue()) {
+                                if (!scanned) {
+                                    next.add(key);
+                                    added.add(key);
+                                }
+                            } else if (scanned) {
+                                next.remove(key);
+                            }
+                        }
+                        filter = next;
+                        addedSinceBuild = added;
+                        pending = null;
+                    }
+                }
+            } finally {
+                if (pending == changes) {
+                    synchronized (mutationLock) {
+                        pending = null;
+                    }
+                }
+            }
+            if (count < 0) {
+                LOG.warn("用户名过滤器构建失败，继续直接查询数据库");
+                return;
+            }
+            LOG.info("用户名过滤器构建完成：{}个用户名，耗时{}ms，{}", count, System.currentTimeMillis() - start,
+                    String.format("扫描期间变化%d个，内存%dKB，估算误判率%.4f%%", changes.size(),
+                            next.memoryBytes() / 1024, next.expectedFpp() * 100));
+        }
+    }
+
+    @Override
+    public User login(String username, String password) {
+        if (isDefinitelyAbsent(username)) {
+            LOG.warn("登录失败：用户名不存在，username={}", username);
+            return null;
+        }
+        return delegate.login(username, password);
+    }
+
+    @Override
+    public boolean addUser(User user) {
+        boolean success = delegate.addUser(user);
+        if (success) {
+            onAdded(user.getUsername());
+        }
+        return success;
+    }
+
+    @Override
+    public User getUserByUsername(String username) {
+        if (isDefinitelyAbsent(username)) {
+            return null;
+        }
+        User user = delegate.getUserByUsername(username);
+        recordOutcome(username, user != null);
+        return user;
+    }
+
+    @Override
+    public boolean updateUser(User user) {
+        return delegate.updateUser(user);
+    }
+
+    @Override
+    public boolean deleteUser(String username) {
+        boolean success = delegate.deleteUser(username);
+        if (success) {
+            onDeleted(username);
+        }
+        return success;
+    }
+
+    @Override
+    public List<User> listAllUsers() {
+        return delegate.listAllUsers();
+    }
+
+    @Override
+    public Stream<User> streamAllUsers() {
+        return delegate.streamAllUsers();
+    }
+
+    @Override
+    public List<User> listUsers(int afterId, int limit) {
+        return delegate.listUsers(afterId, limit);
+    }
+
+    @Override
+    public User getUserByUsernameAndEmail(String username, String email) {
+        if (isDefinitelyAbsent(username)) {
+            LOG.warn("验证用户失败：用户名不存在，username={}", username);
+            return null;
+        }
+        return delegate.getUserByUsernameAndEmail(username, email);
+    }
+
+    @Override
+    public boolean resetPassword(String username, String newPassword) {
+        return delegate.resetPassword(username, newPassword);
+    }
+
+    @Override
+    public BatchResult addUsers(List<User> users) {
+        BatchResult result = delegate.addUsers(users);
+        for (int i = 0; i < result.size(); i++) {
+            if (result.isSuccess(i)) {
+                onAdded(users.get(i).getUsername());
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public BatchResult updateUsers(List<User> users) {
+        return delegate.updateUsers(users);
+    }
+
+    @Override
+    public BatchResult deleteUsers(List<String> usernames) {
+        BatchResult result = delegate.deleteUsers(usernames);
+        for (int i = 0; i < result.size(); i++) {
+            if (result.isSuccess(i)) {
+                onDeleted(usernames.get(i));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean existsUsername(String username) {
+        if (isDefinitelyAbsent(username)) {
+            return false;
+        }
+        boolean exists = delegate.existsUsername(username);
+        recordOutcome(username, exists);
+        return exists;
+    }
+
+    // ====================== 统计信息 ======================
+
+    /**
+     * 过滤器是否已构建完成
+     */
+    public boolean isReady() {
+        return filter != null;
+    }
+
+    /**
+     * 按当前元素数估算的误判率（未就绪时为1）
+     */
+    public double getFalsePositiveRate() {
+        CountingBloomFilter f = filter;
+        return f == null ? 1 : f.expectedFpp();
+    }
+
+    /**
+     * 过滤器内存占用（字节）
+     */
+    public long getMemoryBytes() {
+        CountingBloomFilter f = filter;
+        return f == null ? 0 : f.memoryBytes();
+    }
+
+    public long getDefinitelyAbsentCount() {
+        return definitelyAbsent.sum();
+    }
+
+    public long getPassedThroughCount() {
+        return passedThrough.sum();
+    }
+
+    public long getObservedFalsePositiveCount() {
+        return falsePositives.sum();
+    }
+
+    // ====================== 内部实现 ======================
+
+    // 与MySQL默认排序规则一致：忽略大小写和首尾空格
+    private static String keyOf(String username) {
+        return username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private boolean isDefinitelyAbsent(String username) {
+        CountingBloomFilter f = filter;
+        if (f == null || username == null || username.trim().isEmpty()) {
+            return false; // 未就绪或参数非法：交给下层处理
+        }
+        if (!f.mightContain(keyOf(username))) {
+            definitelyAbsent.increment();
+            return true;
+        }
+        passedThrough.increment();
+        return false;
+    }
+
+    private void recordOutcome(String username, boolean exists) {
+        if (!exists && filter != null && username != null && !username.trim().isEmpty()) {
+            falsePositives.increment();
+        }
+    }
+
+    private void onAdded(String username) {
+        String key = keyOf(username);
+        synchronized (mutationLock) {
+            CountingBloomFilter f = filter;
+            if (f != null) {
+                f.add(key);
+                addedSinceBuild.add(key);
+            }
+            if (pending != null) {
+                pending.put(key, Boolean.TRUE);
+            }
+        }
+    }
+
+    private void onDeleted(String username) {
+        String key = keyOf(username);
+        synchronized (mutationLock) {
+            CountingBloomFilter f = filter;
+            // 只减去确实加入过的：mightContain为true也可能只是误判，减去会让共用计数器的其他用户名漏判
+            if (f != null && addedSinceBuild.remove(key)) {
+                f.remove(key);
+            }
+            if (pending != null) {
+                pending.put(key, Boolean.FALSE);
+            }
+        }
+    }
+}
\ No newline at end of file
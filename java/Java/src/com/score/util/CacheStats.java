@@ -0,0 +1,50 @@
+package com.score.util;
+
+/**
+ * 缓存运行统计快照（只读）
+ */
+public class CacheStats {
+    private final long hitCount;       // 命中次数
+    private final long missCount;      // 未命中次数（含过期）
+    private final long evictionCount;  // 淘汰次数（容量淘汰+过期淘汰）
+    private final long loadCount;      // 回源加载次数
+    private final long avgLoadMicros;  // 平均回源加载耗时（微秒）
+    private final int size;            // 当前缓存条目数
+
+    public CacheStats(long hitCount, long missCount, long evictionCount, long loadCount, long avgLoadMicros, int size) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.loadCount = loadCount;
+        this.avgLoadMicros = avgLoadMicros;
+        this.size = size;
+    }
+
+    public long getHitCount() { return hitCount; }
+    public long getMissCount() { return missCount; }
+    public long getEvictionCount() { return evictionCount; }
+    public long getLoadCount() { return loadCount; }
+    public long getAvgLoadMicros() { return avgLoadMicros; }
+    public int getSize() { return size; }
+
+    /**
+     * 命中率（0~1，无访问时为0）
+     */
+    public double getHitRate() {
+        long total = hitCount + missCount;
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{" +
+                "hitRate=" + String.format("%.2f%%", getHitRate() * 100) +
+                ", hitCount=" + hitCount +
+                ", missCount=" + missCount +
+                ", evictionCount=" + evictionCount +
+                ", loadCount=" + loadCount +
+                ", avgLoadMicros=" + avgLoadMicros +
+                ", size=" + size +
+                '}';
+    }
+}
\ No newline at end of file
@@ -0,0 +1,263 @@
+package com.score.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * 按块读取文本文件（NIO FileChannel），每块在最后一个换行符处截断，保证块内都是完整的行
+ * 读取线程只负责切块和数换行符，行的解码/拆分由Chunk.lines()在调用方（如解析线程池）中完成，
+ * 因此多个块可以并行解析，内存占用只与同时处理中的块数有关，与文件大小无关
+ * 支持UTF-8（自动跳过BOM）和GBK等换行符为单字节0x0A的编码，不支持UTF-16
+ * 单行超过块大小时扩大缓冲区，最多扩大到maxLineBytes；更长的行不再读入内存，
+ * 而是跳过到下一个换行符，作为只含该行开头的单独一块返回（Chunk.isOversized()），由调用方报告为坏行
+ */
+public class ChunkedLineReader implements AutoCloseable {
+    private static final byte[] UTF8_BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+    // 未指定时的单行最大字节数
+    public static final int DEFAULT_MAX_LINE_BYTES = 16 << 20;
+    // 超长行保留的开头字节数（用于报告）
+    private static final int OVERSIZED_HEAD_BYTES = 200;
+
+    private final FileChannel channel;
+    private final Charset charset;
+    private final long fileSize;
+    private final int maxLineBytes;
+    private ByteBuffer buffer;
+    private long bytesRead;
+    private long nextLineNo = 1;
+    private boolean eof;
+
+    /**
+     * @param file 文件路径
+     * @param charset 文件编码
+     * @param chunkBytes 每块的目标大小（单行超过该大小时自动扩大，最多扩大到DEFAULT_MAX_LINE_BYTES）
+     */
+    public ChunkedLineReader(Path file, Charset charset, int chunkBytes) throws IOException {
+        this(file, charset, chunkBytes, Math.max(chunkBytes, DEFAULT_MAX_LINE_BYTES));
+    }
+
+    /**
+     * @param file 文件路径
+     * @param charset 文件编码
+     * @param chunkBytes 每块的目标大小（单行超过该大小时自动扩大）
+     * @param maxLineBytes 单行（含换行符）最大字节数，小于chunkBytes时按chunkBytes计
+     */
+    public ChunkedLineReader(Path file, Charset charset, int chunkBytes, int maxLineBytes) throws IOException {
+        if (chunkBytes <= 0 || maxLineBytes <= 0) {
+            throw new IllegalArgumentException("块大小和单行最大长度必须大于0：" + chunkBytes + "，" + maxLineBytes);
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.charset = charset;
+        this.fileSize = channel.size();
+        this.maxLineBytes = Math.max(chunkBytes, maxLineBytes);
+        this.buffer = ByteBuffer.allocate(chunkBytes);
+    }
+
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    /**
+     * 已读取的字节数（用于计算进度）
+     */
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * 读取下一块
+     * @return 下一块（至少包含一行；超长行单独成块，见Chunk.isOversized()），文件结束返回null
+     */
+    public Chunk next() throws IOException {
+        while (true) {
+            if (!eof) {
+                fill();
+            }
+            int end = lastNewline();
+            if (end < 0 && !eof) {
+                // 缓冲区内没有完整的行：单行比缓冲区还长，扩大后继续读；已达上限时跳过该行
+                if (!buffer.hasRemaining()) {
+                    if (buffer.capacity() >= maxLineBytes) {
+                        return skipOversized();
+                    }
+                    int capacity = (int) Math.min((long) buffer.capacity() * 2, maxLineBytes);
+                    buffer = ByteBuffer.allocate(capacity).put(buffer.flip());
+                }
+                continue;
+            }
+            if (end < 0) {
+                // 文件结束：剩余字节为最后一行（没有结尾换行符）
+                if (buffer.position() == 0) {
+                    return null;
+                }
+                end = buffer.position();
+            }
+            return take(end);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // 读满缓冲区或到达文件结尾
+    private void fill() throws IOException {
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer);
+            if (n < 0) {
+                eof = true;
+                return;
+            }
+            if (bytesRead == 0 && n > 0) {
+                skipBom();
+            }
+            bytesRead += n;
+        }
+    }
+
+    private void skipBom() {
+        if (!StandardCharsets.UTF_8.equals(charset) || buffer.position() < UTF8_BOM.length) {
+            return;
+        }
+        byte[] head = new byte[UTF8_BOM.length];
+        System.arraycopy(buffer.array(), 0, head, 0, head.length);
+        if (Arrays.equals(head, UTF8_BOM)) {
+            buffer.flip().position(UTF8_BOM.length);
+            buffer.compact();
+        }
+    }
+
+    // 缓冲区中只有超长行的开头：保留开头用于报告，丢弃该行其余字节直到下一个换行符（含）
+    private Chunk skipOversized() throws IOException {
+        byte[] head = Arrays.copyOf(buffer.array(), Math.min(buffer.position(), OVERSIZED_HEAD_BYTES));
+        long lineStart = bytesRead - buffer.position();
+        while (true) {
+            buffer.clear();
+            if (eof) {
+                break;
+            }
+            fill();
+            int next = firstNewline();
+            if (next >= 0) {
+                buffer.flip().position(next);
+                buffer.compact();
+                break;
+            }
+        }
+        Chunk chunk = new Chunk(head, charset, nextLineNo, 1, bytesRead - buffer.position() - lineStart, true);
+        nextLineNo++;
+        return chunk;
+    }
+
+    // 缓冲区中第一个换行符之后的位置，没有换行符返回-1
+    private int firstNewline() {
+        byte[] array = buffer.array();
+        for (int i = 0; i < buffer.position(); i++) {
+            if (array[i] == '\n') {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    // 缓冲区中最后一个换行符之后的位置，没有换行符返回-1
+    private int lastNewline() {
+        byte[] array = buffer.array();
+        for (int i = buffer.position() - 1; i >= 0; i--) {
+            if (array[i] == '\n') {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    // 取出[0, end)作为一块，剩余的不完整行移到缓冲区开头
+    private Chunk take(int end) {
+        byte[] data = Arrays.copyOf(buffer.array(), end);
+        int lines = 0;
+        for (byte b : data) {
+            if (b == '\n') {
+                lines++;
+            }
+        }
+        if (end > 0 && data[end - 1] != '\n') {
+            lines++;
+        }
+        Chunk chunk = new Chunk(data, charset, nextLineNo, lines, data.length, false);
+        nextLineNo += lines;
+        buffer.flip().position(end);
+        buffer.compact();
+        return chunk;
+    }
+
+    /**
+     * 一块完整的行（原始字节），可在任意线程中解码
+     */
+    public static final class Chunk {
+        private final byte[] data;
+        private final Charset charset;
+        private final long firstLineNo;
+        private final int lineCount;
+        private final long byteCount;
+        private final boolean oversized;
+
+        Chunk(byte[] data, Charset charset, long firstLineNo, int lineCount, long byteCount, boolean oversized) {
+            this.data = data;
+            this.charset = charset;
+            this.firstLineNo = firstLineNo;
+            this.lineCount = lineCount;
+            this.byteCount = byteCount;
+            this.oversized = oversized;
+        }
+
+        /**
+         * 本块第一行在文件中的行号（从1开始）
+         */
+        public long getFirstLineNo() {
+            return firstLineNo;
+        }
+
+        public int getLineCount() {
+            return lineCount;
+        }
+
+        /**
+         * 本块在文件中占用的字节数（超长行包括被跳过的部分）
+         */
+        public long getByteCount() {
+            return byteCount;
+        }
+
+        /**
+         * 本块是否为一个超过最大长度的行（只有一行，lines()只返回该行开头的若干字节）
+         */
+        public boolean isOversized() {
+            return oversized;
+        }
+
+        /**
+         * 解码为行（去掉行尾的\r\n或\n），第i行的行号为getFirstLineNo() + i
+         */
+        public String[] lines() {
+            String[] lines = new String[lineCount];
+            int start = 0;
+            for (int i = 0; i < lineCount; i++) {
+                int end = start;
+                while (end < data.length && data[end] != '\n') {
+                    end++;
+                }
+                int contentEnd = end > start && data[end - 1] == '\r' ? end - 1 : end;
+                lines[i] = new String(data, start, contentEnd - start, charset);
+                start = end + 1;
+            }
+            return lines;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,539 @@
+package com.score.util;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+/**
+ * 有界JDBC连接池（DataSource实现）
+ * 功能：最小/最大连接数、空闲回收、借出前校验、借用超时、泄漏检测、运行统计
+ * 借出的是Connection代理对象，调用close()时归还连接池而不是关闭物理连接
+ * 每个物理连接附带预编译语句缓存（StatementCache），prepareStatement(String)透明复用
+ */
+public class ConnectionPool implements DataSource, AutoCloseable {
+    private static final Log LOG = Log.get(ConnectionPool.class);
+
+    private final PoolConfig config;
+
+    // 空闲连接栈（LIFO：优先复用最近归还的连接，队尾为最久未用的连接）
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    // 已借出的连接（用于泄漏检测）
+    private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private int total;      // 物理连接总数（含正在创建的），受lock保护
+    private int waiters;    // 等待连接的线程数，受lock保护
+    private boolean closed; // 受lock保护
+
+    // 统计计数器
+    private final LongAdder acquireCount = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder leakCount = new LongAdder();
+    private final LongAdder acquireNanos = new LongAdder();
+    private final AtomicLong maxAcquireNanos = new AtomicLong();
+    // 借用耗时直方图（JMX：com.score:type=PoolLatency），失败（超时/中断/建连失败）计为错误
+    private final Metrics.Timer acquireTimer = Metrics.timer("PoolLatency", "ConnectionPool", "acquire");
+    private final StatementCache.Counters statementCounters = new StatementCache.Counters();
+
+    private final ScheduledExecutorService housekeeper;
+
+    public ConnectionPool(PoolConfig config) {
+        config.validate();
+        this.config = config;
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "score-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        // 后台预热最小连接数（不阻塞调用线程；失败不影响启动，借用时再重试）
+        housekeeper.execute(this::fillToMinimum);
+        long period = config.getHousekeepingPeriodMillis();
+        housekeeper.scheduleWithFixedDelay(this::housekeep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 从连接池借用连接
+     * 优先复用空闲连接；未达上限时新建；否则等待至acquireTimeout
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        try {
+            return acquire();
+        } catch (SQLException e) {
+            acquireTimer.recordError();
+            throw e;
+        }
+    }
+
+    private Connection acquire() throws SQLException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(config.getAcquireTimeoutMillis());
+        while (true) {
+            PooledConnection pc = null;
+            lock.lock();
+            try {
+                while (true) {
+                    if (closed) {
+                        throw new SQLException("连接池已关闭");
+                    }
+                    pc = idle.pollFirst();
+                    if (pc != null) {
+                        break;
+                    }
+                    if (total < config.getMaxSize()) {
+                        total++; // 预占名额，在锁外创建物理连接
+                        break;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        timeoutCount.increment();
+                        throw new SQLTimeoutException("获取数据库连接超时（" + config.getAcquireTimeoutMillis()
+                                + "ms），active=" + borrowed.size() + "，waiters=" + waiters);
+                    }
+                    waiters++;
+                    try {
+                        available.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("等待数据库连接时被中断", e);
+                    } finally {
+                        waiters--;
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (pc == null) {
+                pc = createPhysical();
+            } else if (needsValidation(pc) && !isAlive(pc)) {
+                discard(pc);
+                continue; // 校验失败：丢弃后重新借用
+            }
+
+            long elapsed = System.nanoTime() - start;
+            acquireCount.increment();
+            acquireNanos.add(elapsed);
+            maxAcquireNanos.accumulateAndGet(elapsed, Math::max);
+            acquireTimer.recordNanos(elapsed);
+            return lease(pc);
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("连接池不支持按用户获取连接");
+    }
+
+    /**
+     * 获取连接池运行统计快照
+     */
+    public PoolStats getStats() {
+        int idleCount;
+        int waiting;
+        lock.lock();
+        try {
+            idleCount = idle.size();
+            waiting = waiters;
+        } finally {
+            lock.unlock();
+        }
+        long count = acquireCount.sum();
+        long avgMicros = count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(acquireNanos.sum() / count);
+        return new PoolStats(borrowed.size(), idleCount, waiting, count, timeoutCount.sum(),
+                leakCount.sum(), avgMicros, TimeUnit.NANOSECONDS.toMicros(maxAcquireNanos.get()),
+                statementCounters.hits.sum(), statementCounters.misses.sum(), statementCounters.evictions.sum());
+    }
+
+    public PoolConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * 关闭连接池：关闭所有空闲连接，已借出的连接在归还时关闭
+     */
+    @Override
+    public void close() {
+        List<PooledConnection> toClose;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            toClose = new ArrayList<>(idle);
+            total -= idle.size();
+            idle.clear();
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        housekeeper.shutdownNow();
+        for (PooledConnection pc : toClose) {
+            closeQuietly(pc.physical);
+        }
+        LOG.info("连接池已关闭：{}", getStats());
+    }
+
+    // ====================== 内部实现 ======================
+
+    private PooledConnection createPhysical() throws SQLException {
+        Connection physical = null;
+        try {
+            physical = DriverManager.getConnection(config.getUrl(), config.getUser(), config.getPassword());
+            StatementCache statements = config.getStatementCacheSize() > 0
+                    ? new StatementCache(physical, config.getStatementCacheSize(), statementCounters) : null;
+            return new PooledConnection(physical, statements);
+        } catch (SQLException | RuntimeException e) {
+            if (physical != null) {
+                closeQuietly(physical);
+            }
+            // 创建失败：释放预占名额并唤醒一个等待者重试
+            lock.lock();
+            try {
+                total--;
+                available.signal();
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        }
+    }
+
+    private boolean needsValidation(PooledConnection pc) {
+        return System.currentTimeMillis() - pc.lastReturnedAt > config.getValidationIntervalMillis();
+    }
+
+    private boolean isAlive(PooledConnection pc) {
+        try {
+            return pc.physical.isValid(config.getValidationTimeoutSeconds());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private Connection lease(PooledConnection pc) {
+        pc.borrowedAt = System.currentTimeMillis();
+        pc.leakReported = false;
+        pc.borrowTrace = config.getLeakThresholdMillis() > 0 ? new Throwable("连接借出位置") : null;
+        borrowed.add(pc);
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new LeaseHandler(pc));
+    }
+
+    /**
+     * 归还连接：重置会话状态后放回空闲栈，状态异常的连接直接丢弃
+     */
+    private void release(PooledConnection pc) {
+        borrowed.remove(pc);
+        pc.borrowTrace = null;
+        if (pc.statements != null) {
+            // 借用者未关闭的语句一并收回，否则条目永远处于借出状态，旧代理还能在下一个借用者的连接上执行
+            pc.statements.checkinAll();
+        }
+        if (pc.broken || !resetState(pc)) {
+            discard(pc);
+            return;
+        }
+        boolean closeNow = false;
+        lock.lock();
+        try {
+            if (closed) {
+                total--;
+                closeNow = true;
+            } else {
+                pc.lastReturnedAt = System.currentTimeMillis();
+                idle.addFirst(pc);
+                available.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (closeNow) {
+            closeQuietly(pc.physical);
+        }
+    }
+
+    private boolean resetState(PooledConnection pc) {
+        if (!pc.dirty) {
+            return true;
+        }
+        try {
+            Connection c = pc.physical;
+            if (c.isClosed()) {
+                return false;
+            }
+            if (!c.getAutoCommit()) {
+                c.rollback(); // 未提交的事务一律回滚，避免污染下一个借用者
+                c.setAutoCommit(true);
+            }
+            if (c.isReadOnly() != pc.defaultReadOnly) {
+                c.setReadOnly(pc.defaultReadOnly);
+            }
+            if (c.getTransactionIsolation() != pc.defaultIsolation) {
+                c.setTransactionIsolation(pc.defaultIsolation);
+            }
+            pc.dirty = false;
+            return true;
+        } catch (SQLException e) {
+            LOG.warn("重置连接状态失败，丢弃该连接：{}", e.getMessage());
+            return false;
+        }
+    }
+
+    private void discard(PooledConnection pc) {
+        closeQuietly(pc.physical);
+        lock.lock();
+        try {
+            total--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 后台维护：回收空闲超时连接、补足最小连接数、检测连接泄漏
+     */
+    private void housekeep() {
+        try {
+            evictIdle();
+            fillToMinimum();
+            detectLeaks();
+        } catch (RuntimeException e) {
+            LOG.error("连接池维护任务异常：{}", e.getMessage());
+        }
+    }
+
+    private void evictIdle() {
+        long now = System.currentTimeMillis();
+        List<PooledConnection> evicted = new ArrayList<>();
+        lock.lock();
+        try {
+            Iterator<PooledConnection> it = idle.descendingIterator(); // 从最久未用的开始
+            while (it.hasNext() && total > config.getMinSize()) {
+                PooledConnection pc = it.next();
+                if (now - pc.lastReturnedAt < config.getIdleTimeoutMillis()) {
+                    break;
+                }
+                it.remove();
+                total--;
+                evicted.add(pc);
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (PooledConnection pc : evicted) {
+            closeQuietly(pc.physical);
+        }
+    }
+
+    private void fillToMinimum() {
+        while (true) {
+            lock.lock();
+            try {
+                if (closed || total >= config.getMinSize()) {
+                    return;
+                }
+                total++;
+            } finally {
+                lock.unlock();
+            }
+            PooledConnection pc;
+            try {
+                pc = createPhysical();
+            } catch (SQLException e) {
+                LOG.warn("连接池预热失败：{}", e.getMessage());
+                return;
+            }
+            release(pc);
+        }
+    }
+
+    private void detectLeaks() {
+        long threshold = config.getLeakThresholdMillis();
+        if (threshold <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (PooledConnection pc : borrowed) {
+            Throwable trace = pc.borrowTrace;
+            if (!pc.leakReported && trace != null && now - pc.borrowedAt > threshold) {
+                pc.leakReported = true;
+                leakCount.increment();
+                // 附带借出时的调用栈，定位未归还连接的代码
+                LOG.warn("检测到疑似连接泄漏：连接已借出{}ms未归还", now - pc.borrowedAt, trace);
+            }
+        }
+    }
+
+    private static void closeQuietly(Connection c) {
+        try {
+            c.close();
+        } catch (SQLException e) {
+            LOG.warn("关闭物理连接失败：{}", e.getMessage());
+        }
+    }
+
+    /**
+     * 池中的物理连接及其元数据
+     */
+    private static final class PooledConnection {
+        final Connection physical;
+        final StatementCache statements; // 为null表示未启用语句缓存
+        final boolean defaultReadOnly;
+        final int defaultIsolation;
+        volatile long borrowedAt;
+        volatile long lastReturnedAt = System.currentTimeMillis();
+        volatile Throwable borrowTrace;
+        volatile boolean leakReported;
+        boolean dirty;   // 借用者修改过会话状态（自动提交/只读/隔离级别）
+        boolean broken;  // 借用期间出现连接级异常
+
+        PooledConnection(Connection physical, StatementCache statements) throws SQLException {
+            this.physical = physical;
+            this.statements = statements;
+            this.defaultReadOnly = physical.isReadOnly();
+            this.defaultIsolation = physical.getTransactionIsolation();
+        }
+    }
+
+    /**
+     * 借出连接的代理：拦截close()归还连接，归还后禁止继续使用
+     * prepareStatement(String)走语句缓存，其余带额外参数的重载不缓存
+     * unwrap只能取得代理自身：物理连接一旦被取出，close()会绕过归还直接关闭，归还后也仍可使用；
+     * 同理，返回的Statement/DatabaseMetaData及其结果集也都经JdbcProxies包装，getConnection()返回本代理
+     */
+    private final class LeaseHandler implements InvocationHandler {
+        private final PooledConnection pc;
+        private volatile boolean returned;
+
+        LeaseHandler(PooledConnection pc) {
+            this.pc = pc;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(pc);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || pc.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection@" + Integer.toHexString(System.identityHashCode(proxy))
+                            + (returned ? "[已归还]" : "[" + pc.physical + "]");
+                case "unwrap":
+                    Class<?> iface = (Class<?>) args[0];
+                    if (iface.isInstance(proxy)) {
+                        return proxy;
+                    }
+                    throw new SQLException("连接池借出的连接不能转换为" + iface.getName() + "（不允许取出物理连接）");
+                case "isWrapperFor":
+                    return ((Class<?>) args[0]).isInstance(proxy);
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("连接已归还到连接池，不能继续使用");
+            }
+            if (name.equals("setAutoCommit") || name.equals("setReadOnly") || name.equals("setTransactionIsolation")) {
+                pc.dirty = true;
+            }
+            try {
+                if (pc.statements != null && name.equals("prepareStatement") && args.length == 1) {
+                    return pc.statements.prepare((String) args[0], (Connection) proxy);
+                }
+                return JdbcProxies.wrap(method.invoke(pc.physical, args), method.getReturnType(),
+                        (Connection) proxy, null);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLException) {
+                    checkFatal((SQLException) cause);
+                }
+                throw cause;
+            } catch (SQLException e) {
+                checkFatal(e);
+                throw e;
+            }
+        }
+
+        private void checkFatal(SQLException e) {
+            String state = e.getSQLState();
+            if (state != null && state.startsWith("08")) {
+                pc.broken = true; // 08xxx：连接级异常，归还时丢弃
+            }
+        }
+    }
+
+    // ====================== DataSource其余方法 ======================
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return DriverManager.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+        DriverManager.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+        DriverManager.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return DriverManager.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException("连接池不支持java.util.logging");
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("不支持转换为" + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+}
\ No newline at end of file
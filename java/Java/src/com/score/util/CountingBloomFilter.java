@@ -0,0 +1,153 @@
+package com.score.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 计数布隆过滤器（支持删除的紧凑集合成员判断）
+ * 每个位置为4位计数器，16个计数器打包在一个long中，通过CAS无锁更新
+ * mightContain返回false表示“一定不存在”，返回true表示“可能存在”（有误判率）
+ * 计数器饱和（15）后不再增减，只会增加误判、不会产生漏判
+ */
+public class CountingBloomFilter {
+    private static final int COUNTERS_PER_WORD = 16;
+    private static final long COUNTER_MASK = 0xFL;
+
+    private final AtomicLongArray words;
+    private final long counterCount; // 计数器总数m
+    private final int hashCount;     // 哈希函数个数k
+    private final AtomicLong size = new AtomicLong(); // 当前元素数（估算误判率用）
+
+    /**
+     * @param expectedInsertions 预期元素数量n
+     * @param targetFpp 目标误判率p（0~1）
+     */
+    public CountingBloomFilter(long expectedInsertions, double targetFpp) {
+        if (expectedInsertions <= 0 || targetFpp <= 0 || targetFpp >= 1) {
+            throw new IllegalArgumentException("布隆过滤器参数错误：n=" + expectedInsertions + "，p=" + targetFpp);
+        }
+        // m = -n·ln(p) / (ln2)^2，k = m/n·ln2
+        long m = (long) Math.ceil(-expectedInsertions * Math.log(targetFpp) / (Math.log(2) * Math.log(2)));
+        long wordCount = (m + COUNTERS_PER_WORD - 1) / COUNTERS_PER_WORD;
+        if (wordCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("布隆过滤器容量过大：n=" + expectedInsertions);
+        }
+        this.words = new AtomicLongArray((int) wordCount);
+        this.counterCount = wordCount * COUNTERS_PER_WORD;
+        this.hashCount = Math.max(1, (int) Math.round((double) counterCount / expectedInsertions * Math.log(2)));
+    }
+
+    /**
+     * 加入元素
+     */
+    public void add(CharSequence key) {
+        long hash = hash64(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            update(index(h1, h2, i), 1);
+        }
+        size.incrementAndGet();
+    }
+
+    /**
+     * 删除元素（仅应删除确实加入过的元素）
+     */
+    public void remove(CharSequence key) {
+        long hash = hash64(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            update(index(h1, h2, i), -1);
+        }
+        size.updateAndGet(n -> n > 0 ? n - 1 : 0);
+    }
+
+    /**
+     * 判断元素是否可能存在：false表示一定不存在
+     */
+    public boolean mightContain(CharSequence key) {
+        long hash = hash64(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            long idx = index(h1, h2, i);
+            long word = words.get((int) (idx / COUNTERS_PER_WORD));
+            if (((word >>> shiftOf(idx)) & COUNTER_MASK) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 按当前元素数估算的误判率：(1 - e^(-kn/m))^k
+     */
+    public double expectedFpp() {
+        double n = size.get();
+        return Math.pow(1 - Math.exp(-hashCount * n / counterCount), hashCount);
+    }
+
+    /**
+     * 计数器数组占用的内存（字节）
+     */
+    public long memoryBytes() {
+        return (long) words.length() * Long.BYTES;
+    }
+
+    public long size() {
+        return size.get();
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    public long getCounterCount() {
+        return counterCount;
+    }
+
+    // ====================== 内部实现 ======================
+
+    private long index(int h1, int h2, int i) {
+        int combined = h1 + i * h2; // 双重哈希：g_i(x) = h1(x) + i·h2(x)
+        return Integer.toUnsignedLong(combined) % counterCount;
+    }
+
+    private static int shiftOf(long idx) {
+        return (int) (idx % COUNTERS_PER_WORD) * 4;
+    }
+
+    private void update(long idx, int delta) {
+        int wordIndex = (int) (idx / COUNTERS_PER_WORD);
+        int shift = shiftOf(idx);
+        while (true) {
+            long word = words.get(wordIndex);
+            long counter = (word >>> shift) & COUNTER_MASK;
+            if (counter == COUNTER_MASK || (delta < 0 && counter == 0)) {
+                return; // 已饱和或已为0：保持不变
+            }
+            long updated = word + ((long) delta << shift);
+            if (words.compareAndSet(wordIndex, word, updated)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 64位哈希：FNV-1a遍历字符后做一次murmur3 fmix64混合
+     */
+    private static long hash64(CharSequence key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
\ No newline at end of file
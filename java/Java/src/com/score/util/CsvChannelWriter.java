@@ -0,0 +1,232 @@
+package com.score.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.time.LocalDateTime;
+
+/**
+ * CSV写出器：字段直接按UTF-8编码进调用方提供的缓冲区（可以是直接内存缓冲区），缓冲区写满后整块写入通道并复用
+ * 不经过String拼接、Writer和中间byte[]，整数、成绩和时间直接写出数字，导出行数再多内存占用也只有一个缓冲区
+ * 字段按RFC 4180转义：含逗号、双引号或换行的字段用双引号包围，字段中的双引号写成两个；行以\r\n结束
+ * 非线程安全；不负责关闭通道
+ */
+public class CsvChannelWriter {
+    private static final byte[] UTF8_BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+    private static final byte[] LONG_MIN = Long.toString(Long.MIN_VALUE).getBytes();
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+    // 整数的数字从后往前生成，暂存在这里
+    private final byte[] digits = new byte[20];
+    private boolean rowStart = true;
+    private long bytesWritten;
+
+    /**
+     * @param channel 输出通道
+     * @param buffer 编码缓冲区（至少64字节，写出器使用期间不要另作他用）
+     */
+    public CsvChannelWriter(WritableByteChannel channel, ByteBuffer buffer) {
+        if (buffer.capacity() < 64) {
+            throw new IllegalArgumentException("缓冲区过小：" + buffer.capacity());
+        }
+        this.channel = channel;
+        this.buffer = buffer;
+        buffer.clear();
+    }
+
+    /**
+     * 写入UTF-8 BOM（Excel据此识别中文编码，导入时会自动跳过），只应在文件开头调用
+     */
+    public void writeBom() throws IOException {
+        ensure(UTF8_BOM.length);
+        buffer.put(UTF8_BOM);
+    }
+
+    /**
+     * 写入一行（字符串字段，null写为空）
+     */
+    public void row(String... fields) throws IOException {
+        for (String field : fields) {
+            field(field);
+        }
+        endRow();
+    }
+
+    /**
+     * 写入一个文本字段，null写为空
+     */
+    public void field(CharSequence value) throws IOException {
+        separator();
+        if (value == null) {
+            return;
+        }
+        int length = value.length();
+        boolean quote = needsQuote(value);
+        if (quote) {
+            ensure(1);
+            buffer.put((byte) '"');
+        }
+        for (int i = 0; i < length; i++) {
+            // 一个字符最多4字节（代理对），双引号转义为2字节
+            ensure(4);
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (c == '"' && quote) {
+                    buffer.put((byte) '"');
+                }
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | c >> 6));
+                buffer.put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, value.charAt(++i));
+                buffer.put((byte) (0xF0 | cp >> 18));
+                buffer.put((byte) (0x80 | cp >> 12 & 0x3F));
+                buffer.put((byte) (0x80 | cp >> 6 & 0x3F));
+                buffer.put((byte) (0x80 | cp & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // 不成对的代理字符按替换字符处理（与String.getBytes一致）
+                buffer.put((byte) '?');
+            } else {
+                buffer.put((byte) (0xE0 | c >> 12));
+                buffer.put((byte) (0x80 | c >> 6 & 0x3F));
+                buffer.put((byte) (0x80 | c & 0x3F));
+            }
+        }
+        if (quote) {
+            ensure(1);
+            buffer.put((byte) '"');
+        }
+    }
+
+    /**
+     * 写入一个整数字段
+     */
+    public void field(long value) throws IOException {
+        separator();
+        writeLong(value);
+    }
+
+    /**
+     * 写入一个小数字段：整数值不带小数点（如85），其余与Double.toString一致
+     */
+    public void field(double value) throws IOException {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            field((long) value);
+        } else {
+            field(Double.toString(value));
+        }
+    }
+
+    /**
+     * 写入一个时间字段（yyyy-MM-dd HH:mm:ss），null写为空
+     */
+    public void field(LocalDateTime time) throws IOException {
+        if (time == null || time.getYear() < 0 || time.getYear() > 9999) {
+            field(time == null ? null : time.toString());
+            return;
+        }
+        separator();
+        ensure(19);
+        putDigits(time.getYear(), 4);
+        buffer.put((byte) '-');
+        putDigits(time.getMonthValue(), 2);
+        buffer.put((byte) '-');
+        putDigits(time.getDayOfMonth(), 2);
+        buffer.put((byte) ' ');
+        putDigits(time.getHour(), 2);
+        buffer.put((byte) ':');
+        putDigits(time.getMinute(), 2);
+        buffer.put((byte) ':');
+        putDigits(time.getSecond(), 2);
+    }
+
+    /**
+     * 结束当前行
+     */
+    public void endRow() throws IOException {
+        ensure(2);
+        buffer.put((byte) '\r');
+        buffer.put((byte) '\n');
+        rowStart = true;
+    }
+
+    /**
+     * 把缓冲区中的内容写入通道
+     */
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            bytesWritten += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * 已写入通道的字节数（不含缓冲区中尚未写出的部分）
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * 已写入通道和缓冲区中的总字节数
+     */
+    public long getBytesEncoded() {
+        return bytesWritten + buffer.position();
+    }
+
+    private void separator() throws IOException {
+        if (rowStart) {
+            rowStart = false;
+        } else {
+            ensure(1);
+            buffer.put((byte) ',');
+        }
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void writeLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            ensure(LONG_MIN.length);
+            buffer.put(LONG_MIN);
+            return;
+        }
+        ensure(digits.length + 1);
+        if (value < 0) {
+            buffer.put((byte) '-');
+            value = -value;
+        }
+        int pos = digits.length;
+        do {
+            digits[--pos] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        buffer.put(digits, pos, digits.length - pos);
+    }
+
+    // 定长补零的数字（调用方已保证空间）
+    private void putDigits(int value, int width) {
+        for (int i = width - 1; i >= 0; i--) {
+            digits[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        buffer.put(digits, 0, width);
+    }
+
+    private static boolean needsQuote(CharSequence value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
\ No newline at end of file
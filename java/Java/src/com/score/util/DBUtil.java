@@ -1,7 +1,6 @@
 package com.score.util;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -9,35 +8,57 @@ import java.sql.SQLException;
 /**
  * 数据库连接工具类
  * 适配MySQL 8.0+，配置：数据库名java，用户名root，密码root
+ * 连接由内置连接池（ConnectionPool）管理，getConnection()为借用，close()为归还
  */
 public class DBUtil {
-    // 数据库连接配置（根据你的环境调整）
-    private static final String URL = "jdbc:mysql://localhost:3306/java";
-    private static final String USER = "root";
-    private static final String PASSWORD = "root";
+    private static final Log LOG = Log.get(DBUtil.class);
 
-    // 静态代码块：加载MySQL驱动
+    // 数据库连接配置（根据你的环境调整，可通过-Dscore.db.url等系统属性覆盖）
+    // useServerPrepStmts=true：使用服务端预编译，配合连接池的语句缓存避免MySQL重复解析SQL
+    // rewriteBatchedStatements=true：批处理INSERT合并为多值语句，减少批量导入的网络往返
+    // useCursorFetch=true：设置了fetchSize的查询使用服务端游标分批读取（流式查询）
+    private static final String URL = System.getProperty("score.db.url",
+            "jdbc:mysql://localhost:3306/java?useServerPrepStmts=true&rewriteBatchedStatements=true&useCursorFetch=true");
+    private static final String USER = System.getProperty("score.db.user", "root");
+    private static final String PASSWORD = System.getProperty("score.db.password", "root");
+    // JDBC驱动类（基准测试/压测使用嵌入式H2时通过-Dscore.db.driver=org.h2.Driver覆盖）
+    private static final String DRIVER = System.getProperty("score.db.driver", "com.mysql.cj.jdbc.Driver");
+
+    // 全局连接池（驱动加载成功后初始化）
+    private static final ConnectionPool POOL;
+
+    // 静态代码块：加载数据库驱动（默认MySQL）
     static {
         try {
-            Class.forName("com.mysql.cj.jdbc.Driver");
-            System.out.println("MySQL驱动加载成功");
+            Class.forName(DRIVER);
+            LOG.info("数据库驱动加载成功：{}", DRIVER);
         } catch (ClassNotFoundException e) {
-            System.err.println("MySQL驱动加载失败：" + e.getMessage());
+            LOG.error("数据库驱动加载失败：{}", e.getMessage());
             throw new RuntimeException("驱动加载失败，无法连接数据库");
         }
+        PoolConfig config = new PoolConfig(URL, USER, PASSWORD);
+        config.setMinSize(Integer.getInteger("score.pool.minSize", config.getMinSize()));
+        config.setMaxSize(Integer.getInteger("score.pool.maxSize", config.getMaxSize()));
+        config.setAcquireTimeoutMillis(Long.getLong("score.pool.acquireTimeoutMillis", config.getAcquireTimeoutMillis()));
+        config.setIdleTimeoutMillis(Long.getLong("score.pool.idleTimeoutMillis", config.getIdleTimeoutMillis()));
+        config.setLeakThresholdMillis(Long.getLong("score.pool.leakThresholdMillis", config.getLeakThresholdMillis()));
+        config.setStatementCacheSize(Integer.getInteger("score.pool.statementCacheSize", config.getStatementCacheSize()));
+        POOL = new ConnectionPool(config);
+        // 程序退出时关闭连接池，释放MySQL连接
+        Runtime.getRuntime().addShutdownHook(new Thread(POOL::close, "score-pool-shutdown"));
     }
 
     /**
-     * 获取数据库连接
+     * 从连接池借用数据库连接（使用完毕后调用close()归还）
      * @return Connection对象
      */
     public static Connection getConnection() {
         try {
-            Connection conn = DriverManager.getConnection(URL, USER, PASSWORD);
-            System.out.println("数据库连接成功");
+            Connection conn = POOL.getConnection();
+            LOG.debug("数据库连接借用成功");
             return conn;
         } catch (SQLException e) {
-            System.err.println("数据库连接失败：" + e.getMessage());
+            LOG.error("数据库连接失败：{}", e.getMessage());
             throw new RuntimeException("数据库连接失败");
         }
     }
@@ -51,7 +72,7 @@ public class DBUtil {
             if (stmt != null) stmt.close();
             if (conn != null) conn.close();
         } catch (SQLException e) {
-            System.err.println("关闭资源失败：" + e.getMessage());
+            LOG.warn("关闭资源失败：{}", e.getMessage());
         }
     }
 
@@ -59,4 +80,18 @@ public class DBUtil {
     public static void close(Connection conn, PreparedStatement stmt) {
         close(conn, stmt, null);
     }
+
+    /**
+     * 获取连接池（供监控统计使用）
+     */
+    public static ConnectionPool getDataSource() {
+        return POOL;
+    }
+
+    /**
+     * 获取连接池运行统计（active/idle/waiters/借用耗时）
+     */
+    public static PoolStats getPoolStats() {
+        return POOL.getStats();
+    }
 }
\ No newline at end of file
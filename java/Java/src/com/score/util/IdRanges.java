@@ -0,0 +1,135 @@
+package com.score.util;
+
+import java.util.Arrays;
+
+/**
+ * 整数id集合的区间表示：连续的id合并为一个[from, to]区间
+ * 批量导入的自增id基本连续，百万行通常只有几个到几百个区间，用于记录"一次导入写入了哪些行"而不保存行本身
+ * 非线程安全，由使用方加锁
+ */
+public class IdRanges {
+    // 区间端点，依次为from0, to0, from1, to1, ...（闭区间）
+    private long[] bounds = new long[16];
+    private int rangeCount;
+    private long idCount;
+    private boolean normalized = true;
+
+    /**
+     * 加入一个id（与最后一个区间相邻时直接扩展该区间）
+     */
+    public void add(long id) {
+        if (rangeCount > 0) {
+            long lastTo = bounds[rangeCount * 2 - 1];
+            if (id == lastTo + 1) {
+                bounds[rangeCount * 2 - 1] = id;
+                idCount++;
+                return;
+            }
+            if (id <= lastTo) {
+                normalized = false;
+            }
+        }
+        if (rangeCount * 2 == bounds.length) {
+            bounds = Arrays.copyOf(bounds, bounds.length * 2);
+        }
+        bounds[rangeCount * 2] = id;
+        bounds[rangeCount * 2 + 1] = id;
+        rangeCount++;
+        idCount++;
+    }
+
+    /**
+     * 加入另一个集合的全部区间
+     */
+    public void addAll(IdRanges other) {
+        for (int i = 0; i < other.rangeCount; i++) {
+            if (rangeCount * 2 == bounds.length) {
+                bounds = Arrays.copyOf(bounds, bounds.length * 2);
+            }
+            bounds[rangeCount * 2] = other.bounds[i * 2];
+            bounds[rangeCount * 2 + 1] = other.bounds[i * 2 + 1];
+            rangeCount++;
+        }
+        // 计数在normalize中重新计算
+        normalized = other.rangeCount == 0 && normalized;
+    }
+
+    /**
+     * 按from排序并合并相邻/重叠的区间（重复的id只计一次）
+     * @return 区间端点数组（from0, to0, from1, to1, ...），长度为区间数×2
+     */
+    public long[] toArray() {
+        normalize();
+        return Arrays.copyOf(bounds, rangeCount * 2);
+    }
+
+    /**
+     * 由端点数组还原（数组应是toArray的结果）
+     */
+    public static IdRanges of(long[] bounds) {
+        IdRanges ranges = new IdRanges();
+        ranges.bounds = bounds.length == 0 ? new long[16] : bounds.clone();
+        ranges.rangeCount = bounds.length / 2;
+        for (int i = 0; i < ranges.rangeCount; i++) {
+            ranges.idCount += bounds[i * 2 + 1] - bounds[i * 2] + 1;
+        }
+        ranges.normalized = false;
+        ranges.normalize();
+        return ranges;
+    }
+
+    public int getRangeCount() {
+        normalize();
+        return rangeCount;
+    }
+
+    /**
+     * id个数
+     */
+    public long size() {
+        normalize();
+        return idCount;
+    }
+
+    public boolean isEmpty() {
+        return rangeCount == 0;
+    }
+
+    private void normalize() {
+        if (normalized) {
+            return;
+        }
+        // 按from排序：区间数不多（导入时每块一个），对端点对做插入排序
+        for (int i = 1; i < rangeCount; i++) {
+            long from = bounds[i * 2];
+            long to = bounds[i * 2 + 1];
+            int j = i - 1;
+            while (j >= 0 && bounds[j * 2] > from) {
+                bounds[(j + 1) * 2] = bounds[j * 2];
+                bounds[(j + 1) * 2 + 1] = bounds[j * 2 + 1];
+                j--;
+            }
+            bounds[(j + 1) * 2] = from;
+            bounds[(j + 1) * 2 + 1] = to;
+        }
+        int merged = 0;
+        long count = 0;
+        for (int i = 0; i < rangeCount; i++) {
+            long from = bounds[i * 2];
+            long to = bounds[i * 2 + 1];
+            if (merged > 0 && from <= bounds[merged * 2 - 1] + 1) {
+                bounds[merged * 2 - 1] = Math.max(bounds[merged * 2 - 1], to);
+            } else {
+                bounds[merged * 2] = from;
+                bounds[merged * 2 + 1] = to;
+                merged++;
+            }
+        }
+        for (int i = 0; i < merged; i++) {
+            count += bounds[i * 2 + 1] - bounds[i * 2] + 1;
+        }
+        rangeCount = merged;
+        idCount = count;
+        normalized = true;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,97 @@
+package com.score.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 借出连接派生出的JDBC对象（Statement/ResultSet/DatabaseMetaData）的代理
+ * getConnection()/getStatement()返回代理而不是物理对象，unwrap只能取得代理自身，
+ * 否则借用者可以经由这些对象取得物理连接，绕过连接池的归还
+ * 连接归还后除close/isClosed外的调用一律报错，物理连接此时可能已借给下一个借用者
+ */
+final class JdbcProxies {
+
+    private JdbcProxies() {
+    }
+
+    /**
+     * 按方法声明的返回类型包装，不需要包装的类型原样返回
+     * @param target 物理对象（可为null）
+     * @param type 方法声明的返回类型
+     * @param owner 借出的连接代理
+     * @param statement 结果集所属的语句代理（DatabaseMetaData返回的结果集为null）
+     */
+    static Object wrap(Object target, Class<?> type, Connection owner, Statement statement) {
+        if (target == null || !(Statement.class.isAssignableFrom(type)
+                || type == ResultSet.class || type == DatabaseMetaData.class)) {
+            return target;
+        }
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                new DerivedHandler(target, owner, statement));
+    }
+
+    /**
+     * 代理的unwrap：只能转换为代理自身实现的接口
+     */
+    static Object unwrap(Object proxy, Class<?> iface) throws SQLException {
+        if (iface.isInstance(proxy)) {
+            return proxy;
+        }
+        throw new SQLException("连接池借出的对象不能转换为" + iface.getName() + "（不允许取出物理对象）");
+    }
+
+    private static final class DerivedHandler implements InvocationHandler {
+        private final Object target;
+        private final Connection owner;
+        private final Statement statement;
+
+        DerivedHandler(Object target, Connection owner, Statement statement) {
+            this.target = target;
+            this.owner = owner;
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "getConnection":
+                    return owner;
+                case "getStatement":
+                    return statement;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled[" + target + "]";
+                case "unwrap":
+                    return unwrap(proxy, (Class<?>) args[0]);
+                case "isWrapperFor":
+                    return ((Class<?>) args[0]).isInstance(proxy);
+                case "close":
+                case "isClosed":
+                    break;
+                default:
+                    if (owner.isClosed()) {
+                        throw new SQLException("连接已归还到连接池，不能继续使用");
+                    }
+                    break;
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            return wrap(result, method.getReturnType(), owner,
+                    proxy instanceof Statement ? (Statement) proxy : statement);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,145 @@
+package com.score.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 延迟直方图（HDR风格的对数-线性分桶，单位纳秒）
+ * 每个2的幂区间再均分为64个子桶，相对误差不超过1/64（约1.6%），可记录0~2^40纳秒（约18分钟），超出按上限计
+ * record()只有一次原子自增和一次最大值比较，无锁、无分配，适合在生产环境常开
+ * 读取通过snapshot()获取快照，两个快照相减可得到某一时间段内的分布
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;      // 128
+    private static final int SUB_BUCKET_HALF = SUB_BUCKET_COUNT >> 1;      // 64
+    private static final int MAX_MAGNITUDE = 40;
+    static final long MAX_VALUE = (1L << MAX_MAGNITUDE) - 1;
+    private static final int BUCKET_COUNT = indexOf(MAX_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * 记录一次耗时（纳秒，负数按0计）
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, Math.min(nanos, MAX_VALUE));
+        counts.incrementAndGet(indexOf(value));
+        total.add(value);
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * 获取当前分布的快照（与并发的record()之间不保证原子，误差为快照期间的少量记录）
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKET_COUNT];
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            copy[i] = counts.get(i);
+            count += copy[i];
+        }
+        return new Snapshot(copy, count, total.sum(), max.get());
+    }
+
+    // 值 → 桶下标：小于128的值一一对应；更大的值按最高位所在的区间右移，保留7位有效精度
+    static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        int shift = magnitude - SUB_BUCKET_BITS + 1;
+        return shift * SUB_BUCKET_HALF + (int) (value >>> shift);
+    }
+
+    // 桶下标 → 该桶能表示的最大值
+    static long highestValueAt(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_HALF - 1;
+        long sub = index - (long) shift * SUB_BUCKET_HALF;
+        return ((sub + 1) << shift) - 1;
+    }
+
+    /**
+     * 直方图快照（不可变）
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long totalNanos;
+        private final long maxNanos;
+
+        Snapshot(long[] counts, long count, long totalNanos, long maxNanos) {
+            this.counts = counts;
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        public double getMeanNanos() {
+            return count == 0 ? 0 : (double) totalNanos / count;
+        }
+
+        /**
+         * 百分位数（纳秒）：percentile取0~100，例如99.9
+         * 返回值为所在桶的上界（不超过记录到的最大值）
+         */
+        public long getPercentileNanos(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(Math.max(0, Math.min(100, percentile)) / 100 * count);
+            rank = Math.max(1, rank);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(highestValueAt(i), maxNanos);
+                }
+            }
+            return maxNanos;
+        }
+
+        public double getPercentileMillis(double percentile) {
+            return getPercentileNanos(percentile) / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+
+        /**
+         * 本快照减去更早的快照，得到两次快照之间的分布（最大值为区间内最高非空桶的上界）
+         */
+        public Snapshot minus(Snapshot earlier) {
+            long[] diff = new long[counts.length];
+            long diffCount = 0;
+            for (int i = 0; i < counts.length; i++) {
+                diff[i] = Math.max(0, counts[i] - earlier.counts[i]);
+                diffCount += diff[i];
+            }
+            // 不超过累计最大值
+            long intervalMax = 0;
+            for (int i = diff.length - 1; i >= 0; i--) {
+                if (diff[i] > 0) {
+                    intervalMax = Math.min(highestValueAt(i), maxNanos);
+                    break;
+                }
+            }
+            return new Snapshot(diff, diffCount, Math.max(0, totalNanos - earlier.totalNanos), intervalMax);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.score.util;
+
+/**
+ * 延迟统计的JMX视图（JConsole/VisualVM中查看：com.score → DaoLatency / PoolLatency）
+ * 所有耗时单位为毫秒，统计自程序启动起累计
+ */
+public interface LatencyMXBean {
+    long getCount();
+
+    long getErrorCount();
+
+    double getMeanMillis();
+
+    double getP50Millis();
+
+    double getP99Millis();
+
+    double getP999Millis();
+
+    double getMaxMillis();
+}
\ No newline at end of file
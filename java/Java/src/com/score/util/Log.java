@@ -0,0 +1,444 @@
+package com.score.util;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 异步日志（替代DAO热点路径中的System.out/err和printStackTrace）
+ * 调用方线程只做级别判断并把模板和参数放入有界环形缓冲区，不格式化、不做I/O；
+ * 后台线程score-log-writer批量取出、格式化（{}占位符）并写入滚动日志文件（可同时输出到控制台）
+ * 缓冲区满时丢弃新日志并计数，绝不阻塞调用方；丢弃数量会在下一次写出时补记一条警告
+ * 1~3个参数的重载不分配数组；参数在写出时才转为字符串，请勿传入之后会被修改的可变对象
+ * 系统属性：score.log.level（DEBUG/INFO/WARN/ERROR，默认INFO）、score.log.file（默认logs/score.log）、
+ * score.log.maxBytes（单个文件上限，默认10MB）、score.log.maxFiles（保留的历史文件数，默认5）、
+ * score.log.console（是否同时输出到控制台，默认true）、score.log.bufferSize（缓冲区条数，默认8192）
+ */
+public final class Log {
+    /**
+     * 日志级别
+     */
+    public enum Level {
+        DEBUG, INFO, WARN, ERROR
+    }
+
+    private static final Level THRESHOLD = parseLevel(System.getProperty("score.log.level", "INFO"));
+    private static final RingBuffer BUFFER = new RingBuffer(Integer.getInteger("score.log.bufferSize", 8192));
+    private static final LongAdder DROPPED = new LongAdder();
+    private static final LogWriter WRITER = new LogWriter(
+            System.getProperty("score.log.file", "logs/score.log"),
+            Long.getLong("score.log.maxBytes", 10L * 1024 * 1024),
+            Integer.getInteger("score.log.maxFiles", 5),
+            Boolean.parseBoolean(System.getProperty("score.log.console", "true")));
+
+    static {
+        WRITER.start();
+        // 程序退出前写完缓冲区中剩余的日志
+        Runtime.getRuntime().addShutdownHook(new Thread(WRITER::shutdown, "score-log-shutdown"));
+    }
+
+    private final String name;
+
+    private Log(String name) {
+        this.name = name;
+    }
+
+    /**
+     * 获取日志对象（按类的简单名称输出）
+     */
+    public static Log get(Class<?> type) {
+        return new Log(type.getSimpleName());
+    }
+
+    /**
+     * 因缓冲区已满而丢弃的日志条数
+     */
+    public static long getDroppedCount() {
+        return DROPPED.sum();
+    }
+
+    public boolean isDebugEnabled() {
+        return isEnabled(Level.DEBUG);
+    }
+
+    public boolean isEnabled(Level level) {
+        return level.ordinal() >= THRESHOLD.ordinal();
+    }
+
+    public void debug(String message) { log(Level.DEBUG, message, null, null, null, 0, null); }
+    public void debug(String template, Object a) { log(Level.DEBUG, template, a, null, null, 1, null); }
+    public void debug(String template, Object a, Object b) { log(Level.DEBUG, template, a, b, null, 2, null); }
+    public void debug(String template, Object a, Object b, Object c) { log(Level.DEBUG, template, a, b, c, 3, null); }
+
+    public void info(String message) { log(Level.INFO, message, null, null, null, 0, null); }
+    public void info(String template, Object a) { log(Level.INFO, template, a, null, null, 1, null); }
+    public void info(String template, Object a, Object b) { log(Level.INFO, template, a, b, null, 2, null); }
+    public void info(String template, Object a, Object b, Object c) { log(Level.INFO, template, a, b, c, 3, null); }
+
+    public void warn(String message) { log(Level.WARN, message, null, null, null, 0, null); }
+    public void warn(String template, Object a) { log(Level.WARN, template, a, null, null, 1, null); }
+    public void warn(String template, Object a, Object b) { log(Level.WARN, template, a, b, null, 2, null); }
+    public void warn(String template, Object a, Object b, Object c) { log(Level.WARN, template, a, b, c, 3, null); }
+    public void warn(String template, Object a, Throwable error) { log(Level.WARN, template, a, null, null, 1, error); }
+
+    public void error(String message) { log(Level.ERROR, message, null, null, null, 0, null); }
+    public void error(String template, Object a) { log(Level.ERROR, template, a, null, null, 1, null); }
+    public void error(String template, Object a, Object b) { log(Level.ERROR, template, a, b, null, 2, null); }
+    public void error(String template, Object a, Object b, Object c) { log(Level.ERROR, template, a, b, c, 3, null); }
+
+    /**
+     * 记录错误并附带异常堆栈（堆栈在后台线程展开）
+     */
+    public void error(String message, Throwable error) { log(Level.ERROR, message, null, null, null, 0, error); }
+    public void error(String template, Object a, Throwable error) { log(Level.ERROR, template, a, null, null, 1, error); }
+
+    private void log(Level level, String template, Object a, Object b, Object c, int argCount, Throwable error) {
+        if (level.ordinal() < THRESHOLD.ordinal()) {
+            return;
+        }
+        if (!BUFFER.offer(level, name, template, a, b, c, argCount, error)) {
+            DROPPED.increment();
+        }
+        WRITER.wakeIfIdle();
+    }
+
+    private static Level parseLevel(String value) {
+        try {
+            return Level.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return Level.INFO;
+        }
+    }
+
+    /**
+     * 缓冲区中的一条日志（槽位预先分配并复用，写入期间由序号保证只有一个线程访问）
+     */
+    private static final class Event {
+        Level level;
+        String logger;
+        String thread;
+        long timestamp;
+        String template;
+        Object a;
+        Object b;
+        Object c;
+        int argCount;
+        Throwable error;
+
+        void clear() {
+            logger = null;
+            thread = null;
+            template = null;
+            a = null;
+            b = null;
+            c = null;
+            error = null;
+        }
+    }
+
+    /**
+     * 有界多生产者单消费者环形缓冲区（每个槽位带序号，生产者CAS抢占位置，无锁）
+     * 槽位序号等于pos表示可写，等于pos+1表示已发布可读
+     */
+    private static final class RingBuffer {
+        private final Event[] slots;
+        private final AtomicLongArray sequences;
+        private final int mask;
+        private final AtomicLong tail = new AtomicLong();
+        private long head; // 只由写出线程访问
+
+        RingBuffer(int requestedSize) {
+            int size = Integer.highestOneBit(Math.max(2, requestedSize - 1)) << 1;
+            slots = new Event[size];
+            sequences = new AtomicLongArray(size);
+            for (int i = 0; i < size; i++) {
+                slots[i] = new Event();
+                sequences.set(i, i);
+            }
+            mask = size - 1;
+        }
+
+        boolean offer(Level level, String logger, String template, Object a, Object b, Object c,
+                      int argCount, Throwable error) {
+            while (true) {
+                long pos = tail.get();
+                int index = (int) (pos & mask);
+                long diff = sequences.get(index) - pos;
+                if (diff < 0) {
+                    return false; // 已满：写出线程尚未读走一整圈之前的日志
+                }
+                if (diff == 0 && tail.compareAndSet(pos, pos + 1)) {
+                    Event event = slots[index];
+                    event.level = level;
+                    event.logger = logger;
+                    event.thread = Thread.currentThread().getName();
+                    event.timestamp = System.currentTimeMillis();
+                    event.template = template;
+                    event.a = a;
+                    event.b = b;
+                    event.c = c;
+                    event.argCount = argCount;
+                    event.error = error;
+                    sequences.set(index, pos + 1); // 发布
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * 取出下一条已发布的日志交给sink处理，缓冲区为空时返回false
+         */
+        boolean poll(LogWriter sink) {
+            int index = (int) (head & mask);
+            if (sequences.get(index) != head + 1) {
+                return false;
+            }
+            Event event = slots[index];
+            sink.append(event);
+            event.clear();
+            sequences.set(index, head + slots.length); // 归还槽位
+            head++;
+            return true;
+        }
+
+        /**
+         * 是否没有已发布待读取的日志（只由写出线程调用）
+         */
+        boolean isEmpty() {
+            return sequences.get((int) (head & mask)) != head + 1;
+        }
+    }
+
+    /**
+     * 后台写出线程：格式化日志并写入滚动文件
+     */
+    private static final class LogWriter implements Runnable {
+        private static final DateTimeFormatter TIME_FORMAT =
+                DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+        private final File file;
+        private final long maxBytes;
+        private final int maxFiles;
+        private final boolean console;
+        private final StringBuilder line = new StringBuilder(256);
+        private final Thread thread = new Thread(this, "score-log-writer");
+        private volatile boolean running = true;
+        // 写出线程无事可做、即将或正在park时为true：生产者写入后看到true才unpark，空闲时不轮询
+        private final AtomicBoolean idle = new AtomicBoolean();
+        private OutputStream out;
+        private long written;
+        private long reportedDrops;
+
+        LogWriter(String path, long maxBytes, int maxFiles, boolean console) {
+            this.file = new File(path);
+            this.maxBytes = maxBytes;
+            this.maxFiles = Math.max(1, maxFiles);
+            this.console = console;
+        }
+
+        void start() {
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        /**
+         * 写出线程空闲时唤醒它（每条日志写入缓冲区后调用，非空闲时只有一次volatile读）
+         */
+        void wakeIfIdle() {
+            if (idle.get() && idle.compareAndSet(true, false)) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        void shutdown() {
+            running = false;
+            LockSupport.unpark(thread);
+            try {
+                thread.join(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void run() {
+            open();
+            while (running) {
+                if (!drain()) {
+                    // 先标记空闲再复查缓冲区：生产者先发布再检查idle，两者至少有一方看到对方，不会漏掉唤醒
+                    idle.set(true);
+                    if (running && BUFFER.isEmpty() && DROPPED.sum() == reportedDrops) {
+                        LockSupport.park(this);
+                    }
+                    idle.set(false);
+                }
+            }
+            drain();
+            closeQuietly();
+        }
+
+        /**
+         * 写出缓冲区中当前所有日志，有写出时返回true
+         */
+        private boolean drain() {
+            boolean any = false;
+            while (BUFFER.poll(this)) {
+                any = true;
+            }
+            long drops = DROPPED.sum();
+            if (drops != reportedDrops) {
+                line.setLength(0);
+                line.append(TIME_FORMAT.format(Instant.now())).append(" WARN  [score-log-writer] Log - 日志缓冲区已满，累计丢弃")
+                        .append(drops).append("条日志").append(System.lineSeparator());
+                write(line, true);
+                reportedDrops = drops;
+                any = true;
+            }
+            if (any) {
+                flush();
+            }
+            return any;
+        }
+
+        void append(Event event) {
+            line.setLength(0);
+            line.append(TIME_FORMAT.format(Instant.ofEpochMilli(event.timestamp))).append(' ');
+            String level = event.level.name();
+            line.append(level);
+            for (int i = level.length(); i < 6; i++) {
+                line.append(' ');
+            }
+            line.append('[').append(event.thread).append("] ").append(event.logger).append(" - ");
+            format(event);
+            line.append(System.lineSeparator());
+            if (event.error != null) {
+                StringWriter trace = new StringWriter();
+                event.error.printStackTrace(new PrintWriter(trace));
+                line.append(trace);
+            }
+            write(line, event.level.ordinal() >= Level.WARN.ordinal());
+        }
+
+        /**
+         * 按顺序用参数替换模板中的{}（参数不足时保留{}）
+         */
+        private void format(Event event) {
+            String template = event.template == null ? "null" : event.template;
+            int argIndex = 0;
+            int from = 0;
+            while (argIndex < event.argCount) {
+                int at = template.indexOf("{}", from);
+                if (at < 0) {
+                    break;
+                }
+                line.append(template, from, at);
+                Object arg = argIndex == 0 ? event.a : argIndex == 1 ? event.b : event.c;
+                try {
+                    line.append(arg);
+                } catch (RuntimeException e) {
+                    line.append("[toString失败:").append(e.getClass().getSimpleName()).append(']');
+                }
+                argIndex++;
+                from = at + 2;
+            }
+            line.append(template, from, template.length());
+        }
+
+        private void write(CharSequence text, boolean important) {
+            if (console) {
+                (important ? System.err : System.out).print(text);
+            }
+            if (out == null) {
+                return;
+            }
+            byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+            try {
+                if (written + bytes.length > maxBytes && written > 0) {
+                    roll();
+                    if (out == null) {
+                        return;
+                    }
+                }
+                out.write(bytes);
+                written += bytes.length;
+            } catch (IOException e) {
+                System.err.println("写入日志文件失败，改为只输出到控制台：" + e.getMessage());
+                closeQuietly();
+            }
+        }
+
+        private void flush() {
+            if (out == null) {
+                return;
+            }
+            try {
+                out.flush();
+            } catch (IOException e) {
+                System.err.println("刷新日志文件失败：" + e.getMessage());
+            }
+        }
+
+        private void open() {
+            File dir = file.getAbsoluteFile().getParentFile();
+            if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+                System.err.println("创建日志目录失败，日志只输出到控制台：" + dir);
+                return;
+            }
+            try {
+                out = new BufferedOutputStream(new FileOutputStream(file, true), 64 * 1024);
+                written = file.length();
+            } catch (IOException e) {
+                System.err.println("打开日志文件失败，日志只输出到控制台：" + e.getMessage());
+            }
+        }
+
+        /**
+         * 滚动：score.log → score.log.1 → ... → score.log.N（最旧的删除）
+         */
+        private void roll() throws IOException {
+            out.close();
+            out = null;
+            File oldest = new File(file.getPath() + "." + maxFiles);
+            if (oldest.exists() && !oldest.delete()) {
+                System.err.println("删除旧日志文件失败：" + oldest);
+            }
+            for (int i = maxFiles - 1; i >= 1; i--) {
+                File from = new File(file.getPath() + "." + i);
+                if (from.exists() && !from.renameTo(new File(file.getPath() + "." + (i + 1)))) {
+                    System.err.println("重命名日志文件失败：" + from);
+                }
+            }
+            if (!file.renameTo(new File(file.getPath() + ".1"))) {
+                System.err.println("重命名日志文件失败：" + file);
+            }
+            open();
+            written = 0;
+        }
+
+        private void closeQuietly() {
+            if (out == null) {
+                return;
+            }
+            try {
+                out.close();
+            } catch (IOException e) {
+                System.err.println("关闭日志文件失败：" + e.getMessage());
+            }
+            out = null;
+        }
+    }
+}
\ No newline at end of file
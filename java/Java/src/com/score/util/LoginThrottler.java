@@ -0,0 +1,230 @@
+package com.score.util;
+
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 登录限流器：每个用户名一个令牌桶 + 全局令牌桶，连续失败后指数退避
+ * 令牌桶使用"理论到达时间"（GCRA）表示：每个桶只有一个long，放行时CAS推进，无锁
+ * 检查顺序：退避期 → 全局桶 → 用户名桶；全局桶先于创建用户名桶，
+ * 因此即使大量随机用户名攻击，桶的数量也受全局速率 × 空闲过期时间限制；
+ * 被用户名桶拒绝时退还已取得的全局令牌，否则单个被限流的用户名反复尝试就能耗尽全局额度，挡住其他用户
+ * 空闲超过idleMillis且不在退避期的用户名桶由后台线程定期清理
+ */
+public class LoginThrottler implements AutoCloseable {
+    // 连续失败多少次后开始退避
+    private static final int FREE_FAILURES = 3;
+
+    private final long userIntervalNanos;   // 每个用户名补充一个令牌的间隔
+    private final long userBurstNanos;      // 每个用户名允许的突发量（换算为时间）
+    private final long globalIntervalNanos;
+    private final long globalBurstNanos;
+    private final long baseBackoffNanos;
+    private final long maxBackoffNanos;
+    private final long idleNanos;
+
+    private final AtomicLong globalTat = new AtomicLong(Long.MIN_VALUE);
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService sweeper;
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder throttledUser = new LongAdder();
+    private final LongAdder throttledGlobal = new LongAdder();
+    private final LongAdder throttledBackoff = new LongAdder();
+
+    /**
+     * @param userPerMinute 每个用户名每分钟允许的尝试次数
+     * @param userBurst 每个用户名允许的突发尝试次数
+     * @param globalPerSecond 全部用户名合计每秒允许的尝试次数
+     * @param globalBurst 全局允许的突发尝试次数
+     * @param baseBackoffMillis 首次退避时长，之后每多失败一次翻倍
+     * @param maxBackoffMillis 退避时长上限
+     * @param idleMillis 用户名桶空闲多久后清理
+     */
+    public LoginThrottler(int userPerMinute, int userBurst, int globalPerSecond, int globalBurst,
+                          long baseBackoffMillis, long maxBackoffMillis, long idleMillis) {
+        if (userPerMinute <= 0 || userBurst <= 0 || globalPerSecond <= 0 || globalBurst <= 0
+                || baseBackoffMillis <= 0 || maxBackoffMillis < baseBackoffMillis || idleMillis <= 0) {
+            throw new IllegalArgumentException("登录限流参数错误");
+        }
+        this.userIntervalNanos = TimeUnit.MINUTES.toNanos(1) / userPerMinute;
+        this.userBurstNanos = userIntervalNanos * (userBurst - 1);
+        this.globalIntervalNanos = TimeUnit.SECONDS.toNanos(1) / globalPerSecond;
+        this.globalBurstNanos = globalIntervalNanos * (globalBurst - 1);
+        this.baseBackoffNanos = TimeUnit.MILLISECONDS.toNanos(baseBackoffMillis);
+        this.maxBackoffNanos = TimeUnit.MILLISECONDS.toNanos(maxBackoffMillis);
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "score-login-throttler");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000, idleMillis / 2);
+        sweeper.scheduleWithFixedDelay(this::expireIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 尝试放行一次登录/验证请求（不访问数据库）
+     * @return 0表示放行；大于0表示被限流，值为建议等待的毫秒数
+     */
+    public long tryAcquire(String username) {
+        long now = System.nanoTime();
+        String key = keyOf(username);
+        Bucket bucket = buckets.get(key);
+        if (bucket != null) {
+            bucket.lastAccess = now;
+            long blockedUntil = bucket.blockedUntil;
+            if (blockedUntil != 0 && blockedUntil - now > 0) {
+                throttledBackoff.increment();
+                return toMillis(blockedUntil - now);
+            }
+        }
+        long globalWait = acquire(globalTat, now, globalIntervalNanos, globalBurstNanos);
+        if (globalWait > 0) {
+            throttledGlobal.increment();
+            return toMillis(globalWait);
+        }
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(key, k -> new Bucket());
+            bucket.lastAccess = now;
+        }
+        long userWait = acquire(bucket.tat, now, userIntervalNanos, userBurstNanos);
+        if (userWait > 0) {
+            globalTat.addAndGet(-globalIntervalNanos);
+            throttledUser.increment();
+            return toMillis(userWait);
+        }
+        allowed.increment();
+        return 0;
+    }
+
+    /**
+     * 记录一次成功：清除该用户名的连续失败次数和退避
+     */
+    public void recordSuccess(String username) {
+        Bucket bucket = buckets.get(keyOf(username));
+        if (bucket != null) {
+            bucket.failures.set(0);
+            bucket.blockedUntil = 0;
+        }
+    }
+
+    /**
+     * 记录一次失败：连续失败超过阈值后按2的幂次退避（不超过上限）
+     */
+    public void recordFailure(String username) {
+        Bucket bucket = buckets.get(keyOf(username));
+        if (bucket == null) {
+            return;
+        }
+        int failures = bucket.failures.incrementAndGet();
+        if (failures < FREE_FAILURES) {
+            return;
+        }
+        int exponent = Math.min(failures - FREE_FAILURES, 30);
+        long backoff = Math.min(maxBackoffNanos, baseBackoffNanos << exponent);
+        if (backoff <= 0) {
+            backoff = maxBackoffNanos; // 左移溢出
+        }
+        bucket.blockedUntil = System.nanoTime() + backoff;
+    }
+
+    // ====================== 统计信息 ======================
+
+    public long getAllowedCount() {
+        return allowed.sum();
+    }
+
+    /**
+     * 被限流的总次数（用户名桶 + 全局桶 + 退避）
+     */
+    public long getThrottledCount() {
+        return throttledUser.sum() + throttledGlobal.sum() + throttledBackoff.sum();
+    }
+
+    public long getThrottledByUserCount() {
+        return throttledUser.sum();
+    }
+
+    public long getThrottledByGlobalCount() {
+        return throttledGlobal.sum();
+    }
+
+    public long getThrottledByBackoffCount() {
+        return throttledBackoff.sum();
+    }
+
+    /**
+     * 当前跟踪的用户名数量（内存占用与之成正比）
+     */
+    public int getTrackedCount() {
+        return buckets.size();
+    }
+
+    @Override
+    public void close() {
+        sweeper.shutdownNow();
+    }
+
+    // ====================== 内部实现 ======================
+
+    /**
+     * GCRA放行判断：tat为理论到达时间，tat - now不超过突发容量时放行并推进tat
+     * @return 0表示放行，否则为需要等待的纳秒数
+     */
+    private static long acquire(AtomicLong tat, long now, long interval, long burst) {
+        while (true) {
+            long current = tat.get();
+            long base = current == Long.MIN_VALUE || current - now < 0 ? now : current;
+            long wait = base - now - burst;
+            if (wait > 0) {
+                return wait;
+            }
+            if (tat.compareAndSet(current, base + interval)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * 清理空闲且不在退避期的用户名桶
+     */
+    private void expireIdle() {
+        long now = System.nanoTime();
+        Iterator<Bucket> it = buckets.values().iterator();
+        while (it.hasNext()) {
+            Bucket bucket = it.next();
+            long blockedUntil = bucket.blockedUntil;
+            if (now - bucket.lastAccess > idleNanos && (blockedUntil == 0 || blockedUntil - now <= 0)) {
+                it.remove();
+            }
+        }
+    }
+
+    private static long toMillis(long nanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toMillis(nanos));
+    }
+
+    // 与MySQL默认排序规则一致：忽略大小写和首尾空格
+    private static String keyOf(String username) {
+        return username == null ? "" : username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 单个用户名的限流状态
+     */
+    private static final class Bucket {
+        final AtomicLong tat = new AtomicLong(Long.MIN_VALUE);
+        final AtomicInteger failures = new AtomicInteger();
+        volatile long blockedUntil; // 退避截止时间（System.nanoTime()），0表示未退避
+        volatile long lastAccess;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,194 @@
+package com.score.util;
+
+import java.util.Arrays;
+
+/**
+ * LZ4块格式的压缩/解压（与LZ4 block format兼容，不含帧头）
+ * 数据由若干序列组成：令牌(高4位字面量长度，低4位匹配长度-4) [字面量长度扩展] 字面量 偏移(2字节小端) [匹配长度扩展]，
+ * 长度为15时后跟扩展字节（每个255继续）；最后一个序列只有字面量，最后5个字节总是字面量
+ * 压缩用4字节序列的哈希表查找最近的匹配（窗口64KB），速度优先，压缩率不及LZ4HC
+ * 压缩器持有哈希表，非线程安全；解压为静态方法，输入损坏时抛出IllegalArgumentException而不会越界写
+ */
+public class Lz4Block {
+    private static final int MIN_MATCH = 4;
+    private static final int LAST_LITERALS = 5;
+    // 匹配的起点距结尾至少12字节（LZ4格式要求）
+    private static final int MF_LIMIT = 12;
+    private static final int MAX_DISTANCE = 0xFFFF;
+    private static final int HASH_LOG = 12;
+    // 连续未命中时逐渐加大步长，不可压缩的数据很快扫过
+    private static final int SKIP_TRIGGER = 6;
+
+    private final int[] table = new int[1 << HASH_LOG];
+
+    /**
+     * 压缩结果的最大长度（数据不可压缩时略大于原长度）
+     */
+    public static int maxCompressedLength(int length) {
+        return length + length / 255 + 16;
+    }
+
+    /**
+     * 压缩src[srcOff, srcOff + length)
+     * @param dst 输出数组，从dstOff起至少有maxCompressedLength(length)字节
+     * @return 压缩后的字节数
+     */
+    public int compress(byte[] src, int srcOff, int length, byte[] dst, int dstOff) {
+        int end = srcOff + length;
+        int anchor = srcOff;
+        int op = dstOff;
+        if (length > MF_LIMIT) {
+            Arrays.fill(table, -1);
+            int mfLimit = end - MF_LIMIT;
+            int matchLimit = end - LAST_LITERALS;
+            int ip = srcOff;
+            int searches = 1 << SKIP_TRIGGER;
+            while (ip < mfLimit) {
+                int sequence = readInt(src, ip);
+                int h = hash(sequence);
+                int ref = table[h];
+                table[h] = ip;
+                if (ref < 0 || ip - ref > MAX_DISTANCE || readInt(src, ref) != sequence) {
+                    ip += searches++ >>> SKIP_TRIGGER;
+                    continue;
+                }
+                searches = 1 << SKIP_TRIGGER;
+                // 向前扩展匹配（吃掉相同的字面量）
+                while (ip > anchor && ref > srcOff && src[ip - 1] == src[ref - 1]) {
+                    ip--;
+                    ref--;
+                }
+                int matchLength = MIN_MATCH;
+                while (ip + matchLength < matchLimit && src[ip + matchLength] == src[ref + matchLength]) {
+                    matchLength++;
+                }
+                op = writeSequence(src, anchor, ip - anchor, ip - ref, matchLength, dst, op);
+                ip += matchLength;
+                anchor = ip;
+                if (ip - 2 >= srcOff && ip - 2 + 4 <= end) {
+                    table[hash(readInt(src, ip - 2))] = ip - 2;
+                }
+            }
+        }
+        return writeLastLiterals(src, anchor, end - anchor, dst, op) - dstOff;
+    }
+
+    /**
+     * 解压src[srcOff, srcOff + length)到dst[dstOff, dstOff + rawLength)
+     * @throws IllegalArgumentException 数据损坏或解压后的长度不等于rawLength
+     */
+    public static void decompress(byte[] src, int srcOff, int length, byte[] dst, int dstOff, int rawLength) {
+        int ip = srcOff;
+        int end = srcOff + length;
+        int op = dstOff;
+        int outEnd = dstOff + rawLength;
+        while (true) {
+            if (ip >= end) {
+                throw corrupted();
+            }
+            int token = src[ip++] & 0xFF;
+            int literals = token >>> 4;
+            if (literals == 15) {
+                int b;
+                do {
+                    if (ip >= end) {
+                        throw corrupted();
+                    }
+                    b = src[ip++] & 0xFF;
+                    literals += b;
+                } while (b == 255);
+            }
+            if (literals > end - ip || literals > outEnd - op) {
+                throw corrupted();
+            }
+            System.arraycopy(src, ip, dst, op, literals);
+            ip += literals;
+            op += literals;
+            if (ip == end) {
+                break;
+            }
+            if (end - ip < 2) {
+                throw corrupted();
+            }
+            int offset = (src[ip] & 0xFF) | (src[ip + 1] & 0xFF) << 8;
+            ip += 2;
+            int matchLength = token & 0x0F;
+            if (matchLength == 15) {
+                int b;
+                do {
+                    if (ip >= end) {
+                        throw corrupted();
+                    }
+                    b = src[ip++] & 0xFF;
+                    matchLength += b;
+                } while (b == 255);
+            }
+            matchLength += MIN_MATCH;
+            if (offset == 0 || offset > op - dstOff || matchLength > outEnd - op) {
+                throw corrupted();
+            }
+            int ref = op - offset;
+            if (offset >= matchLength) {
+                System.arraycopy(dst, ref, dst, op, matchLength);
+                op += matchLength;
+            } else {
+                // 重叠的匹配（如重复的短模式）逐字节复制
+                for (int i = 0; i < matchLength; i++) {
+                    dst[op++] = dst[ref++];
+                }
+            }
+        }
+        if (op != outEnd) {
+            throw corrupted();
+        }
+    }
+
+    private static int writeSequence(byte[] src, int literalStart, int literals, int offset, int matchLength,
+                                     byte[] dst, int op) {
+        int tokenPos = op++;
+        int extraMatch = matchLength - MIN_MATCH;
+        int token = (Math.min(literals, 15) << 4) | Math.min(extraMatch, 15);
+        if (literals >= 15) {
+            op = writeLength(literals - 15, dst, op);
+        }
+        System.arraycopy(src, literalStart, dst, op, literals);
+        op += literals;
+        dst[op++] = (byte) offset;
+        dst[op++] = (byte) (offset >>> 8);
+        if (extraMatch >= 15) {
+            op = writeLength(extraMatch - 15, dst, op);
+        }
+        dst[tokenPos] = (byte) token;
+        return op;
+    }
+
+    private static int writeLastLiterals(byte[] src, int literalStart, int literals, byte[] dst, int op) {
+        dst[op++] = (byte) (Math.min(literals, 15) << 4);
+        if (literals >= 15) {
+            op = writeLength(literals - 15, dst, op);
+        }
+        System.arraycopy(src, literalStart, dst, op, literals);
+        return op + literals;
+    }
+
+    private static int writeLength(int length, byte[] dst, int op) {
+        while (length >= 255) {
+            dst[op++] = (byte) 255;
+            length -= 255;
+        }
+        dst[op++] = (byte) length;
+        return op;
+    }
+
+    private static int readInt(byte[] src, int pos) {
+        return (src[pos] & 0xFF) | (src[pos + 1] & 0xFF) << 8 | (src[pos + 2] & 0xFF) << 16 | src[pos + 3] << 24;
+    }
+
+    private static int hash(int sequence) {
+        return sequence * -1640531535 >>> (32 - HASH_LOG);
+    }
+
+    private static IllegalArgumentException corrupted() {
+        return new IllegalArgumentException("压缩数据已损坏");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,188 @@
+package com.score.util;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 延迟指标注册表：按“分组.名称”管理计时器，每个计时器注册为一个JMX MXBean，
+ * 并由后台线程定期把快照追加到文件（-Dscore.metrics.file，默认logs/metrics.log；
+ * -Dscore.metrics.snapshotMillis，默认60000，0表示不写文件）
+ */
+public final class Metrics {
+    private static final Log LOG = Log.get(Metrics.class);
+    private static final String DOMAIN = "com.score";
+    private static final Map<String, Timer> TIMERS = new ConcurrentHashMap<>();
+    private static final long SNAPSHOT_MILLIS = Long.getLong("score.metrics.snapshotMillis", 60_000);
+    private static final File SNAPSHOT_FILE = new File(System.getProperty("score.metrics.file", "logs/metrics.log"));
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    static {
+        if (SNAPSHOT_MILLIS > 0) {
+            ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "score-metrics");
+                t.setDaemon(true);
+                return t;
+            });
+            scheduler.scheduleWithFixedDelay(Metrics::writeSnapshot, SNAPSHOT_MILLIS, SNAPSHOT_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private Metrics() {}
+
+    /**
+     * 获取（不存在则创建并注册JMX）计时器
+     * @param type JMX类型（如DaoLatency、PoolLatency）
+     * @param group 分组（如UserDao、ConnectionPool）
+     * @param name 名称（如login、acquire）
+     */
+    public static Timer timer(String type, String group, String name) {
+        return TIMERS.computeIfAbsent(type + ":" + group + "." + name, key -> {
+            Timer timer = new Timer(group + "." + name);
+            register(timer, type, group, name);
+            return timer;
+        });
+    }
+
+    /**
+     * 当前所有计时器（按名称排序）
+     */
+    public static List<Timer> timers() {
+        List<Timer> list = new ArrayList<>(TIMERS.values());
+        list.sort((a, b) -> a.getName().compareTo(b.getName()));
+        return list;
+    }
+
+    private static void register(Timer timer, String type, String group, String name) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            // 分组和名称均为代码中的标识符，不含ObjectName的特殊字符，无需转义
+            ObjectName objectName = new ObjectName(DOMAIN + ":type=" + type + ",group=" + group + ",name=" + name);
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(timer, objectName);
+            }
+        } catch (JMException | RuntimeException e) {
+            // JMX不可用时仍可通过快照文件查看
+            LOG.warn("注册JMX指标失败：{}，{}", timer.getName(), e.getMessage());
+        }
+    }
+
+    /**
+     * 追加一次快照：每个计时器一行（累计值，单位毫秒）
+     */
+    static void writeSnapshot() {
+        List<Timer> timers = timers();
+        if (timers.isEmpty()) {
+            return;
+        }
+        StringBuilder text = new StringBuilder(256);
+        String now = LocalDateTime.now().format(TIME_FORMAT);
+        for (Timer timer : timers) {
+            LatencyHistogram.Snapshot s = timer.histogram.snapshot();
+            text.append(now).append(' ').append(timer.getName())
+                    .append(" count=").append(s.getCount())
+                    .append(" errors=").append(timer.getErrorCount())
+                    .append(String.format(" mean=%.3f p50=%.3f p99=%.3f p999=%.3f max=%.3f",
+                            s.getMeanNanos() / 1e6, s.getPercentileMillis(50), s.getPercentileMillis(99),
+                            s.getPercentileMillis(99.9), s.getMaxNanos() / 1e6))
+                    .append(System.lineSeparator());
+        }
+        File dir = SNAPSHOT_FILE.getAbsoluteFile().getParentFile();
+        if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+            LOG.warn("创建指标快照目录失败：{}", dir);
+            return;
+        }
+        try (OutputStream out = new FileOutputStream(SNAPSHOT_FILE, true)) {
+            out.write(text.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            LOG.warn("写入指标快照失败：{}", e.getMessage());
+        }
+    }
+
+    /**
+     * 计时器：延迟直方图 + 错误计数
+     */
+    public static final class Timer implements LatencyMXBean {
+        private final String name;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+
+        Timer(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * 记录一次耗时：startNanos为System.nanoTime()取得的开始时间
+         */
+        public void recordSince(long startNanos) {
+            histogram.record(System.nanoTime() - startNanos);
+        }
+
+        public void recordNanos(long nanos) {
+            histogram.record(nanos);
+        }
+
+        public void recordError() {
+            errors.increment();
+        }
+
+        public LatencyHistogram.Snapshot snapshot() {
+            return histogram.snapshot();
+        }
+
+        @Override
+        public long getCount() {
+            return histogram.snapshot().getCount();
+        }
+
+        @Override
+        public long getErrorCount() {
+            return errors.sum();
+        }
+
+        @Override
+        public double getMeanMillis() {
+            return histogram.snapshot().getMeanNanos() / 1e6;
+        }
+
+        @Override
+        public double getP50Millis() {
+            return histogram.snapshot().getPercentileMillis(50);
+        }
+
+        @Override
+        public double getP99Millis() {
+            return histogram.snapshot().getPercentileMillis(99);
+        }
+
+        @Override
+        public double getP999Millis() {
+            return histogram.snapshot().getPercentileMillis(99.9);
+        }
+
+        @Override
+        public double getMaxMillis() {
+            return histogram.snapshot().getMaxNanos() / 1e6;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,202 @@
+package com.score.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * 子串检索的n-gram倒排索引（用于中文姓名的输入即查）
+ * 每个文档（整数编号）的文本拆成单字和相邻两字，每个gram对应一个升序的文档编号数组；
+ * 查询一个字时直接取单字的倒排表，两个字以上时对查询串的所有两字gram求交集，再用contains校验（排除gram都在但不相连的误判）
+ * 中文姓名通常2~4个字，两字gram的倒排表很短，交集只需扫描最短的一个
+ * 英文字母统一转为小写，查询不区分大小写；文档编号应是从0开始的紧凑整数（文本按编号保存在数组中）
+ * 非线程安全，由使用方加锁
+ */
+public class NgramIndex {
+    private static final int[] EMPTY = new int[0];
+
+    // gram → 倒排表；单字的键为字符本身，两字的键为1L << 32 | c1 << 16 | c2，互不冲突
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private String[] texts = new String[256];
+    private int size;
+
+    /**
+     * 索引文档的文本（已存在时先删除旧文本）
+     */
+    public void put(int doc, String text) {
+        if (doc < 0) {
+            throw new IllegalArgumentException("文档编号不能为负数：" + doc);
+        }
+        String normalized = normalize(text);
+        if (doc >= texts.length) {
+            texts = Arrays.copyOf(texts, Math.max(texts.length * 2, doc + 1));
+        }
+        String old = texts[doc];
+        texts[doc] = normalized;
+        if (old == null) {
+            size++;
+        } else {
+            if (old.equals(normalized)) {
+                return;
+            }
+            forEachGram(old, gram -> {
+                Postings p = postings.get(gram);
+                if (p != null && p.remove(doc) && p.size == 0) {
+                    postings.remove(gram);
+                }
+            });
+        }
+        forEachGram(normalized, gram -> postings.computeIfAbsent(gram, g -> new Postings()).add(doc));
+    }
+
+    /**
+     * 删除文档
+     * @return 存在返回true
+     */
+    public boolean remove(int doc) {
+        String old = getText(doc);
+        if (old == null) {
+            return false;
+        }
+        texts[doc] = null;
+        size--;
+        forEachGram(old, gram -> {
+            Postings p = postings.get(gram);
+            if (p != null && p.remove(doc) && p.size == 0) {
+                postings.remove(gram);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * 文档的文本（已规范化），不存在返回null
+     */
+    public String getText(int doc) {
+        return doc >= 0 && doc < texts.length ? texts[doc] : null;
+    }
+
+    /**
+     * 枚举文本包含query的文档（按文档编号升序）
+     * @return 匹配的文档数
+     */
+    public int search(String query, IntConsumer consumer) {
+        String q = normalize(query);
+        if (q.isEmpty()) {
+            return 0;
+        }
+        if (q.length() == 1) {
+            Postings p = postings.get(unigram(q.charAt(0)));
+            if (p == null) {
+                return 0;
+            }
+            for (int i = 0; i < p.size; i++) {
+                consumer.accept(p.docs[i]);
+            }
+            return p.size;
+        }
+        // 取查询串所有两字gram的倒排表，任何一个为空则无结果
+        Postings[] lists = new Postings[q.length() - 1];
+        for (int i = 0; i < lists.length; i++) {
+            lists[i] = postings.get(bigram(q.charAt(i), q.charAt(i + 1)));
+            if (lists[i] == null) {
+                return 0;
+            }
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+        int matched = 0;
+        Postings shortest = lists[0];
+        int[] cursors = new int[lists.length];
+        outer:
+        for (int i = 0; i < shortest.size; i++) {
+            int doc = shortest.docs[i];
+            for (int j = 1; j < lists.length; j++) {
+                Postings p = lists[j];
+                // 各倒排表都升序，游标只前进不后退
+                int k = Arrays.binarySearch(p.docs, cursors[j], p.size, doc);
+                if (k < 0) {
+                    cursors[j] = -k - 1;
+                    continue outer;
+                }
+                cursors[j] = k;
+            }
+            if (lists.length == 1 || texts[doc].contains(q)) {
+                consumer.accept(doc);
+                matched++;
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * 已索引的文档数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 不同gram的个数
+     */
+    public int getGramCount() {
+        return postings.size();
+    }
+
+    /**
+     * 查询和索引使用的规范化：去掉首尾空白，英文字母转小写
+     */
+    public static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static void forEachGram(String text, LongConsumer consumer) {
+        // 文本中重复的gram会重复回调，倒排表的add/remove是幂等的
+        for (int i = 0; i < text.length(); i++) {
+            consumer.accept(unigram(text.charAt(i)));
+            if (i + 1 < text.length()) {
+                consumer.accept(bigram(text.charAt(i), text.charAt(i + 1)));
+            }
+        }
+    }
+
+    private static long unigram(char c) {
+        return c;
+    }
+
+    private static long bigram(char c1, char c2) {
+        return 1L << 32 | (long) c1 << 16 | c2;
+    }
+
+    // 升序的文档编号数组
+    private static final class Postings {
+        int[] docs = EMPTY;
+        int size;
+
+        void add(int doc) {
+            int i = Arrays.binarySearch(docs, 0, size, doc);
+            if (i >= 0) {
+                return;
+            }
+            i = -i - 1;
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, Math.max(4, size * 2));
+            }
+            System.arraycopy(docs, i, docs, i + 1, size - i);
+            docs[i] = doc;
+            size++;
+        }
+
+        boolean remove(int doc) {
+            int i = Arrays.binarySearch(docs, 0, size, doc);
+            if (i < 0) {
+                return false;
+            }
+            System.arraycopy(docs, i + 1, docs, i, size - i - 1);
+            size--;
+            return true;
+        }
+    }
+}
\ No newline at end of file
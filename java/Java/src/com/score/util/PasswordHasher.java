@@ -0,0 +1,288 @@
+package com.score.util;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 密码哈希服务（PBKDF2WithHmacSHA256，JDK自带实现）
+ * 存储格式：pbkdf2$迭代次数$盐(Base64)$哈希(Base64)，迭代次数随哈希一起保存，
+ * 调高成本后旧哈希仍可校验，登录成功时通过needsRehash()判断是否需要按新成本重新哈希
+ * 哈希在专用的有界线程池中计算：并发计算数不超过线程数，排队数超过上限时调用方阻塞等待，
+ * 避免登录高峰时大量CPU密集任务挤占界面和数据库线程
+ * 兼容旧数据：不带pbkdf2$前缀的存储值视为明文密码，校验通过后应尽快迁移为哈希
+ */
+public class PasswordHasher implements AutoCloseable {
+    private static final Log LOG = Log.get(PasswordHasher.class);
+
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final String PREFIX = "pbkdf2$";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    // 构造参数允许的最小迭代次数
+    public static final int MIN_ITERATIONS = 10_000;
+    // 未配置迭代次数时的默认成本（固定值，每次启动相同，不会因重新测量而触发重新哈希）
+    public static final int DEFAULT_ITERATIONS = 600_000;
+    // 校准结果的上下限（低于下限时取下限，保证慢速机器上仍有基本的抗暴力破解能力）
+    private static final int MIN_CALIBRATED_ITERATIONS = 100_000;
+    private static final int MAX_CALIBRATED_ITERATIONS = 10_000_000;
+
+    private final int iterations;
+    private final ExecutorService workers;
+    // 正在计算 + 排队中的任务数上限
+    private final Semaphore slots;
+    private final SecureRandom random = new SecureRandom();
+
+    /**
+     * @param iterations 新哈希使用的迭代次数（成本参数）
+     * @param threads 哈希线程数
+     * @param queueCapacity 排队任务数上限（超过后调用方阻塞）
+     */
+    public PasswordHasher(int iterations, int threads, int queueCapacity) {
+        if (iterations < MIN_ITERATIONS || threads <= 0 || queueCapacity < 0) {
+            throw new IllegalArgumentException("密码哈希参数错误：iterations=" + iterations +
+                    "，threads=" + threads + "，queueCapacity=" + queueCapacity);
+        }
+        this.iterations = iterations;
+        this.slots = new Semaphore(threads + queueCapacity);
+        AtomicInteger seq = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "score-password-hasher-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * 获取全局默认实例（首次调用时创建）
+     * 迭代次数取score.password.iterations；未配置时若设置了score.password.targetMillis则按目标耗时校准
+     * （耗时约数百毫秒，不要在EDT中首次调用），否则使用DEFAULT_ITERATIONS
+     * 其他系统属性：score.password.threads（默认CPU核数的一半）、score.password.queueCapacity（默认64）
+     */
+    public static PasswordHasher getDefault() {
+        return Holder.DEFAULT;
+    }
+
+    /**
+     * 计算密码哈希（阻塞直到哈希线程池计算完成）
+     * @return pbkdf2$迭代次数$盐$哈希 格式的字符串
+     */
+    public String hash(String password) {
+        return await(submit(() -> encode(password)));
+    }
+
+    /**
+     * 并行计算一批密码的哈希（批量导入使用），结果顺序与输入一致
+     */
+    public List<String> hashAll(List<String> passwords) {
+        List<Future<String>> futures = new ArrayList<>(passwords.size());
+        try {
+            for (String password : passwords) {
+                futures.add(submit(() -> encode(password)));
+            }
+            List<String> hashes = new ArrayList<>(passwords.size());
+            for (Future<String> future : futures) {
+                hashes.add(await(future));
+            }
+            return hashes;
+        } catch (RuntimeException e) {
+            for (Future<String> future : futures) {
+                future.cancel(true);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 校验密码（明文旧数据直接比较，哈希数据在线程池中计算）
+     * @param password 用户输入的密码
+     * @param stored 数据库中存储的值
+     */
+    public boolean verify(String password, String stored) {
+        if (password == null || stored == null) {
+            return false;
+        }
+        if (!isHashed(stored)) {
+            return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8), stored.getBytes(StandardCharsets.UTF_8));
+        }
+        String[] parts = stored.split("\\$");
+        if (parts.length != 4) {
+            LOG.warn("密码哈希格式错误，无法校验");
+            return false;
+        }
+        int storedIterations;
+        byte[] salt;
+        byte[] expected;
+        try {
+            storedIterations = Integer.parseInt(parts[1]);
+            salt = Base64.getDecoder().decode(parts[2]);
+            expected = Base64.getDecoder().decode(parts[3]);
+        } catch (IllegalArgumentException e) {
+            LOG.warn("密码哈希格式错误，无法校验：{}", e.getMessage());
+            return false;
+        }
+        if (storedIterations <= 0 || expected.length == 0) {
+            return false;
+        }
+        byte[] actual = await(submit(() -> pbkdf2(password.toCharArray(), salt, storedIterations, expected.length * 8)));
+        return MessageDigest.isEqual(expected, actual);
+    }
+
+    /**
+     * 存储值是否需要重新哈希（明文旧数据，或迭代次数低于当前成本：调高成本后登录时逐个升级）
+     */
+    public boolean needsRehash(String stored) {
+        if (!isHashed(stored)) {
+            return true;
+        }
+        int end = stored.indexOf('$', PREFIX.length());
+        try {
+            return end < 0 || Integer.parseInt(stored.substring(PREFIX.length(), end)) < iterations;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    /**
+     * 存储值是否已是本服务生成的哈希格式
+     */
+    public static boolean isHashed(String stored) {
+        return stored != null && stored.startsWith(PREFIX);
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * 校准迭代次数：测量当前硬件上单次哈希的耗时，按目标耗时线性换算
+     * @param targetMillis 期望的单次哈希耗时（毫秒）
+     * @return 迭代次数（取整到千，限制在[100000, 10000000]之间）
+     */
+    public static int calibrate(long targetMillis) {
+        if (targetMillis <= 0) {
+            throw new IllegalArgumentException("校准目标耗时必须大于0：" + targetMillis);
+        }
+        final int probe = 10_000;
+        char[] password = "calibration".toCharArray();
+        byte[] salt = new byte[SALT_BYTES];
+        // 预热：让JIT编译HMAC热点代码，避免首轮计时偏高
+        for (int i = 0; i < 2; i++) {
+            pbkdf2(password, salt, probe, HASH_BITS);
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            pbkdf2(password, salt, probe, HASH_BITS);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        long scaled = TimeUnit.MILLISECONDS.toNanos(targetMillis) * probe / Math.max(best, 1);
+        long clamped = Math.max(MIN_CALIBRATED_ITERATIONS, Math.min(MAX_CALIBRATED_ITERATIONS, scaled));
+        return (int) (clamped / 1000 * 1000);
+    }
+
+    /**
+     * 关闭哈希线程池（正在排队的任务被取消）
+     */
+    @Override
+    public void close() {
+        workers.shutdownNow();
+    }
+
+    private String encode(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        byte[] hash = pbkdf2(password.toCharArray(), salt, iterations, HASH_BITS);
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return PREFIX + iterations + "$" + encoder.encodeToString(salt) + "$" + encoder.encodeToString(hash);
+    }
+
+    private static byte[] pbkdf2(char[] password, byte[] salt, int iterations, int bits) {
+        PBEKeySpec spec = new PBEKeySpec(password, salt, iterations, bits);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("当前JDK不支持" + ALGORITHM, e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    /**
+     * 提交任务：先占用一个名额（名额用完时阻塞），任务完成或被取消时归还
+     */
+    private <T> Future<T> submit(Callable<T> task) {
+        try {
+            slots.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("等待密码哈希线程被中断", e);
+        }
+        FutureTask<T> future = new FutureTask<>(task) {
+            @Override
+            protected void done() {
+                slots.release();
+            }
+        };
+        try {
+            workers.execute(future);
+            return future;
+        } catch (RuntimeException e) {
+            slots.release();
+            throw e;
+        }
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("等待密码哈希结果被中断", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("密码哈希计算失败：" + cause, cause);
+        }
+    }
+
+    /**
+     * 延迟创建默认实例（首次使用时才创建线程池和校准，不拖慢程序启动）
+     */
+    private static final class Holder {
+        static final PasswordHasher DEFAULT = create();
+
+        private static PasswordHasher create() {
+            Integer configured = Integer.getInteger("score.password.iterations");
+            Long targetMillis = Long.getLong("score.password.targetMillis");
+            // 校准只在显式指定目标耗时时进行：每次启动的测量结果不同，用作默认值会让登录反复重新哈希
+            int iterations = configured != null ? configured
+                    : targetMillis != null ? calibrate(targetMillis) : DEFAULT_ITERATIONS;
+            int threads = Integer.getInteger("score.password.threads",
+                    Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+            int queueCapacity = Integer.getInteger("score.password.queueCapacity", 64);
+            LOG.info("密码哈希服务已启动：iterations={}，threads={}", iterations, threads);
+            return new PasswordHasher(iterations, threads, queueCapacity);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,86 @@
+package com.score.util;
+
+/**
+ * 连接池配置类：封装连接池的容量、超时、校验与泄漏检测参数
+ * 默认值适配单机MySQL的登录高峰场景，可通过系统属性覆盖（见DBUtil）
+ */
+public class PoolConfig {
+    private String url;
+    private String user;
+    private String password;
+
+    private int minSize = 2;                      // 最小连接数（空闲回收不会低于此值）
+    private int maxSize = 10;                     // 最大连接数（必须小于MySQL的max_connections）
+    private long acquireTimeoutMillis = 5000;     // 借用连接的最长等待时间
+    private long idleTimeoutMillis = 600_000;     // 空闲超过该时间的连接将被回收
+    private long validationIntervalMillis = 500;  // 空闲超过该时间的连接借出前需校验
+    private int validationTimeoutSeconds = 2;     // Connection.isValid()超时时间
+    private long leakThresholdMillis = 60_000;    // 借出超过该时间未归还视为泄漏（0表示关闭检测）
+    private long housekeepingPeriodMillis = 30_000; // 后台维护任务执行周期
+    private int statementCacheSize = 32;          // 每个连接缓存的预编译语句数（0表示关闭缓存）
+
+    public PoolConfig() {}
+
+    public PoolConfig(String url, String user, String password) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+    }
+
+    public String getUrl() { return url; }
+    public void setUrl(String url) { this.url = url; }
+    public String getUser() { return user; }
+    public void setUser(String user) { this.user = user; }
+    public String getPassword() { return password; }
+    public void setPassword(String password) { this.password = password; }
+    public int getMinSize() { return minSize; }
+    public void setMinSize(int minSize) { this.minSize = minSize; }
+    public int getMaxSize() { return maxSize; }
+    public void setMaxSize(int maxSize) { this.maxSize = maxSize; }
+    public long getAcquireTimeoutMillis() { return acquireTimeoutMillis; }
+    public void setAcquireTimeoutMillis(long acquireTimeoutMillis) { this.acquireTimeoutMillis = acquireTimeoutMillis; }
+    public long getIdleTimeoutMillis() { return idleTimeoutMillis; }
+    public void setIdleTimeoutMillis(long idleTimeoutMillis) { this.idleTimeoutMillis = idleTimeoutMillis; }
+    public long getValidationIntervalMillis() { return validationIntervalMillis; }
+    public void setValidationIntervalMillis(long validationIntervalMillis) { this.validationIntervalMillis = validationIntervalMillis; }
+    public int getValidationTimeoutSeconds() { return validationTimeoutSeconds; }
+    public void setValidationTimeoutSeconds(int validationTimeoutSeconds) { this.validationTimeoutSeconds = validationTimeoutSeconds; }
+    public long getLeakThresholdMillis() { return leakThresholdMillis; }
+    public void setLeakThresholdMillis(long leakThresholdMillis) { this.leakThresholdMillis = leakThresholdMillis; }
+    public long getHousekeepingPeriodMillis() { return housekeepingPeriodMillis; }
+    public void setHousekeepingPeriodMillis(long housekeepingPeriodMillis) { this.housekeepingPeriodMillis = housekeepingPeriodMillis; }
+    public int getStatementCacheSize() { return statementCacheSize; }
+    public void setStatementCacheSize(int statementCacheSize) { this.statementCacheSize = statementCacheSize; }
+
+    /**
+     * 参数合法性校验（启动连接池前调用）
+     */
+    void validate() {
+        if (url == null || url.trim().isEmpty()) {
+            throw new IllegalArgumentException("连接池配置错误：数据库URL为空");
+        }
+        if (maxSize <= 0 || minSize < 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("连接池配置错误：minSize=" + minSize + "，maxSize=" + maxSize);
+        }
+        if (statementCacheSize < 0) {
+            throw new IllegalArgumentException("连接池配置错误：statementCacheSize不能为负数");
+        }
+        if (acquireTimeoutMillis <= 0) {
+            throw new IllegalArgumentException("连接池配置错误：acquireTimeoutMillis必须大于0");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PoolConfig{" +
+                "url='" + url + '\'' +
+                ", user='" + user + '\'' +
+                ", minSize=" + minSize +
+                ", maxSize=" + maxSize +
+                ", acquireTimeoutMillis=" + acquireTimeoutMillis +
+                ", idleTimeoutMillis=" + idleTimeoutMillis +
+                ", leakThresholdMillis=" + leakThresholdMillis +
+                ", statementCacheSize=" + statementCacheSize +
+                '}';
+    }
+}
\ No newline at end of file
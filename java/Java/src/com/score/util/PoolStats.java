@@ -0,0 +1,71 @@
+package com.score.util;
+
+/**
+ * 连接池运行统计快照（只读）
+ */
+public class PoolStats {
+    private final int active;          // 已借出连接数
+    private final int idle;            // 空闲连接数
+    private final int waiters;         // 正在等待连接的线程数
+    private final long acquireCount;   // 累计借用次数
+    private final long timeoutCount;   // 累计借用超时次数
+    private final long leakCount;      // 累计检测到的泄漏次数
+    private final long avgAcquireMicros; // 平均借用耗时（微秒）
+    private final long maxAcquireMicros; // 最大借用耗时（微秒）
+    private final long statementHits;      // 预编译语句缓存命中次数
+    private final long statementMisses;    // 预编译语句缓存未命中次数
+    private final long statementEvictions; // 预编译语句缓存LRU淘汰次数
+
+    public PoolStats(int active, int idle, int waiters, long acquireCount, long timeoutCount,
+                     long leakCount, long avgAcquireMicros, long maxAcquireMicros,
+                     long statementHits, long statementMisses, long statementEvictions) {
+        this.active = active;
+        this.idle = idle;
+        this.waiters = waiters;
+        this.acquireCount = acquireCount;
+        this.timeoutCount = timeoutCount;
+        this.leakCount = leakCount;
+        this.avgAcquireMicros = avgAcquireMicros;
+        this.maxAcquireMicros = maxAcquireMicros;
+        this.statementHits = statementHits;
+        this.statementMisses = statementMisses;
+        this.statementEvictions = statementEvictions;
+    }
+
+    public int getActive() { return active; }
+    public int getIdle() { return idle; }
+    public int getWaiters() { return waiters; }
+    public long getAcquireCount() { return acquireCount; }
+    public long getTimeoutCount() { return timeoutCount; }
+    public long getLeakCount() { return leakCount; }
+    public long getAvgAcquireMicros() { return avgAcquireMicros; }
+    public long getMaxAcquireMicros() { return maxAcquireMicros; }
+    public long getStatementHits() { return statementHits; }
+    public long getStatementMisses() { return statementMisses; }
+    public long getStatementEvictions() { return statementEvictions; }
+
+    /**
+     * 预编译语句缓存命中率（0~1，无访问时为0）
+     */
+    public double getStatementHitRate() {
+        long total = statementHits + statementMisses;
+        return total == 0 ? 0 : (double) statementHits / total;
+    }
+
+    @Override
+    public String toString() {
+        return "PoolStats{" +
+                "active=" + active +
+                ", idle=" + idle +
+                ", waiters=" + waiters +
+                ", acquireCount=" + acquireCount +
+                ", timeoutCount=" + timeoutCount +
+                ", leakCount=" + leakCount +
+                ", avgAcquireMicros=" + avgAcquireMicros +
+                ", maxAcquireMicros=" + maxAcquireMicros +
+                ", statementHits=" + statementHits +
+                ", statementMisses=" + statementMisses +
+                ", statementEvictions=" + statementEvictions +
+                '}';
+    }
+}
\ No newline at end of file
@@ -0,0 +1,211 @@
+package com.score.util;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * 前缀树：字符串 → 非负整数值，按前缀枚举（用于学号的输入即查）
+ * 节点保存在平行的原始类型数组中（首个子节点/下一个兄弟/字符/值/子树值个数），不为每个节点创建对象；
+ * 兄弟节点按字符升序链接，先序遍历即字典序，前缀本身（最短）最先返回
+ * 删除只清除节点的值并递减路径上的计数，空子树在枚举时直接跳过，节点不回收（学号集合变化不大）
+ * 非线程安全，由使用方加锁（只读方法get/countPrefix/forEachPrefix可以在读锁下并发调用）
+ */
+public class PrefixTrie {
+    private static final int NONE = -1;
+
+    private int[] firstChild;
+    private int[] nextSibling;
+    private char[] chars;
+    private int[] values;
+    private int[] counts;      // 子树（含自身）中有值的节点数
+    private int nodeCount = 1; // 节点0为根
+
+    public PrefixTrie() {
+        this(256);
+    }
+
+    /**
+     * @param initialNodes 初始节点容量
+     */
+    public PrefixTrie(int initialNodes) {
+        int capacity = Math.max(16, initialNodes);
+        firstChild = new int[capacity];
+        nextSibling = new int[capacity];
+        chars = new char[capacity];
+        values = new int[capacity];
+        counts = new int[capacity];
+        firstChild[0] = NONE;
+        nextSibling[0] = NONE;
+        values[0] = NONE;
+    }
+
+    /**
+     * 设置键的值
+     * @param value 非负整数
+     * @return 旧值，原来不存在返回-1
+     */
+    public int put(String key, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("前缀树的值不能为负数：" + value);
+        }
+        int node = 0;
+        for (int i = 0; i < key.length(); i++) {
+            node = child(node, key.charAt(i), true);
+        }
+        int old = values[node];
+        values[node] = value;
+        if (old == NONE) {
+            addCount(key, 1);
+        }
+        return old;
+    }
+
+    /**
+     * 删除键
+     * @return 旧值，不存在返回-1
+     */
+    public int remove(String key) {
+        int node = find(key);
+        if (node == NONE || values[node] == NONE) {
+            return NONE;
+        }
+        int old = values[node];
+        values[node] = NONE;
+        addCount(key, -1);
+        return old;
+    }
+
+    /**
+     * 键的值，不存在返回-1
+     */
+    public int get(String key) {
+        int node = find(key);
+        return node == NONE ? NONE : values[node];
+    }
+
+    /**
+     * 以prefix开头的键的个数
+     */
+    public int countPrefix(String prefix) {
+        int node = find(prefix);
+        return node == NONE ? 0 : counts[node];
+    }
+
+    /**
+     * 按字典序枚举以prefix开头的键的值（prefix本身最先）
+     * @param visitor 返回false时停止枚举
+     * @return 枚举的个数
+     */
+    public int forEachPrefix(String prefix, IntPredicate visitor) {
+        int start = find(prefix);
+        if (start == NONE || counts[start] == 0) {
+            return 0;
+        }
+        int visited = 0;
+        int[] stack = new int[64];
+        int top = 0;
+        stack[top++] = start;
+        while (top > 0) {
+            int node = stack[--top];
+            if (values[node] != NONE) {
+                visited++;
+                if (!visitor.test(values[node])) {
+                    break;
+                }
+            }
+            // 子节点逆序入栈，保证按字符升序出栈
+            int mark = top;
+            for (int c = firstChild[node]; c != NONE; c = nextSibling[c]) {
+                if (counts[c] > 0) {
+                    if (top == stack.length) {
+                        stack = Arrays.copyOf(stack, top * 2);
+                    }
+                    stack[top++] = c;
+                }
+            }
+            reverse(stack, mark, top - 1);
+        }
+        return visited;
+    }
+
+    /**
+     * 有值的键的个数
+     */
+    public int size() {
+        return counts[0];
+    }
+
+    /**
+     * 已分配的节点数（含删除后留下的空节点）
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    // 查找键对应的节点，不存在返回-1
+    private int find(String key) {
+        int node = 0;
+        for (int i = 0; i < key.length() && node != NONE; i++) {
+            node = child(node, key.charAt(i), false);
+        }
+        return node;
+    }
+
+    // 在兄弟链表中按字符查找子节点，create为true时按字符顺序插入新节点
+    private int child(int parent, char ch, boolean create) {
+        int prev = NONE;
+        int c = firstChild[parent];
+        while (c != NONE && chars[c] < ch) {
+            prev = c;
+            c = nextSibling[c];
+        }
+        if (c != NONE && chars[c] == ch) {
+            return c;
+        }
+        if (!create) {
+            return NONE;
+        }
+        if (nodeCount == chars.length) {
+            grow();
+        }
+        int node = nodeCount++;
+        chars[node] = ch;
+        values[node] = NONE;
+        counts[node] = 0;
+        firstChild[node] = NONE;
+        nextSibling[node] = c;
+        if (prev == NONE) {
+            firstChild[parent] = node;
+        } else {
+            nextSibling[prev] = node;
+        }
+        return node;
+    }
+
+    // 键路径上（含根）的子树计数加delta
+    private void addCount(String key, int delta) {
+        int node = 0;
+        counts[0] += delta;
+        for (int i = 0; i < key.length(); i++) {
+            node = child(node, key.charAt(i), false);
+            counts[node] += delta;
+        }
+    }
+
+    private void grow() {
+        int capacity = chars.length * 2;
+        firstChild = Arrays.copyOf(firstChild, capacity);
+        nextSibling = Arrays.copyOf(nextSibling, capacity);
+        chars = Arrays.copyOf(chars, capacity);
+        values = Arrays.copyOf(values, capacity);
+        counts = Arrays.copyOf(counts, capacity);
+    }
+
+    private static void reverse(int[] a, int from, int to) {
+        while (from < to) {
+            int t = a[from];
+            a[from++] = a[to];
+            a[to--] = t;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,649 @@
+package com.score.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * 追加写记录文件：按键（字符串）存取字节数组，修改和删除都以追加新记录的方式完成
+ * 文件整体内存映射，内存中只保留"键的哈希 → 记录偏移"的原始类型数组索引（每条记录约10~20字节），
+ * 按键读取只需一次哈希探测和一次对映射内存的访问（记录通常位于同一页内），数据本身不占用堆内存
+ * 被覆盖/删除的旧记录计为失效字节，超过阈值后由compact()重写到新一代文件中
+ *
+ * 文件格式：文件头（魔数、版本）+ 若干记录，文件末尾未使用部分为0
+ * 记录：长度(int) 类型(byte) 键长度(short) 键(UTF-8) 值 CRC32(int)，长度和CRC覆盖"类型"到"值"
+ * 打开时顺序扫描重建索引，遇到长度为0或CRC不符的记录即视为文件结尾（进程崩溃时写了一半的记录被丢弃）
+ * 压缩时写入 名称-代数.dat.tmp，完成后改名为新一代文件；打开时使用代数最大的文件并删除旧文件
+ * 线程安全：读操作共享读锁，写操作和压缩独占写锁
+ */
+public class RecordLog implements AutoCloseable {
+    private static final Log LOG = Log.get(RecordLog.class);
+
+    private static final int MAGIC = 0x53524C47; // "SRLG"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final byte TYPE_PUT = 1;
+    private static final byte TYPE_DELETE = 2;
+    private static final int MAX_KEY_BYTES = 0xFFFF;
+    private static final long INITIAL_CAPACITY = 1 << 20;
+    // 单个映射的上限（MappedByteBuffer以int寻址）
+    private static final long MAX_CAPACITY = Integer.MAX_VALUE - 8;
+    // 失效字节超过该值且超过文件已用部分的一半时才值得压缩
+    private static final long MIN_COMPACT_BYTES = 1 << 20;
+
+    private final File dir;
+    private final String name;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long generation;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int tail;          // 下一条记录的写入位置
+    private long deadBytes;    // 被覆盖/删除的记录及删除标记占用的字节数
+    private final OffsetIndex index = new OffsetIndex(1024);
+
+    /**
+     * 打开（不存在时创建）记录文件并重建索引
+     * @param dir 存放目录
+     * @param name 文件名前缀（实际文件为 name-代数.dat）
+     */
+    public RecordLog(File dir, String name) throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("无法创建目录：" + dir.getAbsolutePath());
+        }
+        this.dir = dir;
+        this.name = name;
+        this.generation = latestGeneration();
+        deleteStaleFiles();
+        open(fileOf(generation));
+        recover();
+        LOG.info("记录文件已打开：{}，记录数={}，已用{}字节", fileOf(generation).getName(), index.size(), tail);
+    }
+
+    /**
+     * 按键读取值，不存在时返回null
+     */
+    public byte[] get(String key) {
+        byte[] keyBytes = encodeKey(key);
+        lock.readLock().lock();
+        try {
+            int offset = find(keyBytes, hash(keyBytes));
+            return offset < 0 ? null : readValue(offset);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(String key) {
+        byte[] keyBytes = encodeKey(key);
+        lock.readLock().lock();
+        try {
+            return find(keyBytes, hash(keyBytes)) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 键不存在时写入
+     * @return 写入成功返回true，键已存在返回false
+     */
+    public boolean putIfAbsent(String key, byte[] value) throws IOException {
+        return put(key, value, false);
+    }
+
+    /**
+     * 键存在时覆盖（追加新记录，旧记录计为失效字节）
+     * @return 覆盖成功返回true，键不存在返回false
+     */
+    public boolean replace(String key, byte[] value) throws IOException {
+        return put(key, value, true);
+    }
+
+    /**
+     * 删除键（追加删除标记）
+     * @return 删除成功返回true，键不存在返回false
+     */
+    public boolean remove(String key) throws IOException {
+        byte[] keyBytes = encodeKey(key);
+        int hash = hash(keyBytes);
+        lock.writeLock().lock();
+        try {
+            int offset = find(keyBytes, hash);
+            if (offset < 0) {
+                return false;
+            }
+            int tombstone = append(TYPE_DELETE, keyBytes, new byte[0]);
+            index.remove(hash, offset);
+            deadBytes += recordBytes(offset) + recordBytes(tombstone);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 按文件中的写入顺序遍历所有有效记录（持有读锁，遍历期间写操作等待）
+     * @return 遍历的记录数
+     */
+    public long forEach(BiConsumer<String, byte[]> consumer) {
+        lock.readLock().lock();
+        try {
+            long count = 0;
+            int pos = HEADER_BYTES;
+            while (pos < tail) {
+                int size = recordBytes(pos);
+                if (buffer.get(pos + 4) == TYPE_PUT) {
+                    byte[] keyBytes = readKey(pos);
+                    // 只有索引指向的才是该键的最新记录
+                    if (find(keyBytes, hash(keyBytes)) == pos) {
+                        consumer.accept(new String(keyBytes, StandardCharsets.UTF_8), readValue(pos));
+                        count++;
+                    }
+                }
+                pos += size;
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 有效记录数
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 文件已用字节数（含失效记录）
+     */
+    public long getUsedBytes() {
+        lock.readLock().lock();
+        try {
+            return tail;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getDeadBytes() {
+        lock.readLock().lock();
+        try {
+            return deadBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 失效字节足够多时压缩
+     * @return 是否执行了压缩
+     */
+    public boolean compactIfNeeded() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (deadBytes < MIN_COMPACT_BYTES || deadBytes * 2 < tail - HEADER_BYTES) {
+                return false;
+            }
+            compact();
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 压缩：按原顺序把有效记录复制到新一代文件，切换后删除旧文件
+     * 压缩期间持有写锁（复制的是原始字节，不解码记录，数十MB的文件约在百毫秒级完成）
+     */
+    public void compact() throws IOException {
+        lock.writeLock().lock();
+        try {
+            long start = System.nanoTime();
+            long oldGeneration = generation;
+            int[] slots = index.liveSlots();
+            long[] order = new long[slots.length];
+            for (int i = 0; i < slots.length; i++) {
+                // 高32位为记录偏移，低32位为槽位，排序后即为文件中的顺序
+                order[i] = ((long) index.offsetAt(slots[i]) << 32) | slots[i];
+            }
+            Arrays.sort(order);
+
+            File tmp = new File(dir, fileOf(oldGeneration + 1).getName() + ".tmp");
+            int[] newOffsets = new int[order.length];
+            int newTail = HEADER_BYTES;
+            try (FileChannel out = FileChannel.open(tmp.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer chunk = ByteBuffer.allocateDirect(1 << 16);
+                chunk.putInt(MAGIC).putInt(VERSION).putLong(0);
+                for (int i = 0; i < order.length; i++) {
+                    int offset = (int) (order[i] >>> 32);
+                    int size = recordBytes(offset);
+                    if (chunk.remaining() < size) {
+                        drain(out, chunk);
+                    }
+                    if (chunk.remaining() < size) {
+                        // 单条记录比缓冲区大，直接写出
+                        out.write(buffer.slice(offset, size));
+                    } else {
+                        chunk.put(chunk.position(), buffer, offset, size).position(chunk.position() + size);
+                    }
+                    newOffsets[i] = newTail;
+                    newTail += size;
+                }
+                drain(out, chunk);
+                out.force(true);
+            }
+            File target = fileOf(oldGeneration + 1);
+            try {
+                Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            // 切换到新文件，索引中的偏移改为新位置
+            FileChannel oldChannel = channel;
+            generation = oldGeneration + 1;
+            open(target);
+            tail = newTail;
+            deadBytes = 0;
+            for (int i = 0; i < order.length; i++) {
+                index.setOffsetAt((int) order[i], newOffsets[i]);
+            }
+            closeQuietly(oldChannel);
+            // Windows下旧文件仍被映射时无法删除，留到下次打开时清理
+            if (!fileOf(oldGeneration).delete()) {
+                LOG.debug("旧记录文件暂时无法删除，下次打开时清理：{}", fileOf(oldGeneration).getName());
+            }
+            LOG.info("记录文件压缩完成：{}，记录数={}，耗时{}ms", target.getName(), order.length,
+                    (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 把映射内存中的修改刷到磁盘（进程崩溃时操作系统仍会写回已修改的页，只有断电需要force）
+     */
+    public void force() {
+        lock.writeLock().lock();
+        try {
+            buffer.force();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            if (channel != null) {
+                buffer.force();
+                closeQuietly(channel);
+                channel = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ====================== 内部实现 ======================
+
+    private boolean put(String key, byte[] value, boolean replace) throws IOException {
+        byte[] keyBytes = encodeKey(key);
+        int hash = hash(keyBytes);
+        lock.writeLock().lock();
+        try {
+            int offset = find(keyBytes, hash);
+            if (replace != (offset >= 0)) {
+                return false;
+            }
+            int written = append(TYPE_PUT, keyBytes, value);
+            if (offset >= 0) {
+                index.replace(hash, offset, written);
+                deadBytes += recordBytes(offset);
+            } else {
+                index.put(hash, written);
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 在文件末尾追加一条记录（调用方持有写锁），先写内容和CRC、最后写长度，保证写了一半的记录不会被识别为有效记录
+     * @return 记录的偏移
+     */
+    private int append(byte type, byte[] keyBytes, byte[] value) throws IOException {
+        long payload = 1 + 2 + (long) keyBytes.length + value.length;
+        long size = payload + 8;
+        ensureCapacity(tail + size + 4);   // 末尾至少保留4个0字节作为结束标记
+        int pos = tail;
+        buffer.put(pos + 4, type);
+        buffer.putShort(pos + 5, (short) keyBytes.length);
+        buffer.put(pos + 7, keyBytes);
+        buffer.put(pos + 7 + keyBytes.length, value);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(pos + 4, (int) payload));
+        buffer.putInt(pos + 4 + (int) payload, (int) crc.getValue());
+        buffer.putInt(pos, (int) payload);
+        tail = pos + (int) size;
+        return pos;
+    }
+
+    private void ensureCapacity(long required) throws IOException {
+        if (required <= buffer.capacity()) {
+            return;
+        }
+        if (required > MAX_CAPACITY) {
+            throw new IOException("记录文件超过单文件上限（2GB），请先压缩：" + fileOf(generation).getName());
+        }
+        long capacity = Math.min(MAX_CAPACITY, Math.max(required, (long) buffer.capacity() * 2));
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    /**
+     * 打开文件并映射（新文件写入文件头）
+     */
+    private void open(File file) throws IOException {
+        FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long length = ch.size();
+            if (length > MAX_CAPACITY) {
+                throw new IOException("记录文件超过单文件上限（2GB）：" + file.getName());
+            }
+            MappedByteBuffer mapped = ch.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(length, INITIAL_CAPACITY));
+            if (length == 0) {
+                mapped.putInt(0, MAGIC).putInt(4, VERSION);
+            } else if (mapped.getInt(0) != MAGIC || mapped.getInt(4) != VERSION) {
+                throw new IOException("不是有效的记录文件（魔数或版本不符）：" + file.getName());
+            }
+            channel = ch;
+            buffer = mapped;
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(ch);
+            throw e;
+        }
+    }
+
+    /**
+     * 顺序扫描文件重建索引，统计失效字节，确定写入位置
+     */
+    private void recover() {
+        int pos = HEADER_BYTES;
+        int limit = buffer.capacity();
+        while (pos + 4 <= limit) {
+            int payload = buffer.getInt(pos);
+            if (payload == 0) {
+                break;
+            }
+            if (payload < 3 || (long) pos + payload + 8 > limit || !checksumMatches(pos, payload)
+                    || (buffer.getShort(pos + 5) & 0xFFFF) > payload - 3) {
+                LOG.warn("记录文件在偏移{}处不完整或已损坏，之后的数据被忽略：{}", pos, fileOf(generation).getName());
+                // 清除残留字节，避免之后追加的记录后面紧跟着看似有效的旧数据
+                byte[] zeros = new byte[4096];
+                for (int i = pos; i < limit; i += zeros.length) {
+                    buffer.put(i, zeros, 0, Math.min(zeros.length, limit - i));
+                }
+                break;
+            }
+            byte[] keyBytes = readKey(pos);
+            int hash = hash(keyBytes);
+            int existing = find(keyBytes, hash);
+            if (buffer.get(pos + 4) == TYPE_PUT) {
+                if (existing >= 0) {
+                    index.replace(hash, existing, pos);
+                    deadBytes += recordBytes(existing);
+                } else {
+                    index.put(hash, pos);
+                }
+            } else {
+                if (existing >= 0) {
+                    index.remove(hash, existing);
+                    deadBytes += recordBytes(existing);
+                }
+                deadBytes += payload + 8;
+            }
+            pos += payload + 8;
+        }
+        tail = pos;
+    }
+
+    private boolean checksumMatches(int pos, int payload) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(pos + 4, payload));
+        return buffer.getInt(pos + 4 + payload) == (int) crc.getValue();
+    }
+
+    /**
+     * 按键查找记录偏移，不存在返回-1
+     */
+    private int find(byte[] keyBytes, int hash) {
+        for (int slot = index.firstSlot(hash); index.offsetAt(slot) != 0; slot = index.nextSlot(slot)) {
+            int offset = index.offsetAt(slot);
+            if (index.hashAt(slot) == hash && keyEquals(offset, keyBytes)) {
+                return offset;
+            }
+        }
+        return -1;
+    }
+
+    private boolean keyEquals(int offset, byte[] keyBytes) {
+        int length = buffer.getShort(offset + 5) & 0xFFFF;
+        if (length != keyBytes.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(offset + 7 + i) != keyBytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private byte[] readKey(int offset) {
+        byte[] key = new byte[buffer.getShort(offset + 5) & 0xFFFF];
+        buffer.get(offset + 7, key);
+        return key;
+    }
+
+    private byte[] readValue(int offset) {
+        int keyLength = buffer.getShort(offset + 5) & 0xFFFF;
+        byte[] value = new byte[buffer.getInt(offset) - 3 - keyLength];
+        buffer.get(offset + 7 + keyLength, value);
+        return value;
+    }
+
+    // 记录占用的总字节数
+    private int recordBytes(int offset) {
+        return buffer.getInt(offset) + 8;
+    }
+
+    private static byte[] encodeKey(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("键不能为空");
+        }
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_KEY_BYTES) {
+            throw new IllegalArgumentException("键过长：" + bytes.length + "字节");
+        }
+        return bytes;
+    }
+
+    private static int hash(byte[] keyBytes) {
+        int h = Arrays.hashCode(keyBytes);
+        // 打散低位，线性探测对聚集敏感
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        return h;
+    }
+
+    private static void drain(FileChannel out, ByteBuffer chunk) throws IOException {
+        chunk.flip();
+        while (chunk.hasRemaining()) {
+            out.write(chunk);
+        }
+        chunk.clear();
+    }
+
+    private File fileOf(long gen) {
+        return new File(dir, name + "-" + gen + ".dat");
+    }
+
+    private long latestGeneration() {
+        long latest = 0;
+        File[] files = dir.listFiles((d, n) -> n.startsWith(name + "-") && n.endsWith(".dat"));
+        if (files != null) {
+            for (File file : files) {
+                String gen = file.getName().substring(name.length() + 1, file.getName().length() - 4);
+                try {
+                    latest = Math.max(latest, Long.parseLong(gen));
+                } catch (NumberFormatException ignored) {
+                    // 不是本类生成的文件
+                }
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * 删除旧代数的文件和未完成的压缩临时文件
+     */
+    private void deleteStaleFiles() {
+        File[] files = dir.listFiles((d, n) -> n.startsWith(name + "-")
+                && (n.endsWith(".dat.tmp") || n.endsWith(".dat")) && !n.equals(fileOf(generation).getName()));
+        if (files != null) {
+            for (File file : files) {
+                if (file.delete()) {
+                    LOG.info("已删除旧记录文件：{}", file.getName());
+                }
+            }
+        }
+    }
+
+    private static void closeQuietly(FileChannel ch) {
+        try {
+            ch.close();
+        } catch (IOException e) {
+            LOG.warn("关闭记录文件失败：{}", e.getMessage());
+        }
+    }
+
+    /**
+     * 开放寻址（线性探测）哈希表：槽位保存键的哈希和记录偏移，偏移为0表示空槽
+     * 不保存键本身，比较键时读取映射内存中的记录；删除使用后移填补，不留墓碑
+     */
+    private static final class OffsetIndex {
+        private int[] hashes;
+        private int[] offsets;
+        private int size;
+
+        OffsetIndex(int capacity) {
+            hashes = new int[capacity];
+            offsets = new int[capacity];
+        }
+
+        int size() { return size; }
+        int firstSlot(int hash) { return hash & (offsets.length - 1); }
+        int nextSlot(int slot) { return (slot + 1) & (offsets.length - 1); }
+        int offsetAt(int slot) { return offsets[slot]; }
+        int hashAt(int slot) { return hashes[slot]; }
+        void setOffsetAt(int slot, int offset) { offsets[slot] = offset; }
+
+        void put(int hash, int offset) {
+            if ((size + 1) * 4 > offsets.length * 3) {
+                resize();
+            }
+            int slot = firstSlot(hash);
+            while (offsets[slot] != 0) {
+                slot = nextSlot(slot);
+            }
+            hashes[slot] = hash;
+            offsets[slot] = offset;
+            size++;
+        }
+
+        void replace(int hash, int oldOffset, int newOffset) {
+            offsets[slotOf(hash, oldOffset)] = newOffset;
+        }
+
+        void remove(int hash, int offset) {
+            int slot = slotOf(hash, offset);
+            // 后移填补：把后面探测链上不在"理想位置到当前空位"之间的元素前移
+            int mask = offsets.length - 1;
+            int hole = slot;
+            int next = nextSlot(hole);
+            while (offsets[next] != 0) {
+                int ideal = firstSlot(hashes[next]);
+                if (((next - ideal) & mask) >= ((next - hole) & mask)) {
+                    hashes[hole] = hashes[next];
+                    offsets[hole] = offsets[next];
+                    hole = next;
+                }
+                next = nextSlot(next);
+            }
+            offsets[hole] = 0;
+            hashes[hole] = 0;
+            size--;
+        }
+
+        int[] liveSlots() {
+            int[] slots = new int[size];
+            int n = 0;
+            for (int i = 0; i < offsets.length; i++) {
+                if (offsets[i] != 0) {
+                    slots[n++] = i;
+                }
+            }
+            return slots;
+        }
+
+        private int slotOf(int hash, int offset) {
+            for (int slot = firstSlot(hash); offsets[slot] != 0; slot = nextSlot(slot)) {
+                if (offsets[slot] == offset) {
+                    return slot;
+                }
+            }
+            throw new IllegalStateException("索引中不存在偏移" + offset);
+        }
+
+        private void resize() {
+            int[] oldHashes = hashes;
+            int[] oldOffsets = offsets;
+            hashes = new int[oldOffsets.length * 2];
+            offsets = new int[oldOffsets.length * 2];
+            for (int i = 0; i < oldOffsets.length; i++) {
+                if (oldOffsets[i] != 0) {
+                    int slot = firstSlot(oldHashes[i]);
+                    while (offsets[slot] != 0) {
+                        slot = nextSlot(slot);
+                    }
+                    hashes[slot] = oldHashes[i];
+                    offsets[slot] = oldOffsets[i];
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,184 @@
+package com.score.util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 数据库结构检查工具（仅适配MySQL）
+ * 通过information_schema查询当前库的表/列/索引，通过EXPLAIN获取语句的执行计划
+ * 所有方法使用调用方传入的连接，不负责关闭连接
+ */
+public class SchemaInspector {
+    private SchemaInspector() {}
+
+    /**
+     * 当前库中是否存在指定表
+     */
+    public static boolean tableExists(Connection conn, String table) throws SQLException {
+        String sql = "SELECT 1 FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, table);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    /**
+     * 查询表的列：列名（小写）→ 字符类型的最大长度（非字符类型为0）
+     */
+    public static Map<String, Long> columns(Connection conn, String table) throws SQLException {
+        String sql = "SELECT COLUMN_NAME, CHARACTER_MAXIMUM_LENGTH FROM information_schema.COLUMNS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? ORDER BY ORDINAL_POSITION";
+        Map<String, Long> columns = new LinkedHashMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, table);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    columns.put(rs.getString(1).toLowerCase(Locale.ROOT), rs.getLong(2));
+                }
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * 查询表上的所有索引（含主键），按索引名分组，列按索引中的顺序排列
+     */
+    public static List<Index> indexes(Connection conn, String table) throws SQLException {
+        String sql = "SELECT INDEX_NAME, NON_UNIQUE, COLUMN_NAME FROM information_schema.STATISTICS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? ORDER BY INDEX_NAME, SEQ_IN_INDEX";
+        Map<String, Index> indexes = new LinkedHashMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, table);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    String name = rs.getString(1);
+                    boolean unique = rs.getInt(2) == 0;
+                    String column = rs.getString(3);
+                    // 函数索引的COLUMN_NAME为NULL，不能用于按列匹配
+                    if (column == null) {
+                        continue;
+                    }
+                    indexes.computeIfAbsent(name, n -> new Index(n, unique)).columns.add(column.toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return new ArrayList<>(indexes.values());
+    }
+
+    /**
+     * 对语句执行EXPLAIN（支持SELECT/UPDATE/DELETE），参数按顺序绑定到占位符
+     * 绑定的参数只影响优化器的估算，不会真正执行语句
+     */
+    public static List<PlanRow> explain(Connection conn, String sql, Object... params) throws SQLException {
+        List<PlanRow> plan = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    plan.add(new PlanRow(rs.getString("table"), rs.getString("type"),
+                            rs.getString("possible_keys"), rs.getString("key"),
+                            rs.getLong("rows"), rs.getString("Extra")));
+                }
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * 索引信息：索引名、是否唯一、列（小写，按索引顺序）
+     */
+    public static final class Index {
+        private final String name;
+        private final boolean unique;
+        private final List<String> columns = new ArrayList<>();
+
+        Index(String name, boolean unique) {
+            this.name = name;
+            this.unique = unique;
+        }
+
+        public String getName() { return name; }
+        public boolean isUnique() { return unique; }
+        public List<String> getColumns() { return Collections.unmodifiableList(columns); }
+
+        /**
+         * 给定的列是否为本索引的最左前缀（即查询条件可以使用本索引）
+         */
+        public boolean hasPrefix(List<String> prefix) {
+            if (prefix.size() > columns.size()) {
+                return false;
+            }
+            for (int i = 0; i < prefix.size(); i++) {
+                if (!columns.get(i).equalsIgnoreCase(prefix.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return (unique ? "UNIQUE " : "") + name + columns;
+        }
+    }
+
+    /**
+     * EXPLAIN结果中的一行（每个参与查询的表一行）
+     */
+    public static final class PlanRow {
+        private final String table;
+        private final String type;
+        private final String possibleKeys;
+        private final String key;
+        private final long rows;
+        private final String extra;
+
+        PlanRow(String table, String type, String possibleKeys, String key, long rows, String extra) {
+            this.table = table;
+            this.type = type;
+            this.possibleKeys = possibleKeys;
+            this.key = key;
+            this.rows = rows;
+            this.extra = extra;
+        }
+
+        public String getTable() { return table; }
+        public String getType() { return type; }
+        public String getPossibleKeys() { return possibleKeys; }
+        public String getKey() { return key; }
+        public long getRows() { return rows; }
+        public String getExtra() { return extra; }
+
+        /**
+         * 是否为全表扫描（type=ALL）
+         */
+        public boolean isFullScan() {
+            return "ALL".equalsIgnoreCase(type);
+        }
+
+        /**
+         * 是否没有任何可用索引（possible_keys为空），区别于"有索引但优化器认为小表扫描更快"
+         */
+        public boolean hasNoUsableIndex() {
+            return possibleKeys == null || possibleKeys.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return "table=" + table + ", type=" + type + ", possible_keys=" + possibleKeys +
+                    ", key=" + key + ", rows=" + rows + ", Extra=" + extra;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,249 @@
+package com.score.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 预编译语句缓存（绑定到单个物理连接，按SQL文本缓存，LRU淘汰）
+ * 由ConnectionPool在prepareStatement(String)时透明使用，DAO无需感知：
+ * 借出的是PreparedStatement代理，close()时清空参数并放回缓存而不是关闭
+ * 连接归还时强制收回仍借出的语句（checkinAll），旧代理此后一律报错，不会在下一个借用者的连接上执行；
+ * 旧代理可能仍被其他线程持有，因此借出、归还和代理上的调用都在缓存上同步
+ */
+class StatementCache {
+    private static final Log LOG = Log.get(StatementCache.class);
+
+    private final Connection physical;
+    private final int maxSize;
+    private final Counters counters;
+    // accessOrder=true：按访问顺序排列，队首为最久未使用的语句
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    StatementCache(Connection physical, int maxSize, Counters counters) {
+        this.physical = physical;
+        this.maxSize = maxSize;
+        this.counters = counters;
+    }
+
+    /**
+     * 获取预编译语句：命中则复用，未命中则新建并放入缓存
+     * @param sql SQL文本（缓存键）
+     * @param owner 借出的连接代理（供Statement.getConnection()返回）
+     */
+    synchronized PreparedStatement prepare(String sql, Connection owner) throws SQLException {
+        Entry entry = entries.get(sql);
+        if (entry != null && !entry.inUse) {
+            counters.hits.increment();
+            return entry.checkout(owner);
+        }
+        counters.misses.increment();
+        PreparedStatement ps = physical.prepareStatement(sql);
+        if (entry != null) {
+            // 同一SQL在当前连接上嵌套使用：额外创建的语句不缓存，调用方close()时直接关闭
+            return (PreparedStatement) JdbcProxies.wrap(ps, PreparedStatement.class, owner, null);
+        }
+        entry = new Entry(ps);
+        entries.put(sql, entry);
+        evictOverflow();
+        return entry.checkout(owner);
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * 连接归还时调用：收回所有仍借出的语句，借用者漏掉close()的代理此后不能再使用
+     */
+    synchronized void checkinAll() {
+        List<Entry> outstanding = new ArrayList<>();
+        for (Entry entry : entries.values()) {
+            if (entry.inUse) {
+                outstanding.add(entry);
+            }
+        }
+        for (Entry entry : outstanding) {
+            entry.current.invalidate();
+        }
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (entries.size() > maxSize && it.hasNext()) {
+            Entry eldest = it.next().getValue();
+            if (eldest.inUse) {
+                continue; // 正在使用的语句不淘汰
+            }
+            it.remove();
+            counters.evictions.increment();
+            closeQuietly(eldest.statement);
+        }
+    }
+
+    private void remove(Entry entry) {
+        entries.values().remove(entry);
+        closeQuietly(entry.statement);
+    }
+
+    private static void closeQuietly(PreparedStatement ps) {
+        try {
+            ps.close();
+        } catch (SQLException e) {
+            LOG.warn("关闭缓存语句失败：{}", e.getMessage());
+        }
+    }
+
+    /**
+     * 缓存命中/未命中/淘汰计数及语句执行耗时（连接池内所有连接共享）
+     */
+    static final class Counters {
+        final LongAdder hits = new LongAdder();
+        final LongAdder misses = new LongAdder();
+        final LongAdder evictions = new LongAdder();
+        // execute*调用耗时（不含结果集遍历和行映射），数据库报错计为错误
+        final Metrics.Timer execute = Metrics.timer("PoolLatency", "ConnectionPool", "execute");
+    }
+
+    /**
+     * 缓存条目：物理语句 + 使用状态
+     */
+    private final class Entry {
+        final PreparedStatement statement;
+        boolean inUse;
+        boolean dirty; // 借用者修改过fetchSize/maxRows/queryTimeout
+        CheckoutHandler current; // 当前借出的代理，未借出时为null
+
+        Entry(PreparedStatement statement) {
+            this.statement = statement;
+        }
+
+        Counters counters() {
+            return counters;
+        }
+
+        PreparedStatement checkout(Connection owner) {
+            inUse = true;
+            current = new CheckoutHandler(this, owner);
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, current);
+        }
+
+        /**
+         * 归还语句：关闭未关闭的结果集、清空参数、恢复语句级设置
+         */
+        void checkin(ResultSet openResultSet) {
+            current = null;
+            try {
+                if (openResultSet != null && !openResultSet.isClosed()) {
+                    openResultSet.close();
+                }
+                statement.clearParameters();
+                statement.clearBatch();
+                if (dirty) {
+                    statement.setFetchSize(0);
+                    statement.setMaxRows(0);
+                    statement.setQueryTimeout(0);
+                    dirty = false;
+                }
+                inUse = false;
+            } catch (SQLException e) {
+                // 状态无法恢复的语句不再复用
+                remove(this);
+            }
+        }
+    }
+
+    /**
+     * 单次借出的语句代理：close()或连接归还时归还缓存，归还后禁止继续使用
+     */
+    private final class CheckoutHandler implements InvocationHandler {
+        private final Entry entry;
+        private final Connection owner;
+        private ResultSet lastResultSet;
+        private boolean returned;
+
+        CheckoutHandler(Entry entry, Connection owner) {
+            this.entry = entry;
+            this.owner = owner;
+        }
+
+        void invalidate() {
+            if (!returned) {
+                returned = true;
+                entry.checkin(lastResultSet);
+                lastResultSet = null;
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            synchronized (StatementCache.this) {
+                return invokeLocked(proxy, method, args);
+            }
+        }
+
+        private Object invokeLocked(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close":
+                    invalidate();
+                    return null;
+                case "isClosed":
+                    return returned || entry.statement.isClosed();
+                case "getConnection":
+                    return owner;
+                case "unwrap":
+                    // 取出物理语句即可经getConnection()取得物理连接
+                    return JdbcProxies.unwrap(proxy, (Class<?>) args[0]);
+                case "isWrapperFor":
+                    return ((Class<?>) args[0]).isInstance(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement[" + entry.statement + "]";
+                case "setFetchSize":
+                case "setMaxRows":
+                case "setQueryTimeout":
+                    entry.dirty = true;
+                    break;
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("语句已关闭（已归还到语句缓存）");
+            }
+            boolean timed = name.startsWith("execute");
+            long start = timed ? System.nanoTime() : 0;
+            try {
+                Object result = method.invoke(entry.statement, args);
+                if (result instanceof ResultSet) {
+                    lastResultSet = (ResultSet) result;
+                }
+                if (timed) {
+                    entry.counters().execute.recordSince(start);
+                }
+                // 结果集的getStatement()返回本代理，不暴露物理语句
+                return JdbcProxies.wrap(result, method.getReturnType(), owner, (PreparedStatement) proxy);
+            } catch (InvocationTargetException e) {
+                if (timed) {
+                    entry.counters().execute.recordError();
+                }
+                throw e.getCause();
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.score.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 字符串字典编码：每个不同的字符串分配一个从0开始递增的整数编码
+ * 列式存储中重复度高的字符串列（科目、学号）只保存编码，字符串本身每个只存一份
+ * 非线程安全，由使用方加锁
+ */
+public class StringDictionary {
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    /**
+     * 获取字符串的编码，不存在时分配新编码
+     */
+    public int encode(String value) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = values.size();
+            codes.put(value, code);
+            values.add(value);
+        }
+        return code;
+    }
+
+    /**
+     * 查询字符串的编码（不分配）
+     * @return 编码，不存在返回-1
+     */
+    public int codeOf(String value) {
+        Integer code = codes.get(value);
+        return code == null ? -1 : code;
+    }
+
+    /**
+     * 编码对应的字符串
+     */
+    public String decode(int code) {
+        return values.get(code);
+    }
+
+    /**
+     * 不同字符串的数量（编码范围为[0, size)）
+     */
+    public int size() {
+        return values.size();
+    }
+}
\ No newline at end of file
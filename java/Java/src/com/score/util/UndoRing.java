@@ -0,0 +1,200 @@
+package com.score.util;
+
+import java.util.function.Consumer;
+
+/**
+ * 撤销/重做记录的环形缓冲区：变长记录依次写入固定容量的字节数组，内存占用有上限
+ * 每条记录的格式为 [int 长度][内容][int 长度]，首尾都有长度，可以从游标向前（撤销）或向后（重做）逐条读取
+ * 逻辑位置用long单调递增，物理位置为逻辑位置对容量取模：
+ * head（最早的记录） ≤ cursor（撤销/重做的分界） ≤ tail（最新的记录之后）
+ * 追加新记录时丢弃cursor之后的重做记录；空间不足时从head开始淘汰最早的记录（只损失最久远的撤销步骤）
+ * 被丢弃/淘汰的记录交给discardListener（用于清理记录引用的外部资源）
+ * 非线程安全，由使用方加锁
+ */
+public class UndoRing {
+    private static final int FRAME_BYTES = 8;
+
+    private final byte[] buffer;
+    private final Consumer<byte[]> discardListener;
+    private long head;
+    private long cursor;
+    private long tail;
+    private int undoCount;
+    private int redoCount;
+
+    /**
+     * @param capacityBytes 缓冲区字节数（内存上限）
+     * @param discardListener 记录被丢弃时的回调，可以为null
+     */
+    public UndoRing(int capacityBytes, Consumer<byte[]> discardListener) {
+        if (capacityBytes < 64) {
+            throw new IllegalArgumentException("撤销缓冲区容量过小：" + capacityBytes);
+        }
+        this.buffer = new byte[capacityBytes];
+        this.discardListener = discardListener;
+    }
+
+    /**
+     * 在游标处追加一条记录（丢弃全部重做记录，空间不足时淘汰最早的记录）
+     * @return 记录超过缓冲区容量时返回false（此时缓冲区被清空，之前的步骤无法再撤销）
+     */
+    public boolean append(byte[] record) {
+        truncateRedo();
+        long size = (long) record.length + FRAME_BYTES;
+        if (size > buffer.length) {
+            while (undoCount > 0) {
+                evictOldest();
+            }
+            return false;
+        }
+        while (tail + size - head > buffer.length) {
+            evictOldest();
+        }
+        writeInt(tail, record.length);
+        write(tail + 4, record);
+        writeInt(tail + 4 + record.length, record.length);
+        tail += size;
+        cursor = tail;
+        undoCount++;
+        return true;
+    }
+
+    /**
+     * 游标前的一条记录（下一次撤销的内容），没有返回null
+     */
+    public byte[] peekUndo() {
+        if (undoCount == 0) {
+            return null;
+        }
+        int length = readInt(cursor - 4);
+        return read(cursor - 4 - length, length);
+    }
+
+    /**
+     * 游标后的一条记录（下一次重做的内容），没有返回null
+     */
+    public byte[] peekRedo() {
+        if (redoCount == 0) {
+            return null;
+        }
+        int length = readInt(cursor);
+        return read(cursor + 4, length);
+    }
+
+    /**
+     * 撤销成功后游标后退一条记录
+     */
+    public void stepBack() {
+        if (undoCount == 0) {
+            throw new IllegalStateException("没有可撤销的记录");
+        }
+        cursor -= readInt(cursor - 4) + FRAME_BYTES;
+        undoCount--;
+        redoCount++;
+    }
+
+    /**
+     * 重做成功后游标前进一条记录
+     */
+    public void stepForward() {
+        if (redoCount == 0) {
+            throw new IllegalStateException("没有可重做的记录");
+        }
+        cursor += readInt(cursor) + FRAME_BYTES;
+        redoCount--;
+        undoCount++;
+    }
+
+    /**
+     * 丢弃全部记录
+     */
+    public void clear() {
+        truncateRedo();
+        while (undoCount > 0) {
+            evictOldest();
+        }
+    }
+
+    public int getUndoCount() {
+        return undoCount;
+    }
+
+    public int getRedoCount() {
+        return redoCount;
+    }
+
+    /**
+     * 已使用的字节数（含撤销和重做记录）
+     */
+    public long getUsedBytes() {
+        return tail - head;
+    }
+
+    public int getCapacityBytes() {
+        return buffer.length;
+    }
+
+    // 丢弃游标之后的全部重做记录（从最新的开始）
+    private void truncateRedo() {
+        while (redoCount > 0) {
+            int length = readInt(tail - 4);
+            long start = tail - length - FRAME_BYTES;
+            byte[] record = discardListener == null ? null : read(start + 4, length);
+            tail = start;
+            redoCount--;
+            if (record != null) {
+                discardListener.accept(record);
+            }
+        }
+    }
+
+    // 淘汰最早的一条撤销记录（只在没有重做记录时调用）
+    private void evictOldest() {
+        int length = readInt(head);
+        byte[] record = discardListener == null ? null : read(head + 4, length);
+        head += length + FRAME_BYTES;
+        undoCount--;
+        if (undoCount == 0) {
+            // 缓冲区已空，位置归零避免长期运行后long溢出
+            head = cursor = tail = 0;
+        }
+        if (record != null) {
+            discardListener.accept(record);
+        }
+    }
+
+    private void writeInt(long pos, int value) {
+        for (int i = 0; i < 4; i++) {
+            buffer[index(pos + i)] = (byte) (value >>> (24 - 8 * i));
+        }
+    }
+
+    private int readInt(long pos) {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            value = value << 8 | buffer[index(pos + i)] & 0xFF;
+        }
+        return value;
+    }
+
+    // 写入时按环绕位置最多分两段复制
+    private void write(long pos, byte[] data) {
+        int start = index(pos);
+        int first = Math.min(data.length, buffer.length - start);
+        System.arraycopy(data, 0, buffer, start, first);
+        System.arraycopy(data, first, buffer, 0, data.length - first);
+    }
+
+    private byte[] read(long pos, int length) {
+        byte[] data = new byte[length];
+        int start = index(pos);
+        int first = Math.min(length, buffer.length - start);
+        System.arraycopy(buffer, start, data, 0, first);
+        System.arraycopy(buffer, 0, data, first, length - first);
+        return data;
+    }
+
+    private int index(long pos) {
+        return (int) (pos % buffer.length);
+    }
+}
\ No newline at end of file
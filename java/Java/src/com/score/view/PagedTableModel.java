@@ -0,0 +1,412 @@
+package com.score.view;
+
+import com.score.util.Log;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * 按页懒加载的表格模型：只知道总行数，JTable绘制到哪一行才在后台线程加载该行所在的页
+ * 1. 已加载的页保存在有界的LRU缓存中，滚动浏览大表时内存占用固定（缓存页数 × 每页行数）
+ * 2. 未加载的行显示占位符，页加载完成后在EDT中通知表格重绘对应的行
+ * 3. 快速滚动时排队的页请求按"后请求先加载"处理，超出缓存容量的旧请求直接丢弃（重新绘制时会再次请求）
+ * 4. 排序交给PageLoader（数据库ORDER BY走索引），不使用TableRowSorter在内存中排序
+ * 5. 设置CellWriter后可以直接在表格中编辑已加载的行，保存成功后用replaceRow更新缓存中的行对象
+ * 6. 页加载失败时该页显示失败占位符，按指数退避（1秒起，最长30秒）到期后重绘该页、由重绘再次请求，
+ *    失败和全部恢复时通过StatusListener通知界面显示状态
+ * 除loader的方法外，所有方法都只能在EDT中调用
+ * @param <T> 行对象类型
+ */
+public class PagedTableModel<T> extends AbstractTableModel {
+    private static final Log LOG = Log.get(PagedTableModel.class);
+
+    /** 未加载的行在第一列显示的占位符 */
+    public static final String PLACEHOLDER = "加载中…";
+    /** 加载失败、等待重试的行在第一列显示的占位符 */
+    public static final String FAILED_PLACEHOLDER = "加载失败，稍后重试";
+    // 页加载失败后的重试间隔：首次1秒，每次失败翻倍，最长30秒
+    private static final int RETRY_BASE_MILLIS = 1000;
+    private static final int RETRY_MAX_MILLIS = 30_000;
+
+    /**
+     * 数据来源（在后台线程中调用）
+     */
+    public interface PageLoader<T> {
+        /**
+         * 总行数，失败返回-1
+         */
+        int count();
+
+        /**
+         * 加载一页
+         * @param sortColumn 排序列（表格列号，-1表示默认顺序）
+         * @param ascending 是否升序
+         * @return 当前页的行，失败返回null
+         */
+        List<T> load(int sortColumn, boolean ascending, int offset, int limit);
+    }
+
+    /**
+     * 从行对象中取出某一列的值
+     */
+    public interface ColumnReader<T> {
+        Object getValue(T row, int column);
+    }
+
+    /**
+     * 加载状态通知（在EDT中调用）
+     */
+    public interface StatusListener {
+        /**
+         * @param message 失败信息，所有失败的页都已恢复时为null
+         */
+        void onStatus(String message);
+    }
+
+    /**
+     * 单元格编辑（在EDT中调用）
+     */
+    public interface CellWriter<T> {
+        boolean isEditable(T row, int column);
+
+        void setValue(T row, int column, Object value);
+    }
+
+    private final String[] columnNames;
+    private final ColumnReader<T> reader;
+    private final PageLoader<T> loader;
+    private final int pageSize;
+    private final int maxCachedPages;
+    private final Map<Integer, List<T>> pages;
+    // 已请求但尚未加载完成的页（EDT中访问）
+    private final Set<Integer> requested = new HashSet<>();
+    // 加载失败、等待重试的页（EDT中访问）
+    private final Map<Integer, PageFailure> failed = new HashMap<>();
+    // 页请求队列：工作线程从队尾取，优先加载最近请求的页
+    private final LinkedBlockingDeque<PageRequest> queue = new LinkedBlockingDeque<>();
+    private final ExecutorService workers;
+    private CellWriter<T> writer;
+    private StatusListener statusListener;
+
+    private int rowCount;
+    // 排序列，-1表示按数据来源的默认顺序
+    private int sortColumn = -1;
+    private boolean ascending = true;
+    // 每次刷新/改变排序时加1，丢弃旧一代的加载结果
+    private long generation;
+
+    /**
+     * @param columnNames 列名
+     * @param reader 行对象 → 列值
+     * @param loader 数据来源
+     * @param pageSize 每页行数
+     * @param maxCachedPages 缓存的页数上限
+     * @param threads 后台加载线程数
+     */
+    public PagedTableModel(String[] columnNames, ColumnReader<T> reader, PageLoader<T> loader,
+                           int pageSize, int maxCachedPages, int threads) {
+        if (pageSize <= 0 || maxCachedPages <= 0 || threads <= 0) {
+            throw new IllegalArgumentException("分页参数错误：pageSize=" + pageSize +
+                    "，maxCachedPages=" + maxCachedPages + "，threads=" + threads);
+        }
+        this.columnNames = columnNames.clone();
+        this.reader = reader;
+        this.loader = loader;
+        this.pageSize = pageSize;
+        this.maxCachedPages = maxCachedPages;
+        // accessOrder=true：按访问顺序排列，超出容量时淘汰最久未访问的页
+        this.pages = new LinkedHashMap<Integer, List<T>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+                return size() > PagedTableModel.this.maxCachedPages;
+            }
+        };
+        AtomicInteger seq = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "score-table-loader-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * 清空缓存，重新查询总行数（数据变化后调用）
+     */
+    public void refresh() {
+        reset();
+        long gen = generation;
+        workers.execute(() -> {
+            int count = loader.count();
+            SwingUtilities.invokeLater(() -> {
+                if (gen != generation) {
+                    return;
+                }
+                rowCount = Math.max(0, count);
+                fireTableDataChanged();
+                if (count < 0) {
+                    notifyStatus("查询成绩总数失败，请稍后刷新");
+                }
+            });
+        });
+    }
+
+    /**
+     * 按列排序：与当前排序列相同时切换升序/降序，否则按新列升序
+     */
+    public void sortBy(int column) {
+        if (column == sortColumn) {
+            ascending = !ascending;
+        } else {
+            sortColumn = column;
+            ascending = true;
+        }
+        reset();
+        // 总行数不变，只需重绘
+        fireTableDataChanged();
+    }
+
+    public int getSortColumn() {
+        return sortColumn;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    /**
+     * 已加载的行对象，未加载时返回null（并请求加载）
+     */
+    public T getRow(int row) {
+        List<T> page = page(row / pageSize);
+        int index = row % pageSize;
+        return page != null && index < page.size() ? page.get(index) : null;
+    }
+
+    /**
+     * 替换缓存中满足条件的行对象（如保存修改后），未加载的页不受影响
+     * @return 替换的行数
+     */
+    public int replaceRow(Predicate<T> matcher, T replacement) {
+        int replaced = 0;
+        for (Map.Entry<Integer, List<T>> entry : pages.entrySet()) {
+            List<T> page = entry.getValue();
+            for (int i = 0; i < page.size(); i++) {
+                if (matcher.test(page.get(i))) {
+                    page.set(i, replacement);
+                    int row = entry.getKey() * pageSize + i;
+                    if (row < rowCount) {
+                        fireTableRowsUpdated(row, row);
+                    }
+                    replaced++;
+                }
+            }
+        }
+        return replaced;
+    }
+
+    /**
+     * 设置单元格编辑，为null时表格只读
+     */
+    public void setCellWriter(CellWriter<T> writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * 设置加载状态通知，为null时不通知
+     */
+    public void setStatusListener(StatusListener statusListener) {
+        this.statusListener = statusListener;
+    }
+
+    /**
+     * 停止后台加载线程
+     */
+    public void close() {
+        workers.shutdownNow();
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        int pageNo = rowIndex / pageSize;
+        List<T> page = page(pageNo);
+        if (page == null) {
+            if (columnIndex != 0) {
+                return "";
+            }
+            return failed.containsKey(pageNo) && !requested.contains(pageNo) ? FAILED_PLACEHOLDER : PLACEHOLDER;
+        }
+        int index = rowIndex % pageSize;
+        // 加载后数据减少：总行数在下次refresh前可能偏大
+        return index < page.size() ? reader.getValue(page.get(index), columnIndex) : "";
+    }
+
+    @Override
+    public boolean isCellEditable(int rowIndex, int columnIndex) {
+        if (writer == null) {
+            return false;
+        }
+        // 只编辑已加载的行，不为编辑触发加载
+        List<T> page = pages.get(rowIndex / pageSize);
+        int index = rowIndex % pageSize;
+        return page != null && index < page.size() && writer.isEditable(page.get(index), columnIndex);
+    }
+
+    @Override
+    public void setValueAt(Object aValue, int rowIndex, int columnIndex) {
+        T row = writer == null ? null : getRow(rowIndex);
+        if (row != null) {
+            writer.setValue(row, columnIndex, aValue);
+            fireTableCellUpdated(rowIndex, columnIndex);
+        }
+    }
+
+    // 丢弃缓存、排队的请求和失败记录，旧一代的加载结果和重试定时器随之失效
+    private void reset() {
+        generation++;
+        pages.clear();
+        requested.clear();
+        queue.clear();
+        if (!failed.isEmpty()) {
+            failed.clear();
+            notifyStatus(null);
+        }
+    }
+
+    // 取缓存中的页，不存在且不在重试等待中时请求加载
+    private List<T> page(int pageNo) {
+        List<T> page = pages.get(pageNo);
+        if (page == null && !isWaitingRetry(pageNo) && requested.add(pageNo)) {
+            queue.offerLast(new PageRequest(pageNo, generation, sortColumn, ascending));
+            // 排队的请求超过缓存容量时丢弃最早的（那些行多半已滚出视口）
+            while (queue.size() > maxCachedPages) {
+                PageRequest dropped = queue.pollFirst();
+                if (dropped != null) {
+                    requested.remove(dropped.pageNo);
+                }
+            }
+            workers.execute(this::loadNext);
+        }
+        return page;
+    }
+
+    // 工作线程：加载队列中最近请求的一页
+    private void loadNext() {
+        PageRequest request = queue.pollLast();
+        if (request == null) {
+            return;
+        }
+        List<T> rows;
+        String error = "查询失败";
+        try {
+            rows = loader.load(request.sortColumn, request.ascending, request.pageNo * pageSize, pageSize);
+        } catch (RuntimeException e) {
+            LOG.error("加载表格第{}页失败：{}", request.pageNo, e.getMessage(), e);
+            rows = null;
+            error = e.getMessage();
+        }
+        List<T> loaded = rows;
+        String reason = error;
+        SwingUtilities.invokeLater(() -> {
+            if (request.generation != generation) {
+                return;
+            }
+            requested.remove(request.pageNo);
+            if (loaded == null) {
+                onPageFailed(request.pageNo, reason);
+                return;
+            }
+            pages.put(request.pageNo, loaded);
+            if (failed.remove(request.pageNo) != null && failed.isEmpty()) {
+                notifyStatus(null);
+            }
+            repaintPage(request.pageNo);
+        });
+    }
+
+    // 记录失败并安排退避到期后重绘该页（重绘时再次请求加载）
+    private void onPageFailed(int pageNo, String reason) {
+        PageFailure failure = failed.computeIfAbsent(pageNo, k -> new PageFailure());
+        failure.attempts++;
+        int delay = (int) Math.min(RETRY_MAX_MILLIS, (long) RETRY_BASE_MILLIS << Math.min(failure.attempts - 1, 16));
+        failure.retryAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay);
+        long gen = generation;
+        Timer retry = new Timer(delay, e -> {
+            if (gen == generation) {
+                repaintPage(pageNo);
+            }
+        });
+        retry.setRepeats(false);
+        retry.start();
+        repaintPage(pageNo);
+        notifyStatus("第" + (pageNo + 1) + "页加载失败（" + reason + "），" + (delay / 1000) + "秒后重试");
+    }
+
+    private boolean isWaitingRetry(int pageNo) {
+        PageFailure failure = failed.get(pageNo);
+        return failure != null && System.nanoTime() - failure.retryAt < 0;
+    }
+
+    private void repaintPage(int pageNo) {
+        int first = pageNo * pageSize;
+        int last = Math.min(rowCount, first + pageSize) - 1;
+        if (first <= last) {
+            fireTableRowsUpdated(first, last);
+        }
+    }
+
+    private void notifyStatus(String message) {
+        if (statusListener != null) {
+            statusListener.onStatus(message);
+        }
+    }
+
+    // 一页的连续失败次数和下次允许重试的时间（System.nanoTime()）
+    private static final class PageFailure {
+        int attempts;
+        long retryAt;
+    }
+
+    // 一次页请求（记录请求时的排序和代数）
+    private static final class PageRequest {
+        final int pageNo;
+        final long generation;
+        final int sortColumn;
+        final boolean ascending;
+
+        PageRequest(int pageNo, long generation, int sortColumn, boolean ascending) {
+            this.pageNo = pageNo;
+            this.generation = generation;
+            this.sortColumn = sortColumn;
+            this.ascending = ascending;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,159 @@
+package com.score.view;
+
+import com.score.entity.DaoFactory;
+import com.score.entity.ScoreExporter;
+
+import javax.swing.*;
+import java.awt.*;
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * 导出进度对话框
+ * 导出在SwingWorker后台线程中流式执行，进度通过publish回到EDT显示，关闭或点击取消时中断导出（不会留下不完整的文件）
+ * 取消只中断导出线程，不调用SwingWorker.cancel：结果在导出线程真正结束后才显示，对话框在此之前不能关闭
+ */
+public class ScoreExportDialog extends JDialog {
+    // 导出成绩前等待待保存的修改写完的时间
+    private static final long FLUSH_TIMEOUT_MILLIS = Long.getLong("score.writeBehind.closeTimeoutMillis", 30_000);
+
+    private final JProgressBar progressBar = new JProgressBar(0, 100);
+    private final JLabel statusLabel = new JLabel("准备导出...");
+    private final JButton cancelBtn = new JButton("取消");
+    private final ExportWorker worker;
+
+    public ScoreExportDialog(Frame owner, ScoreExporter.Target target, File file) {
+        super(owner, "导出" + target.getLabel() + " - " + file.getName(), true);
+        this.setSize(500, 160);
+        this.setLocationRelativeTo(owner);
+        this.setDefaultCloseOperation(JDialog.DO_NOTHING_ON_CLOSE);
+        this.setLayout(new BorderLayout(10, 10));
+
+        progressBar.setStringPainted(true);
+        JPanel progressPanel = new JPanel(new BorderLayout(5, 5));
+        progressPanel.add(progressBar, BorderLayout.NORTH);
+        progressPanel.add(statusLabel, BorderLayout.SOUTH);
+
+        // 取消/关闭按钮：导出中为取消，结束后为关闭
+        cancelBtn.addActionListener(e -> cancelOrClose());
+        this.addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override
+            public void windowClosing(java.awt.event.WindowEvent e) {
+                cancelOrClose();
+            }
+        });
+
+        JPanel mainPanel = new JPanel(new BorderLayout(10, 10));
+        mainPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        mainPanel.add(progressPanel, BorderLayout.NORTH);
+        mainPanel.add(cancelBtn, BorderLayout.SOUTH);
+        this.add(mainPanel);
+
+        worker = new ExportWorker(target, file);
+    }
+
+    /**
+     * 开始导出并显示对话框（模态，导出结束并关闭后返回）
+     */
+    public void start() {
+        worker.execute();
+        this.setVisible(true);
+    }
+
+    private void cancelOrClose() {
+        if (worker.isDone()) {
+            dispose();
+        } else {
+            cancelBtn.setEnabled(false);
+            statusLabel.setText("正在取消...");
+            worker.interruptExport();
+        }
+    }
+
+    private void showProgress(ScoreExporter.Progress progress) {
+        progressBar.setValue(progress.getPercent());
+        statusLabel.setText("已导出" + progress.getRows() + "/" + progress.getTotalRows() + "行，"
+                + progress.getBytes() / 1024 + "KB");
+    }
+
+    /**
+     * 后台导出任务：中间结果为进度快照
+     */
+    private final class ExportWorker extends SwingWorker<ScoreExporter.Progress, ScoreExporter.Progress> {
+        private final ScoreExporter.Target target;
+        private final File file;
+        // 正在执行导出的线程，导出结束后置空（线程池的线程会被复用，结束后不能再中断）
+        private Thread runner;
+        private boolean interrupted;
+
+        ExportWorker(ScoreExporter.Target target, File file) {
+            this.target = target;
+            this.file = file;
+        }
+
+        synchronized void interruptExport() {
+            interrupted = true;
+            if (runner != null) {
+                runner.interrupt();
+            }
+        }
+
+        @Override
+        protected ScoreExporter.Progress doInBackground() throws Exception {
+            synchronized (this) {
+                if (interrupted) {
+                    throw new InterruptedException("导出已取消");
+                }
+                runner = Thread.currentThread();
+            }
+            try {
+                // 先写完表格中待保存的修改，导出的是最新的成绩
+                if (target == ScoreExporter.Target.SCORES
+                        && !DaoFactory.getScoreWriteBehind().flush(FLUSH_TIMEOUT_MILLIS)) {
+                    throw new IllegalStateException("待保存的成绩修改尚未写完，请稍后重试");
+                }
+                // 学生DAO首次获取时要打开记录文件，只在导出学生时获取
+                ScoreExporter exporter = new ScoreExporter(DaoFactory.getScoreDao(),
+                        target == ScoreExporter.Target.STUDENTS ? DaoFactory.getStudentDao() : null);
+                return exporter.export(target, file.toPath(), this::publish);
+            } finally {
+                synchronized (this) {
+                    runner = null;
+                    // 清除结束后才到达的中断标记，不影响线程池中的下一个任务
+                    Thread.interrupted();
+                }
+            }
+        }
+
+        @Override
+        protected void process(List<ScoreExporter.Progress> chunks) {
+            if (!isDone()) {
+                showProgress(chunks.get(chunks.size() - 1));
+            }
+        }
+
+        @Override
+        protected void done() {
+            cancelBtn.setText("关闭");
+            cancelBtn.setEnabled(true);
+            String message;
+            try {
+                ScoreExporter.Progress result = get();
+                showProgress(result);
+                message = "导出完成：" + result.getRows() + "行，已保存到" + file.getAbsolutePath();
+            } catch (CancellationException e) {
+                message = "导出已取消";
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                message = "导出被中断";
+            } catch (ExecutionException e) {
+                message = e.getCause() instanceof InterruptedException ? "导出已取消"
+                        : "导出失败：" + e.getCause().getMessage();
+            }
+            statusLabel.setText(message);
+            JOptionPane.showMessageDialog(ScoreExportDialog.this, message, "提示", JOptionPane.INFORMATION_MESSAGE);
+        }
+    }
+}
\ No newline at end of file
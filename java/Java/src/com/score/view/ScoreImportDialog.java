@@ -0,0 +1,242 @@
+package com.score.view;
+
+import com.score.dao.Score;
+import com.score.entity.DaoFactory;
+import com.score.entity.ScoreImporter;
+import com.score.entity.ScoreStore;
+import com.score.util.IdRanges;
+import com.score.util.Log;
+
+import javax.swing.*;
+import java.awt.*;
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * 成绩批量导入进度对话框
+ * 导入在SwingWorker后台线程中执行，进度和坏行通过publish回到EDT显示，关闭或点击取消时中断导入
+ * 每写完一块就把该块加入已加载的成绩存储（统计、检索和快照随之更新），导入结束（含取消）后把已写入的行记为一个可撤销的步骤
+ * 取消只中断导入线程，不调用SwingWorker.cancel：导入在写库线程全部退出后才结束，此前对话框不能关闭，撤销步骤包含全部已写入的行
+ */
+public class ScoreImportDialog extends JDialog {
+    private static final Log LOG = Log.get(ScoreImportDialog.class);
+
+    // 界面最多显示的坏行数（全部坏行数量仍会统计）
+    private static final int MAX_SHOWN_BAD_ROWS = 1000;
+
+    private final JProgressBar progressBar = new JProgressBar(0, 100);
+    private final JLabel statusLabel = new JLabel("准备导入...");
+    private final JTextArea badRowArea = new JTextArea();
+    private final JButton cancelBtn = new JButton("取消");
+    private int shownBadRows;
+    private ImportWorker worker;
+    // 已写入的成绩id（写库线程中累加）
+    private final IdRanges importedIds = new IdRanges();
+
+    public ScoreImportDialog(Frame owner, File file) {
+        super(owner, "批量导入成绩 - " + file.getName(), true);
+        this.setSize(600, 400);
+        this.setLocationRelativeTo(owner);
+        this.setDefaultCloseOperation(JDialog.DO_NOTHING_ON_CLOSE);
+        this.setLayout(new BorderLayout(10, 10));
+
+        // 进度条和状态
+        progressBar.setStringPainted(true);
+        JPanel progressPanel = new JPanel(new BorderLayout(5, 5));
+        progressPanel.add(progressBar, BorderLayout.NORTH);
+        progressPanel.add(statusLabel, BorderLayout.SOUTH);
+
+        // 坏行列表
+        badRowArea.setEditable(false);
+        JPanel badRowPanel = new JPanel(new BorderLayout(5, 5));
+        badRowPanel.add(new JLabel("失败的行："), BorderLayout.NORTH);
+        badRowPanel.add(new JScrollPane(badRowArea), BorderLayout.CENTER);
+
+        // 取消/关闭按钮：导入中为取消，结束后为关闭
+        cancelBtn.addActionListener(e -> cancelOrClose());
+        this.addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override
+            public void windowClosing(java.awt.event.WindowEvent e) {
+                cancelOrClose();
+            }
+        });
+
+        JPanel mainPanel = new JPanel(new BorderLayout(10, 10));
+        mainPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        mainPanel.add(progressPanel, BorderLayout.NORTH);
+        mainPanel.add(badRowPanel, BorderLayout.CENTER);
+        mainPanel.add(cancelBtn, BorderLayout.SOUTH);
+        this.add(mainPanel);
+
+        worker = new ImportWorker(file);
+    }
+
+    /**
+     * 开始导入并显示对话框（模态，导入结束并关闭后返回）
+     */
+    public void start() {
+        worker.execute();
+        this.setVisible(true);
+    }
+
+    private void cancelOrClose() {
+        if (worker.isDone()) {
+            dispose();
+        } else {
+            cancelBtn.setEnabled(false);
+            statusLabel.setText("正在取消，等待已提交的数据写完...");
+            worker.interruptImport();
+        }
+    }
+
+    private void appendBadRows(List<ScoreImporter.BadRow> rows) {
+        StringBuilder text = new StringBuilder();
+        for (ScoreImporter.BadRow row : rows) {
+            if (shownBadRows >= MAX_SHOWN_BAD_ROWS) {
+                break;
+            }
+            text.append(row).append('\n');
+            shownBadRows++;
+        }
+        if (text.length() > 0) {
+            badRowArea.append(text.toString());
+        }
+    }
+
+    private void showProgress(ScoreImporter.Progress progress) {
+        progressBar.setValue(progress.getPercent());
+        statusLabel.setText("成功" + progress.getImported() + "行，失败" + progress.getBad() + "行");
+    }
+
+    // 存储未加载时不处理（之后从数据库加载时会包含这些行）；同步失败只记录日志，不影响导入
+    private static void syncStore(List<Score> scores) {
+        ScoreStore store = DaoFactory.getLoadedScoreStore();
+        if (store == null) {
+            return;
+        }
+        try {
+            store.addAll(scores);
+        } catch (IllegalArgumentException e) {
+            LOG.warn("导入的成绩加入内存存储失败：{}", e.getMessage());
+        }
+    }
+
+    // 整次导入记为一个撤销步骤（只记录id区间）；在导入线程结束后调用，此时写库线程已全部退出
+    private void recordHistory() {
+        IdRanges ids = new IdRanges();
+        synchronized (importedIds) {
+            ids.addAll(importedIds);
+        }
+        if (!ids.isEmpty()) {
+            DaoFactory.getScoreEditHistory().recordImport(worker.file.getName(), ids);
+        }
+    }
+
+    /**
+     * 后台导入任务：中间结果为Progress（进度）或List<BadRow>（坏行）
+     */
+    private final class ImportWorker extends SwingWorker<ScoreImporter.Progress, Object> {
+        private final File file;
+        // 正在执行导入的线程，导入结束后置空（线程池的线程会被复用，结束后不能再中断）
+        private Thread runner;
+        private boolean interrupted;
+
+        ImportWorker(File file) {
+            this.file = file;
+        }
+
+        synchronized void interruptImport() {
+            interrupted = true;
+            if (runner != null) {
+                runner.interrupt();
+            }
+        }
+
+        @Override
+        protected ScoreImporter.Progress doInBackground() throws Exception {
+            synchronized (this) {
+                if (interrupted) {
+                    throw new InterruptedException("导入已取消");
+                }
+                runner = Thread.currentThread();
+            }
+            try {
+                return importFile();
+            } finally {
+                synchronized (this) {
+                    runner = null;
+                    // 清除结束后才到达的中断标记，不影响线程池中的下一个任务
+                    Thread.interrupted();
+                }
+            }
+        }
+
+        private ScoreImporter.Progress importFile() throws Exception {
+            ScoreImporter importer = new ScoreImporter(DaoFactory.getScoreDao());
+            return importer.importFile(file.toPath(), new ScoreImporter.Listener() {
+                @Override
+                public void onProgress(ScoreImporter.Progress progress) {
+                    publish(progress);
+                }
+
+                @Override
+                public void onBadRows(List<ScoreImporter.BadRow> rows) {
+                    publish(rows);
+                }
+
+                @Override
+                public void onImported(List<Score> scores) {
+                    syncStore(scores);
+                    IdRanges ids = new IdRanges();
+                    for (Score score : scores) {
+                        ids.add(score.getId());
+                    }
+                    synchronized (importedIds) {
+                        importedIds.addAll(ids);
+                    }
+                }
+            });
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected void process(List<Object> chunks) {
+            ScoreImporter.Progress latest = null;
+            for (Object chunk : chunks) {
+                if (chunk instanceof ScoreImporter.Progress) {
+                    latest = (ScoreImporter.Progress) chunk;
+                } else {
+                    appendBadRows((List<ScoreImporter.BadRow>) chunk);
+                }
+            }
+            if (latest != null && !isDone()) {
+                showProgress(latest);
+            }
+        }
+
+        @Override
+        protected void done() {
+            cancelBtn.setText("关闭");
+            cancelBtn.setEnabled(true);
+            String message;
+            try {
+                ScoreImporter.Progress result = get();
+                showProgress(result);
+                message = "导入完成：成功" + result.getImported() + "行，失败" + result.getBad() + "行";
+                if (result.getBad() > shownBadRows) {
+                    message += "（仅显示前" + shownBadRows + "行失败记录）";
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                message = "导入被中断";
+            } catch (ExecutionException e) {
+                message = e.getCause() instanceof InterruptedException ? "导入已取消，已提交的数据不会回滚"
+                        : "导入失败：" + e.getCause().getMessage();
+            }
+            recordHistory();
+            statusLabel.setText(message);
+            JOptionPane.showMessageDialog(ScoreImportDialog.this, message, "提示", JOptionPane.INFORMATION_MESSAGE);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,191 @@
+package com.score.view;
+
+import com.score.dao.Score;
+import com.score.entity.DaoFactory;
+import com.score.entity.StudentSearchIndex;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * 查找成绩对话框：输入学号前缀或姓名中的字，每次按键在内存检索索引（StudentSearchIndex）中查询，实时列出匹配的学生
+ * 点选学生（或在输入框按回车选中第一个）后才在后台线程按学号查询其全部成绩，按键本身不查数据库；
+ * 首次打开需要加载学生记录和成绩存储，在后台线程中完成
+ * 系统属性：score.search.maxResults（最多列出的学生数，默认50）
+ */
+public class ScoreSearchDialog extends JDialog {
+    private static final int MAX_RESULTS = Integer.getInteger("score.search.maxResults", 50);
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final JTextField queryField = new JTextField(20);
+    private final DefaultListModel<StudentSearchIndex.Match> matchModel = new DefaultListModel<>();
+    private final JList<StudentSearchIndex.Match> matchList = new JList<>(matchModel);
+    private final DefaultTableModel scoreModel = new DefaultTableModel(new String[]{"科目", "成绩", "录入时间"}, 0) {
+        @Override
+        public boolean isCellEditable(int row, int column) {
+            return false;
+        }
+    };
+    private final JLabel statusLabel = new JLabel(" ");
+
+    private StudentSearchIndex index;
+
+    public ScoreSearchDialog(Frame owner) {
+        super(owner, "查找成绩", false);
+        this.setSize(800, 500);
+        this.setLocationRelativeTo(owner);
+        this.setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
+        this.setLayout(new BorderLayout(10, 10));
+
+        JPanel queryPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        queryPanel.add(new JLabel("学号/姓名："));
+        queryPanel.add(queryField);
+        queryField.setEnabled(false);
+        queryField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                search();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                search();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                search();
+            }
+        });
+
+        // 回车选中第一个匹配的学生并转到列表，可继续用方向键切换
+        queryField.addActionListener(e -> {
+            if (!matchModel.isEmpty()) {
+                matchList.setSelectedIndex(0);
+                matchList.requestFocusInWindow();
+            }
+        });
+
+        matchList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        matchList.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                          boolean isSelected, boolean cellHasFocus) {
+                StudentSearchIndex.Match match = (StudentSearchIndex.Match) value;
+                String text = match.getStudentId() + "  " + match.getStudentName()
+                        + "（" + match.getType().getLabel() + "，" + match.getScoreCount() + "条成绩）";
+                return super.getListCellRendererComponent(list, text, index, isSelected, cellHasFocus);
+            }
+        });
+        matchList.addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) {
+                loadScores(matchList.getSelectedValue());
+            }
+        });
+
+        JTable scoreTable = new JTable(scoreModel);
+        scoreTable.setAutoCreateRowSorter(true);
+        scoreTable.setRowHeight(25);
+
+        JSplitPane splitPane = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT,
+                new JScrollPane(matchList), new JScrollPane(scoreTable));
+        splitPane.setDividerLocation(340);
+
+        JPanel mainPanel = new JPanel(new BorderLayout(10, 10));
+        mainPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        mainPanel.add(queryPanel, BorderLayout.NORTH);
+        mainPanel.add(splitPane, BorderLayout.CENTER);
+        mainPanel.add(statusLabel, BorderLayout.SOUTH);
+        this.add(mainPanel);
+    }
+
+    /**
+     * 显示对话框并在后台加载检索索引
+     */
+    public void start() {
+        this.setVisible(true);
+        statusLabel.setText("正在加载检索索引…");
+        new SwingWorker<StudentSearchIndex, Void>() {
+            @Override
+            protected StudentSearchIndex doInBackground() {
+                return DaoFactory.getStudentSearchIndex();
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    index = get();
+                    queryField.setEnabled(true);
+                    queryField.requestFocusInWindow();
+                    statusLabel.setText("共" + index.size() + "个学生，输入学号或姓名查找");
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    statusLabel.setText("加载检索索引失败");
+                    JOptionPane.showMessageDialog(ScoreSearchDialog.this, "加载检索索引失败：" + e.getCause().getMessage(),
+                            "错误", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
+
+    // 按键查询：内存索引只需几十微秒，直接在EDT中执行
+    private void search() {
+        if (index == null) {
+            return;
+        }
+        String query = queryField.getText();
+        long start = System.nanoTime();
+        List<StudentSearchIndex.Match> matches = index.search(query, MAX_RESULTS);
+        long micros = (System.nanoTime() - start) / 1000;
+        matchModel.clear();
+        scoreModel.setRowCount(0);
+        matches.forEach(matchModel::addElement);
+        if (query.trim().isEmpty()) {
+            statusLabel.setText("共" + index.size() + "个学生，输入学号或姓名查找");
+        } else if (matches.isEmpty()) {
+            statusLabel.setText("未找到匹配的学生（耗时" + micros + "微秒）");
+        } else {
+            // 不自动选中：选中即查询成绩，每次按键都会发起一次数据库查询
+            statusLabel.setText("列出前" + matches.size() + "个匹配的学生（耗时" + micros + "微秒），选中学生或按回车查看成绩");
+        }
+    }
+
+    // 后台查询选中学生的成绩，返回时已选中其他学生则丢弃
+    private void loadScores(StudentSearchIndex.Match match) {
+        scoreModel.setRowCount(0);
+        if (match == null) {
+            return;
+        }
+        new SwingWorker<List<Score>, Void>() {
+            @Override
+            protected List<Score> doInBackground() {
+                return DaoFactory.getScoreDao().getScoresByStudentId(match.getStudentId());
+            }
+
+            @Override
+            protected void done() {
+                if (matchList.getSelectedValue() != match) {
+                    return;
+                }
+                try {
+                    for (Score score : get()) {
+                        scoreModel.addRow(new Object[]{score.getSubject(), score.getScore(),
+                                score.getRecordTime() == null ? "" : TIME_FORMAT.format(score.getRecordTime())});
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    JOptionPane.showMessageDialog(ScoreSearchDialog.this, "查询成绩失败：" + e.getCause().getMessage(),
+                            "错误", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,130 @@
+package com.score.view;
+
+import com.score.entity.DaoFactory;
+import com.score.entity.ScoreStatistics;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.util.Collection;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * 成绩统计对话框：按科目、按班级显示人数、平均分、标准差、最低/最高分、百分位数和分数段人数
+ * 统计结果由ScoreStatistics增量维护，打开和刷新时只读取快照；首次打开需要加载成绩，在后台线程中完成
+ */
+public class ScoreStatsDialog extends JDialog {
+    private final DefaultTableModel subjectModel = createModel("科目");
+    private final DefaultTableModel classModel = createModel("班级");
+    private final JButton refreshBtn = new JButton("刷新");
+
+    public ScoreStatsDialog(Frame owner) {
+        super(owner, "成绩统计", false);
+        this.setSize(900, 450);
+        this.setLocationRelativeTo(owner);
+        this.setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
+        this.setLayout(new BorderLayout(10, 10));
+
+        JTabbedPane tabs = new JTabbedPane();
+        tabs.addTab("按科目", new JScrollPane(createTable(subjectModel)));
+        tabs.addTab("按班级", new JScrollPane(createTable(classModel)));
+
+        refreshBtn.addActionListener(e -> refresh());
+
+        JPanel mainPanel = new JPanel(new BorderLayout(10, 10));
+        mainPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        mainPanel.add(tabs, BorderLayout.CENTER);
+        mainPanel.add(refreshBtn, BorderLayout.SOUTH);
+        this.add(mainPanel);
+    }
+
+    /**
+     * 显示对话框并在后台读取统计结果
+     */
+    public void start() {
+        this.setVisible(true);
+        refresh();
+    }
+
+    private void refresh() {
+        refreshBtn.setEnabled(false);
+        new SwingWorker<Snapshot, Void>() {
+            @Override
+            protected Snapshot doInBackground() {
+                ScoreStatistics statistics = DaoFactory.getScoreStatistics();
+                return new Snapshot(statistics.getOverallStats(), statistics.getSubjectStats().values(),
+                        statistics.getClassStats().values());
+            }
+
+            @Override
+            protected void done() {
+                refreshBtn.setEnabled(true);
+                try {
+                    Snapshot snapshot = get();
+                    subjectModel.setRowCount(0);
+                    addRow(subjectModel, snapshot.overall);
+                    snapshot.subjects.forEach(stats -> addRow(subjectModel, stats));
+                    classModel.setRowCount(0);
+                    snapshot.classes.forEach(stats -> addRow(classModel, stats));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    JOptionPane.showMessageDialog(ScoreStatsDialog.this, "读取成绩统计失败：" + e.getCause().getMessage(),
+                            "错误", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
+
+    private static DefaultTableModel createModel(String groupName) {
+        String[] fixed = {groupName, "人数", "平均分", "标准差", "最低", "中位数", "P90", "最高"};
+        String[] bands = ScoreStatistics.getBandNames();
+        String[] columnNames = new String[fixed.length + bands.length];
+        System.arraycopy(fixed, 0, columnNames, 0, fixed.length);
+        System.arraycopy(bands, 0, columnNames, fixed.length, bands.length);
+        return new DefaultTableModel(columnNames, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+    }
+
+    private static JTable createTable(DefaultTableModel model) {
+        JTable table = new JTable(model);
+        table.setAutoCreateRowSorter(true);
+        table.setRowHeight(25);
+        return table;
+    }
+
+    private static void addRow(DefaultTableModel model, ScoreStatistics.Stats stats) {
+        long[] bands = stats.getBandCounts();
+        Object[] row = new Object[8 + bands.length];
+        row[0] = stats.getName();
+        row[1] = stats.getCount();
+        row[2] = String.format("%.2f", stats.getMean());
+        row[3] = String.format("%.2f", stats.getStddev());
+        row[4] = stats.getMin();
+        row[5] = stats.percentile(50);
+        row[6] = stats.percentile(90);
+        row[7] = stats.getMax();
+        for (int i = 0; i < bands.length; i++) {
+            row[8 + i] = bands[i];
+        }
+        model.addRow(row);
+    }
+
+    // 后台线程读取的统计快照
+    private static final class Snapshot {
+        final ScoreStatistics.Stats overall;
+        final Collection<ScoreStatistics.Stats> subjects;
+        final Collection<ScoreStatistics.Stats> classes;
+
+        Snapshot(ScoreStatistics.Stats overall, Collection<ScoreStatistics.Stats> subjects,
+                 Collection<ScoreStatistics.Stats> classes) {
+            this.overall = overall;
+            this.subjects = subjects;
+            this.classes = classes;
+        }
+    }
+}
\ No newline at end of file
@@ -1,11 +1,29 @@
 package com.score.view;
 
+import com.score.dao.Score;
+import com.score.entity.DaoFactory;
+import com.score.entity.ScoreDao;
+import com.score.entity.ScoreEditHistory;
+import com.score.entity.ScoreExporter;
+import com.score.entity.ScoreStore;
+import com.score.entity.ScoreWriteBehind;
+
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import javax.swing.table.DefaultTableModel;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ExecutionException;
 import javax.swing.ListSelectionModel;
+import javax.swing.event.MenuEvent;
+import javax.swing.event.MenuListener;
+import javax.swing.table.DefaultTableCellRenderer;
 
 /**
  * 学生成绩管理系统主界面
@@ -16,17 +34,39 @@ public class ScoreSystemMainFrame extends JFrame {
     private CardLayout cardLayout;
     private JPanel cardPanel;
     private JTable dataTable;
-    private DefaultTableModel tableModel;
+    private PagedTableModel<Score> tableModel;
+    private ScoreWriteBehind writeBehind;
+    // 表格下方的加载状态（页加载失败时显示原因和重试时间）
+    private final JLabel statusLabel = new JLabel(" ");
+
+    // 表格列名及对应的排序字段（按列排序由数据库按索引完成）
+    private static final String[] COLUMN_NAMES = {"学号", "姓名", "科目", "成绩", "录入时间"};
+    private static final ScoreDao.SortField[] SORT_FIELDS = {ScoreDao.SortField.STUDENT_ID,
+            ScoreDao.SortField.STUDENT_NAME, ScoreDao.SortField.SUBJECT, ScoreDao.SortField.SCORE,
+            ScoreDao.SortField.RECORD_TIME};
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    // 每页行数、缓存页数（系统属性score.table.pageSize、score.table.cachedPages）
+    private static final int PAGE_SIZE = Integer.getInteger("score.table.pageSize", 200);
+    private static final int CACHED_PAGES = Integer.getInteger("score.table.cachedPages", 50);
+    // 可以在表格中直接编辑的列（成绩）
+    private static final int SCORE_COLUMN = 3;
+    private static final double MAX_SCORE = Math.min(ScoreStore.MAX_SCORE,
+            Double.parseDouble(System.getProperty("score.import.maxScore", "100")));
+    // 关闭窗口时最多等待多久写完（系统属性score.writeBehind.closeTimeoutMillis）
+    private static final long CLOSE_TIMEOUT_MILLIS = Long.getLong("score.writeBehind.closeTimeoutMillis", 30_000);
+    // 待保存/保存失败的行的背景色
+    private static final Color PENDING_COLOR = new Color(255, 248, 200);
+    private static final Color FAILED_COLOR = new Color(255, 205, 205);
 
     /**
      * 构造方法 - 主入口
      */
     public ScoreSystemMainFrame() {
-        // 初始化流程：基础配置 → 菜单栏 → 核心布局 → 表格模型
+        // 初始化流程：基础配置 → 菜单栏 → 表格模型 → 核心布局（布局中的滚动面板需要已创建的表格）
         initFrameConfig();
         initMenuBar();
-        initMainLayout();
         initTableModel();
+        initMainLayout();
     }
 
     /**
@@ -38,8 +78,14 @@ public class ScoreSystemMainFrame extends JFrame {
         this.setLocationRelativeTo(null); // 窗口居中显示
         this.setTitle("学生成绩管理系统");
         this.setSize(1000, 600);
-        // 关闭窗口时退出程序
+        // 关闭窗口时退出程序（退出前同步写完待保存的成绩修改）
         this.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        this.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                flushEdits();
+            }
+        });
         // 禁止窗口大小调整，保证布局稳定
         this.setResizable(false);
     }
@@ -51,42 +97,8 @@ public class ScoreSystemMainFrame extends JFrame {
     private void initMenuBar() {
         JMenuBar menuBar = new JMenuBar();
         // 左侧功能菜单组
-        // 新增成绩子菜单
-        JMenu scoreMenu = new JMenu("成绩管理");
-        JMenu addScore = new JMenu ("新增成绩");
-        JMenuItem addScoreitem= new JMenuItem("单个导入");
-        JMenuItem addScoreitems = new JMenuItem("批量导入");
-        addScore.add(addScoreitem);       // 修复：原代码重复添加了addScoreitem，现在改为添加addScoreitems
-        addScore.add(addScoreitems);
-        scoreMenu.add(addScore);
-
-// 修改成绩
-        JMenuItem changeScore= new JMenuItem("修改成绩");
-        scoreMenu.add(changeScore);
-// 删除成绩
-        JMenuItem deleteScoreItem = new JMenuItem("删除成绩");
-        scoreMenu.add(deleteScoreItem);
-        JMenuItem findSelectItem = new JMenuItem("查找成绩");
-        scoreMenu.add(findSelectItem);
-        menuBar.add(scoreMenu);
-
-// 编辑菜单（修复：原代码重复定义了editMenu，只保留一份即可）
-        JMenu editMenu = new JMenu("编辑");
-        JMenuItem undoItem = new JMenuItem("撤销");
-        JMenuItem redoItem = new JMenuItem("重做");
-        editMenu.add(undoItem);
-        editMenu.add(redoItem);
-        menuBar.add(editMenu);
-
-// 右侧菜单组
-        JMenu settingMenu = new JMenu("设置");
-        menuBar.add(settingMenu);
-
-        JMenu personalMenu = new JMenu("个人");
-        menuBar.add(personalMenu);
-
-        JMenu feedbackMenu = new JMenu("反馈");
-        menuBar.add(feedbackMenu);
+        menuBar.add(createScoreMenu());      // 成绩管理菜单
+        menuBar.add(createEditMenu());       // 编辑菜单
         // 添加水平分隔符
         menuBar.add(Box.createHorizontalGlue());
 
@@ -111,44 +123,118 @@ public class ScoreSystemMainFrame extends JFrame {
         JMenuItem addBatchScoreItem = new JMenuItem("批量导入");
         // 添加事件监听器
         addSingleScoreItem.addActionListener(e -> showTip("单个导入成绩功能待实现"));
-        addBatchScoreItem.addActionListener(e -> showTip("批量导入成绩功能待实现"));
+        addBatchScoreItem.addActionListener(e -> importScores());
         addScoreMenu.add(addSingleScoreItem);
         addScoreMenu.add(addBatchScoreItem);
         scoreMenu.add(addScoreMenu);
 
+        // 导出子菜单（流式导出为CSV）
+        JMenu exportMenu = new JMenu("导出");
+        JMenuItem exportScoreItem = new JMenuItem("导出成绩");
+        JMenuItem exportStudentItem = new JMenuItem("导出学生");
+        exportScoreItem.addActionListener(e -> exportData(ScoreExporter.Target.SCORES));
+        exportStudentItem.addActionListener(e -> exportData(ScoreExporter.Target.STUDENTS));
+        exportMenu.add(exportScoreItem);
+        exportMenu.add(exportStudentItem);
+
         // 其他成绩操作菜单项
         JMenuItem modifyScoreItem = new JMenuItem("修改成绩");
         JMenuItem deleteScoreItem = new JMenuItem("删除成绩");
         JMenuItem searchScoreItem = new JMenuItem("查找成绩");
+        JMenuItem statsScoreItem = new JMenuItem("成绩统计");
 
         // 绑定事件
-        modifyScoreItem.addActionListener(e -> showTip("修改成绩功能待实现"));
+        modifyScoreItem.addActionListener(e -> editSelectedScore());
         deleteScoreItem.addActionListener(e -> showTip("删除成绩功能待实现"));
-        searchScoreItem.addActionListener(e -> showTip("查找成绩功能待实现"));
+        searchScoreItem.addActionListener(e -> new ScoreSearchDialog(this).start());
+        statsScoreItem.addActionListener(e -> new ScoreStatsDialog(this).start());
 
         scoreMenu.add(modifyScoreItem);
         scoreMenu.add(deleteScoreItem);
         scoreMenu.add(searchScoreItem);
+        scoreMenu.add(statsScoreItem);
+        scoreMenu.addSeparator();
+        scoreMenu.add(exportMenu);
 
         return scoreMenu;
     }
 
     /**
-     * 创建编辑菜单
+     * 创建编辑菜单（展开时按历史记录更新撤销/重做的文字和可用状态）
      */
     private JMenu createEditMenu() {
         JMenu editMenu = new JMenu("编辑");
         JMenuItem undoItem = new JMenuItem("撤销");
         JMenuItem redoItem = new JMenuItem("重做");
+        undoItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_Z, InputEvent.CTRL_DOWN_MASK));
+        redoItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_Y, InputEvent.CTRL_DOWN_MASK));
 
-        undoItem.addActionListener(e -> showTip("撤销操作功能待实现"));
-        redoItem.addActionListener(e -> showTip("重做操作功能待实现"));
+        undoItem.addActionListener(e -> undoOrRedo(true));
+        redoItem.addActionListener(e -> undoOrRedo(false));
+        editMenu.addMenuListener(new MenuListener() {
+            @Override
+            public void menuSelected(MenuEvent e) {
+                ScoreEditHistory history = DaoFactory.getScoreEditHistory();
+                String undo = history.getUndoDescription();
+                String redo = history.getRedoDescription();
+                undoItem.setText(undo == null ? "撤销" : "撤销 " + undo);
+                redoItem.setText(redo == null ? "重做" : "重做 " + redo);
+                undoItem.setEnabled(undo != null);
+                redoItem.setEnabled(redo != null);
+            }
+
+            @Override
+            public void menuDeselected(MenuEvent e) {
+                // 菜单收起后恢复可用，快捷键在没有可撤销步骤时给出提示
+                undoItem.setEnabled(true);
+                redoItem.setEnabled(true);
+            }
+
+            @Override
+            public void menuCanceled(MenuEvent e) {
+            }
+        });
 
         editMenu.add(undoItem);
         editMenu.add(redoItem);
         return editMenu;
     }
 
+    /**
+     * 在后台线程中撤销/重做（可能涉及整次批量导入），完成后刷新表格
+     */
+    private void undoOrRedo(boolean undo) {
+        new SwingWorker<String, Void>() {
+            @Override
+            protected String doInBackground() throws InterruptedException {
+                // 先写完待保存的修改，撤销历史中才有这些步骤
+                if (!writeBehind.flush(CLOSE_TIMEOUT_MILLIS)) {
+                    throw new IllegalStateException("待保存的成绩修改尚未写完，请稍后重试");
+                }
+                ScoreEditHistory history = DaoFactory.getScoreEditHistory();
+                return undo ? history.undo() : history.redo();
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    String description = get();
+                    if (description == null) {
+                        showTip(undo ? "没有可撤销的操作" : "没有可重做的操作");
+                        return;
+                    }
+                    tableModel.refresh();
+                    showTip((undo ? "已撤销：" : "已重做：") + description);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    JOptionPane.showMessageDialog(ScoreSystemMainFrame.this, e.getCause().getMessage(),
+                            "错误", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
+
     /**
      * 创建设置菜单
      */
@@ -209,33 +295,228 @@ public class ScoreSystemMainFrame extends JFrame {
         // 添加表格到滚动面板
         JScrollPane scrollPane = new JScrollPane(dataTable);
         panel.add(scrollPane, BorderLayout.CENTER);
+        statusLabel.setForeground(Color.RED);
+        panel.add(statusLabel, BorderLayout.SOUTH);
 
         return panel;
     }
 
     /**
      * 初始化表格模型
-     * 完善原未实现的方法
+     * 按页懒加载（PagedTableModel），只加载视口附近的行，成绩数量再多也不会卡住界面
+     * 成绩列可以直接编辑：修改交给ScoreWriteBehind合并后批量写入，表格立即显示新的值，待保存/保存失败的行用背景色标出
      */
     private void initTableModel() {
-        // 定义表格列名
-        String[] columnNames = {"学号", "姓名", "科目", "成绩", "录入时间"};
-        // 创建表格模型（不可编辑）
-        tableModel = new DefaultTableModel(columnNames, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // 表格单元格默认不可编辑
-            }
-        };
+        ScoreDao scoreDao = DaoFactory.getScoreDao();
+        writeBehind = DaoFactory.getScoreWriteBehind();
+        tableModel = new PagedTableModel<>(COLUMN_NAMES, this::columnValue,
+                new PagedTableModel.PageLoader<Score>() {
+                    @Override
+                    public int count() {
+                        return scoreDao.countScores();
+                    }
+
+                    @Override
+                    public java.util.List<Score> load(int sortColumn, boolean ascending, int offset, int limit) {
+                        ScoreDao.SortField sort = sortColumn < 0 ? ScoreDao.SortField.ID : SORT_FIELDS[sortColumn];
+                        return scoreDao.getScorePage(sort, ascending, offset, limit);
+                    }
+                }, PAGE_SIZE, CACHED_PAGES, 2);
 
         // 初始化表格
         dataTable = new JTable(tableModel);
+        // 点击表头按该列排序（再次点击切换升序/降序）
+        dataTable.getTableHeader().addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int column = dataTable.convertColumnIndexToModel(dataTable.columnAtPoint(e.getPoint()));
+                if (column >= 0) {
+                    tableModel.sortBy(column);
+                    updateSortHeader();
+                }
+            }
+        });
         // 设置表格选择模式：单行选择
         dataTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         // 设置表格自动调整列宽
         dataTable.setAutoResizeMode(JTable.AUTO_RESIZE_ALL_COLUMNS);
         // 设置行高
         dataTable.setRowHeight(30);
+        tableModel.setCellWriter(new PagedTableModel.CellWriter<Score>() {
+            @Override
+            public boolean isEditable(Score row, int column) {
+                return column == SCORE_COLUMN;
+            }
+
+            @Override
+            public void setValue(Score row, int column, Object value) {
+                submitScore(row, value);
+            }
+        });
+        dataTable.setDefaultRenderer(Object.class, new EditStateRenderer());
+        tableModel.setStatusListener(message -> statusLabel.setText(message == null ? " " : message));
+        // 写入完成后用数据库中的新值替换缓存的行，失败的行重绘为失败状态
+        writeBehind.addListener((saved, failed) -> SwingUtilities.invokeLater(() -> {
+            for (Score score : saved) {
+                tableModel.replaceRow(row -> row.getId() == score.getId(), score);
+            }
+            if (!failed.isEmpty()) {
+                dataTable.repaint();
+            }
+        }));
+        tableModel.refresh();
+    }
+
+    // 叠加显示尚未写入数据库的修改
+    private Object columnValue(Score row, int column) {
+        Score pending = writeBehind.getPending(row.getId());
+        Score score = pending == null ? row : pending;
+        switch (column) {
+            case 0:
+                return score.getStudentId();
+            case 1:
+                return score.getStudentName();
+            case 2:
+                return score.getSubject();
+            case 3:
+                return score.getScore();
+            default:
+                return score.getRecordTime() == null ? "" : TIME_FORMAT.format(score.getRecordTime());
+        }
+    }
+
+    /**
+     * 修改成绩：开始编辑选中行的成绩单元格（回车提交，修改在后台合并写入）
+     */
+    private void editSelectedScore() {
+        int row = dataTable.getSelectedRow();
+        if (row < 0 || tableModel.getRow(row) == null) {
+            showTip("请先在表格中选择要修改的成绩");
+            return;
+        }
+        int column = dataTable.convertColumnIndexToView(SCORE_COLUMN);
+        if (dataTable.editCellAt(row, column)) {
+            Component editor = dataTable.getEditorComponent();
+            if (editor instanceof JTextField) {
+                ((JTextField) editor).selectAll();
+            }
+            editor.requestFocusInWindow();
+        }
+    }
+
+    // 校验输入的成绩并提交给延迟写入队列（表格立即显示新的值）
+    private void submitScore(Score row, Object value) {
+        double score;
+        try {
+            score = Double.parseDouble(String.valueOf(value).trim());
+        } catch (NumberFormatException e) {
+            showTip("成绩必须是数字：" + value);
+            return;
+        }
+        if (score < 0 || score > MAX_SCORE) {
+            showTip("成绩超出范围（0～" + MAX_SCORE + "）：" + value);
+            return;
+        }
+        Score after = new Score(row.getStudentId(), row.getStudentName(), row.getSubject(), score, row.getRecordTime());
+        after.setId(row.getId());
+        // 在事件线程上提交，不等待：待保存的修改已达上限时直接提示，避免界面卡住
+        try {
+            if (!writeBehind.submit(row, after, 0)) {
+                showTip("待保存的修改过多，本次修改未保存，请稍后重试");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // 关闭窗口前同步写完待保存的修改（有失败时询问是否重试），再写入成绩快照
+    private void flushEdits() {
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        try {
+            writeBehind.flush(CLOSE_TIMEOUT_MILLIS);
+            int failed = writeBehind.getFailedCount();
+            if (failed > 0 && JOptionPane.showConfirmDialog(this, failed + "条成绩修改保存失败，是否重试？",
+                    "提示", JOptionPane.YES_NO_OPTION) == JOptionPane.YES_OPTION) {
+                writeBehind.retryFailed();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int unsaved = writeBehind.close(CLOSE_TIMEOUT_MILLIS);
+        // 已保存的修改都已同步到成绩存储，立即写入快照，下次启动不必因快照过期而从数据库加载
+        DaoFactory.saveScoreSnapshot();
+        if (unsaved > 0) {
+            JOptionPane.showMessageDialog(this, unsaved + "条成绩修改未能保存，详见日志",
+                    "错误", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    // 按保存状态为行着色：待保存为黄色，保存失败为红色（提示中显示失败原因）
+    private class EditStateRenderer extends DefaultTableCellRenderer {
+        @Override
+        public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+                                                       boolean hasFocus, int row, int column) {
+            super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+            Score score = tableModel.getRow(row);
+            ScoreWriteBehind.State state = score == null ? null : writeBehind.getState(score.getId());
+            if (!isSelected) {
+                setBackground(state == ScoreWriteBehind.State.PENDING ? PENDING_COLOR
+                        : state == ScoreWriteBehind.State.FAILED ? FAILED_COLOR : table.getBackground());
+            }
+            setToolTipText(state == null ? null : state == ScoreWriteBehind.State.FAILED
+                    ? state.getLabel() + "：" + writeBehind.getFailure(score.getId()) : state.getLabel());
+            return this;
+        }
+    }
+
+    // 在排序列的列名后显示升序/降序箭头
+    private void updateSortHeader() {
+        for (int i = 0; i < dataTable.getColumnCount(); i++) {
+            int column = dataTable.convertColumnIndexToModel(i);
+            String name = COLUMN_NAMES[column];
+            if (column == tableModel.getSortColumn()) {
+                name += tableModel.isAscending() ? " ▲" : " ▼";
+            }
+            dataTable.getColumnModel().getColumn(i).setHeaderValue(name);
+        }
+        dataTable.getTableHeader().repaint();
+    }
+
+    /**
+     * 选择CSV文件并批量导入成绩（后台流式导入，对话框显示进度和失败的行）
+     */
+    private void importScores() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("选择成绩文件（学号,姓名,科目,成绩[,录入时间]）");
+        chooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter("CSV/文本文件", "csv", "txt"));
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        new ScoreImportDialog(this, chooser.getSelectedFile()).start();
+        // 导入对话框为模态，关闭后重新查询总行数
+        tableModel.refresh();
+    }
+
+    /**
+     * 选择保存位置并导出为CSV（后台流式导出，对话框显示进度，可以取消）
+     */
+    private void exportData(ScoreExporter.Target target) {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("导出" + target.getLabel());
+        chooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter("CSV文件", "csv"));
+        chooser.setSelectedFile(new java.io.File(target == ScoreExporter.Target.SCORES ? "scores.csv" : "students.csv"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        java.io.File file = chooser.getSelectedFile();
+        if (!file.getName().contains(".")) {
+            file = new java.io.File(file.getParentFile(), file.getName() + ".csv");
+        }
+        if (file.exists() && JOptionPane.showConfirmDialog(this, file.getName() + "已存在，是否覆盖？",
+                "提示", JOptionPane.YES_NO_OPTION) != JOptionPane.YES_OPTION) {
+            return;
+        }
+        new ScoreExportDialog(this, target, file).start();
     }
 
     /**
@@ -318,7 +599,42 @@ public class ScoreSystemMainFrame extends JFrame {
         JOptionPane.showMessageDialog(this, message, "提示", JOptionPane.INFORMATION_MESSAGE);
     }
 
+    /**
+     * 在后台线程初始化主界面用到的DAO（首次使用时创建连接池、写入队列和撤销历史），完成后在EDT中创建并显示主界面
+     * 构造方法只取用已初始化的实例，不在EDT中建连或读写文件
+     * @param replaced 主界面显示后关闭的窗口（如登录界面）；初始化期间禁用，失败时恢复，一直显示到主界面出现，程序不会因没有窗口而退出
+     */
+    public static void open(Window replaced) {
+        replaced.setEnabled(false);
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() {
+                DaoFactory.getScoreDao();
+                DaoFactory.getScoreWriteBehind();
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    get();
+                    new ScoreSystemMainFrame().setVisible(true);
+                    replaced.dispose();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    replaced.setEnabled(true);
+                    JOptionPane.showMessageDialog(replaced, "主界面初始化失败：" + e.getCause().getMessage(),
+                            "错误", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
+
     public static void main(String[] args) {
+        // DAO在主线程中初始化（SwingWorker是守护线程，没有窗口时程序可能在初始化完成前退出）
+        DaoFactory.getScoreDao();
+        DaoFactory.getScoreWriteBehind();
         // Swing单线程模型：所有UI操作放在事件调度线程中执行
         SwingUtilities.invokeLater(() -> {
             ScoreSystemMainFrame frame = new ScoreSystemMainFrame();
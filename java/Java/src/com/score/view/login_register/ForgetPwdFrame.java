@@ -1,13 +1,16 @@
 package com.score.view.login_register;
 
 import com.score.dao.User;
-import com.score.entity.UserDao;
-import com.score.entity.UserDaoImpl;
+import com.score.entity.AsyncUserDao;
+import com.score.entity.DaoFactory;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 忘记密码界面（优化版：用户名+邮箱+手机号三重验证 + 密码重置同步数据库）
@@ -15,7 +18,8 @@ import java.awt.event.ActionListener;
 public class ForgetPwdFrame extends JDialog {
     private JTextField usernameField, emailField, telField; // 新增：tel手机号文本框
     private JPasswordField newPwdField, confirmPwdField;
-    private UserDao userDao = new UserDaoImpl();
+    private AsyncUserDao userDao = DaoFactory.getAsyncUserDao(); // 异步DAO，不阻塞EDT
+    private CompletableFuture<?> pendingRequest; // 进行中的数据库请求（窗口关闭时取消）
     private boolean isAuthSuccess = false; // 身份验证标记
 
     public ForgetPwdFrame() {
@@ -29,6 +33,15 @@ public class ForgetPwdFrame extends JDialog {
         setLocationRelativeTo(null);
         setResizable(false);
         setLayout(new BorderLayout(10, 10));
+        // 关闭窗口时取消尚未完成的数据库请求
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                if (pendingRequest != null) {
+                    pendingRequest.cancel(true);
+                }
+            }
+        });
     }
 
     private void initComponents() {
@@ -122,6 +135,7 @@ public class ForgetPwdFrame extends JDialog {
                 String username = usernameField.getText().trim();
                 String email = emailField.getText().trim();
                 String tel = telField.getText().trim();
+                authTipLabel.setForeground(Color.RED);
 
                 // 2. 基础非空校验
                 if (username.isEmpty() || email.isEmpty() || tel.isEmpty()) {
@@ -135,38 +149,25 @@ public class ForgetPwdFrame extends JDialog {
                     return;
                 }
 
-                // 4. 调用DAO查询数据库，比对三重信息
-                User user = userDao.getUserByUsernameAndEmail(username, email);
-                if (user != null) {
-                    // 额外比对手机号（和数据库中的tel字段匹配）
-                    String dbTel = user.getTel(); // 从数据库获取绑定的手机号
-                    if (tel.equals(dbTel)) {
-                        // 验证成功
-                        isAuthSuccess = true;
-                        authTipLabel.setForeground(Color.GREEN);
-                        authTipLabel.setText("验证成功！请设置新密码");
-                        pwdResetPanel.setVisible(true);
-                        resetBtn.setEnabled(true);
-                        // 锁定输入框，防止篡改
-                        usernameField.setEditable(false);
-                        emailField.setEditable(false);
-                        telField.setEditable(false);
-                    } else {
-                        // 手机号不匹配
+                // 4. 异步调用DAO查询数据库，比对三重信息（结果回到EDT处理）
+                authBtn.setEnabled(false);
+                authTipLabel.setForeground(Color.GRAY);
+                authTipLabel.setText("正在验证...");
+                CompletableFuture<User> future = userDao.getUserByUsernameAndEmail(username, email);
+                pendingRequest = future;
+                future.whenComplete((user, ex) -> SwingUtilities.invokeLater(() -> {
+                    authBtn.setEnabled(true);
+                    if (!isDisplayable()) {
+                        return; // 窗口已关闭，忽略结果
+                    }
+                    if (ex != null) {
                         isAuthSuccess = false;
                         authTipLabel.setForeground(Color.RED);
-                        authTipLabel.setText("手机号与账户绑定的不一致！");
-                        pwdResetPanel.setVisible(false);
-                        resetBtn.setEnabled(false);
+                        authTipLabel.setText("验证失败：" + AsyncUserDao.describeFailure(ex));
+                        return;
                     }
-                } else {
-                    // 用户名/邮箱不匹配
-                    isAuthSuccess = false;
-                    authTipLabel.setForeground(Color.RED);
-                    authTipLabel.setText("用户名或邮箱不匹配！");
-                    pwdResetPanel.setVisible(false);
-                    resetBtn.setEnabled(false);
-                }
+                    onAuthResult(user, tel, authTipLabel, pwdResetPanel, resetBtn);
+                }));
             }
         });
 
@@ -203,18 +204,27 @@ public class ForgetPwdFrame extends JDialog {
                     return;
                 }
 
-                // 3. 调用DAO重置密码（更新数据库）
-                boolean isSuccess = userDao.resetPassword(username, newPwd);
-                if (isSuccess) {
-                    JOptionPane.showMessageDialog(ForgetPwdFrame.this,
-                            "密码重置成功！新密码已同步到数据库", "成功", JOptionPane.INFORMATION_MESSAGE);
-                    dispose(); // 关闭窗口
-                    // 可选：跳转到登录界面
-                    new LoginFrame().setVisible(true);
-                } else {
-                    JOptionPane.showMessageDialog(ForgetPwdFrame.this,
-                            "密码重置失败！请检查数据库连接或重试", "错误", JOptionPane.ERROR_MESSAGE);
-                }
+                // 3. 异步调用DAO重置密码（更新数据库），结果回到EDT处理
+                resetBtn.setEnabled(false);
+                CompletableFuture<Boolean> future = userDao.resetPassword(username, newPwd);
+                pendingRequest = future;
+                future.whenComplete((isSuccess, ex) -> SwingUtilities.invokeLater(() -> {
+                    resetBtn.setEnabled(true);
+                    if (!isDisplayable()) {
+                        return; // 窗口已关闭，忽略结果
+                    }
+                    if (ex == null && Boolean.TRUE.equals(isSuccess)) {
+                        JOptionPane.showMessageDialog(ForgetPwdFrame.this,
+                                "密码重置成功！新密码已同步到数据库", "成功", JOptionPane.INFORMATION_MESSAGE);
+                        dispose(); // 关闭窗口
+                        // 可选：跳转到登录界面
+                        new LoginFrame().setVisible(true);
+                    } else {
+                        String reason = ex != null ? AsyncUserDao.describeFailure(ex) : "请检查数据库连接或重试";
+                        JOptionPane.showMessageDialog(ForgetPwdFrame.this,
+                                "密码重置失败！" + reason, "错误", JOptionPane.ERROR_MESSAGE);
+                    }
+                }));
             }
         });
 
@@ -227,6 +237,42 @@ public class ForgetPwdFrame extends JDialog {
         });
     }
 
+    /**
+     * 处理身份验证结果（在EDT中执行）
+     */
+    private void onAuthResult(User user, String tel, JLabel authTipLabel, JPanel pwdResetPanel, JButton resetBtn) {
+        if (user != null) {
+            // 额外比对手机号（和数据库中的tel字段匹配）
+            String dbTel = user.getTel(); // 从数据库获取绑定的手机号
+            if (tel.equals(dbTel)) {
+                // 验证成功
+                isAuthSuccess = true;
+                authTipLabel.setForeground(Color.GREEN);
+                authTipLabel.setText("验证成功！请设置新密码");
+                pwdResetPanel.setVisible(true);
+                resetBtn.setEnabled(true);
+                // 锁定输入框，防止篡改
+                usernameField.setEditable(false);
+                emailField.setEditable(false);
+                telField.setEditable(false);
+            } else {
+                // 手机号不匹配
+                isAuthSuccess = false;
+                authTipLabel.setForeground(Color.RED);
+                authTipLabel.setText("手机号与账户绑定的不一致！");
+                pwdResetPanel.setVisible(false);
+                resetBtn.setEnabled(false);
+            }
+        } else {
+            // 用户名/邮箱不匹配
+            isAuthSuccess = false;
+            authTipLabel.setForeground(Color.RED);
+            authTipLabel.setText("用户名或邮箱不匹配！");
+            pwdResetPanel.setVisible(false);
+            resetBtn.setEnabled(false);
+        }
+    }
+
     // 测试主方法（可选）
     public static void main(String[] args) {
         SwingUtilities.invokeLater(() -> new ForgetPwdFrame().setVisible(true));
@@ -1,14 +1,17 @@
 package com.score.view.login_register;
 
 import com.score.dao.User;
-import com.score.entity.UserDao;
-import com.score.entity.UserDaoImpl;
+import com.score.entity.AsyncUserDao;
+import com.score.entity.DaoFactory;
 import com.score.view.ScoreSystemMainFrame;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 登录界面（适配user_data表+增强验证逻辑）
@@ -16,7 +19,8 @@ import java.awt.event.ActionListener;
 public class LoginFrame extends JFrame {
     private JTextField usernameField;
     private JPasswordField passwordField;
-    private UserDao userDao = new UserDaoImpl(); // 关联数据库DAO
+    private AsyncUserDao userDao = DaoFactory.getAsyncUserDao(); // 关联数据库DAO（异步，不阻塞EDT）
+    private CompletableFuture<User> pendingLogin; // 进行中的登录请求（窗口关闭时取消）
 
     public LoginFrame() {
         initFrame();
@@ -30,6 +34,15 @@ public class LoginFrame extends JFrame {
         setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE); // 关闭时不退出程序
         setResizable(false);
         setLayout(new BorderLayout(10, 10));
+        // 关闭窗口时取消尚未完成的数据库请求
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                if (pendingLogin != null) {
+                    pendingLogin.cancel(true);
+                }
+            }
+        });
     }
 
     private void initComponents() {
@@ -107,21 +120,13 @@ public class LoginFrame extends JFrame {
                     return;
                 }
 
-                // 2. 调用DAO查询数据库（验证user_data表中的username和password）
-                User user = userDao.login(username, password);
-                if (user != null) {
-                    // 验证成功：跳转主界面
-                    JOptionPane.showMessageDialog(LoginFrame.this,
-                            "登录成功！欢迎你，" + user.getName(), "成功", JOptionPane.INFORMATION_MESSAGE);
-                    dispose();
-                    new ScoreSystemMainFrame().setVisible(true);
-                } else {
-                    // 验证失败：提示错误
-                    JOptionPane.showMessageDialog(LoginFrame.this,
-                            "用户名或密码错误！", "错误", JOptionPane.ERROR_MESSAGE);
-                    usernameField.setText("");
-                    passwordField.setText("");
-                }
+                // 2. 异步调用DAO查询数据库（验证user_data表中的username和password），结果回到EDT处理
+                loginBtn.setEnabled(false);
+                pendingLogin = userDao.login(username, password);
+                pendingLogin.whenComplete((user, ex) -> SwingUtilities.invokeLater(() -> {
+                    loginBtn.setEnabled(true);
+                    onLoginResult(user, ex);
+                }));
             }
         });
 
@@ -142,4 +147,37 @@ public class LoginFrame extends JFrame {
             }
         });
     }
+
+    /**
+     * 处理登录结果（在EDT中执行）
+     */
+    private void onLoginResult(User user, Throwable ex) {
+        if (!isDisplayable()) {
+            return; // 窗口已关闭，忽略结果
+        }
+        if (ex != null) {
+            // 被限流：提示稍后重试，保留已输入的用户名
+            boolean throttled = AsyncUserDao.isThrottled(ex);
+            JOptionPane.showMessageDialog(LoginFrame.this,
+                    "登录失败：" + AsyncUserDao.describeFailure(ex), throttled ? "提示" : "错误",
+                    throttled ? JOptionPane.WARNING_MESSAGE : JOptionPane.ERROR_MESSAGE);
+            if (throttled) {
+                passwordField.setText("");
+            }
+            return;
+        }
+        if (user != null) {
+            // 验证成功：跳转主界面
+            JOptionPane.showMessageDialog(LoginFrame.this,
+                    "登录成功！欢迎你，" + user.getName(), "成功", JOptionPane.INFORMATION_MESSAGE);
+            // DAO在后台初始化，主界面显示后再关闭登录界面
+            ScoreSystemMainFrame.open(this);
+        } else {
+            // 验证失败：提示错误
+            JOptionPane.showMessageDialog(LoginFrame.this,
+                    "用户名或密码错误！", "错误", JOptionPane.ERROR_MESSAGE);
+            usernameField.setText("");
+            passwordField.setText("");
+        }
+    }
 }
\ No newline at end of file
@@ -1,8 +1,8 @@
 package com.score.view.login_register;
 
 import com.score.dao.User;
-import com.score.entity.UserDao;
-import com.score.entity.UserDaoImpl;
+import com.score.entity.AsyncUserDao;
+import com.score.entity.DaoFactory;
 
 import javax.swing.*;
 import java.awt.*;
@@ -10,7 +10,9 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.sql.SQLException;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 注册界面（最终适配数据库版：tel为11位字符串）
@@ -18,7 +20,8 @@ import java.sql.SQLException;
 public class RegisterFrame extends JFrame {
     private JTextField usernameField, nameField, sexField, telField, emailField;
     private JPasswordField passwordField, confirmPwdField;
-    private UserDao userDao = new UserDaoImpl();
+    private AsyncUserDao userDao = DaoFactory.getAsyncUserDao(); // 异步DAO，不阻塞EDT
+    private CompletableFuture<Boolean> pendingRegister; // 进行中的注册请求（窗口关闭时取消）
 
     public RegisterFrame() {
         initFrame();
@@ -32,6 +35,15 @@ public class RegisterFrame extends JFrame {
         setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
         setResizable(false);
         getContentPane().setBackground(new Color(242, 242, 242));
+        // 关闭窗口时取消尚未完成的数据库请求
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                if (pendingRegister != null) {
+                    pendingRegister.cancel(true);
+                }
+            }
+        });
     }
 
     private void initComponents() {
@@ -232,25 +244,19 @@ public class RegisterFrame extends JFrame {
                     user.setPassword(password);
                     user.setTitle("普通用户");
 
-                    // 6. 写入数据库
-                    if (userDao.addUser(user)) {
-                        JOptionPane.showMessageDialog(RegisterFrame.this,
-                                "注册成功！数据已写入数据库", "成功", JOptionPane.INFORMATION_MESSAGE);
-                        dispose(); // 关闭注册窗口
-                        new LoginFrame().setVisible(true); // 跳转到登录界面
-                    } else {
-                        throw new SQLException("用户名已存在，注册失败");
-                    }
+                    // 6. 异步预检查用户名（过滤器判定不存在时无需查库），未被占用再写入数据库，结果回到EDT处理
+                    registerBtn.setEnabled(false);
+                    pendingRegister = userDao.existsUsername(username)
+                            .thenCompose(taken -> taken ? CompletableFuture.completedFuture(false) : userDao.addUser(user));
+                    pendingRegister.whenComplete((success, ex) -> SwingUtilities.invokeLater(() -> {
+                        registerBtn.setEnabled(true);
+                        onRegisterResult(success, ex);
+                    }));
 
                 } catch (IllegalArgumentException ex) {
                     // 输入格式错误提示
                     JOptionPane.showMessageDialog(RegisterFrame.this,
                             ex.getMessage(), "输入错误", JOptionPane.WARNING_MESSAGE);
-                } catch (SQLException ex) {
-                    // 数据库错误提示
-                    JOptionPane.showMessageDialog(RegisterFrame.this,
-                            ex.getMessage(), "数据库错误", JOptionPane.ERROR_MESSAGE);
-                    usernameField.setText(""); // 清空重复的用户名
                 } catch (Exception ex) {
                     // 其他未知错误
                     JOptionPane.showMessageDialog(RegisterFrame.this,
@@ -269,6 +275,29 @@ public class RegisterFrame extends JFrame {
         });
     }
 
+    /**
+     * 处理注册结果（在EDT中执行）
+     */
+    private void onRegisterResult(Boolean success, Throwable ex) {
+        if (!isDisplayable()) {
+            return; // 窗口已关闭，忽略结果
+        }
+        if (ex != null) {
+            JOptionPane.showMessageDialog(RegisterFrame.this,
+                    "注册失败：" + AsyncUserDao.describeFailure(ex), "系统错误", JOptionPane.ERROR_MESSAGE);
+        } else if (Boolean.TRUE.equals(success)) {
+            JOptionPane.showMessageDialog(RegisterFrame.this,
+                    "注册成功！数据已写入数据库", "成功", JOptionPane.INFORMATION_MESSAGE);
+            dispose(); // 关闭注册窗口
+            new LoginFrame().setVisible(true); // 跳转到登录界面
+        } else {
+            // 数据库错误提示
+            JOptionPane.showMessageDialog(RegisterFrame.this,
+                    "用户名已存在，注册失败", "数据库错误", JOptionPane.ERROR_MESSAGE);
+            usernameField.setText(""); // 清空重复的用户名
+        }
+    }
+
     // 主方法（测试用）
     public static void main(String[] args) {
         SwingUtilities.invokeLater(() -> new RegisterFrame().setVisible(true));